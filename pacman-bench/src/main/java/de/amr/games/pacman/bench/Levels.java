@@ -0,0 +1,76 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.bench;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameVariant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates game levels in a reproducible state for the benchmarks.
+ *
+ * @author Armin Reichert
+ */
+class Levels {
+
+	static final long SEED = 42;
+
+	private Levels() {
+	}
+
+	/**
+	 * Creates an autopilot session and runs it until the first level is in hunting state. Pac-Man is immune, so the
+	 * level can be simulated for a long time without state changes.
+	 *
+	 * @param variant          game variant
+	 * @param eatenFoodPercent percentage of the food that is removed from the world, chosen randomly (seeded)
+	 * @return session in hunting state
+	 */
+	static GameSession huntingSession(GameVariant variant, int eatenFoodPercent) {
+		var session = new GameSession(variant, SEED);
+		session.game().setHighScoreFileEnabled(false);
+		session.setCredit(1);
+		session.setAutoControlled(true);
+		session.setImmune(true);
+		session.restart(GameState.READY);
+		while (session.state() != GameState.HUNTING) {
+			session.update();
+		}
+		eatFood(level(session), eatenFoodPercent);
+		return session;
+	}
+
+	static GameLevel level(GameSession session) {
+		return session.game().level().orElseThrow();
+	}
+
+	static void eatFood(GameLevel level, int percent) {
+		var world = level.world();
+		List<Vector2i> foodTiles = new ArrayList<>(world.tiles().filter(world::hasFoodAt).toList());
+		Collections.shuffle(foodTiles, new Random(SEED));
+		int count = foodTiles.size() * percent / 100;
+		for (int i = 0; i < count; ++i) {
+			world.removeFood(foodTiles.get(i));
+		}
+	}
+
+	/**
+	 * @param level game level
+	 * @return all tiles of the world that are accessible and do not belong to a portal or the house, in row order
+	 */
+	static Vector2i[] walkableTiles(GameLevel level) {
+		var world = level.world();
+		return world.tiles()
+			.filter(tile -> !world.isWall(tile) && !world.belongsToPortal(tile) && !world.house().contains(tile))
+			.toArray(Vector2i[]::new);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.bench;
+
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.RuleBasedSteering;
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameModel;
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.model.actors.Ghost;
+import de.amr.games.pacman.model.actors.Pac;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-tile decisions of the creatures: ghost navigation towards the target tile (which computes the
+ * target direction) and the Pac-Man autopilot.
+ * <p>
+ * The creature is placed on a different tile before each decision, so the decision is never skipped because the
+ * creature is still on the same tile.
+ *
+ * @author Armin Reichert
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigationBenchmark {
+
+	@Param({"PACMAN", "MS_PACMAN"})
+	GameVariant variant;
+
+	private GameLevel level;
+	private Ghost ghost;
+	private Pac pac;
+	private RuleBasedSteering autopilot;
+	private Vector2i[] tiles;
+	private int tileIndex;
+
+	@Setup(Level.Trial)
+	public void createLevel() {
+		level = Levels.level(Levels.huntingSession(variant, 0));
+		ghost = level.ghost(GameModel.RED_GHOST);
+		pac = level.pac();
+		autopilot = new RuleBasedSteering();
+		tiles = Levels.walkableTiles(level);
+	}
+
+	private Vector2i nextTile() {
+		tileIndex = (tileIndex + 1) % tiles.length;
+		return tiles[tileIndex];
+	}
+
+	@Benchmark
+	public Direction ghostNavigateTowardsTarget() {
+		ghost.setMoveAndWishDir(Direction.LEFT);
+		ghost.placeAtTile(nextTile(), 0, 0);
+		ghost.setTargetTile(level.ghostScatterTarget(GameModel.ORANGE_GHOST));
+		ghost.navigateTowardsTarget();
+		return ghost.wishDir();
+	}
+
+	@Benchmark
+	public Direction autopilotSteer() {
+		pac.setMoveAndWishDir(Direction.LEFT);
+		pac.placeAtTile(nextTile(), 0, 0);
+		autopilot.steer(level, pac);
+		return pac.wishDir();
+	}
+}
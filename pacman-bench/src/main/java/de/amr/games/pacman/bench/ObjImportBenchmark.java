@@ -0,0 +1,46 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.bench;
+
+import de.amr.games.pacman.ui.fx.v3d.objimport.ObjImporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the 3D models of Pac-Man and the ghosts. No JavaFX toolkit is needed for creating the meshes.
+ *
+ * @author Armin Reichert
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjImportBenchmark {
+
+	private static final String MODEL_DIR = "/de/amr/games/pacman/ui/fx/v3d/model3D/";
+
+	@Param({"pacman.obj", "ghost.obj"})
+	String modelFile;
+
+	private String url;
+
+	@Setup(Level.Trial)
+	public void locateModel() {
+		var resource = ObjImporter.class.getResource(MODEL_DIR + modelFile);
+		if (resource == null) {
+			throw new IllegalArgumentException("Model file not found: " + modelFile);
+		}
+		url = resource.toExternalForm();
+	}
+
+	@Benchmark
+	public ObjImporter importModel() throws IOException {
+		return new ObjImporter(url);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.bench;
+
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameVariant;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GameLevel#simulateOneFrame()} at different food densities.
+ * <p>
+ * Each invocation simulates {@link #FRAMES} frames of a fresh hunting level (5 seconds game time), so the level does
+ * not run out of food during the measurement. The reported time is per frame.
+ *
+ * @author Armin Reichert
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+	static final int FRAMES = 300;
+
+	@Param({"PACMAN", "MS_PACMAN"})
+	GameVariant variant;
+
+	@Param({"0", "50", "90"})
+	int eatenFoodPercent;
+
+	private GameLevel level;
+
+	@Setup(Level.Invocation)
+	public void createLevel() {
+		level = Levels.level(Levels.huntingSession(variant, eatenFoodPercent));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public void simulateOneFrame(Blackhole bh) {
+		for (int i = 0; i < FRAMES; ++i) {
+			level.simulateOneFrame();
+		}
+		bh.consume(level.pac().position());
+	}
+}
@@ -0,0 +1,49 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.bench;
+
+import de.amr.games.pacman.model.world.ArcadeWorld;
+import de.amr.games.pacman.model.world.FloorPlan;
+import de.amr.games.pacman.model.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures world construction (including the precomputed tables) and the floor plan generation used for the 3D maze.
+ *
+ * @author Armin Reichert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldBenchmark {
+
+	@State(Scope.Thread)
+	public static class FloorPlanInput {
+
+		@Param({"4", "8"})
+		int resolution;
+
+		World world;
+
+		@Setup(Level.Trial)
+		public void createWorld() {
+			world = ArcadeWorld.createPacManWorld();
+		}
+	}
+
+	@Benchmark
+	public World createPacManWorld() {
+		return ArcadeWorld.createPacManWorld();
+	}
+
+	@Benchmark
+	public FloorPlan createFloorPlan(FloorPlanInput input) {
+		return new FloorPlan(input.world, input.resolution);
+	}
+}
@@ -0,0 +1,340 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.event.GameEvent;
+import de.amr.games.pacman.event.GameEventBus;
+import de.amr.games.pacman.event.GameEventListener;
+import de.amr.games.pacman.event.GameEventType;
+import de.amr.games.pacman.event.GameStateChangeEvent;
+import de.amr.games.pacman.lib.FrameProfiler;
+import de.amr.games.pacman.lib.Fsm;
+import de.amr.games.pacman.lib.RuleBasedSteering;
+import de.amr.games.pacman.lib.SplitMixRandom;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameModel;
+import de.amr.games.pacman.model.GameVariant;
+import org.tinylog.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static de.amr.games.pacman.lib.Globals.checkGameVariant;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * A self-contained game session: game state machine (with its own state timers), game model, event listeners,
+ * credit and steering.
+ * <p>
+ * Sessions do not share any mutable state, so any number of them can live in the same JVM and be updated from
+ * different threads (each session by one thread at a time). The model and the game states reach their session via
+ * {@link GameModel#session()} and the state machine context, not via a static singleton.
+ * <p>
+ * Each session has its own seedable random generator. Every game level splits its own generator off it, so a session
+ * started with the same seed and fed the same inputs replays exactly.
+ * <p>
+ * Usage for a headless game:
+ * <pre>
+ * var session = new GameSession(GameVariant.PACMAN);
+ * session.setCredit(1);
+ * session.setAutoControlled(true);
+ * session.restart(GameState.BOOT);
+ * while (...) {
+ *     session.update();
+ * }
+ * </pre>
+ *
+ * @author Armin Reichert
+ */
+public class GameSession extends Fsm<GameState, GameSession> {
+
+	private final GameEventBus eventBus = new GameEventBus();
+	private final FrameProfiler profiler = new FrameProfiler();
+	private final FrameProfiler.Probe updateProbe = profiler.probe("Game update");
+	private final Steering autopilot = new RuleBasedSteering();
+	private final StateHash stateHasher = new StateHash();
+	private long stateHash;
+	private boolean stateHashComputed = true; // hash is 0 before the first update
+	private Steering manualSteering = Steering.none();
+	private int credit;
+	private boolean autoControlled;
+	private boolean immune;
+	private GameModel game;
+	private long seed;
+	private SplitMixRandom rnd;
+
+	/** Used in intermission test mode. */
+	public int intermissionTestNumber;
+
+	/**
+	 * Creates a game session with a new game model of the given variant.
+	 *
+	 * @param variant game variant to select
+	 */
+	public GameSession(GameVariant variant) {
+		this(variant, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Creates a game session with a new game model of the given variant and a random generator with the given seed.
+	 *
+	 * @param variant game variant to select
+	 * @param seed    seed of the session random generator
+	 */
+	public GameSession(GameVariant variant, long seed) {
+		super(GameState.values());
+		checkGameVariant(variant);
+		setSeed(seed);
+		game = new GameModel(variant, this);
+		// map FSM state change events to game events
+		addStateChangeListener((oldState, newState) -> {
+			if (eventBus.hasSubscribers(GameEventType.GAME_STATE_CHANGED)) {
+				publishGameEvent(new GameStateChangeEvent(game, oldState, newState));
+			}
+		});
+	}
+
+	public void newGame(GameVariant variant) {
+		checkGameVariant(variant);
+		game = new GameModel(variant, this);
+	}
+
+	@Override
+	public GameSession context() {
+		return this;
+	}
+
+	public GameModel game() {
+		return game;
+	}
+
+	/** @return seed the session random generator has been (re-)initialized with */
+	public long seed() {
+		return seed;
+	}
+
+	/**
+	 * Re-initializes the session random generator. Levels created afterwards get generators derived from this seed.
+	 *
+	 * @param seed new seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		rnd = new SplitMixRandom(seed);
+	}
+
+	/** @return session random generator, levels split their own generator off it */
+	public SplitMixRandom random() {
+		return rnd;
+	}
+
+	/** @return number of coins inserted. */
+	public int credit() {
+		return credit;
+	}
+
+	public boolean setCredit(int credit) {
+		if (0 <= credit && credit <= GameModel.MAX_CREDIT) {
+			this.credit = credit;
+			return true;
+		}
+		return false;
+	}
+
+	public boolean changeCredit(int delta) {
+		return setCredit(credit + delta);
+	}
+
+	public boolean hasCredit() {
+		return credit > 0;
+	}
+
+	public boolean isAutoControlled() {
+		return autoControlled;
+	}
+
+	public void setAutoControlled(boolean autoControlled) {
+		this.autoControlled = autoControlled;
+	}
+
+	public void toggleAutoControlled() {
+		autoControlled = !autoControlled;
+	}
+
+	public boolean isImmune() {
+		return immune;
+	}
+
+	public void setImmune(boolean immune) {
+		this.immune = immune;
+	}
+
+	public Steering steering() {
+		return autoControlled ? autopilot : manualSteering;
+	}
+
+	public Steering manualSteering() {
+		return manualSteering;
+	}
+
+	public void setManualSteering(Steering steering) {
+		checkNotNull(steering);
+		this.manualSteering = steering;
+	}
+
+	public void startPlaying() {
+		if (!hasCredit()) {
+			Logger.error("Cannot start playing: no credit");
+			return;
+		}
+		if (currentState == GameState.INTRO || currentState == GameState.CREDIT) {
+			changeState(GameState.READY);
+		} else {
+			Logger.error("Cannot start playing when in game state {}", currentState);
+		}
+	}
+
+	public void startCutscenesTest(int cutSceneNumber) {
+		if (currentState == GameState.INTRO) {
+			intermissionTestNumber = cutSceneNumber;
+			changeState(GameState.INTERMISSION_TEST);
+		} else {
+			Logger.error("Cutscenes test can only be started from intro");
+		}
+	}
+
+	/**
+	 * Updates the game state machine and completes the frame of the profiler. The state hash of the new state is
+	 * computed when it is requested, see {@link #stateHash()}.
+	 */
+	@Override
+	public void update() {
+		long start = updateProbe.start();
+		super.update();
+		stateHashComputed = false;
+		updateProbe.stop(start);
+		profiler.frameCompleted();
+	}
+
+	/**
+	 * Returns a 64-bit hash of the complete simulation state after the last update: game state and its timer, credit,
+	 * score, lives, actor positions, directions and states, eaten food, level timers and the number of random values
+	 * drawn. Two sessions created with the same seed and fed the same inputs have the same sequence of state hashes, so
+	 * comparing these sequences finds the first frame where a change of the simulation code alters the game behavior.
+	 *
+	 * <p>
+	 * The hash is computed on the first call after an update, so sessions whose hash nobody asks for (user interface,
+	 * headless runs) do not pay for it. Callers comparing frames (golden traces, replays) must call this method after
+	 * the update, before the state is changed otherwise.
+	 *
+	 * @return hash of the state after the last call of {@link #update()}, 0 before the first update
+	 */
+	public long stateHash() {
+		if (!stateHashComputed) {
+			stateHash = computeStateHash();
+			stateHashComputed = true;
+		}
+		return stateHash;
+	}
+
+	/**
+	 * Computes the hash of the current simulation state, see {@link #stateHash()}. Does not create any objects.
+	 *
+	 * @return hash of the current simulation state
+	 */
+	public long computeStateHash() {
+		stateHasher.reset().add(currentState).add(credit).add(autoControlled).add(immune);
+		if (currentState != null) {
+			timer().hashState(stateHasher);
+		}
+		steering().hashState(stateHasher);
+		game.hashState(stateHasher);
+		return stateHasher.value();
+	}
+
+	/**
+	 * Writes the complete simulation state (the state covered by {@link #stateHash()} plus the timers of all game states
+	 * and the random generators) to the snapshot buffer. Event listeners, steering objects and the high score are not
+	 * part of the state. Does not create any objects once the buffer has grown to the snapshot size.
+	 *
+	 * @param buffer snapshot buffer, the state is appended to its content
+	 */
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putInt(credit).putBoolean(autoControlled).putBoolean(immune).putInt(intermissionTestNumber)
+			.putBoolean(manualSteering.isEnabled());
+		autopilot.saveState(buffer);
+		game.saveState(buffer);
+		rnd.saveState(buffer);
+	}
+
+	/**
+	 * Restores the state written by {@link #saveState(StateBuffer)} into this session. The game variant must be the
+	 * same. If the saved game level has another number, the level is created again. Afterwards, a
+	 * {@link GameEventType#UNSPECIFIED_CHANGE} event is published, so user interfaces can update their views.
+	 *
+	 * @param buffer snapshot buffer, read from its current position
+	 */
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		credit = buffer.getInt();
+		autoControlled = buffer.getBoolean();
+		immune = buffer.getBoolean();
+		intermissionTestNumber = buffer.getInt();
+		manualSteering.setEnabled(buffer.getBoolean());
+		autopilot.restoreState(buffer);
+		// a level created again splits its generator off the session generator, so restore the latter afterwards
+		game.restoreState(buffer);
+		rnd.restoreState(buffer);
+		stateHash = computeStateHash();
+		stateHashComputed = true;
+		publishGameEvent(GameEventType.UNSPECIFIED_CHANGE);
+	}
+
+	/** @return frame profiler of this session, disabled by default */
+	public FrameProfiler profiler() {
+		return profiler;
+	}
+
+	// Events
+
+	/** @return event bus of this session, use it to subscribe to specific event types */
+	public GameEventBus eventBus() {
+		return eventBus;
+	}
+
+	/**
+	 * Subscribes the listener to all event types.
+	 *
+	 * @param gameEventListener event listener
+	 */
+	public void addListener(GameEventListener gameEventListener) {
+		eventBus.subscribe(gameEventListener);
+	}
+
+	public void removeListener(GameEventListener gameEventListener) {
+		eventBus.unsubscribe(gameEventListener);
+	}
+
+	public void publishGameEvent(GameEventType type) {
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("Publish game event: {}", type);
+		}
+		eventBus.publish(type, game);
+	}
+
+	public void publishGameEvent(GameEventType type, Vector2i tile) {
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("Publish game event: {} tile: {}", type, tile);
+		}
+		eventBus.publish(type, game, tile);
+	}
+
+	public void publishGameEvent(GameEvent event) {
+		Logger.trace("Publish game event: {}", event);
+		eventBus.publish(event);
+	}
+}
@@ -0,0 +1,399 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameModel;
+import de.amr.games.pacman.model.actors.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static de.amr.games.pacman.lib.Globals.HTS;
+import static de.amr.games.pacman.lib.Globals.checkGhostID;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+import static de.amr.games.pacman.lib.Globals.checkTileNotNull;
+
+/**
+ * Immutable copy of the game state a renderer needs to draw one frame: actor positions, states and animation frames,
+ * eaten food, scores, lives, level counter and credit.
+ * <p>
+ * A snapshot is captured after each simulation tick (see {@link SimulationRunner}) and can be read from any thread
+ * without synchronization while the simulation continues to modify the live model.
+ *
+ * @author Armin Reichert
+ */
+public final class GameSnapshot {
+
+	/**
+	 * State of Pac-Man or a ghost.
+	 *
+	 * @param x           x position (left-upper corner of bounding box)
+	 * @param y           y position (left-upper corner of bounding box)
+	 * @param prevX       x position before the tick
+	 * @param prevY       y position before the tick
+	 * @param moveDir     move direction
+	 * @param wishDir     wish direction
+	 * @param visible       if the actor is visible
+	 * @param moving        if the actor is moving (for Pac-Man: is not standing still)
+	 * @param enteredTunnel if the actor entered a tunnel in the tick
+	 * @param ghostState    ghost state, <code>null</code> for Pac-Man
+	 * @param killedIndex   index of killed ghost in current power period, -1 if not killed or for Pac-Man
+	 * @param powerFading   if the power of Pac-Man is fading, <code>false</code> for ghosts
+	 * @param animations    animations of the actor (or <code>null</code>), renderers use them only to look up the sprite
+	 *                      of the captured animation frame
+	 * @param animationName name of the selected animation, <code>null</code> if there is none
+	 * @param animationFrame frame index of the selected animation
+	 */
+	public record Actor(float x, float y, float prevX, float prevY, Direction moveDir, Direction wishDir,
+		boolean visible, boolean moving, boolean enteredTunnel, GhostState ghostState, byte killedIndex,
+		boolean powerFading, Animations animations, String animationName, int animationFrame) {
+
+		static Actor of(Pac pac) {
+			var animations = pac.animations().orElse(null);
+			return new Actor(pac.posX(), pac.posY(), pac.savedPosX(), pac.savedPosY(), pac.moveDir(), pac.wishDir(),
+				pac.isVisible(), !pac.isStandingStill(), pac.enteredTunnel(), null, (byte) -1, pac.isPowerFading(),
+				animations, animationName(animations), animationFrame(animations));
+		}
+
+		static Actor of(Ghost ghost) {
+			var animations = ghost.animations().orElse(null);
+			return new Actor(ghost.posX(), ghost.posY(), ghost.savedPosX(), ghost.savedPosY(), ghost.moveDir(),
+				ghost.wishDir(), ghost.isVisible(), ghost.velocity().length() != 0, ghost.enteredTunnel(), ghost.state(),
+				ghost.killedIndex(), false, animations, animationName(animations), animationFrame(animations));
+		}
+
+		private static String animationName(Animations animations) {
+			return animations != null ? animations.currentAnimationName() : null;
+		}
+
+		private static int animationFrame(Animations animations) {
+			return animations != null ? animations.currentFrameIndex() : 0;
+		}
+
+		public boolean is(GhostStateSet states) {
+			return ghostState != null && states.contains(ghostState);
+		}
+
+		/** @return x coordinate of the center of the bounding box */
+		public float centerX() {
+			return x + HTS;
+		}
+
+		/** @return y coordinate of the center of the bounding box */
+		public float centerY() {
+			return y + HTS;
+		}
+	}
+
+	/**
+	 * State of the bonus.
+	 *
+	 * @param symbol     bonus symbol
+	 * @param state      one of {@link Bonus#STATE_INACTIVE}, {@link Bonus#STATE_EDIBLE}, {@link Bonus#STATE_EATEN}
+	 * @param x          x position
+	 * @param y          y position
+	 * @param jumpOffset vertical offset of a jumping (moving) bonus
+	 * @param moveDir    move direction of a moving bonus, <code>null</code> for a static bonus
+	 */
+	public record BonusInfo(byte symbol, byte state, float x, float y, float jumpOffset, Direction moveDir) {
+
+		static BonusInfo of(Bonus bonus) {
+			float jumpOffset = 0;
+			Direction moveDir = null;
+			if (bonus instanceof MovingBonus movingBonus) {
+				jumpOffset = movingBonus.dy();
+				moveDir = movingBonus.moveDir();
+			}
+			return new BonusInfo(bonus.symbol(), bonus.state(), bonus.entity().posX(), bonus.entity().posY(), jumpOffset,
+				moveDir);
+		}
+
+		/** @return x coordinate of the center of the bounding box */
+		public float centerX() {
+			return x + HTS;
+		}
+
+		/** @return y coordinate of the center of the bounding box */
+		public float centerY() {
+			return y + HTS;
+		}
+	}
+
+	/**
+	 * Captures the current state of the given session.
+	 *
+	 * @param session   game session
+	 * @param tick      number of the simulation tick after which the snapshot is taken
+	 * @param timeNanos time (see {@link System#nanoTime()}) when the snapshot is taken
+	 * @return new snapshot
+	 */
+	public static GameSnapshot capture(GameSession session, long tick, long timeNanos) {
+		checkNotNull(session);
+		return new GameSnapshot(session, tick, timeNanos);
+	}
+
+	private final long tick;
+	private final long timeNanos;
+	private final GameState state;
+	private final long stateTick;
+	private final int credit;
+	private final int scorePoints;
+	private final int scoreLevelNumber;
+	private final int highScorePoints;
+	private final int highScoreLevelNumber;
+	private final short lives;
+	private final int levelNumber;
+	private final boolean demoLevel;
+	private final boolean pacKilled;
+	private final long pacStarvingTicks;
+	private final boolean pacPowerRunning;
+	private final long pacPowerRemaining;
+	private final long pacPowerDuration;
+	private final int huntingPhase;
+	private final Actor pac;
+	private final Actor[] ghosts;
+	private final BonusInfo bonus;
+	private final BitSet eatenFood;
+	private final List<Vector2i> energizerTiles;
+	private final int numCols;
+	private final boolean mazeFlashing;
+	private final boolean mazeFlashingOn;
+	private final boolean energizersOn;
+	private final List<Byte> levelCounter;
+
+	private GameSnapshot(GameSession session, long tick, long timeNanos) {
+		this.tick = tick;
+		this.timeNanos = timeNanos;
+		GameModel game = session.game();
+		state = session.state();
+		stateTick = state != null ? session.timer().tick() : 0;
+		credit = session.credit();
+		scorePoints = game.score().points();
+		scoreLevelNumber = game.score().levelNumber();
+		highScorePoints = game.highScore().points();
+		highScoreLevelNumber = game.highScore().levelNumber();
+		lives = game.lives();
+		levelCounter = List.copyOf(game.levelCounter());
+		GameLevel level = game.level().orElse(null);
+		if (level != null) {
+			levelNumber = level.number();
+			demoLevel = level.isDemoLevel();
+			pacKilled = level.thisFrame().pacKilled;
+			pacStarvingTicks = level.pac().starvingTicks();
+			var powerTimer = level.pac().powerTimer();
+			pacPowerRunning = powerTimer.isRunning();
+			pacPowerRemaining = powerTimer.remaining();
+			pacPowerDuration = powerTimer.duration();
+			huntingPhase = level.huntingPhase();
+			pac = Actor.of(level.pac());
+			ghosts = new Actor[4];
+			for (byte id = 0; id < 4; ++id) {
+				ghosts[id] = Actor.of(level.ghost(id));
+			}
+			bonus = level.bonus().map(BonusInfo::of).orElse(null);
+			var world = level.world();
+			eatenFood = world.copyOfEatenFood();
+			energizerTiles = world.energizerTileList();
+			numCols = world.numCols();
+			mazeFlashing = world.mazeFlashing().isRunning();
+			mazeFlashingOn = world.mazeFlashing().on();
+			energizersOn = world.energizerBlinking().on();
+		} else {
+			levelNumber = 0;
+			demoLevel = false;
+			pacKilled = false;
+			pacStarvingTicks = 0;
+			pacPowerRunning = false;
+			pacPowerRemaining = 0;
+			pacPowerDuration = 0;
+			huntingPhase = 0;
+			pac = null;
+			ghosts = null;
+			bonus = null;
+			eatenFood = new BitSet();
+			energizerTiles = List.of();
+			numCols = 0;
+			mazeFlashing = false;
+			mazeFlashingOn = false;
+			energizersOn = false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "GameSnapshot[tick=" + tick + ", state=" + state + ", level=" + levelNumber + ", score=" + scorePoints + "]";
+	}
+
+	/** @return number of the simulation tick after which this snapshot was taken */
+	public long tick() {
+		return tick;
+	}
+
+	/** @return time (see {@link System#nanoTime()}) when this snapshot was taken */
+	public long timeNanos() {
+		return timeNanos;
+	}
+
+	public GameState state() {
+		return state;
+	}
+
+	/** @return tick of the state timer */
+	public long stateTick() {
+		return stateTick;
+	}
+
+	public int credit() {
+		return credit;
+	}
+
+	public int scorePoints() {
+		return scorePoints;
+	}
+
+	public int scoreLevelNumber() {
+		return scoreLevelNumber;
+	}
+
+	public int highScorePoints() {
+		return highScorePoints;
+	}
+
+	public int highScoreLevelNumber() {
+		return highScoreLevelNumber;
+	}
+
+	public short lives() {
+		return lives;
+	}
+
+	/** @return if a game level existed when the snapshot was taken */
+	public boolean hasLevel() {
+		return levelNumber != 0;
+	}
+
+	/** @return level number or 0 if there was no level */
+	public int levelNumber() {
+		return levelNumber;
+	}
+
+	public boolean isDemoLevel() {
+		return demoLevel;
+	}
+
+	/** @return if Pac-Man got killed in the simulated frame */
+	public boolean isPacKilled() {
+		return pacKilled;
+	}
+
+	public long pacStarvingTicks() {
+		return pacStarvingTicks;
+	}
+
+	/** @return if the power timer of Pac-Man is running */
+	public boolean isPacPowerRunning() {
+		return pacPowerRunning;
+	}
+
+	/** @return remaining ticks of the power timer of Pac-Man */
+	public long pacPowerRemaining() {
+		return pacPowerRemaining;
+	}
+
+	/** @return duration in ticks of the power timer of Pac-Man */
+	public long pacPowerDuration() {
+		return pacPowerDuration;
+	}
+
+	public int huntingPhase() {
+		return huntingPhase;
+	}
+
+	/** @return Pac-Man state or <code>null</code> if there was no level */
+	public Actor pac() {
+		return pac;
+	}
+
+	/**
+	 * @param id ghost ID, see {@link GameModel#RED_GHOST} etc.
+	 * @return state of ghost with given ID or <code>null</code> if there was no level
+	 */
+	public Actor ghost(byte id) {
+		checkGhostID(id);
+		return ghosts != null ? ghosts[id] : null;
+	}
+
+	/**
+	 * @param states ghost states
+	 * @return number of visible ghosts in any of the given states
+	 */
+	public int countVisibleGhosts(GhostStateSet states) {
+		checkNotNull(states);
+		if (ghosts == null) {
+			return 0;
+		}
+		int count = 0;
+		for (var ghost : ghosts) {
+			if (ghost.visible() && ghost.is(states)) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/** @return bonus state or <code>null</code> if there was no bonus */
+	public BonusInfo bonus() {
+		return bonus;
+	}
+
+	/**
+	 * @param tile tile inside the world
+	 * @return if food at this tile had been eaten
+	 */
+	public boolean hasEatenFoodAt(Vector2i tile) {
+		checkTileNotNull(tile);
+		return numCols > 0 && tile.x() >= 0 && tile.x() < numCols && tile.y() >= 0
+			&& eatenFood.get(tile.y() * numCols + tile.x());
+	}
+
+	/** @return tiles where food had been eaten */
+	public Stream<Vector2i> eatenFoodTiles() {
+		return eatenFood.stream().mapToObj(index -> new Vector2i(index % numCols, index / numCols));
+	}
+
+	/** @return tiles of the energizers of the world, empty if there was no level */
+	public List<Vector2i> energizerTiles() {
+		return energizerTiles;
+	}
+
+	/**
+	 * @param tile some tile
+	 * @return if the world contains an energizer at this tile
+	 */
+	public boolean isEnergizerTile(Vector2i tile) {
+		return energizerTiles.contains(tile);
+	}
+
+	/** @return bonus symbols displayed by the level counter */
+	public List<Byte> levelCounter() {
+		return levelCounter;
+	}
+
+	public boolean isMazeFlashing() {
+		return mazeFlashing;
+	}
+
+	public boolean isMazeFlashingOn() {
+		return mazeFlashingOn;
+	}
+
+	public boolean isEnergizersOn() {
+		return energizersOn;
+	}
+}
@@ -4,10 +4,8 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.controller;
 
-import de.amr.games.pacman.event.GameEvent;
 import de.amr.games.pacman.event.GameEventType;
 import de.amr.games.pacman.lib.FsmState;
-import de.amr.games.pacman.lib.TickTimer;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.actors.*;
@@ -17,57 +15,63 @@ import de.amr.games.pacman.model.actors.*;
  * <p>
  * Rule of thumb: Specify what should happen when, not how exactly.
  * </p>
+ * <p>
+ * The states get the game session passed as context, the state timers are owned by the session.
+ * </p>
  *
  * @author Armin Reichert
  */
-public enum GameState implements FsmState<GameModel> {
+public enum GameState implements FsmState<GameSession> {
 
 	BOOT { // "Das muss das Boot abkönnen!"
 		@Override
-		public void onEnter(GameModel game) {
-			timer.restartIndefinitely();
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.timer().restartIndefinitely();
 			game.clearLevelCounter();
 			game.score().reset();
 			game.loadHighScore();
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				gameController().changeState(INTRO);
+		public void onUpdate(GameSession session) {
+			if (session.timer().hasExpired()) {
+				session.changeState(INTRO);
 			}
 		}
 	},
 
 	INTRO {
 		@Override
-		public void onEnter(GameModel game) {
-			timer.restartIndefinitely();
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.timer().restartIndefinitely();
 			game.setPlaying(false);
 			game.removeLevel();
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				gameController().changeState(READY);
+		public void onUpdate(GameSession session) {
+			if (session.timer().hasExpired()) {
+				session.changeState(READY);
 			}
 		}
 	},
 
 	CREDIT {
 		@Override
-		public void onUpdate(GameModel game) {
+		public void onUpdate(GameSession session) {
 			// nothing to do here
 		}
 	},
 
 	READY {
 		@Override
-		public void onEnter(GameModel game) {
-			gameController().manualSteering().setEnabled(false);
-			gameController().publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
-			if (!gameController().hasCredit()) {
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.manualSteering().setEnabled(false);
+			session.publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
+			if (!session.hasCredit()) {
 				game.reset();
 				game.createDemoLevel();
 				game.startLevel();
@@ -82,40 +86,41 @@ public enum GameState implements FsmState<GameModel> {
 				game.reset();
 				game.setLevel(1);
 				game.startLevel();
-				gameController().publishGameEvent(GameEventType.READY_TO_PLAY);
+				session.publishGameEvent(GameEventType.READY_TO_PLAY);
 			}
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
+		public void onUpdate(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
 				final short showGuysTick = 120; // not sure
 				final short showGuysDemoLevelTick = 130; // not sure
 				final short startGameTick = 240; // not sure
 				final short resumeGameTick = 90; // not sure
-				if (gameController().hasCredit() && !game.isPlaying()) {
+				if (session.hasCredit() && !game.isPlaying()) {
 					// start new game
-					if (timer.tick() == showGuysTick) {
+					if (session.timer().tick() == showGuysTick) {
 						level.guys().forEach(Creature::show);
-					} else if (timer.tick() == startGameTick) {
+					} else if (session.timer().tick() == startGameTick) {
 						// start game play
 						game.setPlaying(true);
 						level.startHunting(0);
-						gameController().changeState(GameState.HUNTING);
+						session.changeState(GameState.HUNTING);
 					}
 				} else if (game.isPlaying()) {
 					// resume game play
-					if (timer.tick() == resumeGameTick) {
+					if (session.timer().tick() == resumeGameTick) {
 						level.guys().forEach(Creature::show);
 						level.startHunting(0);
-						gameController().changeState(GameState.HUNTING);
+						session.changeState(GameState.HUNTING);
 					}
 				} else {
 					// demo level
-					if (timer.tick() == showGuysDemoLevelTick) {
+					if (session.timer().tick() == showGuysDemoLevelTick) {
 						level.guys().forEach(Creature::show);
 						level.startHunting(0);
-						gameController().changeState(GameState.HUNTING);
+						session.changeState(GameState.HUNTING);
 					}
 				}
 			});
@@ -124,27 +129,29 @@ public enum GameState implements FsmState<GameModel> {
 
 	HUNTING {
 		@Override
-		public void onEnter(GameModel game) {
+		public void onEnter(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
-				gameController().manualSteering().setEnabled(true);
+				session.manualSteering().setEnabled(true);
 				level.pac().startAnimation();
 				level.ghosts().forEach(Ghost::startAnimation);
 				level.world().energizerBlinking().restart();
-				gameController().publishGameEvent(new GameEvent(GameEventType.HUNTING_PHASE_STARTED, game, null));
+				session.publishGameEvent(GameEventType.HUNTING_PHASE_STARTED);
 			});
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
+		public void onUpdate(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
 				level.simulateOneFrame();
 				if (level.thisFrame().levelCompleted) {
-					gameController().changeState(LEVEL_COMPLETE);
+					session.changeState(LEVEL_COMPLETE);
 				} else if (level.thisFrame().pacKilled) {
-					gameController().changeState(PACMAN_DYING);
+					session.changeState(PACMAN_DYING);
 				} else if (!level.thisFrame().pacPrey.isEmpty()) {
 					level.killEdibleGhosts();
-					gameController().changeState(GHOST_DYING);
+					session.changeState(GHOST_DYING);
 				}
 			});
 		}
@@ -152,30 +159,32 @@ public enum GameState implements FsmState<GameModel> {
 
 	LEVEL_COMPLETE {
 		@Override
-		public void onEnter(GameModel game) {
-			gameController().manualSteering().setEnabled(false);
-			timer.restartSeconds(4);
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.manualSteering().setEnabled(false);
+			session.timer().restartSeconds(4);
 			game.level().ifPresent(GameLevel::end);
-			gameController().publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
+			session.publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
+		public void onUpdate(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
-				if (timer.hasExpired()) {
-					if (!gameController().hasCredit()) {
-						gameController().changeState(INTRO);
+				if (session.timer().hasExpired()) {
+					if (!session.hasCredit()) {
+						session.changeState(INTRO);
 						// attract mode -> back to intro scene
 					} else if (level.intermissionNumber() > 0) {
-						gameController().changeState(INTERMISSION); // play intermission scene
+						session.changeState(INTERMISSION); // play intermission scene
 					} else {
-						gameController().changeState(CHANGING_TO_NEXT_LEVEL); // next level
+						session.changeState(CHANGING_TO_NEXT_LEVEL); // next level
 					}
 				} else {
 					level.pac().stopAnimation();
 					level.pac().resetAnimation();
 					var flashing = level.world().mazeFlashing();
-					if (timer.atSecond(1)) {
+					if (session.timer().atSecond(1)) {
 						flashing.restart(2 * level.numFlashes());
 					} else {
 						flashing.tick();
@@ -188,52 +197,55 @@ public enum GameState implements FsmState<GameModel> {
 
 	CHANGING_TO_NEXT_LEVEL {
 		@Override
-		public void onEnter(GameModel game) {
-			gameController().manualSteering().setEnabled(false);
-			timer.restartSeconds(1);
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.manualSteering().setEnabled(false);
+			session.timer().restartSeconds(1);
 			game.nextLevel();
-			gameController().publishGameEvent(GameEventType.LEVEL_STARTED);
+			session.publishGameEvent(GameEventType.LEVEL_STARTED);
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				gameController().changeState(READY);
+		public void onUpdate(GameSession session) {
+			if (session.timer().hasExpired()) {
+				session.changeState(READY);
 			}
 		}
 	},
 
 	GHOST_DYING {
 		@Override
-		public void onEnter(GameModel game) {
-			timer.restartSeconds(1);
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.timer().restartSeconds(1);
 			game.level().ifPresent(level -> {
 				level.pac().hide();
 				level.ghosts().forEach(Ghost::stopAnimation);
-				gameController().publishGameEvent(GameEventType.GHOST_EATEN);
+				session.publishGameEvent(GameEventType.GHOST_EATEN);
 			});
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				gameController().resumePreviousState();
+		public void onUpdate(GameSession session) {
+			var game = session.game();
+			if (session.timer().hasExpired()) {
+				session.resumePreviousState();
 			} else {
 				game.level().ifPresent(level -> {
-					var steering = level.pac().steering().orElse(gameController().steering());
+					var steering = level.pac().steering().orElse(session.steering());
 					steering.steer(level, level.pac());
-					level.ghosts(GhostState.EATEN, GhostState.RETURNING_TO_HOUSE, GhostState.ENTERING_HOUSE)
-							.forEach(Ghost::updateState);
+					level.forEachGhost(GhostStateSet.EATEN_OR_RETURNING, Ghost::updateState);
 					level.world().energizerBlinking().tick();
 				});
 			}
 		}
 
 		@Override
-		public void onExit(GameModel game) {
+		public void onExit(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
 				level.pac().show();
-				level.ghosts(GhostState.EATEN).forEach(ghost -> ghost.setState(GhostState.RETURNING_TO_HOUSE));
+				level.forEachGhost(GhostStateSet.of(GhostState.EATEN), ghost -> ghost.setState(GhostState.RETURNING_TO_HOUSE));
 				level.ghosts().forEach(Ghost::startAnimation);
 			});
 		}
@@ -241,37 +253,39 @@ public enum GameState implements FsmState<GameModel> {
 
 	PACMAN_DYING {
 		@Override
-		public void onEnter(GameModel game) {
+		public void onEnter(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
-				gameController().manualSteering().setEnabled(false);
-				timer.restartSeconds(4);
+				session.manualSteering().setEnabled(false);
+				session.timer().restartSeconds(4);
 				level.onPacKilled();
-				gameController().publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
+				session.publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
 			});
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
+		public void onUpdate(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
-				if (timer.atSecond(1)) {
+				if (session.timer().atSecond(1)) {
 					level.pac().selectAnimation(Pac.ANIM_DYING);
 					level.pac().resetAnimation();
 					level.ghosts().forEach(Ghost::hide);
-				} else if (timer.atSecond(1.4)) {
+				} else if (session.timer().atSecond(1.4)) {
 					level.pac().startAnimation();
-					gameController().publishGameEvent(GameEventType.PAC_DIED);
-				} else if (timer.atSecond(3.0)) {
+					session.publishGameEvent(GameEventType.PAC_DIED);
+				} else if (session.timer().atSecond(3.0)) {
 					level.pac().hide();
 					game.loseLife();
 					if (game.lives() == 0) {
 						level.world().energizerBlinking().stop();
 					}
-				} else if (timer.hasExpired()) {
-					if (!gameController().hasCredit()) {
+				} else if (session.timer().hasExpired()) {
+					if (!session.hasCredit()) {
 						// end of demo level
-						gameController().changeState(INTRO);
+						session.changeState(INTRO);
 					} else {
-						gameController().changeState(game.lives() == 0 ? GAME_OVER : READY);
+						session.changeState(game.lives() == 0 ? GAME_OVER : READY);
 					}
 				} else {
 					level.world().energizerBlinking().tick();
@@ -281,30 +295,32 @@ public enum GameState implements FsmState<GameModel> {
 		}
 
 		@Override
-		public void onExit(GameModel context) {
-			context.level().ifPresent(GameLevel::deactivateBonus);
+		public void onExit(GameSession session) {
+			session.game().level().ifPresent(GameLevel::deactivateBonus);
 		}
 	},
 
 	GAME_OVER {
 		@Override
-		public void onEnter(GameModel game) {
-			timer.restartSeconds(1.2); //TODO not sure about exact duration
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.timer().restartSeconds(1.2); //TODO not sure about exact duration
 			game.updateHighScore();
-			gameController().manualSteering().setEnabled(false);
-			gameController().changeCredit(-1);
-			gameController().publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
+			session.manualSteering().setEnabled(false);
+			session.changeCredit(-1);
+			session.publishGameEvent(GameEventType.STOP_ALL_SOUNDS);
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				gameController().changeState(gameController().hasCredit() ? CREDIT : INTRO);
+		public void onUpdate(GameSession session) {
+			if (session.timer().hasExpired()) {
+				session.changeState(session.hasCredit() ? CREDIT : INTRO);
 			}
 		}
 
 		@Override
-		public void onExit(GameModel game) {
+		public void onExit(GameSession session) {
+			var game = session.game();
 			game.setPlaying(false);
 			game.removeLevel();
 		}
@@ -312,109 +328,96 @@ public enum GameState implements FsmState<GameModel> {
 
 	INTERMISSION {
 		@Override
-		public void onEnter(GameModel game) {
-			timer.restartIndefinitely();
+		public void onEnter(GameSession session) {
+			session.timer().restartIndefinitely();
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				gameController().changeState(gameController().hasCredit() && game.isPlaying() ? CHANGING_TO_NEXT_LEVEL : INTRO);
+		public void onUpdate(GameSession session) {
+			var game = session.game();
+			if (session.timer().hasExpired()) {
+				session.changeState(session.hasCredit() && game.isPlaying() ? CHANGING_TO_NEXT_LEVEL : INTRO);
 			}
 		}
 	},
 
 	LEVEL_TEST {
-		private int lastTestedLevel;
+		private int lastTestedLevel(GameModel game) {
+			return switch (game.variant()) {
+				case MS_PACMAN -> 18;
+				case PACMAN    -> 20;
+			};
+		}
 
 		@Override
-		public void onEnter(GameModel game) {
-			switch (game.variant()) {
-			case MS_PACMAN:
-				lastTestedLevel = 18;
-				break;
-			case PACMAN:
-				lastTestedLevel = 20;
-				break;
-			default:
-				break;
-			}
-			timer.restartIndefinitely();
+		public void onEnter(GameSession session) {
+			var game = session.game();
+			session.timer().restartIndefinitely();
 			game.reset();
 			game.setLevel(1);
 			game.startLevel();
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
+		public void onUpdate(GameSession session) {
+			var game = session.game();
 			game.level().ifPresent(level -> {
-				if (level.number() <= lastTestedLevel) {
-					if (timer.atSecond(0.5)) {
+				if (level.number() <= lastTestedLevel(game)) {
+					if (session.timer().atSecond(0.5)) {
 						level.guys().forEach(Creature::show);
-					} else if (timer.atSecond(1.5)) {
+					} else if (session.timer().atSecond(1.5)) {
 						level.handleBonusReached(0);
-					} else if (timer.atSecond(2.5)) {
+					} else if (session.timer().atSecond(2.5)) {
 						level.bonus().ifPresent(bonus -> bonus.setEaten(120));
-						gameController().publishGameEvent(GameEventType.BONUS_EATEN);
-					} else if (timer.atSecond(4.5)) {
+						session.publishGameEvent(GameEventType.BONUS_EATEN);
+					} else if (session.timer().atSecond(4.5)) {
 						level.handleBonusReached(1);
-					} else if (timer.atSecond(5.5)) {
+					} else if (session.timer().atSecond(5.5)) {
 						level.bonus().ifPresent(bonus -> bonus.setEaten(60));
 						level.guys().forEach(Creature::hide);
-					} else if (timer.atSecond(6.5)) {
+					} else if (session.timer().atSecond(6.5)) {
 						var flashing = level.world().mazeFlashing();
 						flashing.restart(2 * level.numFlashes());
-					} else if (timer.atSecond(12.0)) {
+					} else if (session.timer().atSecond(12.0)) {
 						level.end();
 						game.nextLevel();
-						timer.restartIndefinitely();
-						gameController().publishGameEvent(GameEventType.LEVEL_STARTED);
+						session.timer().restartIndefinitely();
+						session.publishGameEvent(GameEventType.LEVEL_STARTED);
 					}
 					level.world().energizerBlinking().tick();
 					level.world().mazeFlashing().tick();
 					level.ghosts().forEach(Ghost::updateState);
 					level.bonus().ifPresent(bonus -> bonus.update(level));
 				} else {
-					gameController().restart(GameState.BOOT);
+					session.restart(GameState.BOOT);
 				}
 			});
 		}
 
 		@Override
-		public void onExit(GameModel game) {
-			game.clearLevelCounter();
+		public void onExit(GameSession session) {
+			session.game().clearLevelCounter();
 		}
 	},
 
 	INTERMISSION_TEST {
 		@Override
-		public void onEnter(GameModel game) {
-			timer.restartIndefinitely();
+		public void onEnter(GameSession session) {
+			session.timer().restartIndefinitely();
 		}
 
 		@Override
-		public void onUpdate(GameModel game) {
-			if (timer.hasExpired()) {
-				if (gameController().intermissionTestNumber < 3) {
-					++gameController().intermissionTestNumber;
-					timer.restartIndefinitely();
-					gameController().publishGameEvent(GameEventType.UNSPECIFIED_CHANGE);
+		public void onUpdate(GameSession session) {
+			if (session.timer().hasExpired()) {
+				if (session.intermissionTestNumber < 3) {
+					++session.intermissionTestNumber;
+					session.timer().restartIndefinitely();
+					session.publishGameEvent(GameEventType.UNSPECIFIED_CHANGE);
 				} else {
-					gameController().intermissionTestNumber = 1;
-					gameController().changeState(INTRO);
+					session.intermissionTestNumber = 1;
+					session.changeState(INTRO);
 				}
 			}
 		}
-	};
-
-	final TickTimer timer = new TickTimer("Timer-" + name());
-
-	GameController gameController() {
-		return GameController.it();
-	}
-
-	@Override
-	public TickTimer timer() {
-		return timer;
 	}
 }
\ No newline at end of file
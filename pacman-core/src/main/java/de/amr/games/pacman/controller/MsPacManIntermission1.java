@@ -46,6 +46,7 @@ public class MsPacManIntermission1 {
 	public final Ghost inky;
 	public final Entity heart;
 
+	private final GameSession session;
 	private byte state;
 	private final TickTimer stateTimer = new TickTimer("MsPacManIntermission1");
 
@@ -55,7 +56,8 @@ public class MsPacManIntermission1 {
 		stateTimer.start();
 	}
 
-	public MsPacManIntermission1() {
+	public MsPacManIntermission1(GameSession session) {
+		this.session = session;
 		pacMan = new Pac("Pac-Man");
 		inky = new Ghost(GameModel.CYAN_GHOST, "Inky");
 		msPac = new Pac("Ms. Pac-Man");
@@ -76,7 +78,7 @@ public class MsPacManIntermission1 {
 			break;
 		case STATE_IN_HEAVEN:
 			if (stateTimer.hasExpired()) {
-				GameController.it().terminateCurrentState();
+				session.terminateCurrentState();
 				return;
 			}
 			break;
@@ -88,7 +90,7 @@ public class MsPacManIntermission1 {
 
 	private void updateStateFlap() {
 		if (stateTimer.atSecond(1)) {
-			GameController.it().publishGameEvent(GameEventType.INTERMISSION_STARTED);
+			session.publishGameEvent(GameEventType.INTERMISSION_STARTED);
 		} else if (stateTimer.hasExpired()) {
 			enterStateChasedByGhosts();
 		}
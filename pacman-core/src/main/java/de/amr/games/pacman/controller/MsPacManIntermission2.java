@@ -31,6 +31,7 @@ public class MsPacManIntermission2 {
 	public final Pac pacMan;
 	public final Pac msPac;
 
+	private final GameSession session;
 	private byte state;
 	private final TickTimer stateTimer = new TickTimer("MsPacManIntermission2");
 
@@ -40,7 +41,8 @@ public class MsPacManIntermission2 {
 		stateTimer.start();
 	}
 
-	public MsPacManIntermission2() {
+	public MsPacManIntermission2(GameSession session) {
+		this.session = session;
 		pacMan = new Pac("Pac-Man");
 		msPac = new Pac("Ms. Pac-Man");
 	}
@@ -62,7 +64,7 @@ public class MsPacManIntermission2 {
 
 	private void updateStateFlap() {
 		if (stateTimer.hasExpired()) {
-			GameController.it().publishGameEvent(GameEventType.INTERMISSION_STARTED);
+			session.publishGameEvent(GameEventType.INTERMISSION_STARTED);
 			enterStateChasing();
 		}
 	}
@@ -117,7 +119,7 @@ public class MsPacManIntermission2 {
 			msPac.setMoveDir(Direction.RIGHT);
 			msPac.setPixelSpeed(4.0f);
 		} else if (stateTimer.atSecond(23)) {
-			GameController.it().terminateCurrentState();
+			session.terminateCurrentState();
 			return;
 		}
 		pacMan.move();
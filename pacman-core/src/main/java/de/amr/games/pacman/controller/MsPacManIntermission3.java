@@ -39,6 +39,7 @@ public class MsPacManIntermission3 {
 	public boolean bagOpen;
 	public int numBagBounces;
 
+	private final GameSession session;
 	private byte state;
 	private final TickTimer stateTimer = new TickTimer("MsPacManIntermission3");
 
@@ -48,7 +49,8 @@ public class MsPacManIntermission3 {
 		stateTimer.start();
 	}
 
-	public MsPacManIntermission3() {
+	public MsPacManIntermission3(GameSession session) {
+		this.session = session;
 		pacMan = new Pac("Pac-Man");
 		msPacMan = new Pac("Ms. Pac-Man");
 		stork = new Entity();
@@ -74,7 +76,7 @@ public class MsPacManIntermission3 {
 
 	private void updateStateFlap() {
 		if (stateTimer.atSecond(1)) {
-			GameController.it().publishGameEvent(GameEventType.INTERMISSION_STARTED);
+			session.publishGameEvent(GameEventType.INTERMISSION_STARTED);
 		} else if (stateTimer.atSecond(3)) {
 			enterStateDeliverJunior();
 		}
@@ -132,7 +134,7 @@ public class MsPacManIntermission3 {
 	private void updateStateStorkLeavesScene() {
 		stork.move();
 		if (stateTimer.hasExpired()) {
-			GameController.it().terminateCurrentState();
+			session.terminateCurrentState();
 		}
 	}
 }
\ No newline at end of file
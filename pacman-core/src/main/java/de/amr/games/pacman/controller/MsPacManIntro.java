@@ -88,7 +88,7 @@ public class MsPacManIntro extends Fsm<MsPacManIntro.State, MsPacManIntro> {
 			@Override
 			public void onUpdate(MsPacManIntro ctx) {
 				ctx.marqueeTimer.advance();
-				if (timer.atSecond(1)) {
+				if (ctx.timer().atSecond(1)) {
 					ctx.changeState(State.GHOSTS_MARCHING_IN);
 				}
 			}
@@ -152,25 +152,21 @@ public class MsPacManIntro extends Fsm<MsPacManIntro.State, MsPacManIntro> {
 			@Override
 			public void onUpdate(MsPacManIntro ctx) {
 				ctx.marqueeTimer.advance();
-				if (timer.atSecond(2.0) && !GameController.it().hasCredit()) {
-					GameController.it().changeState(GameState.READY);
+				if (ctx.timer().atSecond(2.0) && !ctx.session.hasCredit()) {
+					ctx.session.changeState(GameState.READY);
 					// go into demo mode
-				} else if (timer.atSecond(5)) {
-					GameController.it().changeState(GameState.CREDIT);
+				} else if (ctx.timer().atSecond(5)) {
+					ctx.session.changeState(GameState.CREDIT);
 				}
 			}
-		};
-
-		final TickTimer timer = new TickTimer("Timer-" + name());
-
-		@Override
-		public TickTimer timer() {
-			return timer;
 		}
 	}
 
-	public MsPacManIntro() {
+	private final GameSession session;
+
+	public MsPacManIntro(GameSession session) {
 		super(State.values());
+		this.session = session;
 	}
 
 	@Override
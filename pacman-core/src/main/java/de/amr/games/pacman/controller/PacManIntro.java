@@ -44,11 +44,11 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 		START {
 			@Override
 			public void onUpdate(PacManIntro ctx) {
-				if (timer.tick() == 2) {
+				if (ctx.timer().tick() == 2) {
 					ctx.creditVisible = true;
-				} else if (timer.tick() == 3) {
+				} else if (ctx.timer().tick() == 3) {
 					ctx.titleVisible = true;
-				} else if (timer.atSecond(1)) {
+				} else if (ctx.timer().atSecond(1)) {
 					ctx.changeState(State.PRESENTING_GHOSTS);
 				}
 			}
@@ -57,17 +57,17 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 		PRESENTING_GHOSTS {
 			@Override
 			public void onUpdate(PacManIntro ctx) {
-				if (timer.atSecond(0)) {
+				if (ctx.timer().atSecond(0)) {
 					ctx.ghostInfo[ctx.ghostIndex].pictureVisible = true;
-				} else if (timer.atSecond(1.0)) {
+				} else if (ctx.timer().atSecond(1.0)) {
 					ctx.ghostInfo[ctx.ghostIndex].characterVisible = true;
-				} else if (timer.atSecond(1.5)) {
+				} else if (ctx.timer().atSecond(1.5)) {
 					ctx.ghostInfo[ctx.ghostIndex].nicknameVisible = true;
-				} else if (timer.atSecond(2.0)) {
+				} else if (ctx.timer().atSecond(2.0)) {
 					if (++ctx.ghostIndex < 4) {
-						timer.resetIndefinitely();
+						ctx.timer().resetIndefinitely();
 					}
-				} else if (timer.atSecond(2.5)) {
+				} else if (ctx.timer().atSecond(2.5)) {
 					ctx.changeState(State.SHOWING_POINTS);
 				}
 			}
@@ -81,7 +81,7 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 
 			@Override
 			public void onUpdate(PacManIntro ctx) {
-				if (timer.atSecond(1)) {
+				if (ctx.timer().atSecond(1)) {
 					ctx.changeState(State.CHASING_PAC);
 				}
 			}
@@ -90,7 +90,7 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 		CHASING_PAC {
 			@Override
 			public void onEnter(PacManIntro ctx) {
-				timer.restartIndefinitely();
+				ctx.timer().restartIndefinitely();
 				ctx.pacMan.setPosition(TS * 36, TS * 20);
 				ctx.pacMan.setMoveDir(Direction.LEFT);
 				ctx.pacMan.setPixelSpeed(ctx.chaseSpeed);
@@ -110,7 +110,7 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 
 			@Override
 			public void onUpdate(PacManIntro ctx) {
-				if (timer.atSecond(1)) {
+				if (ctx.timer().atSecond(1)) {
 					ctx.blinking.start();
 				}
 				// Pac-Man reaches the energizer at the left and turns
@@ -139,8 +139,8 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 		CHASING_GHOSTS {
 			@Override
 			public void onEnter(PacManIntro ctx) {
-				timer.restartIndefinitely();
-				ctx.ghostKilledTime = timer.tick();
+				ctx.timer().restartIndefinitely();
+				ctx.ghostKilledTime = ctx.timer().tick();
 				ctx.pacMan.setMoveDir(Direction.RIGHT);
 				ctx.pacMan.setPixelSpeed(ctx.chaseSpeed);
 			}
@@ -158,7 +158,7 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 						.findFirst();
 				nextVictim.ifPresent(victim -> {
 					victim.setKilledIndex(victim.id());
-					ctx.ghostKilledTime = timer.tick();
+					ctx.ghostKilledTime = ctx.timer().tick();
 					victim.setState(GhostState.EATEN);
 					ctx.pacMan.hide();
 					ctx.pacMan.setPixelSpeed(0);
@@ -169,7 +169,7 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 				});
 
 				// After ??? sec, Pac-Man and the surviving ghosts get visible again and move on
-				if (timer.tick() - ctx.ghostKilledTime == timer.secToTicks(0.9)) {
+				if (ctx.timer().tick() - ctx.ghostKilledTime == ctx.timer().secToTicks(0.9)) {
 					ctx.pacMan.show();
 					ctx.pacMan.setPixelSpeed(ctx.chaseSpeed);
 					ctx.ghosts().forEach(ghost -> {
@@ -191,23 +191,16 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 		READY_TO_PLAY {
 			@Override
 			public void onUpdate(PacManIntro ctx) {
-				if (timer.atSecond(0.75)) {
+				if (ctx.timer().atSecond(0.75)) {
 					ctx.ghostInfo[3].ghost.hide();
-					if (!GameController.it().hasCredit()) {
-						GameController.it().changeState(GameState.READY);
+					if (!ctx.session.hasCredit()) {
+						ctx.session.changeState(GameState.READY);
 					}
 				}
-				else if (timer.atSecond(5)) {
-					GameController.it().changeState(GameState.CREDIT);
+				else if (ctx.timer().atSecond(5)) {
+					ctx.session.changeState(GameState.CREDIT);
 				}
 			}
-		};
-
-		final TickTimer timer = new TickTimer("Timer-" + name());
-
-		@Override
-		public TickTimer timer() {
-			return timer;
 		}
 	}
 
@@ -234,8 +227,11 @@ public class PacManIntro extends Fsm<PacManIntro.State, PacManIntro> {
 		return Stream.of(ghostInfo).map(info -> info.ghost);
 	}
 
-	public PacManIntro() {
+	private final GameSession session;
+
+	public PacManIntro(GameSession session) {
 		super(State.values());
+		this.session = session;
 	}
 
 	@Override
@@ -0,0 +1,279 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.model.GameVariant;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static de.amr.games.pacman.lib.Globals.checkGameVariant;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Recorded game session that can be played back exactly, see {@link ReplayRecorder} and {@link ReplayPlayer}.
+ * <p>
+ * The simulation is deterministic, so a replay only stores what came from outside of the simulation:
+ * <ul>
+ * <li>the direction changes made by the manual (keyboard) steering, together with the tick where they were made,</li>
+ * <li>key frames: binary state snapshots (see {@link GameSession#saveState}). The first key frame contains the
+ * initial state including the settings (credit, lives, autopilot, immunity). Further key frames are taken at a fixed
+ * interval for seeking and verification, and whenever the state was changed between two ticks (user actions like
+ * inserting a coin, cheats or the end of an intermission scene). These <em>sync</em> key frames are restored during
+ * playback.</li>
+ * </ul>
+ * Each key frame also contains the state hash the simulation reached before the key frame was taken. Playback
+ * compares it with the current hash to detect divergences.
+ * <p>
+ * File format: GZIP-compressed binary data, tick numbers are delta-encoded as variable-length integers.
+ *
+ * @param variant          game variant
+ * @param seed             seed of the recorded session
+ * @param keyFrameInterval number of ticks between two regular key frames
+ * @param ticks            number of recorded ticks
+ * @param finalHash        state hash after the last recorded tick
+ * @param inputs           direction changes of the manual steering in order of their ticks
+ * @param keyFrames        key frames in order of their ticks, the first one at tick 0
+ *
+ * @author Armin Reichert
+ */
+public record Replay(
+	GameVariant variant,
+	long seed,
+	int keyFrameInterval,
+	int ticks,
+	long finalHash,
+	List<Input> inputs,
+	List<KeyFrame> keyFrames)
+{
+	private static final int MAGIC = 0x50414352; // "PACR"
+	private static final int VERSION = 1;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Direction change of the manual steering.
+	 *
+	 * @param tick number of ticks executed before the tick where the direction was set
+	 * @param dir  new wish direction of Pac-Man
+	 */
+	public record Input(int tick, Direction dir) {
+
+		public Input {
+			checkNotNull(dir);
+		}
+	}
+
+	/**
+	 * Binary state snapshot taken before a tick.
+	 *
+	 * @param tick       number of ticks executed before the snapshot was taken
+	 * @param hashBefore state hash after the previous tick, before a change made between the ticks
+	 * @param sync       if the state was changed between the ticks, playback then restores this snapshot
+	 * @param state      snapshot bytes
+	 */
+	public record KeyFrame(int tick, long hashBefore, boolean sync, byte[] state) {
+
+		public KeyFrame {
+			checkNotNull(state);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof KeyFrame other && tick == other.tick && hashBefore == other.hashBefore
+				&& sync == other.sync && Arrays.equals(state, other.state);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * Integer.hashCode(tick) + Long.hashCode(hashBefore)) + Arrays.hashCode(state);
+		}
+
+		@Override
+		public String toString() {
+			return "KeyFrame[tick=" + tick + ", sync=" + sync + ", size=" + state.length + "]";
+		}
+	}
+
+	public Replay {
+		checkGameVariant(variant);
+		checkNotNull(inputs);
+		checkNotNull(keyFrames);
+		if (keyFrameInterval <= 0) {
+			throw new IllegalArgumentException("Key frame interval must be positive but is " + keyFrameInterval);
+		}
+		if (keyFrames.isEmpty() || keyFrames.get(0).tick() != 0) {
+			throw new IllegalArgumentException("Replay must start with a key frame at tick 0");
+		}
+		for (int i = 1; i < keyFrames.size(); ++i) {
+			if (keyFrames.get(i).tick() <= keyFrames.get(i - 1).tick() || keyFrames.get(i).tick() > ticks) {
+				throw new IllegalArgumentException("Invalid key frame tick: " + keyFrames.get(i).tick());
+			}
+		}
+		for (int i = 0; i < inputs.size(); ++i) {
+			int tick = inputs.get(i).tick();
+			if (tick < 0 || tick >= ticks || i > 0 && tick < inputs.get(i - 1).tick()) {
+				throw new IllegalArgumentException("Invalid input tick: " + tick);
+			}
+		}
+		inputs = List.copyOf(inputs);
+		keyFrames = List.copyOf(keyFrames);
+	}
+
+	/**
+	 * @param tick tick number
+	 * @return index of the last key frame taken at or before the given tick
+	 */
+	public int keyFrameIndexAt(int tick) {
+		int low = 0, high = keyFrames.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (keyFrames.get(mid).tick() <= tick) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param tick tick number
+	 * @return index of the first input made at or after the given tick
+	 */
+	public int inputIndexAt(int tick) {
+		int low = 0, high = inputs.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (inputs.get(mid).tick() < tick) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	public String toString() {
+		return "Replay[" + variant + ", seed=" + seed + ", ticks=" + ticks + ", inputs=" + inputs.size() + ", keyFrames="
+			+ keyFrames.size() + "]";
+	}
+
+	// I/O
+
+	public void write(OutputStream out) throws IOException {
+		checkNotNull(out);
+		var gzip = new GZIPOutputStream(out);
+		var data = new DataOutputStream(new BufferedOutputStream(gzip));
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		data.writeByte(variant.ordinal());
+		data.writeLong(seed);
+		writeVarInt(data, keyFrameInterval);
+		writeVarInt(data, ticks);
+		data.writeLong(finalHash);
+		writeVarInt(data, inputs.size());
+		int tick = 0;
+		for (var input : inputs) {
+			writeVarInt(data, input.tick() - tick);
+			data.writeByte(input.dir().ordinal());
+			tick = input.tick();
+		}
+		writeVarInt(data, keyFrames.size());
+		tick = 0;
+		for (var keyFrame : keyFrames) {
+			writeVarInt(data, keyFrame.tick() - tick);
+			data.writeLong(keyFrame.hashBefore());
+			data.writeBoolean(keyFrame.sync());
+			writeVarInt(data, keyFrame.state().length);
+			data.write(keyFrame.state());
+			tick = keyFrame.tick();
+		}
+		data.flush();
+		gzip.finish();
+	}
+
+	public void write(Path path) throws IOException {
+		try (var out = Files.newOutputStream(path)) {
+			write(out);
+		}
+	}
+
+	public static Replay read(InputStream in) throws IOException {
+		checkNotNull(in);
+		var data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a replay file");
+		}
+		int version = data.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported replay version: " + version);
+		}
+		try {
+			var variant = GameVariant.values()[data.readByte()];
+			long seed = data.readLong();
+			int keyFrameInterval = readVarInt(data);
+			int ticks = readVarInt(data);
+			long finalHash = data.readLong();
+			int numInputs = readVarInt(data);
+			var inputs = new ArrayList<Input>(numInputs);
+			int tick = 0;
+			for (int i = 0; i < numInputs; ++i) {
+				tick += readVarInt(data);
+				inputs.add(new Input(tick, DIRECTIONS[data.readByte()]));
+			}
+			int numKeyFrames = readVarInt(data);
+			var keyFrames = new ArrayList<KeyFrame>(numKeyFrames);
+			tick = 0;
+			for (int i = 0; i < numKeyFrames; ++i) {
+				tick += readVarInt(data);
+				long hashBefore = data.readLong();
+				boolean sync = data.readBoolean();
+				var state = new byte[readVarInt(data)];
+				data.readFully(state);
+				keyFrames.add(new KeyFrame(tick, hashBefore, sync, state));
+			}
+			return new Replay(variant, seed, keyFrameInterval, ticks, finalHash, inputs, keyFrames);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException x) {
+			throw new IOException("Invalid replay data", x);
+		}
+	}
+
+	public static Replay read(Path path) throws IOException {
+		try (var in = Files.newInputStream(path)) {
+			return read(in);
+		}
+	}
+
+	private static void writeVarInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInput in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					throw new IOException("Negative length or tick delta: " + value);
+				}
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+}
@@ -0,0 +1,200 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.actors.Creature;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Plays a {@link Replay} back in a game session.
+ * <p>
+ * While playing, the manual steering of the session is replaced by a steering applying the recorded direction changes
+ * at their ticks. The session can be driven by its owner (calling {@link #beforeTick()} and {@link #afterTick()}
+ * around each update, e.g. by the {@link SimulationRunner}) or by the player itself, as fast as possible (see
+ * {@link #step()}, {@link #playToEnd()} and {@link #seek(int)}).
+ * <p>
+ * At each key frame and after the last tick, the state hash of the session is compared with the recorded hash. The
+ * first tick where they differ is available as {@link #divergence()}.
+ *
+ * @author Armin Reichert
+ */
+public class ReplayPlayer {
+
+	private class ReplaySteering extends Steering {
+
+		@Override
+		public void steer(GameLevel level, Creature guy) {
+			// one direction change per call, as recorded
+			if (nextInput < replay.inputs().size() && replay.inputs().get(nextInput).tick() == ticks) {
+				guy.setWishDir(replay.inputs().get(nextInput++).dir());
+			}
+		}
+	}
+
+	private final GameSession session;
+	private final Replay replay;
+	private final Steering originalSteering;
+	private final StateBuffer buffer = new StateBuffer();
+	private int ticks;
+	private int nextInput;
+	private int nextKeyFrame;
+	private int divergence = -1;
+
+	/**
+	 * Prepares playing the replay from the start: replaces the manual steering of the session and restores the first
+	 * key frame.
+	 *
+	 * @param session game session playing the recorded game variant
+	 * @param replay  replay
+	 */
+	public ReplayPlayer(GameSession session, Replay replay) {
+		checkNotNull(session);
+		checkNotNull(replay);
+		if (session.game().variant() != replay.variant()) {
+			throw new IllegalArgumentException(
+				"Cannot play " + replay.variant() + " replay in " + session.game().variant() + " session");
+		}
+		this.session = session;
+		this.replay = replay;
+		this.originalSteering = session.manualSteering();
+		session.setManualSteering(new ReplaySteering());
+		seekKeyFrame(0);
+	}
+
+	public Replay replay() {
+		return replay;
+	}
+
+	/** @return number of ticks played */
+	public int tick() {
+		return ticks;
+	}
+
+	public boolean isFinished() {
+		return ticks >= replay.ticks();
+	}
+
+	/** @return first tick where the state hash differed from the recorded one, -1 if none */
+	public int divergence() {
+		return divergence;
+	}
+
+	/**
+	 * Must be called before each update of the session if the owner drives the session. Checks the state hash and
+	 * restores the key frame taken at the current tick if the state was changed between the ticks while recording.
+	 */
+	public void beforeTick() {
+		if (nextKeyFrame < replay.keyFrames().size()) {
+			var keyFrame = replay.keyFrames().get(nextKeyFrame);
+			if (keyFrame.tick() == ticks) {
+				checkHash(keyFrame.hashBefore());
+				if (keyFrame.sync()) {
+					restore(keyFrame);
+				}
+				++nextKeyFrame;
+			}
+		}
+	}
+
+	/**
+	 * Must be called after each update of the session if the owner drives the session.
+	 */
+	public void afterTick() {
+		++ticks;
+		if (ticks == replay.ticks()) {
+			checkHash(replay.finalHash());
+		}
+	}
+
+	/**
+	 * Plays the next tick.
+	 */
+	public void step() {
+		if (isFinished()) {
+			throw new IllegalStateException("Replay is finished");
+		}
+		beforeTick();
+		session.update();
+		afterTick();
+	}
+
+	/**
+	 * Plays all remaining ticks as fast as possible.
+	 *
+	 * @return first tick where the state hash differed from the recorded one, -1 if none
+	 */
+	public int playToEnd() {
+		while (!isFinished()) {
+			step();
+		}
+		return divergence;
+	}
+
+	/**
+	 * Continues playing at the given tick: restores the last key frame before the tick and plays the ticks between.
+	 *
+	 * @param tick target tick, at most the number of recorded ticks
+	 */
+	public void seek(int tick) {
+		if (tick < 0 || tick > replay.ticks()) {
+			throw new IllegalArgumentException("Invalid replay tick: " + tick);
+		}
+		int index = replay.keyFrameIndexAt(tick);
+		if (tick < ticks || replay.keyFrames().get(index).tick() > ticks) {
+			seekKeyFrame(index);
+		}
+		while (ticks < tick) {
+			step();
+		}
+	}
+
+	/**
+	 * Plays the segment between the given key frame and the next one (or the end of the replay). Segments are
+	 * independent of each other and can be verified in parallel, each in its own session.
+	 *
+	 * @param keyFrameIndex index of the key frame where the segment starts
+	 * @return first tick of the segment where the state hash differed from the recorded one, -1 if none
+	 */
+	public int playSegment(int keyFrameIndex) {
+		seekKeyFrame(keyFrameIndex);
+		boolean last = keyFrameIndex == replay.keyFrames().size() - 1;
+		int end = last ? replay.ticks() : replay.keyFrames().get(keyFrameIndex + 1).tick();
+		while (ticks < end) {
+			step();
+		}
+		if (!last) {
+			checkHash(replay.keyFrames().get(keyFrameIndex + 1).hashBefore());
+		}
+		return divergence;
+	}
+
+	/**
+	 * Restores the original manual steering of the session. The session keeps the state reached by playback.
+	 */
+	public void stop() {
+		session.setManualSteering(originalSteering);
+	}
+
+	private void seekKeyFrame(int index) {
+		var keyFrame = replay.keyFrames().get(index);
+		restore(keyFrame);
+		ticks = keyFrame.tick();
+		nextKeyFrame = index + 1;
+		nextInput = replay.inputIndexAt(ticks);
+	}
+
+	private void restore(Replay.KeyFrame keyFrame) {
+		session.restoreState(buffer.load(keyFrame.state(), keyFrame.state().length));
+	}
+
+	private void checkHash(long expectedHash) {
+		if (divergence == -1 && session.stateHash() != expectedHash) {
+			divergence = ticks;
+		}
+	}
+}
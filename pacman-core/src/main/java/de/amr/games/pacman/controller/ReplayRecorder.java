@@ -0,0 +1,194 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameModel;
+import de.amr.games.pacman.model.actors.Creature;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Records a game session as a {@link Replay}.
+ * <p>
+ * The manual steering of the session is wrapped while recording, so each direction change is recorded with the tick
+ * where the simulation applied it (and not when the key was pressed). The owner of the session calls
+ * {@link #beforeTick()} and {@link #afterTick()} around each update. Before each tick, the recorder detects if the
+ * state was changed since the last tick and then takes a key frame.
+ * <p>
+ * Changes made by listeners during a tick (instead of between ticks) are not recorded. Playback then diverges, which
+ * is detected at the next key frame.
+ *
+ * @author Armin Reichert
+ */
+public class ReplayRecorder {
+
+	/** Key frame interval used if none is specified: 10 seconds of game time. */
+	public static final int DEFAULT_KEY_FRAME_INTERVAL = 10 * GameModel.FPS;
+
+	private class RecordingSteering extends Steering {
+
+		private final Steering delegate;
+
+		RecordingSteering(Steering delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void init() {
+			delegate.init();
+		}
+
+		@Override
+		public void steer(GameLevel level, Creature guy) {
+			var wishDir = guy.wishDir();
+			delegate.steer(level, guy);
+			if (guy.wishDir() != wishDir && !stopped) {
+				inputs.add(new Replay.Input(ticks, guy.wishDir()));
+			}
+		}
+
+		// only the enabled flag is hashed, same as by the steering used for playback
+
+		@Override
+		public void hashState(StateHash hash) {
+			hash.add(isEnabled());
+		}
+
+		@Override
+		public void saveState(StateBuffer buffer) {
+			buffer.putBoolean(isEnabled());
+		}
+
+		@Override
+		public void restoreState(StateBuffer buffer) {
+			setEnabled(buffer.getBoolean());
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return delegate.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			delegate.setEnabled(enabled);
+		}
+	}
+
+	private final GameSession session;
+	private final GameModel game;
+	private final int keyFrameInterval;
+	private final List<Replay.Input> inputs = new ArrayList<>();
+	private final List<Replay.KeyFrame> keyFrames = new ArrayList<>();
+	private final StateBuffer buffer = new StateBuffer();
+	private RecordingSteering recordingSteering;
+	private int ticks;
+	private long lastHash;
+	private boolean stopped;
+
+	/**
+	 * Starts recording the given session and takes the first key frame.
+	 *
+	 * @param session          game session
+	 * @param keyFrameInterval number of ticks between two regular key frames
+	 */
+	public ReplayRecorder(GameSession session, int keyFrameInterval) {
+		checkNotNull(session);
+		if (keyFrameInterval <= 0) {
+			throw new IllegalArgumentException("Key frame interval must be positive but is " + keyFrameInterval);
+		}
+		this.session = session;
+		this.game = session.game();
+		this.keyFrameInterval = keyFrameInterval;
+		wrapManualSteering();
+		lastHash = session.computeStateHash();
+		takeKeyFrame(true);
+	}
+
+	public ReplayRecorder(GameSession session) {
+		this(session, DEFAULT_KEY_FRAME_INTERVAL);
+	}
+
+	private void wrapManualSteering() {
+		recordingSteering = new RecordingSteering(session.manualSteering());
+		session.setManualSteering(recordingSteering);
+	}
+
+	/** @return number of recorded ticks */
+	public int ticks() {
+		return ticks;
+	}
+
+	/** @return if the recording has been stopped, either by {@link #stop()} or because a new game was started */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	private void takeKeyFrame(boolean sync) {
+		buffer.clear();
+		session.saveState(buffer);
+		int last = keyFrames.size() - 1;
+		if (last >= 0 && keyFrames.get(last).tick() == ticks) {
+			// state changed again before the tick
+			var replaced = keyFrames.get(last);
+			keyFrames.set(last, new Replay.KeyFrame(ticks, replaced.hashBefore(), true, buffer.toByteArray()));
+		} else {
+			keyFrames.add(new Replay.KeyFrame(ticks, lastHash, sync, buffer.toByteArray()));
+		}
+	}
+
+	/**
+	 * Must be called before each update of the session. Takes a regular key frame, or a sync key frame if the state has
+	 * been changed since the last tick.
+	 */
+	public void beforeTick() {
+		if (stopped) {
+			return;
+		}
+		if (session.game() != game) {
+			// a snapshot of the new game cannot be restored into a session of the recorded game
+			Logger.info("Replay recording stopped at tick {}: new game started", ticks);
+			stopped = true;
+			return;
+		}
+		if (session.manualSteering() != recordingSteering) {
+			wrapManualSteering();
+		}
+		boolean changed = session.computeStateHash() != lastHash;
+		if (changed || ticks % keyFrameInterval == 0 && keyFrames.get(keyFrames.size() - 1).tick() != ticks) {
+			takeKeyFrame(changed);
+		}
+	}
+
+	/**
+	 * Must be called after each update of the session.
+	 */
+	public void afterTick() {
+		if (!stopped) {
+			++ticks;
+			lastHash = session.stateHash();
+		}
+	}
+
+	/**
+	 * Stops recording and restores the original manual steering of the session.
+	 *
+	 * @return the recorded replay
+	 */
+	public Replay stop() {
+		if (session.manualSteering() == recordingSteering) {
+			session.setManualSteering(recordingSteering.delegate);
+		}
+		stopped = true;
+		return new Replay(game.variant(), session.seed(), keyFrameInterval, ticks, lastHash, inputs, keyFrames);
+	}
+}
@@ -0,0 +1,124 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.model.GameModel;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Ring buffer of binary state snapshots of the last ticks of a game session (see
+ * {@link GameSession#saveState(StateBuffer)}), used to rewind the game while debugging.
+ * <p>
+ * The snapshot arrays are allocated once per slot and reused when the ring wraps around, so capturing a snapshot after
+ * every tick creates no garbage. When the session starts a new game (e.g. for another game variant), the buffer
+ * forgets the snapshots of the previous game.
+ *
+ * @author Armin Reichert
+ */
+public class RewindBuffer {
+
+	/**
+	 * @param seconds number of seconds of game time to keep
+	 * @return buffer keeping a snapshot for each tick of the given time
+	 */
+	public static RewindBuffer ofSeconds(int seconds) {
+		return new RewindBuffer(seconds * GameModel.FPS);
+	}
+
+	private final StateBuffer buffer = new StateBuffer();
+	private final byte[][] slots;
+	private final int[] sizes;
+	private int latest = -1; // slot of the latest snapshot
+	private int count;
+	private GameModel game;
+
+	/**
+	 * @param capacity maximum number of snapshots kept
+	 */
+	public RewindBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Rewind buffer capacity must be positive but is " + capacity);
+		}
+		slots = new byte[capacity][];
+		sizes = new int[capacity];
+	}
+
+	@Override
+	public String toString() {
+		return "RewindBuffer[capacity=" + capacity() + ", size=" + count + "]";
+	}
+
+	/** @return maximum number of snapshots kept */
+	public int capacity() {
+		return slots.length;
+	}
+
+	/** @return number of snapshots kept */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Forgets all snapshots.
+	 */
+	public void clear() {
+		latest = -1;
+		count = 0;
+		game = null;
+	}
+
+	/**
+	 * Saves the current state of the session as the latest snapshot. If the buffer is full, the oldest snapshot is
+	 * overwritten.
+	 *
+	 * @param session game session
+	 */
+	public void capture(GameSession session) {
+		checkNotNull(session);
+		if (session.game() != game) {
+			clear();
+			game = session.game();
+		}
+		buffer.clear();
+		session.saveState(buffer);
+		latest = (latest + 1) % slots.length;
+		if (slots[latest] == null || slots[latest].length < buffer.size()) {
+			slots[latest] = new byte[buffer.size() + buffer.size() / 8]; // room for a larger bonus route or level counter
+		}
+		buffer.copyTo(slots[latest]);
+		sizes[latest] = buffer.size();
+		count = Math.min(count + 1, slots.length);
+	}
+
+	/**
+	 * Restores the snapshot captured the given number of captures before the latest one. The newer snapshots are
+	 * dropped, so the restored snapshot becomes the latest one and the game continues from there.
+	 *
+	 * @param session game session, must play the same game as when the snapshots were captured
+	 * @param ticks   number of ticks to go back, clamped to the oldest snapshot
+	 * @return number of ticks actually gone back, 0 if there is no older snapshot
+	 */
+	public int rewind(GameSession session, int ticks) {
+		checkNotNull(session);
+		if (ticks < 0) {
+			throw new IllegalArgumentException("Number of ticks to rewind must not be negative but is " + ticks);
+		}
+		if (session.game() != game) {
+			clear();
+			return 0;
+		}
+		int steps = Math.min(ticks, count - 1);
+		if (steps <= 0) {
+			return 0;
+		}
+		latest = Math.floorMod(latest - steps, slots.length);
+		count -= steps;
+		buffer.load(slots[latest], sizes[latest]);
+		session.restoreState(buffer);
+		return steps;
+	}
+}
@@ -0,0 +1,379 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.controller;
+
+import de.amr.games.pacman.model.actors.Entity;
+import org.tinylog.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Runs the simulation of a game session and publishes a {@link GameSnapshot} after each tick.
+ * <p>
+ * The runner can be driven by the caller (see {@link #tick()}) or run the simulation on its own thread at a fixed
+ * rate (see {@link #startThread()}). The latest snapshot is handed over through a volatile field, so a renderer reads
+ * it without locking and never sees a half-updated state.
+ * <p>
+ * Code on other threads that must modify the model (user input, event handlers) uses {@link #runExclusive(Runnable)}
+ * which guarantees that no tick is executed at the same time.
+ * <p>
+ * With a {@link RewindBuffer} set, the state after each tick is captured and the game can be rewound (see
+ * {@link #rewind(int)}).
+ * <p>
+ * The runner also records the session as a {@link Replay} (see {@link #startRecording(int)}) or plays a replay back
+ * (see {@link #startPlayback(Replay)}) at the speed of the simulation.
+ *
+ * @author Armin Reichert
+ */
+public class SimulationRunner {
+
+	/** Maximum number of ticks the simulation thread executes in a row to catch up after a delay. */
+	public static final int MAX_CATCH_UP_TICKS = 4;
+
+	private static final long PAUSED_POLL_NANOS = 1_000_000;
+
+	private final GameSession session;
+	private final ReentrantLock tickLock = new ReentrantLock();
+	private final AtomicInteger requestedSteps = new AtomicInteger();
+	private volatile GameSnapshot snapshot;
+	private volatile long tickDurationNanos;
+	private volatile boolean paused;
+	private volatile long ticksPerSecond;
+	private volatile long droppedTicks;
+	private volatile Thread thread;
+	private RewindBuffer rewindBuffer;
+	private ReplayRecorder recorder;
+	private ReplayPlayer player;
+	private long tickCount;
+
+	/**
+	 * @param session       game session to simulate
+	 * @param ticksPerSecond simulation rate used by the simulation thread
+	 */
+	public SimulationRunner(GameSession session, int ticksPerSecond) {
+		checkNotNull(session);
+		this.session = session;
+		setTicksPerSecond(ticksPerSecond);
+		snapshot = GameSnapshot.capture(session, 0, System.nanoTime());
+	}
+
+	public GameSession session() {
+		return session;
+	}
+
+	/**
+	 * @return the snapshot taken after the last tick. Can be called from any thread, never blocks.
+	 */
+	public GameSnapshot latestSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @param ticksPerSecond simulation rate of the simulation thread (positive)
+	 */
+	public void setTicksPerSecond(int ticksPerSecond) {
+		if (ticksPerSecond <= 0) {
+			throw new IllegalArgumentException("Simulation rate must be positive but is " + ticksPerSecond);
+		}
+		tickDurationNanos = 1_000_000_000L / ticksPerSecond;
+	}
+
+	/** @return duration of a tick of the simulation thread in nanoseconds */
+	public long tickDurationNanos() {
+		return tickDurationNanos;
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * @param paused if the simulation thread should stop ticking (it keeps running and executes requested steps)
+	 */
+	public void setPaused(boolean paused) {
+		this.paused = paused;
+	}
+
+	/**
+	 * Requests the paused simulation thread to execute the given number of ticks.
+	 *
+	 * @param numSteps number of ticks
+	 */
+	public void requestSteps(int numSteps) {
+		requestedSteps.addAndGet(numSteps);
+	}
+
+	/** @return number of ticks executed by the simulation thread during the last second */
+	public long ticksPerSecond() {
+		return ticksPerSecond;
+	}
+
+	/** @return number of ticks the simulation thread skipped because it fell behind too far */
+	public long droppedTicks() {
+		return droppedTicks;
+	}
+
+	/**
+	 * @param rewindBuffer buffer capturing the state after each tick or <code>null</code> to disable rewinding
+	 */
+	public void setRewindBuffer(RewindBuffer rewindBuffer) {
+		runExclusive(() -> this.rewindBuffer = rewindBuffer);
+	}
+
+	/**
+	 * Sets the game back by the given number of ticks (at most to the oldest state in the rewind buffer) and publishes a
+	 * snapshot of the restored state. The tick counter is not set back.
+	 *
+	 * @param ticks number of ticks to go back
+	 * @return number of ticks actually gone back, 0 if rewinding is disabled or no older state exists
+	 */
+	public int rewind(int ticks) {
+		tickLock.lock();
+		try {
+			if (rewindBuffer == null) {
+				return 0;
+			}
+			int steps = rewindBuffer.rewind(session, ticks);
+			if (steps > 0) {
+				snapshot = GameSnapshot.capture(session, tickCount, System.nanoTime());
+			}
+			return steps;
+		} finally {
+			tickLock.unlock();
+		}
+	}
+
+	/**
+	 * Starts recording the session. A running recording or playback is stopped.
+	 *
+	 * @param keyFrameInterval number of ticks between two regular key frames
+	 */
+	public void startRecording(int keyFrameInterval) {
+		runExclusive(() -> {
+			stopPlayback();
+			if (recorder != null) {
+				recorder.stop();
+			}
+			recorder = new ReplayRecorder(session, keyFrameInterval);
+			Logger.info("Replay recording started");
+		});
+	}
+
+	/**
+	 * Stops recording the session.
+	 *
+	 * @return the recorded replay or <code>null</code> if the session is not recorded
+	 */
+	public Replay stopRecording() {
+		tickLock.lock();
+		try {
+			if (recorder == null) {
+				return null;
+			}
+			var replay = recorder.stop();
+			recorder = null;
+			Logger.info("Replay recording stopped: {}", replay);
+			return replay;
+		} finally {
+			tickLock.unlock();
+		}
+	}
+
+	public boolean isRecording() {
+		tickLock.lock();
+		try {
+			return recorder != null;
+		} finally {
+			tickLock.unlock();
+		}
+	}
+
+	/**
+	 * Starts playing back the given replay. A running recording or playback is stopped. When the replay is finished, the
+	 * session continues with its original steering.
+	 *
+	 * @param replay replay of the game variant played by the session
+	 */
+	public void startPlayback(Replay replay) {
+		checkNotNull(replay);
+		runExclusive(() -> {
+			stopRecording();
+			stopPlayback();
+			player = new ReplayPlayer(session, replay);
+			snapshot = GameSnapshot.capture(session, tickCount, System.nanoTime());
+			Logger.info("Replay playback started: {}", replay);
+		});
+	}
+
+	/**
+	 * Stops playing back a replay. The session continues with its original steering.
+	 */
+	public void stopPlayback() {
+		runExclusive(() -> {
+			if (player != null) {
+				player.stop();
+				player = null;
+			}
+		});
+	}
+
+	public boolean isPlayingBack() {
+		tickLock.lock();
+		try {
+			return player != null;
+		} finally {
+			tickLock.unlock();
+		}
+	}
+
+	/**
+	 * Executes one simulation tick on the calling thread and publishes the resulting snapshot.
+	 */
+	public void tick() {
+		tickLock.lock();
+		try {
+			doTick();
+		} finally {
+			tickLock.unlock();
+		}
+	}
+
+	private void doTick() {
+		session.game().level().ifPresent(level -> level.guys().forEach(Entity::savePosition));
+		if (player != null) {
+			player.beforeTick();
+		} else if (recorder != null) {
+			recorder.beforeTick();
+		}
+		session.update();
+		if (player != null) {
+			player.afterTick();
+			if (player.isFinished()) {
+				if (player.divergence() != -1) {
+					Logger.warn("Replay playback diverged at tick {}", player.divergence());
+				}
+				Logger.info("Replay playback finished");
+				player.stop();
+				player = null;
+			}
+		} else if (recorder != null) {
+			recorder.afterTick();
+		}
+		if (rewindBuffer != null) {
+			rewindBuffer.capture(session);
+		}
+		++tickCount;
+		snapshot = GameSnapshot.capture(session, tickCount, System.nanoTime());
+	}
+
+	/**
+	 * Runs the given action while no tick is executed. If the simulation runs on its own thread, the caller waits
+	 * at most until the current tick is complete.
+	 *
+	 * @param action action modifying or reading the live model
+	 */
+	public void runExclusive(Runnable action) {
+		checkNotNull(action);
+		tickLock.lock();
+		try {
+			action.run();
+		} finally {
+			tickLock.unlock();
+		}
+	}
+
+	public boolean isThreadRunning() {
+		return thread != null;
+	}
+
+	/**
+	 * Starts the simulation thread. Does nothing if the thread is already running.
+	 */
+	public void startThread() {
+		if (thread != null) {
+			return;
+		}
+		var newThread = new Thread(this::runLoop, "Simulation");
+		newThread.setDaemon(true);
+		thread = newThread;
+		newThread.start();
+		Logger.info("Simulation thread started, {} Hz", 1_000_000_000L / tickDurationNanos);
+	}
+
+	/**
+	 * Stops the simulation thread and waits until the current tick is complete. When called from inside
+	 * {@link #runExclusive(Runnable)}, the method does not wait, the thread then terminates without executing another
+	 * tick.
+	 */
+	public void stopThread() {
+		var stoppedThread = thread;
+		if (stoppedThread == null) {
+			return;
+		}
+		thread = null;
+		LockSupport.unpark(stoppedThread);
+		if (!tickLock.isHeldByCurrentThread()) {
+			try {
+				stoppedThread.join();
+			} catch (InterruptedException x) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		Logger.info("Simulation thread stopped");
+	}
+
+	private void runLoop() {
+		long nextTickTime = System.nanoTime();
+		long countStartTime = nextTickTime;
+		long ticks = 0;
+		while (thread == Thread.currentThread()) {
+			long now = System.nanoTime();
+			if (now - countStartTime >= 1_000_000_000L) {
+				ticksPerSecond = ticks;
+				ticks = 0;
+				countStartTime = now;
+			}
+			if (paused) {
+				int steps = requestedSteps.getAndSet(0);
+				for (int i = 0; i < steps; ++i) {
+					safeTick();
+				}
+				LockSupport.parkNanos(PAUSED_POLL_NANOS);
+				nextTickTime = System.nanoTime();
+				continue;
+			}
+			if (now < nextTickTime) {
+				LockSupport.parkNanos(nextTickTime - now);
+				continue;
+			}
+			safeTick();
+			++ticks;
+			nextTickTime += tickDurationNanos;
+			long behind = now - nextTickTime;
+			if (behind > MAX_CATCH_UP_TICKS * tickDurationNanos) {
+				droppedTicks += behind / tickDurationNanos;
+				nextTickTime = now;
+			}
+		}
+	}
+
+	private void safeTick() {
+		tickLock.lock();
+		try {
+			// a stopped thread might still be waiting for the lock
+			if (thread == Thread.currentThread()) {
+				doTick();
+			}
+		} catch (RuntimeException x) {
+			Logger.error(x, "Simulation tick failed");
+		} finally {
+			tickLock.unlock();
+		}
+	}
+}
@@ -4,6 +4,8 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.controller;
 
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.actors.Creature;
 
@@ -12,11 +14,34 @@ import de.amr.games.pacman.model.actors.Creature;
  */
 public abstract class Steering {
 
-	public static final Steering NONE = new Steering() {
+	/**
+	 * @return new steering that does nothing. Each session needs its own instance because the enabled flag is mutable.
+	 */
+	public static Steering none() {
+		return new NoSteering();
+	}
+
+	private static class NoSteering extends Steering {
+
 		@Override
 		public void steer(GameLevel level, Creature guy) {
 		}
-	};
+
+		@Override
+		public void hashState(StateHash hash) {
+			// does not steer, so its enabled flag has no effect on the game
+		}
+
+		@Override
+		public void saveState(StateBuffer buffer) {
+			// stateless
+		}
+
+		@Override
+		public void restoreState(StateBuffer buffer) {
+			// stateless
+		}
+	}
 
 	private boolean enabled;
 
@@ -26,6 +51,29 @@ public abstract class Steering {
 
 	public abstract void steer(GameLevel level, Creature guy);
 
+	/**
+	 * Adds the state of this steering to the given hash. Steerings with state beyond the enabled flag must override
+	 * this method.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(enabled);
+	}
+
+	/**
+	 * Writes the state of this steering (same as hashed by {@link #hashState(StateHash)}) to the buffer.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void saveState(StateBuffer buffer) {
+		buffer.putBoolean(enabled);
+	}
+
+	public void restoreState(StateBuffer buffer) {
+		enabled = buffer.getBoolean();
+	}
+
 	public boolean isEnabled() {
 		return enabled;
 	}
@@ -0,0 +1,130 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.event;
+
+import org.tinylog.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Delivers game events to a listener on a thread of its own, see
+ * {@link GameEventBus#subscribeAsync(java.util.Set, GameEventListener, int)}.
+ * <p>
+ * The events are passed through a bounded single-producer/single-consumer ring buffer. Publishing never blocks and
+ * never allocates: if the buffer is full, the event is dropped and counted. Events must not be published by different
+ * threads at the same time, which the game session guarantees anyway.
+ *
+ * @author Armin Reichert
+ */
+public class AsyncGameEventDelivery implements GameEventListener, AutoCloseable {
+
+	private static final long IDLE_PARK_NANOS = 1_000_000;
+
+	private final GameEventListener listener;
+	private final GameEvent[] buffer;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong(); // index of next event to deliver
+	private final AtomicLong tail = new AtomicLong(); // index of next free slot
+	private final Thread thread;
+	private volatile boolean waiting;
+	private volatile boolean closed;
+	private volatile long droppedEvents;
+
+	/**
+	 * @param listener listener called on the delivery thread
+	 * @param capacity capacity of the ring buffer (rounded up to a power of 2)
+	 */
+	public AsyncGameEventDelivery(GameEventListener listener, int capacity) {
+		checkNotNull(listener);
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Ring buffer capacity must be positive but is " + capacity);
+		}
+		this.listener = listener;
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		buffer = new GameEvent[size];
+		mask = size - 1;
+		thread = new Thread(this::deliverEvents, "GameEventDelivery");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/** @return capacity of the ring buffer */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/** @return number of events dropped because the buffer was full */
+	public long droppedEvents() {
+		return droppedEvents;
+	}
+
+	/** @return number of events waiting for delivery */
+	public int pendingEvents() {
+		return (int) (tail.get() - head.get());
+	}
+
+	@Override
+	public void onGameEvent(GameEvent event) {
+		if (closed) {
+			return;
+		}
+		long t = tail.get();
+		if (t - head.get() == buffer.length) {
+			++droppedEvents;
+			return;
+		}
+		buffer[(int) t & mask] = event;
+		tail.lazySet(t + 1);
+		if (waiting) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Delivers the pending events and ends the delivery thread.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException x) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void deliverEvents() {
+		while (true) {
+			long h = head.get();
+			if (h == tail.get()) {
+				if (closed) {
+					return;
+				}
+				waiting = true;
+				if (h == tail.get()) {
+					LockSupport.parkNanos(IDLE_PARK_NANOS);
+				}
+				waiting = false;
+				continue;
+			}
+			int index = (int) h & mask;
+			var event = buffer[index];
+			buffer[index] = null;
+			head.lazySet(h + 1);
+			try {
+				listener.onGameEvent(event);
+			} catch (RuntimeException x) {
+				Logger.error(x, "Asynchronous delivery of game event {} failed", event);
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.event;
+
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameModel;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static de.amr.games.pacman.lib.Globals.checkGameNotNull;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Delivers game events to the listeners subscribed to their type.
+ * <p>
+ * Subscriptions are stored per event type as arrays which are replaced (copy-on-write) when a subscription changes,
+ * so publishing iterates a plain array without allocation and listeners may (un)subscribe while an event is delivered.
+ * The arrays are kept in an {@link AtomicReferenceArray} indexed by the ordinal of the event type, so a publishing
+ * thread always sees completely initialized arrays. Changes of the subscriptions are serialized by the bus.
+ * Events without a tile are immutable flyweights, one per event type and game model. If nobody is subscribed to an
+ * event type, publishing it costs a single array lookup and no event object is created.
+ * <p>
+ * Listeners that do not need to run on the publishing thread (statistics, telemetry) can be subscribed with
+ * {@link #subscribeAsync(Set, GameEventListener, int)}: they receive the events through a bounded ring buffer on a
+ * thread of their own.
+ *
+ * @author Armin Reichert
+ */
+public class GameEventBus {
+
+	private static final GameEventListener[] NO_LISTENERS = {};
+
+	private final AtomicReferenceArray<GameEventListener[]> subscriptions =
+		new AtomicReferenceArray<>(GameEventType.values().length);
+	private final AtomicReferenceArray<GameEvent> flyweights = new AtomicReferenceArray<>(GameEventType.values().length);
+
+	public GameEventBus() {
+		for (var type : GameEventType.values()) {
+			subscriptions.set(type.ordinal(), NO_LISTENERS);
+		}
+	}
+
+	/**
+	 * Subscribes the listener to all event types.
+	 *
+	 * @param listener event listener
+	 */
+	public void subscribe(GameEventListener listener) {
+		subscribe(EnumSet.allOf(GameEventType.class), listener);
+	}
+
+	/**
+	 * Subscribes the listener to the given event type.
+	 *
+	 * @param type     event type
+	 * @param listener event listener
+	 */
+	public synchronized void subscribe(GameEventType type, GameEventListener listener) {
+		checkNotNull(type);
+		checkNotNull(listener);
+		var listeners = subscriptions.get(type.ordinal());
+		for (var subscriber : listeners) {
+			if (subscriber == listener) {
+				return;
+			}
+		}
+		var extended = Arrays.copyOf(listeners, listeners.length + 1);
+		extended[listeners.length] = listener;
+		subscriptions.set(type.ordinal(), extended);
+	}
+
+	/**
+	 * Subscribes the listener to the given event types.
+	 *
+	 * @param types    event types
+	 * @param listener event listener
+	 */
+	public void subscribe(Set<GameEventType> types, GameEventListener listener) {
+		checkNotNull(types);
+		for (var type : types) {
+			subscribe(type, listener);
+		}
+	}
+
+	/**
+	 * Subscribes the listener to the given event types such that it receives the events on a thread of its own. The
+	 * events are passed through a ring buffer with the given capacity. If the listener falls behind and the buffer is
+	 * full, events are dropped instead of blocking the publisher.
+	 *
+	 * @param types    event types
+	 * @param listener event listener, called on the delivery thread
+	 * @param capacity capacity of the ring buffer (rounded up to a power of 2)
+	 * @return the asynchronous delivery, must be closed by the caller to end the delivery thread
+	 */
+	public AsyncGameEventDelivery subscribeAsync(Set<GameEventType> types, GameEventListener listener, int capacity) {
+		var delivery = new AsyncGameEventDelivery(listener, capacity);
+		subscribe(types, delivery);
+		return delivery;
+	}
+
+	/**
+	 * Removes all subscriptions of the given listener.
+	 *
+	 * @param listener event listener
+	 */
+	public void unsubscribe(GameEventListener listener) {
+		checkNotNull(listener);
+		for (var type : GameEventType.values()) {
+			unsubscribe(type, listener);
+		}
+	}
+
+	/**
+	 * Removes the subscription of the given listener to the given event type.
+	 *
+	 * @param type     event type
+	 * @param listener event listener
+	 */
+	public synchronized void unsubscribe(GameEventType type, GameEventListener listener) {
+		checkNotNull(type);
+		checkNotNull(listener);
+		var listeners = subscriptions.get(type.ordinal());
+		for (int i = 0; i < listeners.length; ++i) {
+			if (listeners[i] == listener) {
+				var reduced = new GameEventListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, reduced, 0, i);
+				System.arraycopy(listeners, i + 1, reduced, i, listeners.length - i - 1);
+				subscriptions.set(type.ordinal(), reduced.length == 0 ? NO_LISTENERS : reduced);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param type event type
+	 * @return if any listener is subscribed to this event type
+	 */
+	public boolean hasSubscribers(GameEventType type) {
+		return subscriptions.get(type.ordinal()).length > 0;
+	}
+
+	/**
+	 * Publishes an event without tile. The event object is a shared flyweight.
+	 *
+	 * @param type event type
+	 * @param game game model
+	 */
+	public void publish(GameEventType type, GameModel game) {
+		checkNotNull(type);
+		checkGameNotNull(game);
+		var listeners = subscriptions.get(type.ordinal());
+		if (listeners.length == 0) {
+			return;
+		}
+		var event = flyweights.get(type.ordinal());
+		if (event == null || event.game != game) {
+			event = new GameEvent(type, game, null);
+			flyweights.set(type.ordinal(), event);
+		}
+		deliver(listeners, event);
+	}
+
+	/**
+	 * Publishes an event with a tile. The event object is only created if someone is subscribed to the event type.
+	 *
+	 * @param type event type
+	 * @param game game model
+	 * @param tile tile where the event happened, may be <code>null</code>
+	 */
+	public void publish(GameEventType type, GameModel game, Vector2i tile) {
+		if (tile == null) {
+			publish(type, game);
+			return;
+		}
+		checkNotNull(type);
+		var listeners = subscriptions.get(type.ordinal());
+		if (listeners.length > 0) {
+			deliver(listeners, new GameEvent(type, game, tile));
+		}
+	}
+
+	/**
+	 * Publishes the given event.
+	 *
+	 * @param event game event
+	 */
+	public void publish(GameEvent event) {
+		checkNotNull(event);
+		var listeners = subscriptions.get(event.type.ordinal());
+		if (listeners.length > 0) {
+			deliver(listeners, event);
+		}
+	}
+
+	private static void deliver(GameEventListener[] listeners, GameEvent event) {
+		for (var listener : listeners) {
+			listener.onGameEvent(event);
+		}
+	}
+}
@@ -5,8 +5,8 @@ See file LICENSE in repository root directory for details.
 package de.amr.games.pacman.lib;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
 /**
@@ -24,10 +24,19 @@ public enum Direction {
 		return Stream.of(values());
 	}
 
-	public static List<Direction> shuffled() {
-		List<Direction> dirs = Arrays.asList(values());
-		Collections.shuffle(dirs);
-		return dirs;
+	/**
+	 * @param rnd random generator used for shuffling
+	 * @return list of all directions in random order
+	 */
+	public static List<Direction> shuffled(RandomGenerator rnd) {
+		Direction[] dirs = values();
+		for (int i = dirs.length - 1; i > 0; --i) {
+			int j = rnd.nextInt(i + 1);
+			var tmp = dirs[i];
+			dirs[i] = dirs[j];
+			dirs[j] = tmp;
+		}
+		return Arrays.asList(dirs);
 	}
 
 	private final Vector2i vector;
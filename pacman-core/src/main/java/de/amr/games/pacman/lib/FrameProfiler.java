@@ -0,0 +1,232 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.lib;
+
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Measures the duration of the phases of a frame (simulation subphases, scene update, rendering etc.).
+ * <p>
+ * Each phase is measured by a {@link Probe} that feeds a {@link LatencyHistogram}. Code to be measured is enclosed
+ * like this:
+ *
+ * <pre>
+ * long start = probe.start();
+ * doSomething();
+ * probe.stop(start);
+ * </pre>
+ *
+ * When the profiler is disabled, {@link Probe#start()} returns 0 without reading the clock and {@link Probe#stop(long)}
+ * returns immediately. Every {@link #reportIntervalFrames()} frames, the histograms are summarized (see
+ * {@link #summaries()}), the summary is logged and a new measurement interval begins.
+ * <p>
+ * A probe is measured by one thread at a time (its owner) and only the owner touches its histogram. The probes of the
+ * thread completing the interval (the simulation thread) are summarized immediately. Probes of other threads (e.g.
+ * scene update and rendering on the JavaFX application thread while the simulation runs in its own thread) summarize
+ * their histogram themselves with their first measurement in the new interval, so their summary appears in the report
+ * of the following interval.
+ *
+ * @author Armin Reichert
+ */
+public class FrameProfiler {
+
+	/**
+	 * Summary of a phase over the last completed measurement interval. All durations are in nanoseconds.
+	 *
+	 * @param phase phase name
+	 * @param count number of measurements
+	 * @param p50   median
+	 * @param p99   99th percentile
+	 * @param max   maximum
+	 */
+	public record Summary(String phase, long count, long p50, long p99, long max) {
+
+		@Override
+		public String toString() {
+			return String.format("%s n=%d p50=%.3fms p99=%.3fms max=%.3fms", phase, count, p50 / 1e6, p99 / 1e6, max / 1e6);
+		}
+	}
+
+	/**
+	 * Measures the durations of one phase.
+	 */
+	public final class Probe {
+
+		private final String phase;
+		private final LatencyHistogram histogram = new LatencyHistogram();
+		private volatile Thread owner;
+		private int interval; // interval of the recorded values, only accessed by the owner
+		private volatile Completed completed; // handed over from the owner to the thread completing the intervals
+
+		private Probe(String phase) {
+			this.phase = phase;
+		}
+
+		public String phase() {
+			return phase;
+		}
+
+		/**
+		 * @return start time of the measurement or 0 if the profiler is disabled
+		 */
+		public long start() {
+			return enabled ? System.nanoTime() : 0;
+		}
+
+		/**
+		 * Ends a measurement.
+		 *
+		 * @param startTime value returned by {@link #start()}
+		 */
+		public void stop(long startTime) {
+			if (startTime != 0) {
+				long duration = System.nanoTime() - startTime;
+				var thread = Thread.currentThread();
+				if (owner != thread) {
+					owner = thread;
+				}
+				int currentInterval = FrameProfiler.this.interval;
+				if (interval != currentInterval) {
+					summarize(currentInterval);
+				}
+				histogram.record(duration);
+			}
+		}
+
+		// must only be called by the owner
+		private void summarize(int nextInterval) {
+			var h = histogram;
+			var summary = h.count() == 0 ? null
+				: new Summary(phase, h.count(), h.valueAtPercentile(50), h.valueAtPercentile(99), h.max());
+			completed = new Completed(interval, summary);
+			h.reset();
+			interval = nextInterval;
+		}
+	}
+
+	private record Completed(int interval, Summary summary) {
+	}
+
+	/** Default length of a measurement interval: 5 seconds at 60 frames/sec. */
+	public static final int DEFAULT_REPORT_INTERVAL_FRAMES = 300;
+
+	private final List<Probe> probes = new CopyOnWriteArrayList<>();
+	private volatile boolean enabled;
+	private volatile boolean logging = true;
+	private volatile List<Summary> summaries = List.of();
+	private volatile int interval;
+	private volatile int firstInterval; // first interval after enabling
+	private int reportIntervalFrames = DEFAULT_REPORT_INTERVAL_FRAMES;
+	private int frames;
+
+	/**
+	 * Returns the probe for the given phase. The probe is created on first request.
+	 *
+	 * @param phase phase name
+	 * @return probe measuring this phase
+	 */
+	public synchronized Probe probe(String phase) {
+		checkNotNull(phase);
+		for (var probe : probes) {
+			if (probe.phase.equals(phase)) {
+				return probe;
+			}
+		}
+		var probe = new Probe(phase);
+		probes.add(probe);
+		return probe;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the profiler. Enabling starts a new measurement interval, values measured before are
+	 * discarded.
+	 *
+	 * @param enabled if the probes should measure
+	 */
+	public void setEnabled(boolean enabled) {
+		if (enabled && !this.enabled) {
+			firstInterval = ++interval;
+			summaries = List.of();
+			frames = 0;
+		}
+		this.enabled = enabled;
+		Logger.info("Frame profiler {}", enabled ? "enabled" : "disabled");
+	}
+
+	/** @return if the summary of each interval is logged */
+	public boolean isLogging() {
+		return logging;
+	}
+
+	public void setLogging(boolean logging) {
+		this.logging = logging;
+	}
+
+	public int reportIntervalFrames() {
+		return reportIntervalFrames;
+	}
+
+	/**
+	 * @param numFrames number of frames of a measurement interval (positive)
+	 */
+	public void setReportIntervalFrames(int numFrames) {
+		if (numFrames <= 0) {
+			throw new IllegalArgumentException("Report interval must be positive but is " + numFrames);
+		}
+		reportIntervalFrames = numFrames;
+	}
+
+	/**
+	 * @return summaries of all phases measured in the last completed interval, in order of probe creation
+	 */
+	public List<Summary> summaries() {
+		return summaries;
+	}
+
+	/**
+	 * Must be called once per frame (simulation tick). Completes the measurement interval when it is over.
+	 */
+	public void frameCompleted() {
+		if (enabled && ++frames >= reportIntervalFrames) {
+			frames = 0;
+			completeInterval();
+		}
+	}
+
+	/**
+	 * Summarizes and logs the current measurement interval and starts a new one. Probes measured by other threads
+	 * contribute the summary of the previous interval, see class comment.
+	 */
+	public void completeInterval() {
+		int completedInterval = interval;
+		interval = completedInterval + 1;
+		int oldestIncluded = Math.max(firstInterval, completedInterval - 1);
+		var thread = Thread.currentThread();
+		var result = new ArrayList<Summary>(probes.size());
+		for (var probe : probes) {
+			if (probe.owner == thread && probe.interval == completedInterval) {
+				probe.summarize(completedInterval + 1);
+			}
+			var completed = probe.completed;
+			if (completed != null && completed.summary() != null && completed.interval() >= oldestIncluded) {
+				result.add(completed.summary());
+			}
+		}
+		summaries = List.copyOf(result);
+		if (logging && !result.isEmpty()) {
+			Logger.info("Frame profile: {}", result);
+		}
+	}
+}
@@ -17,6 +17,9 @@ import java.util.ArrayList;
  * <p>
  * State transitions are defined dynamically via the {@link #changeState} method calls. Each state change triggers an
  * event.
+ * <p>
+ * The state timers are owned by the state machine, not by the (enum) states, so several machines using the same state
+ * type can run independently of each other.
  * 
  * @param <S> "State". Enumeration type providing the states of this FSM.
  * @param <C> "Context". Type of the data provided to the state lifecycle methods {@link FsmState#onEnter},
@@ -24,16 +27,21 @@ import java.util.ArrayList;
  * 
  * @author Armin Reichert
  */
-public abstract class Fsm<S extends FsmState<C>, C> {
+public abstract class Fsm<S extends Enum<S> & FsmState<C>, C> {
 
 	protected final ArrayList<FsmStateChangeListener<S>> stateChangeListeners = new ArrayList<>(5);
 	protected final S[] states;
+	protected final TickTimer[] timers;
 	protected S currentState;
 	protected S prevState;
 	protected String name = getClass().getSimpleName();
 
 	protected Fsm(S[] states) {
 		this.states = states;
+		timers = new TickTimer[states.length];
+		for (S state : states) {
+			timers[state.ordinal()] = new TickTimer("Timer-" + state.name());
+		}
 	}
 
 	public void setName(String name) {
@@ -57,6 +65,21 @@ public abstract class Fsm<S extends FsmState<C>, C> {
 		return currentState;
 	}
 
+	/**
+	 * @param state a state of this machine
+	 * @return the timer of the given state
+	 */
+	public TickTimer timer(S state) {
+		return timers[state.ordinal()];
+	}
+
+	/**
+	 * @return the timer of the current state
+	 */
+	public TickTimer timer() {
+		return timer(currentState);
+	}
+
 	/**
 	 * @return the previous state (may be null)
 	 */
@@ -86,8 +109,8 @@ public abstract class Fsm<S extends FsmState<C>, C> {
 	 * Resets the timer of each state to {@link TickTimer#INDEFINITE}.
 	 */
 	public void resetTimers() {
-		for (S state : states) {
-			state.timer().resetIndefinitely();
+		for (var timer : timers) {
+			timer.resetIndefinitely();
 		}
 	}
 
@@ -107,7 +130,7 @@ public abstract class Fsm<S extends FsmState<C>, C> {
 	 * Lets the timer of the current game state expire.
 	 */
 	public void terminateCurrentState() {
-		state().timer().expire();
+		timer().expire();
 	}
 
 	/**
@@ -127,14 +150,14 @@ public abstract class Fsm<S extends FsmState<C>, C> {
 		C context = context();
 		if (currentState != null) {
 			currentState.onExit(context);
-			Logger.trace("Exit  state {} timer={}", currentState, currentState.timer());
+			Logger.trace("Exit  state {} timer={}", currentState, timer());
 		}
 		prevState = currentState;
 		currentState = newState;
-		currentState.timer().resetIndefinitely();
-		Logger.trace("Enter state {} timer={}", currentState, currentState.timer());
+		timer().resetIndefinitely();
+		Logger.trace("Enter state {} timer={}", currentState, timer());
 		currentState.onEnter(context);
-		Logger.trace("After Enter state {} timer={}", currentState, currentState.timer());
+		Logger.trace("After Enter state {} timer={}", currentState, timer());
 		stateChangeListeners.forEach(listener -> listener.onStateChange(prevState, currentState));
 	}
 
@@ -149,10 +172,36 @@ public abstract class Fsm<S extends FsmState<C>, C> {
 		if (prevState == null) {
 			throw new IllegalStateException("State machine cannot resume previous state because there is none");
 		}
-		Logger.trace("Resume state {}, timer= {}", prevState, prevState.timer());
+		Logger.trace("Resume state {}, timer= {}", prevState, timer(prevState));
 		changeState(prevState);
 	}
 
+	/**
+	 * Writes the current and previous state and the state of all timers to the snapshot buffer.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void saveState(StateBuffer buffer) {
+		buffer.putEnum(currentState).putEnum(prevState);
+		for (var timer : timers) {
+			timer.saveState(buffer);
+		}
+	}
+
+	/**
+	 * Restores the state written by {@link #saveState(StateBuffer)}. No state hook methods are executed and no state
+	 * change events are published.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void restoreState(StateBuffer buffer) {
+		currentState = buffer.getEnum(states);
+		prevState = buffer.getEnum(states);
+		for (var timer : timers) {
+			timer.restoreState(buffer);
+		}
+	}
+
 	/**
 	 * Updates this FSM's current state.
 	 * <p>
@@ -162,13 +211,13 @@ public abstract class Fsm<S extends FsmState<C>, C> {
 		try {
 			currentState.onUpdate(context());
 		} catch (Exception x) {
-			Logger.trace("Error updating state {}, timer={}", currentState, currentState.timer());
+			Logger.trace("Error updating state {}, timer={}", currentState, timer());
 			x.printStackTrace();
 		}
-		if (currentState.timer().state() == State.READY) {
-			currentState.timer().start();
+		if (timer().state() == State.READY) {
+			timer().start();
 		} else {
-			currentState.timer().advance();
+			timer().advance();
 		}
 	}
 }
\ No newline at end of file
@@ -9,7 +9,7 @@ import de.amr.games.pacman.model.*;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Random;
-import java.util.stream.Stream;
+import java.util.random.RandomGenerator;
 
 /**
  * @author Armin Reichert
@@ -22,6 +22,10 @@ public class Globals {
 	/** Half tile size (4px). */
 	public static final int HTS = 4;
 
+	/**
+	 * Shared generator for cosmetic randomness (UI effects etc.). Game logic uses the generator of its game level, see
+	 * {@link GameLevel#random()}.
+	 */
 	public static final Random RND = new Random();
 
 	private static final String MSG_GAME_NULL = "Game model must not be null";
@@ -30,7 +34,7 @@ public class Globals {
 	private static final String MSG_DIR_NULL = "Direction must not be null";
 
 	public static Vector2i v2i(int x, int y) {
-		return new Vector2i(x, y);
+		return Vector2i.of(x, y);
 	}
 
 	public static Vector2f v2f(double x, double y) {
@@ -132,12 +136,23 @@ public class Globals {
 	 *         guarantee <code>a<=b</code>
 	 */
 	public static int randomInt(int a, int b) {
+		return randomInt(RND, a, b);
+	}
+
+	/**
+	 * @param rnd random generator
+	 * @param a   left interval bound
+	 * @param b   right interval bound
+	 * @return Random integer number from right-open interval <code>[a; b[</code> computed by given generator. Interval
+	 *         bounds are rearranged to guarantee <code>a<=b</code>
+	 */
+	public static int randomInt(RandomGenerator rnd, int a, int b) {
 		if (a > b) {
 			var tmp = a;
 			a = b;
 			b = tmp;
 		}
-		return a + RND.nextInt(b - a);
+		return a + rnd.nextInt(b - a);
 	}
 
 	/**
@@ -147,12 +162,23 @@ public class Globals {
 	 *         to guarantee <code>a<=b</code>
 	 */
 	public static float randomFloat(float a, float b) {
+		return randomFloat(RND, a, b);
+	}
+
+	/**
+	 * @param rnd random generator
+	 * @param a   left interval bound
+	 * @param b   right interval bound
+	 * @return Random floating-point number from right-open interval <code>[a; b[</code> computed by given generator.
+	 *         Interval bounds are rearranged to guarantee <code>a<=b</code>
+	 */
+	public static float randomFloat(RandomGenerator rnd, float a, float b) {
 		if (a > b) {
 			var tmp = a;
 			a = b;
 			b = tmp;
 		}
-		return a + (b - a) * RND.nextFloat();
+		return a + (b - a) * rnd.nextFloat();
 	}
 
 	/**
@@ -252,13 +278,11 @@ public class Globals {
 
 	@SafeVarargs
 	public static <T> boolean oneOf(T value, T... alternatives) {
-		switch (alternatives.length) {
-		case 0:
-			return false;
-		case 1:
-			return value.equals(alternatives[0]);
-		default:
-			return Stream.of(alternatives).anyMatch(value::equals);
+		for (var alternative : alternatives) {
+			if (value.equals(alternative)) {
+				return true;
+			}
 		}
+		return false;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.lib;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations (or any non-negative long values) with log-linear buckets like an HDR histogram.
+ * <p>
+ * Values below 64 are counted exactly, larger values fall into one of 32 linear sub-buckets of their power of 2, so a
+ * reported percentile is at most about 3% larger than the exact value. Recording is O(1) and never allocates.
+ * <p>
+ * The histogram is not synchronized. If it is read by another thread than the recording one, the values read may be
+ * slightly out of date.
+ *
+ * @author Armin Reichert
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS; // values below are counted exactly
+	private static final int NUM_BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+	private static int bucketIndex(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	private static long highestValueInBucket(int index) {
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long top = index % SUB_BUCKETS + SUB_BUCKETS;
+		return ((top + 1) << shift) - 1;
+	}
+
+	private final long[] counts = new long[NUM_BUCKETS];
+	private long count;
+	private long sum;
+	private long max;
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value value, negative values are recorded as 0
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		++counts[bucketIndex(value)];
+		++count;
+		sum += value;
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	/** @return number of recorded values */
+	public long count() {
+		return count;
+	}
+
+	/** @return largest recorded value (exact) or 0 if no values have been recorded */
+	public long max() {
+		return max;
+	}
+
+	/** @return mean of the recorded values or 0 if no values have been recorded */
+	public double mean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * @param percentile percentile in range <code>[0, 100]</code>
+	 * @return value such that the given percentage of the recorded values is less than or equal to it, or 0 if no values
+	 *         have been recorded
+	 */
+	public long valueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be in range [0, 100] but is " + percentile);
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; ++i) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueInBucket(i), max);
+			}
+		}
+		return max;
+	}
+}
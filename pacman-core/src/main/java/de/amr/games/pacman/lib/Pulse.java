@@ -46,6 +46,27 @@ public class Pulse {
 		start();
 	}
 
+	/**
+	 * Adds the state of this pulse to the given hash.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(value).add(t).add(frames).add(stopped).add(numFramesTotal);
+	}
+
+	public void saveState(StateBuffer buffer) {
+		buffer.putBoolean(value).putInt(t).putInt(frames).putBoolean(stopped).putInt(numFramesTotal);
+	}
+
+	public void restoreState(StateBuffer buffer) {
+		value = buffer.getBoolean();
+		t = buffer.getInt();
+		frames = buffer.getInt();
+		stopped = buffer.getBoolean();
+		numFramesTotal = buffer.getInt();
+	}
+
 	public void tick() {
 		if (stopped || frames == numFramesTotal) {
 			return;
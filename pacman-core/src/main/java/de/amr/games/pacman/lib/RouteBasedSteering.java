@@ -40,18 +40,50 @@ public class RouteBasedSteering extends Steering {
 		complete = false;
 	}
 
+	@Override
+	public void hashState(StateHash hash) {
+		super.hashState(hash);
+		hash.add(route.size()).add(targetIndex).add(complete);
+	}
+
+	/**
+	 * Saves the progress on the route, the route itself is not saved.
+	 */
+	@Override
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putInt(targetIndex).putBoolean(complete);
+	}
+
+	@Override
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		targetIndex = buffer.getInt();
+		complete = buffer.getBoolean();
+	}
+
+	public List<NavigationPoint> route() {
+		return route;
+	}
+
 	@Override
 	public void steer(GameLevel level, Creature guy) {
 		guy.navigateTowardsTarget();
 		if (targetIndex == route.size()) {
 			complete = true;
-		} else if (guy.targetTile().isEmpty()) {
+		} else if (!guy.hasTargetTile()) {
 			guy.setTargetTile(currentTarget().tile());
 			guy.navigateTowardsTarget();
-			Logger.trace("New target tile for {}={}s", guy.name(), guy.targetTile().get());
+			logTargetTile(guy);
 		} else if (guy.tile().equals(currentTarget().tile())) {
 			nextTarget(guy);
-			Logger.trace("New target tile for {}={}", guy.name(), guy.targetTile().get());
+			logTargetTile(guy);
+		}
+	}
+
+	private static void logTargetTile(Creature guy) {
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("New target tile for {}={}", guy.name(), guy.targetTile().orElse(null));
 		}
 	}
 
@@ -8,13 +8,13 @@ import de.amr.games.pacman.controller.Steering;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.actors.*;
+import de.amr.games.pacman.model.world.MazeDistances;
 import org.tinylog.Logger;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static de.amr.games.pacman.lib.Globals.tileAt;
 
@@ -64,6 +64,9 @@ public class RuleBasedSteering extends Steering {
 		}
 	}
 
+	/** Receives the tile indices of the nearest food tiles. */
+	private final int[] nearestFood = new int[16];
+
 	@Override
 	public void steer(GameLevel level, Creature guy) {
 		if (guy.moved() && !guy.isNewTileEntered()) {
@@ -82,18 +85,22 @@ public class RuleBasedSteering extends Steering {
 		Ghost hunterAhead = findHuntingGhostAhead(level); // Where is Hunter?
 		if (hunterAhead != null) {
 			data.hunterAhead = hunterAhead;
-			data.hunterAheadDistance = pac.tile().manhattanDistance(hunterAhead.tile());
+			data.hunterAheadDistance = pathDistance(level, pac.tile(), hunterAhead.tile());
 		}
 		Ghost hunterBehind = findHuntingGhostBehind(level);
 		if (hunterBehind != null) {
 			data.hunterBehind = hunterBehind;
-			data.hunterBehindDistance = pac.tile().manhattanDistance(hunterBehind.tile());
+			data.hunterBehindDistance = pathDistance(level, pac.tile(), hunterBehind.tile());
 		}
-		data.frightenedGhosts = level.ghosts(GhostState.FRIGHTENED)
-				.filter(ghost -> ghost.tile().manhattanDistance(pac.tile()) <= CollectedData.MAX_GHOST_CHASE_DIST)
-				.collect(Collectors.toList());
-		data.frightenedGhostsDistance = data.frightenedGhosts.stream()
-				.map(ghost -> ghost.tile().manhattanDistance(pac.tile())).collect(Collectors.toList());
+		data.frightenedGhosts = new ArrayList<>(4);
+		data.frightenedGhostsDistance = new ArrayList<>(4);
+		level.forEachGhost(GhostStateSet.of(GhostState.FRIGHTENED), ghost -> {
+			float distance = pathDistance(level, ghost.tile(), pac.tile());
+			if (distance <= CollectedData.MAX_GHOST_CHASE_DIST) {
+				data.frightenedGhosts.add(ghost);
+				data.frightenedGhostsDistance.add(distance);
+			}
+		});
 		return data;
 	}
 
@@ -120,16 +127,37 @@ public class RuleBasedSteering extends Steering {
 
 		if (!data.frightenedGhosts.isEmpty() && pac.powerTimer().remaining() >= GameModel.FPS) {
 			Ghost prey = data.frightenedGhosts.get(0);
-			Logger.trace("Detected frightened ghost {} {} tiles away", prey.name(),
-					prey.tile().manhattanDistance(pac.tile()));
-			pac.setTargetTile(prey.tile());
+			Logger.trace("Detected frightened ghost {} {} tiles away", prey.name(), data.frightenedGhostsDistance.get(0));
+			headFor(level, prey.tile());
 		} else if (isEdibleBonusNearPac(level, pac)) {
 			Logger.trace("Active bonus detected, get it!");
-			level.bonus().ifPresent(bonus -> pac.setTargetTile(tileAt(bonus.entity().position())));
+			level.bonus().ifPresent(bonus -> headFor(level, tileAt(bonus.entity().position())));
 		} else {
-			pac.setTargetTile(findTileFarthestFromGhosts(level, findNearestFoodTiles(level)));
+			headFor(level, findNearestFoodTileFarthestFromGhosts(level));
 		}
-		pac.navigateTowardsTarget();
+	}
+
+	/**
+	 * Lets Pac-Man take the first step of a shortest maze path to the target tile. If there is no such path, Pac-Man
+	 * navigates towards the target tile as usual.
+	 */
+	private void headFor(GameLevel level, Vector2i target) {
+		var pac = level.pac();
+		pac.setTargetTile(target);
+		var dir = target != null ? level.world().mazeDistances().firstStep(pac.tile(), target) : null;
+		if (dir != null) {
+			pac.setWishDir(dir);
+		} else {
+			pac.navigateTowardsTarget();
+		}
+	}
+
+	/**
+	 * @return maze path distance between the tiles or {@link Float#MAX_VALUE} if they are not connected
+	 */
+	private float pathDistance(GameLevel level, Vector2i from, Vector2i to) {
+		int dist = level.world().mazeDistances().distance(from, to);
+		return dist == MazeDistances.UNREACHABLE ? Float.MAX_VALUE : dist;
 	}
 
 	private boolean isEdibleBonusNearPac(GameLevel level, Pac pac) {
@@ -138,7 +166,7 @@ public class RuleBasedSteering extends Steering {
 			var bonus = optBonus.get();
 			var tile = tileAt(bonus.entity().position());
 			return bonus.state() == Bonus.STATE_EDIBLE
-					&& tile.manhattanDistance(pac.tile()) <= CollectedData.MAX_BONUS_HARVEST_DIST;
+					&& pathDistance(level, tile, pac.tile()) <= CollectedData.MAX_BONUS_HARVEST_DIST;
 		}
 		return false;
 	}
@@ -157,15 +185,14 @@ public class RuleBasedSteering extends Steering {
 			}
 			var aheadLeft = ahead.plus(pac.moveDir().nextAntiClockwise().vector());
 			var aheadRight = ahead.plus(pac.moveDir().nextClockwise().vector());
-			Iterable<Ghost> huntingGhosts = level.ghosts(GhostState.HUNTING_PAC)::iterator;
-			for (var ghost : huntingGhosts) {
-				if (ghost.tile().equals(ahead) || ghost.tile().equals(aheadLeft) || ghost.tile().equals(aheadRight)) {
-					if (energizerFound) {
-						Logger.trace("Ignore hunting ghost ahead, energizer comes first!");
-						return null;
-					}
-					return ghost;
+			var ghost = level.findGhost(GhostStateSet.of(GhostState.HUNTING_PAC),
+				hunter -> hunter.tile().equals(ahead) || hunter.tile().equals(aheadLeft) || hunter.tile().equals(aheadRight));
+			if (ghost != null) {
+				if (energizerFound) {
+					Logger.trace("Ignore hunting ghost ahead, energizer comes first!");
+					return null;
 				}
+				return ghost;
 			}
 		}
 		return null;
@@ -179,11 +206,9 @@ public class RuleBasedSteering extends Steering {
 			if (!pac.canAccessTile(behind)) {
 				break;
 			}
-			Iterable<Ghost> huntingGhosts = level.ghosts(GhostState.HUNTING_PAC)::iterator;
-			for (Ghost ghost : huntingGhosts) {
-				if (ghost.tile().equals(behind)) {
-					return ghost;
-				}
+			var ghost = level.findGhost(GhostStateSet.of(GhostState.HUNTING_PAC), hunter -> hunter.tile().equals(behind));
+			if (ghost != null) {
+				return ghost;
 			}
 		}
 		return null;
@@ -193,7 +218,7 @@ public class RuleBasedSteering extends Steering {
 		var pac = level.pac();
 		Vector2i pacManTile = pac.tile();
 		List<Direction> escapes = new ArrayList<>(4);
-		for (Direction dir : Direction.shuffled()) {
+		for (Direction dir : Direction.shuffled(level.random())) {
 			if (forbidden.contains(dir)) {
 				continue;
 			}
@@ -211,57 +236,37 @@ public class RuleBasedSteering extends Steering {
 		return escapes.isEmpty() ? null : escapes.get(0);
 	}
 
-	private List<Vector2i> findNearestFoodTiles(GameLevel level) {
-		long time = System.nanoTime();
+	/**
+	 * @return among the uneaten food tiles nearest to Pac-Man (by maze path distance) the one with the largest
+	 *         distance from the nearest ghost, <code>null</code> if no food is reachable
+	 */
+	private Vector2i findNearestFoodTileFarthestFromGhosts(GameLevel level) {
 		var pac = level.pac();
-		List<Vector2i> foodTiles = new ArrayList<>();
-		Vector2i pacManTile = pac.tile();
-		float minDist = Float.MAX_VALUE;
-		for (int x = 0; x < level.world().numCols(); ++x) {
-			for (int y = 0; y < level.world().numRows(); ++y) {
-				Vector2i tile = new Vector2i(x, y);
-				if (!level.world().isFoodTile(tile) || level.world().hasEatenFoodAt(tile)) {
-					continue;
-				}
-				if (level.world().isEnergizerTile(tile) && pac.powerTimer().remaining() > 2 * 60
-						&& level.world().uneatenFoodCount() > 1) {
-					continue;
-				}
-				float dist = pacManTile.manhattanDistance(tile);
-				if (dist < minDist) {
-					minDist = dist;
-					foodTiles.clear();
-					foodTiles.add(tile);
-				} else if (dist == minDist) {
-					foodTiles.add(tile);
-				}
-			}
+		var world = level.world();
+		boolean includeEnergizers = pac.powerTimer().remaining() <= 2 * 60 || world.uneatenFoodCount() <= 1;
+		int count = world.foodIndex().findNearestFood(pac.tile(), includeEnergizers, nearestFood);
+		if (count == 0 && !includeEnergizers) {
+			count = world.foodIndex().findNearestFood(pac.tile(), true, nearestFood);
 		}
-		time = System.nanoTime() - time;
-		Logger.trace("Nearest food tiles from Pac-Man location {}: (time {} millis)", pacManTile, time / 1_000_000f);
-		for (Vector2i t : foodTiles) {
-			Logger.trace("\t{} ({} tiles away from Pac-Man, {} tiles away from ghosts)", t, t.manhattanDistance(pacManTile),
-					minDistanceFromGhosts(level));
-		}
-		return foodTiles;
-	}
-
-	private Vector2i findTileFarthestFromGhosts(GameLevel level, List<Vector2i> tiles) {
 		Vector2i farthestTile = null;
 		float maxDist = -1;
-		for (Vector2i tile : tiles) {
-			float dist = minDistanceFromGhosts(level);
+		for (int i = 0; i < count; ++i) {
+			var tile = world.tile(nearestFood[i]);
+			float dist = minDistanceFromGhosts(level, tile);
 			if (dist > maxDist) {
 				maxDist = dist;
 				farthestTile = tile;
 			}
 		}
+		Logger.trace("Nearest food tile from Pac-Man location {}: {} ({} candidates)", pac.tile(), farthestTile, count);
 		return farthestTile;
 	}
 
-	private float minDistanceFromGhosts(GameLevel level) {
-		return (float) level.ghosts().map(Ghost::tile)
-			.mapToDouble(level.pac().tile()::manhattanDistance)
-			.min().orElse(Float.MAX_VALUE);
+	private float minDistanceFromGhosts(GameLevel level, Vector2i tile) {
+		float minDist = Float.MAX_VALUE;
+		for (byte id = GameModel.RED_GHOST; id <= GameModel.ORANGE_GHOST; ++id) {
+			minDist = Math.min(minDist, pathDistance(level, tile, level.ghost(id).tile()));
+		}
+		return minDist;
 	}
-}
\ No newline at end of file
+}
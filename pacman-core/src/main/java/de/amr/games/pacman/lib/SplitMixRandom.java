@@ -0,0 +1,140 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.lib;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * SplitMix64 random generator with readable and restorable state.
+ * <p>
+ * Implements the algorithm of {@link SplittableRandom}: a generator created with the same seed (or split off a
+ * generator in the same state) produces exactly the same sequence of values as the corresponding
+ * <code>SplittableRandom</code>. Unlike the JDK class, the state (seed and gamma) can be saved and restored, which is
+ * needed for state snapshots (see {@link StateBuffer}).
+ * <p>
+ * The generator also counts the calls that drew values from it, see {@link #draws()}.
+ *
+ * @author Armin Reichert
+ */
+public class SplitMixRandom implements RandomGenerator {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L; // gamma must be odd
+		int n = Long.bitCount(z ^ (z >>> 1)); // ensure enough transitions
+		return n < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+	private long seed;
+	private long gamma;
+	private long draws;
+
+	/**
+	 * @param seed initial seed, same sequence as <code>new SplittableRandom(seed)</code>
+	 */
+	public SplitMixRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private SplitMixRandom(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * @return new generator, same as {@link SplittableRandom#split()} on a generator in the same state
+	 */
+	public SplitMixRandom split() {
+		return new SplitMixRandom(nextLong(), mixGamma(nextSeed()));
+	}
+
+	/** @return number of calls that drew values from this generator */
+	public long draws() {
+		return draws;
+	}
+
+	public void saveState(StateBuffer buffer) {
+		buffer.putLong(seed).putLong(gamma).putLong(draws);
+	}
+
+	public void restoreState(StateBuffer buffer) {
+		seed = buffer.getLong();
+		gamma = buffer.getLong();
+		draws = buffer.getLong();
+	}
+
+	private long nextSeed() {
+		return seed += gamma;
+	}
+
+	@Override
+	public int nextInt() {
+		++draws;
+		return mix32(nextSeed());
+	}
+
+	@Override
+	public long nextLong() {
+		++draws;
+		return mix64(nextSeed());
+	}
+
+	// The derived methods use the default algorithms (same as SplittableRandom) and count as a single draw
+
+	@Override
+	public int nextInt(int bound) {
+		long count = draws;
+		int value = RandomGenerator.super.nextInt(bound);
+		draws = count + 1;
+		return value;
+	}
+
+	@Override
+	public int nextInt(int origin, int bound) {
+		long count = draws;
+		int value = RandomGenerator.super.nextInt(origin, bound);
+		draws = count + 1;
+		return value;
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		long count = draws;
+		boolean value = RandomGenerator.super.nextBoolean();
+		draws = count + 1;
+		return value;
+	}
+
+	@Override
+	public float nextFloat() {
+		long count = draws;
+		float value = RandomGenerator.super.nextFloat();
+		draws = count + 1;
+		return value;
+	}
+
+	@Override
+	public double nextDouble() {
+		long count = draws;
+		double value = RandomGenerator.super.nextDouble();
+		draws = count + 1;
+		return value;
+	}
+}
@@ -0,0 +1,233 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.lib;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Growable byte buffer for binary state snapshots (see
+ * {@link de.amr.games.pacman.controller.GameSession#saveState(StateBuffer)}).
+ * <p>
+ * The values are written by the <code>put</code> methods and read back in the same order by the corresponding
+ * <code>get</code> methods. The buffer does not store any type information, so reader and writer must agree on the
+ * layout. Writing and reading do not create objects once the buffer has grown to the snapshot size.
+ *
+ * @author Armin Reichert
+ */
+public class StateBuffer {
+
+	private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private byte[] bytes;
+	private int size;
+	private int position;
+
+	/**
+	 * @param capacity initial capacity in bytes
+	 */
+	public StateBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Buffer capacity must be positive but is " + capacity);
+		}
+		bytes = new byte[capacity];
+	}
+
+	public StateBuffer() {
+		this(2048);
+	}
+
+	@Override
+	public String toString() {
+		return "StateBuffer[size=" + size + ", position=" + position + ", capacity=" + bytes.length + "]";
+	}
+
+	/** @return number of bytes written */
+	public int size() {
+		return size;
+	}
+
+	/** @return position of the next byte read */
+	public int position() {
+		return position;
+	}
+
+	/**
+	 * Empties the buffer for writing a new snapshot.
+	 *
+	 * @return this
+	 */
+	public StateBuffer clear() {
+		size = 0;
+		position = 0;
+		return this;
+	}
+
+	/**
+	 * Sets the read position to the start, so the snapshot can be read (again).
+	 *
+	 * @return this
+	 */
+	public StateBuffer rewind() {
+		position = 0;
+		return this;
+	}
+
+	/**
+	 * Sets the read position, e.g. to read a part of the snapshot again.
+	 *
+	 * @param position new read position, at most {@link #size()}
+	 * @return this
+	 */
+	public StateBuffer seek(int position) {
+		if (position < 0 || position > size) {
+			throw new IllegalArgumentException("Invalid read position: " + position);
+		}
+		this.position = position;
+		return this;
+	}
+
+	/**
+	 * Copies the written bytes into the given array.
+	 *
+	 * @param target array with at least {@link #size()} elements
+	 */
+	public void copyTo(byte[] target) {
+		checkNotNull(target);
+		System.arraycopy(bytes, 0, target, 0, size);
+	}
+
+	/** @return copy of the written bytes */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(bytes, size);
+	}
+
+	/**
+	 * Replaces the content of this buffer by the given bytes and prepares reading them.
+	 *
+	 * @param source source array
+	 * @param length number of bytes to copy
+	 * @return this
+	 */
+	public StateBuffer load(byte[] source, int length) {
+		checkNotNull(source);
+		if (length < 0 || length > source.length) {
+			throw new IllegalArgumentException("Invalid snapshot length: " + length);
+		}
+		size = 0;
+		reserve(length);
+		System.arraycopy(source, 0, bytes, 0, length);
+		size = length;
+		position = 0;
+		return this;
+	}
+
+	// writing
+
+	private int reserve(int n) {
+		int start = size;
+		if (start + n > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, start + n));
+		}
+		size = start + n;
+		return start;
+	}
+
+	public StateBuffer putLong(long value) {
+		int index = reserve(Long.BYTES); // may replace the array
+		LONG.set(bytes, index, value);
+		return this;
+	}
+
+	public StateBuffer putInt(int value) {
+		int index = reserve(Integer.BYTES);
+		INT.set(bytes, index, value);
+		return this;
+	}
+
+	public StateBuffer putByte(int value) {
+		int index = reserve(1);
+		bytes[index] = (byte) value;
+		return this;
+	}
+
+	public StateBuffer putFloat(float value) {
+		return putInt(Float.floatToRawIntBits(value));
+	}
+
+	public StateBuffer putBoolean(boolean value) {
+		return putByte(value ? 1 : 0);
+	}
+
+	/**
+	 * @param value enum constant (at most 127 constants), may be <code>null</code>
+	 * @return this
+	 */
+	public StateBuffer putEnum(Enum<?> value) {
+		return putByte(value != null ? value.ordinal() : -1);
+	}
+
+	/**
+	 * @param tile tile, may be <code>null</code>
+	 * @return this
+	 */
+	public StateBuffer putTile(Vector2i tile) {
+		putBoolean(tile != null);
+		if (tile != null) {
+			putInt(tile.x()).putInt(tile.y());
+		}
+		return this;
+	}
+
+	// reading
+
+	private int consume(int n) {
+		int start = position;
+		if (start + n > size) {
+			throw new IllegalStateException("Cannot read beyond the end of the snapshot: " + this);
+		}
+		position = start + n;
+		return start;
+	}
+
+	public long getLong() {
+		return (long) LONG.get(bytes, consume(Long.BYTES));
+	}
+
+	public int getInt() {
+		return (int) INT.get(bytes, consume(Integer.BYTES));
+	}
+
+	public byte getByte() {
+		return bytes[consume(1)];
+	}
+
+	public float getFloat() {
+		return Float.intBitsToFloat(getInt());
+	}
+
+	public boolean getBoolean() {
+		return getByte() != 0;
+	}
+
+	/**
+	 * @param values constants of the enum type, e.g. cached result of <code>values()</code>
+	 * @return enum constant or <code>null</code>
+	 */
+	public <E extends Enum<E>> E getEnum(E[] values) {
+		int ordinal = getByte();
+		return ordinal != -1 ? values[ordinal] : null;
+	}
+
+	/** @return tile or <code>null</code> */
+	public Vector2i getTile() {
+		return getBoolean() ? Vector2i.of(getInt(), getInt()) : null;
+	}
+}
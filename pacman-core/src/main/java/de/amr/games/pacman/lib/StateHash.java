@@ -0,0 +1,84 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.lib;
+
+/**
+ * Accumulates a 64-bit hash over a sequence of values. Used to fingerprint the complete simulation state after each
+ * frame, so two runs can be compared frame by frame (see {@link de.amr.games.pacman.controller.GameSession#stateHash()}).
+ * <p>
+ * The hash depends on the values and their order. Adding a value does not allocate any objects. This is no
+ * cryptographic hash, it only has to make accidental collisions of different states very unlikely.
+ *
+ * @author Armin Reichert
+ */
+public class StateHash {
+
+	private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Finalizer of the SplitMix64 generator: a bijection on 64-bit values with good avalanche behavior.
+	 *
+	 * @param value any value
+	 * @return mixed value
+	 */
+	public static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+	private long hash;
+	private long count;
+
+	/**
+	 * Starts a new hash computation.
+	 *
+	 * @return this
+	 */
+	public StateHash reset() {
+		hash = 0;
+		count = 0;
+		return this;
+	}
+
+	public StateHash add(long value) {
+		hash = Long.rotateLeft(hash * MULTIPLIER, 31) ^ mix(value + count * MULTIPLIER);
+		++count;
+		return this;
+	}
+
+	public StateHash add(int value) {
+		return add((long) value);
+	}
+
+	public StateHash add(float value) {
+		return add(Float.floatToIntBits(value));
+	}
+
+	public StateHash add(boolean value) {
+		return add(value ? 1 : 0);
+	}
+
+	/**
+	 * @param value enum constant, may be <code>null</code>
+	 * @return this
+	 */
+	public StateHash add(Enum<?> value) {
+		return add(value != null ? value.ordinal() : -1);
+	}
+
+	/**
+	 * @param tile tile, may be <code>null</code>
+	 * @return this
+	 */
+	public StateHash add(Vector2i tile) {
+		return tile != null ? add(tile.x()).add(tile.y()) : add(Long.MIN_VALUE);
+	}
+
+	/** @return hash of the values added since the last reset */
+	public long value() {
+		return mix(hash ^ count);
+	}
+}
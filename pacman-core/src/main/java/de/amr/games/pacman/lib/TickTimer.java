@@ -15,6 +15,9 @@ import static de.amr.games.pacman.lib.TickTimer.State.*;
 
 /**
  * A simple, but useful, passive timer counting ticks.
+ * <p>
+ * Timer events are only created if someone listens to them. For timeouts that only need to execute an action, a
+ * {@link TimerWheel} is cheaper because it does not need to be polled each tick.
  * 
  * @author Armin Reichert
  */
@@ -26,6 +29,8 @@ public class TickTimer {
 
 	public static final long INDEFINITE = Long.MAX_VALUE;
 
+	private static final State[] STATES = State.values();
+
 	/**
 	 * @param sec seconds
 	 */
@@ -48,6 +53,30 @@ public class TickTimer {
 		resetIndefinitely();
 	}
 
+	/**
+	 * Adds the state of this timer to the given hash.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(state).add(duration).add(tick);
+	}
+
+	public void saveState(StateBuffer buffer) {
+		buffer.putEnum(state).putLong(duration).putLong(tick);
+	}
+
+	/**
+	 * Restores the timer state without firing events.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void restoreState(StateBuffer buffer) {
+		state = buffer.getEnum(STATES);
+		duration = buffer.getLong();
+		tick = buffer.getLong();
+	}
+
 	public void addEventListener(Consumer<TickTimerEvent> subscriber) {
 		if (subscribers == null) {
 			subscribers = new ArrayList<>(3);
@@ -61,9 +90,13 @@ public class TickTimer {
 		}
 	}
 
+	private boolean hasSubscribers() {
+		return subscribers != null && !subscribers.isEmpty();
+	}
+
 	private void fireEvent(TickTimerEvent e) {
-		if (subscribers != null) {
-			subscribers.forEach(subscriber -> subscriber.accept(e));
+		for (var subscriber : subscribers) {
+			subscriber.accept(e);
 		}
 	}
 
@@ -90,8 +123,12 @@ public class TickTimer {
 		duration = ticks;
 		tick = 0;
 		state = READY;
-		Logger.trace("{} reset", this);
-		fireEvent(new TickTimerEvent(Type.RESET, ticks));
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("{} reset", this);
+		}
+		if (hasSubscribers()) {
+			fireEvent(new TickTimerEvent(Type.RESET, ticks));
+		}
 	}
 
 	/**
@@ -117,17 +154,25 @@ public class TickTimer {
 	public void start() {
 		switch (state) {
 		case RUNNING: {
-			Logger.trace("Timer {} not started, already running", this);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("Timer {} not started, already running", this);
+			}
 			break;
 		}
 		case EXPIRED: {
-			Logger.trace("Timer {} not started, has expired", this);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("Timer {} not started, has expired", this);
+			}
 			break;
 		}
 		default: {
 			state = RUNNING;
-			Logger.trace("{} started", this);
-			fireEvent(new TickTimerEvent(Type.STARTED));
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} started", this);
+			}
+			if (hasSubscribers()) {
+				fireEvent(new TickTimerEvent(Type.STARTED));
+			}
 			break;
 		}
 		}
@@ -158,20 +203,30 @@ public class TickTimer {
 		switch (state) {
 		case RUNNING: {
 			state = STOPPED;
-			Logger.trace("{} stopped", this);
-			fireEvent(new TickTimerEvent(Type.STOPPED));
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} stopped", this);
+			}
+			if (hasSubscribers()) {
+				fireEvent(new TickTimerEvent(Type.STOPPED));
+			}
 			break;
 		}
 		case STOPPED: {
-			Logger.trace("{} already stopped", this);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} already stopped", this);
+			}
 			break;
 		}
 		case READY: {
-			Logger.trace("{} not stopped, was not running", this);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} not stopped, was not running", this);
+			}
 			break;
 		}
 		case EXPIRED: {
-			Logger.trace("{} not stopped, has expired", this);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} not stopped, has expired", this);
+			}
 			break;
 		}
 		default:
@@ -198,8 +253,12 @@ public class TickTimer {
 	public void expire() {
 		if (state != EXPIRED) {
 			state = EXPIRED;
-			Logger.trace("{} expired", this);
-			fireEvent(new TickTimerEvent(Type.EXPIRED, tick));
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} expired", this);
+			}
+			if (hasSubscribers()) {
+				fireEvent(new TickTimerEvent(Type.EXPIRED, tick));
+			}
 		}
 	}
 
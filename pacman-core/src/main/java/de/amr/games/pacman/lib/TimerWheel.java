@@ -0,0 +1,307 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.lib;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Hashed timer wheel keyed by tick number.
+ * <p>
+ * Timeouts register once and are stored in the slot <code>deadline mod numSlots</code>. Each call of {@link #advance()}
+ * visits only the slot of the new tick, so scheduling, cancelling and firing a timeout costs O(1) and timeouts that are
+ * not due cost nothing, no matter how many of them exist. Timeouts whose deadline is more than one revolution ahead
+ * share the slot and are skipped until their tick has come.
+ * <p>
+ * Due timeouts fire in the order they were scheduled. Actions may schedule or cancel timeouts, also of the same tick.
+ * <p>
+ * A timeout created by {@link #timeout(Runnable)} can be scheduled again and again, so owners that schedule the same
+ * action repeatedly (e.g. the bonus expiration) do not create any objects.
+ * <p>
+ * Only timers that just fire an action belong here. The state timer, the hunting timer, the power timer of Pac-Man
+ * and the timers of the intro and intermission scenes stay {@link TickTimer}s and the blinking {@link Pulse}s keep
+ * their counters: their elapsed and remaining ticks are read every frame (state machine, flashing ghosts and maze,
+ * snapshots, state hash, rendering), so they are never idle and advancing them is a single counter increment. On the
+ * wheel, they would cost the same queries each frame plus the bookkeeping of the wheel.
+ *
+ * @author Armin Reichert
+ */
+public class TimerWheel {
+
+	/**
+	 * Handle of a scheduled action.
+	 */
+	public static final class Timeout {
+
+		private final TimerWheel wheel;
+		private final Runnable action;
+		private long period;
+		private long deadline;
+		private int slot = -1; // -1: not in a slot
+		private boolean pending;
+		private boolean due; // in the list of timeouts to be fired by the current advance() call
+		private Timeout prev;
+		private Timeout next;
+		private Timeout nextDue;
+
+		private Timeout(TimerWheel wheel, Runnable action, long deadline, long period) {
+			this.wheel = wheel;
+			this.action = action;
+			this.deadline = deadline;
+			this.period = period;
+		}
+
+		/** @return tick at which the action is (or was) executed next */
+		public long deadline() {
+			return deadline;
+		}
+
+		/** @return period in ticks of a periodic timeout, 0 for a one-shot timeout */
+		public long period() {
+			return period;
+		}
+
+		/** @return if the action has not yet been executed (resp. will be executed again) and was not cancelled */
+		public boolean isPending() {
+			return pending;
+		}
+
+		/**
+		 * Schedules this timeout to be executed once. If it is pending, it is cancelled first.
+		 *
+		 * @param delay number of ticks until execution (positive), see {@link TimerWheel#schedule(long, Runnable)}
+		 * @return this timeout
+		 */
+		public Timeout schedule(long delay) {
+			checkDelay(delay);
+			cancel();
+			deadline = wheel.now + delay;
+			period = 0;
+			return wheel.add(this);
+		}
+
+		/**
+		 * Cancels the timeout. Does nothing if it is not pending anymore.
+		 */
+		public void cancel() {
+			if (pending) {
+				pending = false;
+				due = false;
+				wheel.unlink(this);
+				--wheel.size;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Timeout[deadline=" + deadline + ", period=" + period + ", pending=" + pending + "]";
+		}
+	}
+
+	private final Timeout[] heads;
+	private final Timeout[] tails;
+	private final int mask;
+	private long now;
+	private int size;
+	private Timeout dueHead; // timeouts to be fired by the current advance() call
+	private Timeout dueTail;
+
+	/**
+	 * @param numSlots number of slots (rounded up to a power of 2)
+	 */
+	public TimerWheel(int numSlots) {
+		if (numSlots <= 0) {
+			throw new IllegalArgumentException("Number of slots must be positive but is " + numSlots);
+		}
+		int n = Integer.highestOneBit(numSlots);
+		if (n < numSlots) {
+			n <<= 1;
+		}
+		heads = new Timeout[n];
+		tails = new Timeout[n];
+		mask = n - 1;
+	}
+
+	/**
+	 * Creates a wheel with 256 slots, i.e. timeouts up to about 4 seconds ahead never share a slot with later ones.
+	 */
+	public TimerWheel() {
+		this(256);
+	}
+
+	@Override
+	public String toString() {
+		return "TimerWheel[now=" + now + ", slots=" + heads.length + ", pending=" + size + "]";
+	}
+
+	/** @return number of ticks the wheel has advanced */
+	public long now() {
+		return now;
+	}
+
+	/** @return number of pending timeouts */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Creates a timeout for the given action that is not scheduled yet, see {@link Timeout#schedule(long)}.
+	 *
+	 * @param action action to execute
+	 * @return timeout handle for scheduling and cancelling
+	 */
+	public Timeout timeout(Runnable action) {
+		checkNotNull(action);
+		return new Timeout(this, action, now, 0);
+	}
+
+	/**
+	 * Schedules the given action to be executed once.
+	 *
+	 * @param delay  number of ticks until execution (positive), the action is executed by the <code>delay</code>-th
+	 *               call of {@link #advance()} from now on
+	 * @param action action to execute
+	 * @return timeout handle that can be used for cancelling
+	 */
+	public Timeout schedule(long delay, Runnable action) {
+		checkDelay(delay);
+		checkNotNull(action);
+		return add(new Timeout(this, action, now + delay, 0));
+	}
+
+	/**
+	 * Schedules the given action to be executed every <code>period</code> ticks until the timeout is cancelled.
+	 *
+	 * @param period number of ticks between executions (positive), first execution is after one period
+	 * @param action action to execute
+	 * @return timeout handle that can be used for cancelling
+	 */
+	public Timeout schedulePeriodic(long period, Runnable action) {
+		checkDelay(period);
+		checkNotNull(action);
+		return add(new Timeout(this, action, now + period, period));
+	}
+
+	/**
+	 * Advances the wheel by one tick and executes the actions of all timeouts due at the new tick.
+	 */
+	public void advance() {
+		++now;
+		int slot = (int) (now & mask);
+		// first collect the due timeouts, so actions can freely modify the slot
+		var timeout = heads[slot];
+		while (timeout != null) {
+			var next = timeout.next;
+			if (timeout.deadline == now) {
+				unlink(timeout);
+				timeout.due = true;
+				if (dueTail == null) {
+					dueHead = timeout;
+				} else {
+					dueTail.nextDue = timeout;
+				}
+				dueTail = timeout;
+			}
+			timeout = next;
+		}
+		while (dueHead != null) {
+			timeout = dueHead;
+			dueHead = timeout.nextDue;
+			if (dueHead == null) {
+				dueTail = null;
+			}
+			timeout.nextDue = null;
+			if (!timeout.due) {
+				continue; // cancelled or scheduled again by an action executed before
+			}
+			timeout.due = false;
+			if (timeout.period > 0) {
+				timeout.deadline += timeout.period;
+				link(timeout);
+			} else {
+				timeout.pending = false;
+				--size;
+			}
+			timeout.action.run();
+		}
+	}
+
+	/**
+	 * Cancels all pending timeouts.
+	 */
+	public void clear() {
+		for (int slot = 0; slot < heads.length; ++slot) {
+			var timeout = heads[slot];
+			while (timeout != null) {
+				var next = timeout.next;
+				timeout.pending = false;
+				timeout.prev = timeout.next = null;
+				timeout.slot = -1;
+				timeout = next;
+			}
+			heads[slot] = tails[slot] = null;
+		}
+		for (var timeout = dueHead; timeout != null; timeout = timeout.nextDue) {
+			timeout.pending = false;
+			timeout.due = false;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Cancels all pending timeouts and sets the current tick, e.g. before the timeouts of a saved state are scheduled
+	 * again.
+	 *
+	 * @param now new tick number
+	 */
+	public void reset(long now) {
+		clear();
+		this.now = now;
+	}
+
+	private static void checkDelay(long delay) {
+		if (delay <= 0) {
+			throw new IllegalArgumentException("Timer delay must be positive but is " + delay);
+		}
+	}
+
+	private Timeout add(Timeout timeout) {
+		timeout.pending = true;
+		link(timeout);
+		++size;
+		return timeout;
+	}
+
+	private void link(Timeout timeout) {
+		int slot = (int) (timeout.deadline & mask);
+		timeout.slot = slot;
+		timeout.next = null;
+		timeout.prev = tails[slot];
+		if (tails[slot] == null) {
+			heads[slot] = timeout;
+		} else {
+			tails[slot].next = timeout;
+		}
+		tails[slot] = timeout;
+	}
+
+	private void unlink(Timeout timeout) {
+		int slot = timeout.slot;
+		if (slot == -1) {
+			return; // in the list of due timeouts, skipped when it comes up
+		}
+		if (timeout.prev == null) {
+			heads[slot] = timeout.next;
+		} else {
+			timeout.prev.next = timeout.next;
+		}
+		if (timeout.next == null) {
+			tails[slot] = timeout.prev;
+		} else {
+			timeout.next.prev = timeout.prev;
+		}
+		timeout.prev = timeout.next = null;
+		timeout.slot = -1;
+	}
+}
@@ -4,17 +4,55 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.lib;
 
-import java.util.Objects;
 import java.util.stream.Stream;
 
 /**
  * Immutable int 2D vector.
+ * <p>
+ * Vectors inside the interned range (the Arcade world of 28x36 tiles plus a margin of {@value #INTERN_MARGIN} tiles on
+ * each side) are flyweights: {@link #of(int, int)} and the arithmetic methods return pre-built instances for them
+ * instead of allocating new ones.
  * 
  * @author Armin Reichert
  */
 public final class Vector2i {
 
-	public static final Vector2i ZERO = new Vector2i(0, 0);
+	/**
+	 * Number of tiles around the 28x36 Arcade world covered by the intern table (portals, targets outside the map).
+	 * Inky's chasing target (twice the vector from Blinky to the tile ahead of Pac-Man) can lie more than a world width
+	 * outside, so the margin is chosen large enough to cover it too.
+	 */
+	public static final int INTERN_MARGIN = 40;
+
+	private static final int INTERN_MIN_X = -INTERN_MARGIN;
+	private static final int INTERN_MIN_Y = -INTERN_MARGIN;
+	private static final int INTERN_COLS = 28 + 2 * INTERN_MARGIN;
+	private static final int INTERN_ROWS = 36 + 2 * INTERN_MARGIN;
+	private static final Vector2i[] INTERNED = new Vector2i[INTERN_COLS * INTERN_ROWS];
+
+	static {
+		for (int row = 0; row < INTERN_ROWS; ++row) {
+			for (int col = 0; col < INTERN_COLS; ++col) {
+				INTERNED[row * INTERN_COLS + col] = new Vector2i(INTERN_MIN_X + col, INTERN_MIN_Y + row);
+			}
+		}
+	}
+
+	public static final Vector2i ZERO = of(0, 0);
+
+	/**
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return interned instance if the coordinates are inside the interned range, a new vector otherwise
+	 */
+	public static Vector2i of(int x, int y) {
+		int col = x - INTERN_MIN_X;
+		int row = y - INTERN_MIN_Y;
+		if (0 <= col && col < INTERN_COLS && 0 <= row && row < INTERN_ROWS) {
+			return INTERNED[row * INTERN_COLS + col];
+		}
+		return new Vector2i(x, y);
+	}
 
 	private final int x;
 	private final int y;
@@ -33,23 +71,23 @@ public final class Vector2i {
 	}
 
 	public Vector2i scaled(int s) {
-		return new Vector2i(s * x, s * y);
+		return of(s * x, s * y);
 	}
 
 	public Vector2i plus(Vector2i v) {
-		return new Vector2i(x + v.x, y + v.y);
+		return of(x + v.x, y + v.y);
 	}
 
 	public Vector2i plus(int dx, int dy) {
-		return new Vector2i(x + dx, y + dy);
+		return of(x + dx, y + dy);
 	}
 
 	public Vector2i minus(Vector2i v) {
-		return new Vector2i(x - v.x, y - v.y);
+		return of(x - v.x, y - v.y);
 	}
 
 	public Vector2i minus(int dx, int dy) {
-		return new Vector2i(x - dx, y - dy);
+		return of(x - dx, y - dy);
 	}
 
 	public float euclideanDistance(Vector2i v) {
@@ -75,7 +113,7 @@ public final class Vector2i {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(x, y);
+		return 31 * x + y;
 	}
 
 	@Override
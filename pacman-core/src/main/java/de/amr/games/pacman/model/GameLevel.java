@@ -4,7 +4,6 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model;
 
-import de.amr.games.pacman.controller.GameController;
 import de.amr.games.pacman.event.GameEventType;
 import de.amr.games.pacman.lib.*;
 import de.amr.games.pacman.model.actors.*;
@@ -14,7 +13,9 @@ import de.amr.games.pacman.model.world.World;
 import org.tinylog.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
 import static de.amr.games.pacman.lib.Direction.*;
@@ -55,8 +56,19 @@ public class GameLevel {
 
 	private final boolean demoLevel;
 
+	/** Random generator of this level, split off from the session generator when the level is created. */
+	private final SplitMixRandom rnd;
+
 	private final TickTimer huntingTimer = new TickTimer("HuntingTimer");
 
+	/** Timeouts of this level, the wheel advances once per simulated frame. */
+	private final TimerWheel timers = new TimerWheel();
+
+	private final FrameProfiler.Probe foodHandlingProbe;
+	private final FrameProfiler.Probe houseManagementProbe;
+	private final FrameProfiler.Probe pacMovementProbe;
+	private final FrameProfiler.Probe ghostAIProbe;
+
 	/** Memorizes what happens during a frame. */
 	private final Memory thisFrame = new Memory();
 
@@ -85,6 +97,13 @@ public class GameLevel {
 		this.levelNumber = number;
 		this.data        = data;
 		this.demoLevel   = demoLevel;
+		this.rnd         = game.session().random().split();
+
+		var profiler = game.session().profiler();
+		foodHandlingProbe    = profiler.probe("Food handling");
+		houseManagementProbe = profiler.probe("House management");
+		pacMovementProbe     = profiler.probe("Pac movement");
+		ghostAIProbe         = profiler.probe("Ghost AI");
 
 		boolean isMsPacManGame = game.variant() == GameVariant.MS_PACMAN;
 
@@ -109,11 +128,19 @@ public class GameLevel {
 			ghost.setSpeedInsideHouse(SPEED_PX_INSIDE_HOUSE);
 		});
 
+		// decision tables for the fixed navigation targets (scatter corners, house door)
+		for (byte id = RED_GHOST; id <= ORANGE_GHOST; ++id) {
+			world.navigationCache().precompute(ghostScatterTarget(id));
+		}
+		world.navigationCache().precompute(world.house().door().leftWing());
+
 		ghostHouseManagement = new GhostHouseManagement(this, world.house());
 
 		bonusSymbols = new byte[2];
 		bonusSymbols[0] = nextBonusSymbol();
 		bonusSymbols[1] = nextBonusSymbol();
+		bonuses = new Bonus[] { createBonus(bonusSymbols[0]), createBonus(bonusSymbols[1]) };
+		movingBonusRoutes = isMsPacManGame ? new MovingBonusRoutes(world) : null;
 
 		Logger.trace("Game level {} ({}) created.", levelNumber, game.variant());
 	}
@@ -125,7 +152,11 @@ public class GameLevel {
 			// Pinky: ambushes Pac-Man
 			case PINK_GHOST -> pac.tilesAheadBuggy(4);
 			// Inky: attacks from opposite side as Blinky
-			case CYAN_GHOST -> pac.tilesAheadBuggy(2).scaled(2).minus(ghosts[RED_GHOST].tile());
+			case CYAN_GHOST -> {
+				// same as ahead.scaled(2).minus(blinky), without creating intermediate vectors
+				Vector2i ahead = pac.tilesAheadBuggy(2), blinky = ghosts[RED_GHOST].tile();
+				yield Vector2i.of(2 * ahead.x() - blinky.x(), 2 * ahead.y() - blinky.y());
+			}
 			// Clyde/Sue: attacks directly but retreats if Pac is near
 			case ORANGE_GHOST -> ghosts[ORANGE_GHOST].tile().euclideanDistance(pac.tile()) < 8
 				? ghostScatterTarget(ORANGE_GHOST)
@@ -227,10 +258,126 @@ public class GameLevel {
 		return huntingTimer;
 	}
 
+	/**
+	 * @return timer wheel of this level, advanced after the bonus has been updated in {@link #simulateOneFrame()}
+	 */
+	public TimerWheel timers() {
+		return timers;
+	}
+
 	public boolean isDemoLevel() {
 		return demoLevel;
 	}
 
+	/**
+	 * @return random generator used by all random decisions (ghost directions, bonus symbols and routes, autopilot)
+	 *         made in this level
+	 */
+	public RandomGenerator random() {
+		return rnd;
+	}
+
+	/**
+	 * Adds the complete simulation state of this level to the given hash: level counters, hunting timer, number of
+	 * random values drawn, actors, bonus, eaten food, house dot counters and pending timeouts.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(levelNumber).add(demoLevel).add(huntingPhase).add(numGhostsKilledInLevel)
+			.add(numGhostsKilledByEnergizer).add(cruiseElroyState).add(rnd.draws());
+		huntingTimer.hashState(hash);
+		pac.hashState(hash);
+		for (var ghost : ghosts) {
+			ghost.hashState(hash);
+		}
+		hash.add(bonusSymbols[0]).add(bonusSymbols[1]);
+		if (bonus != null) {
+			bonus.hashState(hash);
+		} else {
+			hash.add(-1);
+		}
+		world.hashState(hash);
+		ghostHouseManagement.hashState(hash);
+		hash.add(timers.now()).add(timers.size());
+	}
+
+	/**
+	 * Writes the simulation state of this level (the same state as hashed by {@link #hashState(StateHash)}) to the
+	 * snapshot buffer. Level number and demo flag are written by the game model which creates the level.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void saveState(StateBuffer buffer) {
+		buffer.putByte(huntingPhase).putByte(numGhostsKilledInLevel).putByte(numGhostsKilledByEnergizer)
+			.putByte(cruiseElroyState);
+		rnd.saveState(buffer);
+		huntingTimer.saveState(buffer);
+		buffer.putLong(timers.now());
+		buffer.putByte(bonusSymbols[0]).putByte(bonusSymbols[1]);
+		if (bonus == null) {
+			buffer.putByte(NO_BONUS);
+		} else {
+			buffer.putByte(bonus instanceof MovingBonus ? MOVING_BONUS : STATIC_BONUS).putByte(bonus.symbol())
+				.putInt(bonus.points());
+			bonus.saveState(buffer);
+		}
+		pac.saveState(buffer);
+		for (var ghost : ghosts) {
+			ghost.saveState(buffer);
+		}
+		world.saveState(buffer);
+		ghostHouseManagement.saveState(buffer);
+	}
+
+	/**
+	 * Restores the state written by {@link #saveState(StateBuffer)}. The bonus object is reused if it has the same
+	 * kind and symbol as the current bonus or one of the bonuses created with the level, otherwise it is created again.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void restoreState(StateBuffer buffer) {
+		huntingPhase = buffer.getByte();
+		numGhostsKilledInLevel = buffer.getByte();
+		numGhostsKilledByEnergizer = buffer.getByte();
+		cruiseElroyState = buffer.getByte();
+		rnd.restoreState(buffer);
+		huntingTimer.restoreState(buffer);
+		// the bonus schedules its pending expiration again
+		timers.reset(buffer.getLong());
+		bonusSymbols[0] = buffer.getByte();
+		bonusSymbols[1] = buffer.getByte();
+		byte bonusKind = buffer.getByte();
+		if (bonusKind == NO_BONUS) {
+			bonus = null;
+		} else {
+			byte symbol = buffer.getByte();
+			int points = buffer.getInt();
+			var bonusClass = bonusKind == MOVING_BONUS ? MovingBonus.class : StaticBonus.class;
+			if (!isBonus(bonus, bonusClass, symbol, points)) {
+				if (isBonus(bonuses[0], bonusClass, symbol, points)) {
+					bonus = bonuses[0];
+				} else if (isBonus(bonuses[1], bonusClass, symbol, points)) {
+					bonus = bonuses[1];
+				} else if (bonusKind == MOVING_BONUS) {
+					var movingBonus = new MovingBonus(game.session(), timers, symbol, points);
+					movingBonus.setWorld(world);
+					bonus = movingBonus;
+				} else {
+					bonus = new StaticBonus(game.session(), timers, symbol, points);
+				}
+			}
+			bonus.restoreState(buffer);
+		}
+		pac.restoreState(buffer);
+		for (var ghost : ghosts) {
+			ghost.restoreState(buffer);
+		}
+		world.restoreState(buffer);
+		ghostHouseManagement.restoreState(buffer);
+		thisFrame.forgetEverything();
+	}
+
 	/** @return level number, starting with 1. */
 	public int number() {
 		return levelNumber;
@@ -260,12 +407,72 @@ public class GameLevel {
 	 */
 	public Stream<Ghost> ghosts(GhostState... states) {
 		if (states.length > 0) {
-			return Stream.of(ghosts).filter(ghost -> ghost.is(states));
+			var stateSet = GhostStateSet.of(states);
+			return Stream.of(ghosts).filter(ghost -> ghost.is(stateSet));
 		}
 		// when no states are given, return *all* ghosts (ghost.is() would return *no* ghosts!)
 		return Stream.of(ghosts);
 	}
 
+	/**
+	 * Performs the given action for each ghost (in order RED, PINK, CYAN, ORANGE) which is in one of the given states.
+	 * Does not create any objects.
+	 *
+	 * @param states states specifying which ghosts are affected
+	 * @param action action performed for each ghost
+	 */
+	public void forEachGhost(GhostStateSet states, Consumer<Ghost> action) {
+		for (var ghost : ghosts) {
+			if (ghost.is(states)) {
+				action.accept(ghost);
+			}
+		}
+	}
+
+	/**
+	 * @param states states specifying which ghosts are counted
+	 * @return number of ghosts which are in one of the given states
+	 */
+	public int countGhosts(GhostStateSet states) {
+		int count = 0;
+		for (var ghost : ghosts) {
+			if (ghost.is(states)) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param states    states specifying which ghosts are counted
+	 * @param condition condition a counted ghost must fulfill
+	 * @return number of ghosts which are in one of the given states and fulfill the condition
+	 */
+	public int countGhosts(GhostStateSet states, Predicate<Ghost> condition) {
+		int count = 0;
+		for (var ghost : ghosts) {
+			if (ghost.is(states) && condition.test(ghost)) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param states    states specifying which ghosts are considered
+	 * @param condition condition the ghost must fulfill
+	 * @return first ghost (in order RED, PINK, CYAN, ORANGE) which is in one of the given states and fulfills the
+	 *         condition or <code>null</code>
+	 */
+	public Ghost findGhost(GhostStateSet states, Predicate<Ghost> condition) {
+		for (var ghost : ghosts) {
+			if (ghost.is(states) && condition.test(ghost)) {
+				return ghost;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * @return Pac-Man and the ghosts in order RED, PINK, CYAN, ORANGE
 	 */
@@ -294,13 +501,17 @@ public class GameLevel {
 				"Cruise Elroy state must be one of -2, -1, 0, 1, 2, but is " + cruiseElroyState);
 		}
 		this.cruiseElroyState = (byte) cruiseElroyState;
-		Logger.trace("Cruise Elroy state set to {}", cruiseElroyState);
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("Cruise Elroy state set to {}", cruiseElroyState);
+		}
 	}
 
 	private void setCruiseElroyStateEnabled(boolean enabled) {
 		if (enabled && cruiseElroyState < 0 || !enabled && cruiseElroyState > 0) {
 			cruiseElroyState = (byte) (-cruiseElroyState);
-			Logger.trace("Cruise Elroy state set to {}", cruiseElroyState);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("Cruise Elroy state set to {}", cruiseElroyState);
+			}
 		}
 	}
 
@@ -320,19 +531,12 @@ public class GameLevel {
 	public boolean isSteeringAllowed(Ghost ghost, Direction dir) {
 		checkNotNull(ghost);
 		checkNotNull(dir);
-		if (upwardsBlockedTiles().isEmpty()) {
-			return true;
-		}
-		// In the Pac-Man game, *hunting* ghosts cannot move upwards at specific tiles
-		boolean upwardsBlocked = upwardsBlockedTiles().contains(ghost.tile());
-		return !(upwardsBlocked && dir == UP && ghost.is(HUNTING_PAC));
+		// In the Pac-Man game, *hunting* ghosts cannot move upwards at specific tiles (red zone)
+		return !(dir == UP && ghost.is(HUNTING_PAC) && world.isRedZone(ghost.tile()));
 	}
 
 	public List<Vector2i> upwardsBlockedTiles() {
-		return switch (game.variant()) {
-			case MS_PACMAN -> Collections.emptyList();
-			case PACMAN    -> ArcadeWorld.PACMAN_RED_ZONE;
-		};
+		return world.redZone();
 	}
 
 	/**
@@ -351,9 +555,11 @@ public class GameLevel {
 		var ticks = durations[phase] == -1 ? TickTimer.INDEFINITE : durations[phase];
 		huntingTimer.reset(ticks);
 		huntingTimer.start();
-		Logger.info("Hunting phase {} ({}, {} ticks / {} seconds) started. {}",
-				phase, currentHuntingPhaseName(), huntingTimer.duration(),
-				(float) huntingTimer.duration() / GameModel.FPS, huntingTimer);
+		if (Logger.isInfoEnabled()) {
+			Logger.info("Hunting phase {} ({}, {} ticks / {} seconds) started. {}",
+					phase, currentHuntingPhaseName(), huntingTimer.duration(),
+					(float) huntingTimer.duration() / GameModel.FPS, huntingTimer);
+		}
 	}
 
 	private void stopHuntingTimer() {
@@ -400,9 +606,9 @@ public class GameLevel {
 	 */
 	private void ghostHuntsInMsPacManGame(Ghost ghost) {
 		boolean cruiseElroy = ghost.id() == RED_GHOST && cruiseElroyState > 0;
-		if (scatterPhase().isPresent() && (ghost.id() == RED_GHOST || ghost.id() == PINK_GHOST)) {
+		if (isScatterPhase() && (ghost.id() == RED_GHOST || ghost.id() == PINK_GHOST)) {
 			ghostRoamsThroughWorld(ghost);
-		} else if (chasingPhase().isPresent() || cruiseElroy) {
+		} else if (isChasingPhase() || cruiseElroy) {
 			ghostFollowsTarget(ghost, chasingTarget(ghost.id()), huntingSpeedPercentage(ghost));
 		} else {
 			ghostFollowsTarget(ghost, ghostScatterTarget(ghost.id()), huntingSpeedPercentage(ghost));
@@ -411,7 +617,7 @@ public class GameLevel {
 
 	private void ghostHuntsInPacManGame(Ghost ghost) {
 		boolean cruiseElroy = ghost.id() == RED_GHOST && cruiseElroyState > 0;
-		if (chasingPhase().isPresent() || cruiseElroy) {
+		if (isChasingPhase() || cruiseElroy) {
 			ghostFollowsTarget(ghost, chasingTarget(ghost.id()), huntingSpeedPercentage(ghost));
 		} else {
 			ghostFollowsTarget(ghost, ghostScatterTarget(ghost.id()), huntingSpeedPercentage(ghost));
@@ -446,7 +652,7 @@ public class GameLevel {
 	}
 
 	private Direction pseudoRandomDirection() {
-		float rnd = Globals.randomFloat(0, 100);
+		float rnd = randomFloat(this.rnd, 0, 100);
 		if (rnd < 16.3) return UP;
 		if (rnd < 16.3 + 25.2) return RIGHT;
 		if (rnd < 16.3 + 25.2 + 28.5) return DOWN;
@@ -467,6 +673,20 @@ public class GameLevel {
 		return isOdd(huntingPhase) ? OptionalInt.of(huntingPhase / 2) : OptionalInt.empty();
 	}
 
+	/**
+	 * @return if the ghosts are currently in a scattering phase
+	 */
+	public boolean isScatterPhase() {
+		return isEven(huntingPhase);
+	}
+
+	/**
+	 * @return if the ghosts are currently in a chasing phase
+	 */
+	public boolean isChasingPhase() {
+		return isOdd(huntingPhase);
+	}
+
 	public String currentHuntingPhaseName() {
 		return isEven(huntingPhase) ? "Scattering" : "Chasing";
 	}
@@ -514,8 +734,9 @@ public class GameLevel {
 
 	private void collectInformation() {
 		thisFrame.forgetEverything(); // Ich scholze jetzt!
-		var pacTile = pac.tile();
-		if (world.hasFoodAt(pacTile)) {
+		int pacTileIndex = pac.tileIndex();
+		if (world.hasFoodAt(pacTileIndex)) {
+			var pacTile = world.tile(pacTileIndex);
 			thisFrame.foodFoundTile  = pacTile;
 			thisFrame.energizerFound = world.isEnergizerTile(pacTile);
 		}
@@ -542,7 +763,9 @@ public class GameLevel {
 			pac.rest(GameModel.RESTING_TICKS_ENERGIZER);
 			int points = GameModel.POINTS_ENERGIZER;
 			game.scorePoints(points);
-			Logger.info("Scored {} points for eating energizer", points);
+			if (Logger.isInfoEnabled()) {
+				Logger.info("Scored {} points for eating energizer", points);
+			}
 		} else {
 			pac.rest(GameModel.RESTING_TICKS_NORMAL_PELLET);
 			game.scorePoints(GameModel.POINTS_NORMAL_PELLET);
@@ -553,37 +776,43 @@ public class GameLevel {
 		} else if (world.uneatenFoodCount() == elroy2DotsLeft()) {
 			setCruiseElroyState(2);
 		}
-		GameController.it().publishGameEvent(GameEventType.PAC_FOUND_FOOD, foodTile);
+		game.session().publishGameEvent(GameEventType.PAC_FOUND_FOOD, foodTile);
 	}
 
 	private void handlePacPowerStarts() {
 		pac.powerTimer().restartSeconds(pacPowerSeconds());
-		Logger.info("{} power starting, duration {} ticks", pac.name(), pac.powerTimer().duration());
-		ghosts(HUNTING_PAC).forEach(ghost -> ghost.setState(FRIGHTENED));
-		ghosts(FRIGHTENED).forEach(Ghost::reverseAsSoonAsPossible);
-		GameController.it().publishGameEvent(GameEventType.PAC_GETS_POWER);
+		if (Logger.isInfoEnabled()) {
+			Logger.info("{} power starting, duration {} ticks", pac.name(), pac.powerTimer().duration());
+		}
+		forEachGhost(GhostStateSet.of(HUNTING_PAC), ghost -> ghost.setState(FRIGHTENED));
+		forEachGhost(GhostStateSet.of(FRIGHTENED), Ghost::reverseAsSoonAsPossible);
+		game.session().publishGameEvent(GameEventType.PAC_GETS_POWER);
 	}
 
 	private void handlePacPowerLost() {
-		Logger.info("{} power ends, timer: {}", pac.name(), pac.powerTimer());
+		if (Logger.isInfoEnabled()) {
+			Logger.info("{} power ends, timer: {}", pac.name(), pac.powerTimer());
+		}
 		pac.powerTimer().stop();
 		pac.powerTimer().resetIndefinitely();
 		huntingTimer.start();
 		Logger.info("Hunting timer restarted");
-		ghosts(FRIGHTENED).forEach(ghost -> ghost.setState(HUNTING_PAC));
-		GameController.it().publishGameEvent(GameEventType.PAC_LOST_POWER);
+		forEachGhost(GhostStateSet.of(FRIGHTENED), ghost -> ghost.setState(HUNTING_PAC));
+		game.session().publishGameEvent(GameEventType.PAC_LOST_POWER);
 	}
 
 	public void simulateOneFrame() {
 		collectInformation();
 
 		// Food found?
+		long start = foodHandlingProbe.start();
 		if (thisFrame.foodFoundTile != null) {
 			pac.endStarving();
 			handleFoodFound(thisFrame.foodFoundTile);
 		} else {
 			pac.starve();
 		}
+		foodHandlingProbe.stop(start);
 
 		// Level complete?
 		if (thisFrame.levelCompleted) {
@@ -600,30 +829,50 @@ public class GameLevel {
 		if (thisFrame.pacPowerStarts) {
 			handlePacPowerStarts();
 		} else if (thisFrame.pacPowerFading) {
-			GameController.it().publishGameEvent(GameEventType.PAC_STARTS_LOSING_POWER);
+			game.session().publishGameEvent(GameEventType.PAC_STARTS_LOSING_POWER);
 		} else if (thisFrame.pacPowerLost) {
 			handlePacPowerLost();
 		}
 
 		// Now check who gets killed
-		thisFrame.pacPrey = ghosts(FRIGHTENED).filter(pac::sameTile).collect(Collectors.toList());
-		thisFrame.pacKilled = !GameController.it().isImmune() && ghosts(HUNTING_PAC).anyMatch(pac::sameTile);
+		boolean pacMeetsHuntingGhost = false;
+		for (var ghost : ghosts) {
+			if (pac.sameTile(ghost)) {
+				if (ghost.is(FRIGHTENED)) {
+					thisFrame.pacPrey.add(ghost);
+				} else if (ghost.is(HUNTING_PAC)) {
+					pacMeetsHuntingGhost = true;
+				}
+			}
+		}
+		thisFrame.pacKilled = !game.session().isImmune() && pacMeetsHuntingGhost;
 
 		// Update world
 		world.mazeFlashing().tick();
 		world.energizerBlinking().tick();
 
 		// Update guys
+		start = houseManagementProbe.start();
 		unlockGhost(world().house());
-		var steering = pac.steering().orElse(GameController.it().steering());
+		houseManagementProbe.stop(start);
+
+		start = pacMovementProbe.start();
+		var steering = pac.steering().orElse(game.session().steering());
 		steering.steer(this, pac);
 		pac.update(this);
-		ghosts().forEach(Ghost::updateState);
+		pacMovementProbe.stop(start);
+
+		start = ghostAIProbe.start();
+		for (var ghost : ghosts) {
+			ghost.updateState();
+		}
+		ghostAIProbe.stop(start);
 
 		// Update bonus
 		if (bonus != null) {
 			bonus.update(this);
 		}
+		timers.advance();
 
 		// Update hunting timer
 		if (thisFrame.pacPowerStarts || thisFrame.pacKilled) {
@@ -631,7 +880,7 @@ public class GameLevel {
 		} else {
 			boolean huntingPhaseChange = updateHuntingTimer();
 			if (huntingPhaseChange) {
-				ghosts(HUNTING_PAC, LOCKED, LEAVING_HOUSE).forEach(Ghost::reverseAsSoonAsPossible);
+				forEachGhost(GhostStateSet.REVERSING_ON_PHASE_CHANGE, Ghost::reverseAsSoonAsPossible);
 			}
 		}
 
@@ -639,9 +888,12 @@ public class GameLevel {
 	}
 
 	private void logWhatHappenedThisFrame() {
-		var memoText = thisFrame.toString();
-		if (!memoText.isBlank()) {
-			Logger.trace(memoText);
+		// the memo text is only built when it gets logged
+		if (Logger.isTraceEnabled()) {
+			var memoText = thisFrame.toString();
+			if (!memoText.isBlank()) {
+				Logger.trace(memoText);
+			}
 		}
 	}
 
@@ -649,19 +901,24 @@ public class GameLevel {
 	 * Called by cheat action only.
 	 */
 	public void killAllHuntingAndFrightenedGhosts() {
-		thisFrame.pacPrey = ghosts(HUNTING_PAC, FRIGHTENED).collect(Collectors.toList());
+		thisFrame.pacPrey.clear();
+		forEachGhost(GhostStateSet.HUNTING_OR_FRIGHTENED, thisFrame.pacPrey::add);
 		numGhostsKilledByEnergizer = 0;
 		killEdibleGhosts();
 	}
 
 	public void killEdibleGhosts() {
 		if (!thisFrame.pacPrey.isEmpty()) {
-			thisFrame.pacPrey.forEach(this::killGhost);
+			for (var ghost : thisFrame.pacPrey) {
+				killGhost(ghost);
+			}
 			numGhostsKilledInLevel += (byte) thisFrame.pacPrey.size();
 			if (numGhostsKilledInLevel == 16) {
 				int points = GameModel.POINTS_ALL_GHOSTS_KILLED_IN_LEVEL;
 				game.scorePoints(points);
-				Logger.info("Scored {} points for killing all ghosts at level {}", points, levelNumber);
+				if (Logger.isInfoEnabled()) {
+					Logger.info("Scored {} points for killing all ghosts at level {}", points, levelNumber);
+				}
 			}
 		}
 	}
@@ -673,7 +930,9 @@ public class GameLevel {
 		thisFrame.killedGhosts.add(ghost);
 		int points = GameModel.POINTS_GHOSTS_SEQUENCE[ghost.killedIndex()];
 		game.scorePoints(points);
-		Logger.info("Scored {} points for killing {} at tile {}", points, ghost.name(), ghost.tile());
+		if (Logger.isInfoEnabled()) {
+			Logger.info("Scored {} points for killing {} at tile {}", points, ghost.name(), ghost.tile());
+		}
 	}
 
 	// Pac-Man
@@ -686,7 +945,8 @@ public class GameLevel {
 	}
 
 	private void unlockGhost(House house) {
-		ghostHouseManagement.checkIfNextGhostCanLeaveHouse().ifPresent(unlocked -> {
+		var unlocked = ghostHouseManagement.checkIfNextGhostCanLeaveHouse();
+		if (unlocked != null) {
 			var ghost = unlocked.ghost();
 			if (ghost.insideHouse(house)) {
 				ghost.setState(LEAVING_HOUSE);
@@ -698,15 +958,98 @@ public class GameLevel {
 				// Blinky's "cruise elroy" state is re-enabled when orange ghost is unlocked
 				setCruiseElroyStateEnabled(true);
 			}
-			Logger.info("{} unlocked: {}", unlocked.ghost().name(), unlocked.reason());
-		});
+			if (Logger.isInfoEnabled()) {
+				Logger.info("{} unlocked: {}", ghost.name(), unlocked.reason());
+			}
+		}
 	}
 
 	// Bonus Management
 
+	// bonus kinds in state snapshots
+	private static final byte NO_BONUS = 0, STATIC_BONUS = 1, MOVING_BONUS = 2;
+
 	private final byte[] bonusSymbols;
+
+	/** Bonus objects for both bonus indices, created with the level, so reaching a bonus does not create objects. */
+	private final Bonus[] bonuses;
+
+	/** Points of the moving bonus routes (Ms. Pac-Man only). */
+	private final MovingBonusRoutes movingBonusRoutes;
+
+	private final List<NavigationPoint> bonusRoute = new ArrayList<>(5);
+
 	private Bonus bonus;
 
+	/**
+	 * Navigation points of the routes a moving bonus can take, created once per level. The moving bonus enters the
+	 * world at a portal, walks to the house entry, takes a tour around the house and leaves the world through a portal
+	 * on the opposite side of the world.
+	 */
+	private static class MovingBonusRoutes {
+
+		private final NavigationPoint[] startsLeftToRight;
+		private final NavigationPoint[] startsRightToLeft;
+		private final NavigationPoint[] exitsLeftToRight;
+		private final NavigationPoint[] exitsRightToLeft;
+		private final NavigationPoint houseEntry;
+		private final NavigationPoint belowHouse;
+
+		MovingBonusRoutes(World world) {
+			var houseEntryTile = tileAt(world.house().door().entryPosition());
+			int houseHeight = world.house().size().y();
+			houseEntry = np(houseEntryTile);
+			belowHouse = np(houseEntryTile.plus(0, houseHeight + 1));
+			var portals = world.portals();
+			startsLeftToRight = new NavigationPoint[portals.size()];
+			startsRightToLeft = new NavigationPoint[portals.size()];
+			exitsLeftToRight = new NavigationPoint[portals.size()];
+			exitsRightToLeft = new NavigationPoint[portals.size()];
+			for (int i = 0; i < portals.size(); ++i) {
+				var portal = portals.get(i);
+				startsLeftToRight[i] = np(portal.leftTunnelEnd());
+				startsRightToLeft[i] = np(portal.rightTunnelEnd());
+				exitsLeftToRight[i] = np(portal.rightTunnelEnd().plus(1, 0));
+				exitsRightToLeft[i] = np(portal.leftTunnelEnd().minus(1, 0));
+			}
+		}
+
+		void fill(List<NavigationPoint> route, int entryPortal, int exitPortal, boolean leftToRight) {
+			route.clear();
+			route.add(leftToRight ? startsLeftToRight[entryPortal] : startsRightToLeft[entryPortal]);
+			route.add(houseEntry);
+			route.add(belowHouse);
+			route.add(houseEntry);
+			route.add(leftToRight ? exitsLeftToRight[exitPortal] : exitsRightToLeft[exitPortal]);
+		}
+	}
+
+	private Bonus createBonus(byte symbol) {
+		return switch (game.variant()) {
+			case MS_PACMAN -> {
+				var movingBonus = new MovingBonus(game.session(), timers, symbol, GameModel.BONUS_VALUES_MS_PACMAN[symbol] * 100);
+				movingBonus.setWorld(world);
+				yield movingBonus;
+			}
+			case PACMAN -> new StaticBonus(game.session(), timers, symbol, GameModel.BONUS_VALUES_PACMAN[symbol] * 100);
+		};
+	}
+
+	private static boolean isBonus(Bonus bonus, Class<?> bonusClass, byte symbol, int points) {
+		return bonusClass.isInstance(bonus) && bonus.symbol() == symbol && bonus.points() == points;
+	}
+
+	/*
+	 * The bonus object created with the level, or a new one if the bonus symbol has been changed by restoring a state.
+	 */
+	private Bonus bonusObject(int bonusIndex) {
+		byte symbol = bonusSymbols[bonusIndex];
+		if (bonuses[bonusIndex].symbol() != symbol) {
+			bonuses[bonusIndex] = createBonus(symbol);
+		}
+		return bonuses[bonusIndex];
+	}
+
 	private byte nextBonusSymbol() {
 		if (game.variant() == GameVariant.MS_PACMAN) {
 			return nextMsPacManBonusSymbol();
@@ -769,7 +1112,7 @@ public class GameLevel {
 			case 6: return GameModel.MS_PACMAN_PEAR;
 			case 7: return GameModel.MS_PACMAN_BANANA;
 			default:
-				int random = randomInt(0, 320);
+				int random = randomInt(rnd, 0, 320);
 				if (random < 50)  return GameModel.MS_PACMAN_CHERRIES;
 				if (random < 100) return GameModel.MS_PACMAN_STRAWBERRY;
 				if (random < 150) return GameModel.MS_PACMAN_ORANGE;
@@ -813,18 +1156,18 @@ public class GameLevel {
 					Logger.info("First bonus still active, skip second one");
 					return;
 				}
-				byte symbol = bonusSymbols[bonusIndex];
-				bonus = createMovingBonus(symbol, GameModel.BONUS_VALUES_MS_PACMAN[symbol] * 100, RND.nextBoolean());
+				bonus = startMovingBonus((MovingBonus) bonusObject(bonusIndex), rnd.nextBoolean());
 				bonus.setEdible(TickTimer.INDEFINITE);
-				GameController.it().publishGameEvent(GameEventType.BONUS_ACTIVATED, bonus.entity().tile());
+				game.session().publishGameEvent(GameEventType.BONUS_ACTIVATED, bonus.entity().tile());
 			}
 			case PACMAN -> {
-				byte symbol = bonusSymbols[bonusIndex];
-				bonus = new StaticBonus(symbol, GameModel.BONUS_VALUES_PACMAN[symbol] * 100);
+				deactivateBonus();
+				bonus = bonusObject(bonusIndex);
+				bonus.entity().reset();
 				bonus.entity().setPosition(GameModel.BONUS_POSITION_PACMAN);
-				int ticks = randomInt(9 * FPS, 10 * FPS); // between 9 and 10 seconds
+				int ticks = randomInt(rnd, 9 * FPS, 10 * FPS); // between 9 and 10 seconds
 				bonus.setEdible(ticks);
-				GameController.it().publishGameEvent(GameEventType.BONUS_ACTIVATED, bonus.entity().tile());
+				game.session().publishGameEvent(GameEventType.BONUS_ACTIVATED, bonus.entity().tile());
 			}
 		}
 	}
@@ -835,31 +1178,16 @@ public class GameLevel {
 	 * <p>
 	 * TODO: This is not the exact behavior as in the original Arcade game.
 	 **/
-	private Bonus createMovingBonus(byte symbol, int points, boolean leftToRight) {
-		var houseHeight    = world.house().size().y();
-		var houseEntryTile = tileAt(world.house().door().entryPosition());
-		var portals        = world.portals();
-		var entryPortal    = portals.get(RND.nextInt(portals.size()));
-		var exitPortal     = portals.get(RND.nextInt(portals.size()));
-		var startPoint     = leftToRight
-								? np(entryPortal.leftTunnelEnd())
-								: np(entryPortal.rightTunnelEnd());
-		var exitPoint      = leftToRight
-								? np(exitPortal.rightTunnelEnd().plus(1, 0))
-								: np(exitPortal.leftTunnelEnd().minus(1, 0));
-
-		var route = new ArrayList<NavigationPoint>();
-		route.add(startPoint);
-		route.add(np(houseEntryTile));
-		route.add(np(houseEntryTile.plus(0, houseHeight + 1)));
-		route.add(np(houseEntryTile));
-		route.add(exitPoint);
-		route.trimToSize();
-
-		var movingBonus = new MovingBonus(symbol, points);
-		movingBonus.setWorld(world);
-		movingBonus.setRoute(route, leftToRight);
-		Logger.info("Moving bonus created, route: {} ({})",	route, leftToRight ? "left to right" : "right to left");
+	private MovingBonus startMovingBonus(MovingBonus movingBonus, boolean leftToRight) {
+		int numPortals = world.portals().size();
+		int entryPortal = rnd.nextInt(numPortals);
+		int exitPortal = rnd.nextInt(numPortals);
+		movingBonusRoutes.fill(bonusRoute, entryPortal, exitPortal, leftToRight);
+		movingBonus.reset();
+		movingBonus.setRoute(bonusRoute, leftToRight);
+		if (Logger.isInfoEnabled()) {
+			Logger.info("Moving bonus started, route: {} ({})", bonusRoute, leftToRight ? "left to right" : "right to left");
+		}
 		return movingBonus;
 	}
-}
\ No newline at end of file
+}
@@ -4,11 +4,13 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model;
 
-import de.amr.games.pacman.controller.GameController;
+import de.amr.games.pacman.controller.GameSession;
 import de.amr.games.pacman.event.GameEventType;
 import de.amr.games.pacman.lib.RouteBasedSteering;
 import de.amr.games.pacman.lib.RuleBasedSteering;
 import de.amr.games.pacman.lib.Score;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.lib.Vector2f;
 import de.amr.games.pacman.model.world.ArcadeWorld;
 import org.tinylog.Logger;
@@ -141,6 +143,7 @@ public class GameModel {
 
 
 	private final GameVariant variant;
+	private final GameSession session;
 	private final List<Byte> levelCounter;
 	private final Score score;
 	private final Score highScore;
@@ -149,10 +152,17 @@ public class GameModel {
 	private short lives;
 	private boolean playing;
 	private boolean scoringEnabled;
+	private boolean highScoreFileEnabled = true;
 
-	public GameModel(GameVariant variant) {
+	/**
+	 * @param variant game variant
+	 * @param session game session owning this model (receives the game events)
+	 */
+	public GameModel(GameVariant variant, GameSession session) {
 		checkGameVariant(variant);
+		checkNotNull(session);
 		this.variant = variant;
+		this.session = session;
 		levelCounter = new LinkedList<>();
 		score = new Score();
 		highScore = new Score();
@@ -184,7 +194,7 @@ public class GameModel {
 		var levelData = LEVEL_DATA[dataRow(levelNumber)];
 		level = new GameLevel(this, world, levelNumber, levelData, false);
 		Logger.info("Level {} created", levelNumber);
-		GameController.it().publishGameEvent(GameEventType.LEVEL_CREATED);
+		session.publishGameEvent(GameEventType.LEVEL_CREATED);
 	}
 
 	/**
@@ -207,7 +217,7 @@ public class GameModel {
 			}
 		}
 		Logger.info("Demo level created ({})", variant);
-		GameController.it().publishGameEvent(GameEventType.LEVEL_CREATED);
+		session.publishGameEvent(GameEventType.LEVEL_CREATED);
 	}
 
 	public void startLevel() {
@@ -229,7 +239,7 @@ public class GameModel {
 		// Demo level shows guys immediately, otherwise they get shown after some ticks, see game state
 		level.guys().forEach(guy -> guy.setVisible(level.isDemoLevel()));
 		Logger.info("{} {} started ({})", level.isDemoLevel() ? "Demo level" : "Level", level.number(), variant);
-		GameController.it().publishGameEvent(GameEventType.LEVEL_STARTED);
+		session.publishGameEvent(GameEventType.LEVEL_STARTED);
 	}
 
 	public void nextLevel() {
@@ -245,6 +255,81 @@ public class GameModel {
 		level = null;
 	}
 
+	/**
+	 * Adds the game state (score, lives, level counter and the current level) to the given hash. The high score is not
+	 * included because it may be loaded from a file.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(variant).add(score.points()).add(score.levelNumber()).add(lives).add(playing).add(scoringEnabled)
+			.add(levelCounter.size());
+		for (int i = 0; i < levelCounter.size(); ++i) {
+			hash.add(levelCounter.get(i));
+		}
+		if (level != null) {
+			level.hashState(hash);
+		} else {
+			hash.add(-1);
+		}
+	}
+
+	/**
+	 * Writes the game state (the same state as hashed by {@link #hashState(StateHash)}) to the snapshot buffer.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void saveState(StateBuffer buffer) {
+		buffer.putEnum(variant).putBoolean(level != null);
+		if (level != null) {
+			buffer.putInt(level.number()).putBoolean(level.isDemoLevel());
+			level.saveState(buffer);
+		}
+		buffer.putInt(score.points()).putInt(score.levelNumber()).putInt(lives).putInt(initialLives).putBoolean(playing)
+			.putBoolean(scoringEnabled).putByte(levelCounter.size());
+		for (byte symbol : levelCounter) {
+			buffer.putByte(symbol);
+		}
+	}
+
+	/**
+	 * Restores the state written by {@link #saveState(StateBuffer)}. If the saved level has another number than the
+	 * current level, the level is created again (a {@link GameEventType#LEVEL_CREATED} event is published).
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void restoreState(StateBuffer buffer) {
+		int savedVariant = buffer.getByte();
+		if (savedVariant != variant.ordinal()) {
+			throw new IllegalArgumentException("Cannot restore state of game variant "
+				+ GameVariant.values()[savedVariant] + " in " + variant + " game");
+		}
+		if (buffer.getBoolean()) {
+			int levelNumber = buffer.getInt();
+			boolean demoLevel = buffer.getBoolean();
+			if (level == null || level.number() != levelNumber || level.isDemoLevel() != demoLevel) {
+				if (demoLevel) {
+					createDemoLevel();
+				} else {
+					setLevel(levelNumber);
+				}
+			}
+			level.restoreState(buffer);
+		} else {
+			level = null;
+		}
+		score.setPoints(buffer.getInt());
+		score.setLevelNumber(buffer.getInt());
+		lives = (short) buffer.getInt();
+		initialLives = (short) buffer.getInt();
+		playing = buffer.getBoolean();
+		scoringEnabled = buffer.getBoolean();
+		levelCounter.clear();
+		for (int n = buffer.getByte(); n > 0; --n) {
+			levelCounter.add(buffer.getByte());
+		}
+	}
+
 	public Optional<GameLevel> level() {
 		return Optional.ofNullable(level);
 	}
@@ -253,6 +338,13 @@ public class GameModel {
 		return variant;
 	}
 
+	/**
+	 * @return the game session this model belongs to
+	 */
+	public GameSession session() {
+		return session;
+	}
+
 	/**
 	 * @return number of maze (not map) used in level, 1-based.
 	 */
@@ -327,7 +419,7 @@ public class GameModel {
 		}
 		if (oldScore < EXTRA_LIFE_SCORE && newScore >= EXTRA_LIFE_SCORE) {
 			lives += 1;
-			GameController.it().publishGameEvent(GameEventType.EXTRA_LIFE_WON);
+			session.publishGameEvent(GameEventType.EXTRA_LIFE_WON);
 		}
 	}
 
@@ -355,11 +447,24 @@ public class GameModel {
 		}
 	}
 
+	/**
+	 * @param enabled if the high score is loaded from and saved to the high score file in the user's home directory.
+	 *                Headless and batch simulations disable this.
+	 */
+	public void setHighScoreFileEnabled(boolean enabled) {
+		highScoreFileEnabled = enabled;
+	}
+
 	public void loadHighScore() {
-		loadScore(highScore, highScoreFile());
+		if (highScoreFileEnabled) {
+			loadScore(highScore, highScoreFile());
+		}
 	}
 
 	public void updateHighScore() {
+		if (!highScoreFileEnabled) {
+			return;
+		}
 		var file = highScoreFile();
 		var savedHiscore = new Score();
 		loadScore(savedHiscore, file);
@@ -4,13 +4,12 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model;
 
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.model.actors.Ghost;
 import de.amr.games.pacman.model.world.House;
 import org.tinylog.Logger;
 
-import java.util.Optional;
-import java.util.stream.Stream;
-
 import static de.amr.games.pacman.lib.Globals.checkLevelNotNull;
 import static de.amr.games.pacman.lib.Globals.checkNotNull;
 import static de.amr.games.pacman.model.GameModel.*;
@@ -23,18 +22,23 @@ import static de.amr.games.pacman.model.actors.GhostState.LOCKED;
  */
 class GhostHouseManagement {
 
+	/**
+	 * Information about the ghost that gets unlocked. The object is reused by every check, so unlocking a ghost does not
+	 * create any objects. The reason text is only formatted when it is requested.
+	 */
 	public static class GhostUnlockInfo {
 
-		private static Optional<GhostUnlockInfo> of(Ghost ghost, String reason, Object... args) {
-			return Optional.of(new GhostUnlockInfo(ghost, String.format(reason, args)));
-		}
-
-		private final Ghost ghost;
-		private final String reason;
+		private Ghost ghost;
+		private String reason;
+		private long limit;
+		private String pacName;
 
-		public GhostUnlockInfo(Ghost ghost, String reason) {
+		private GhostUnlockInfo set(Ghost ghost, String reason, long limit, String pacName) {
 			this.ghost = ghost;
 			this.reason = reason;
+			this.limit = limit;
+			this.pacName = pacName;
+			return this;
 		}
 
 		public Ghost ghost() {
@@ -42,12 +46,15 @@ class GhostHouseManagement {
 		}
 
 		public String reason() {
-			return reason;
+			return String.format(reason, limit, pacName);
 		}
 	}
 
+	private static final byte[] GHOST_IDS = { RED_GHOST, PINK_GHOST, CYAN_GHOST, ORANGE_GHOST };
+
 	private final GameLevel level;
 	private final House house;
+	private final GhostUnlockInfo unlockInfo = new GhostUnlockInfo();
 	private final long      pacStarvingTicksLimit;
 	private final byte[]    globalGhostDotLimits;
 	private final byte[]    privateGhostDotLimits;
@@ -73,6 +80,33 @@ class GhostHouseManagement {
 		globalDotCounterEnabled = false;
 	}
 
+	/**
+	 * Adds the dot counters to the given hash.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		for (int counter : ghostDotCounters) {
+			hash.add(counter);
+		}
+		hash.add(globalDotCounter).add(globalDotCounterEnabled);
+	}
+
+	public void saveState(StateBuffer buffer) {
+		for (int counter : ghostDotCounters) {
+			buffer.putInt(counter);
+		}
+		buffer.putInt(globalDotCounter).putBoolean(globalDotCounterEnabled);
+	}
+
+	public void restoreState(StateBuffer buffer) {
+		for (int i = 0; i < ghostDotCounters.length; ++i) {
+			ghostDotCounters[i] = buffer.getInt();
+		}
+		globalDotCounter = buffer.getInt();
+		globalDotCounterEnabled = buffer.getBoolean();
+	}
+
 	public void onFoodFound() {
 		if (globalDotCounterEnabled) {
 			if (level.ghost(ORANGE_GHOST).is(LOCKED) && globalDotCounter == 32) {
@@ -83,10 +117,13 @@ class GhostHouseManagement {
 				Logger.trace("Global dot counter = {}", globalDotCounter);
 			}
 		} else {
-			level.ghosts(LOCKED)
-				.filter(ghost -> ghost.insideHouse(house))
-				.findFirst()
-				.ifPresent(this::increaseGhostDotCounter);
+			for (byte id : GHOST_IDS) {
+				var ghost = level.ghost(id);
+				if (ghost.is(LOCKED) && ghost.insideHouse(house)) {
+					increaseGhostDotCounter(ghost);
+					break;
+				}
+			}
 		}
 	}
 
@@ -102,38 +139,47 @@ class GhostHouseManagement {
 
 	private void increaseGhostDotCounter(Ghost ghost) {
 		ghostDotCounters[ghost.id()]++;
-		Logger.trace("{} dot counter = {}", ghost.name(), ghostDotCounters[ghost.id()]);
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("{} dot counter = {}", ghost.name(), ghostDotCounters[ghost.id()]);
+		}
 	}
 
-	public Optional<GhostUnlockInfo> checkIfNextGhostCanLeaveHouse() {
-		Ghost candidate = Stream.of(RED_GHOST, PINK_GHOST, CYAN_GHOST, ORANGE_GHOST)
-			.map(level::ghost)
-			.filter(ghost -> ghost.is(LOCKED))
-			.findFirst()
-			.orElse(null);
-
+	/**
+	 * Called every frame. Does not create any objects, the returned information is overwritten by the next check.
+	 *
+	 * @return information about the ghost that gets unlocked or <code>null</code> if no ghost gets unlocked
+	 */
+	public GhostUnlockInfo checkIfNextGhostCanLeaveHouse() {
+		Ghost candidate = null;
+		for (byte id : GHOST_IDS) {
+			if (level.ghost(id).is(LOCKED)) {
+				candidate = level.ghost(id);
+				break;
+			}
+		}
 		if (candidate == null) {
-			return Optional.empty();
+			return null;
 		}
 		// Blinky always gets unlocked immediately
 		if (candidate.id() == RED_GHOST) {
-			return GhostUnlockInfo.of(candidate, "Red ghost gets unlocked immediately");
+			return unlockInfo.set(candidate, "Red ghost gets unlocked immediately", 0, null);
 		}
 		// check private dot counter first (if enabled)
 		if (!globalDotCounterEnabled && ghostDotCounters[candidate.id()] >= privateGhostDotLimits[candidate.id()]) {
-			return GhostUnlockInfo.of(candidate, "Private dot counter at limit (%d)", privateGhostDotLimits[candidate.id()]);
+			return unlockInfo.set(candidate, "Private dot counter at limit (%d)", privateGhostDotLimits[candidate.id()], null);
 		}
 		// check global dot counter
 		var globalDotLimit = globalGhostDotLimits[candidate.id()] == -1 ? Integer.MAX_VALUE : globalGhostDotLimits[candidate.id()];
 		if (globalDotCounter >= globalDotLimit) {
-			return GhostUnlockInfo.of(candidate, "Global dot counter at limit (%d)", globalDotLimit);
+			return unlockInfo.set(candidate, "Global dot counter at limit (%d)", globalDotLimit, null);
 		}
 		// check Pac-Man starving time
 		if (level.pac().starvingTicks() >= pacStarvingTicksLimit) {
 			level.pac().endStarving(); // TODO change pac state here?
 			Logger.trace("Pac-Man starving timer reset to 0");
-			return GhostUnlockInfo.of(candidate, "%s reached starving limit (%d ticks)", level.pac().name(), pacStarvingTicksLimit);
+			return unlockInfo.set(candidate, "%2$s reached starving limit (%1$d ticks)", pacStarvingTicksLimit,
+				level.pac().name());
 		}
-		return Optional.empty();
+		return null;
 	}
 }
\ No newline at end of file
@@ -8,7 +8,6 @@ import de.amr.games.pacman.lib.Vector2i;
 import de.amr.games.pacman.model.actors.Ghost;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,7 +24,7 @@ public class Memory {
 	public boolean pacPowerStarts;
 	public boolean pacPowerLost;
 	public boolean pacPowerFading;
-	public List<Ghost> pacPrey;
+	public final List<Ghost> pacPrey = new ArrayList<>(4);
 	public final List<Ghost> killedGhosts = new ArrayList<>(4);
 
 	public Memory() {
@@ -42,7 +41,7 @@ public class Memory {
 		pacPowerStarts = false;
 		pacPowerLost = false;
 		pacPowerFading = false;
-		pacPrey = Collections.emptyList();
+		pacPrey.clear();
 		killedGhosts.clear();
 	}
 
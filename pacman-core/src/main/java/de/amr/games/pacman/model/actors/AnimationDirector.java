@@ -14,11 +14,15 @@ public interface AnimationDirector {
 	Optional<Animations> animations();
 
 	default void selectAnimation(String name, int index) {
-		animations().ifPresent(a -> a.select(name, index));
+		// no capturing lambda here, this is called every frame
+		var animations = animations();
+		if (animations.isPresent()) {
+			animations.get().select(name, index);
+		}
 	}
 
 	default void selectAnimation(String name) {
-		animations().ifPresent(a -> a.select(name, 0));
+		selectAnimation(name, 0);
 	}
 
 	default void startAnimation() {
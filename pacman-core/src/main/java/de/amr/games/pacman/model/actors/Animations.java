@@ -11,6 +11,12 @@ public interface Animations {
 
 	Object currentAnimation();
 
+	/** @return name of the selected animation or <code>null</code> if no animation is selected */
+	String currentAnimationName();
+
+	/** @return index of the current frame of the selected animation, 0 if no animation is selected */
+	int currentFrameIndex();
+
 	void select(String name, int index);
 
 	void startSelected();
@@ -4,6 +4,8 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model.actors;
 
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.model.GameLevel;
 
 /**
@@ -35,6 +37,29 @@ public interface Bonus {
 	 */
 	byte state();
 
+	/**
+	 * Adds the state of this bonus to the given hash.
+	 *
+	 * @param hash state hash
+	 */
+	void hashState(StateHash hash);
+
+	/**
+	 * Writes the bonus state to the snapshot buffer. Symbol and points are not written, they are needed to create the
+	 * bonus before its state can be restored.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	void saveState(StateBuffer buffer);
+
+	/**
+	 * Restores the bonus state. A pending expiration is scheduled again on the timer wheel of the level, which must
+	 * have been reset to the saved tick before.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	void restoreState(StateBuffer buffer);
+
 	/**
 	 * Updates the bonus state.
 	 *
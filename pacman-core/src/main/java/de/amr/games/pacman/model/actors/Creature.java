@@ -5,7 +5,8 @@ See file LICENSE in repository root directory for details.
 package de.amr.games.pacman.model.actors;
 
 import de.amr.games.pacman.lib.Direction;
-import de.amr.games.pacman.lib.Vector2f;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.lib.Vector2i;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.world.Portal;
@@ -26,6 +27,7 @@ import static de.amr.games.pacman.lib.Globals.*;
 public abstract class Creature extends Entity {
 
 	protected static final Direction[] DIRECTION_PRIORITY = { UP, LEFT, DOWN, RIGHT };
+	private static final Direction[] DIRECTIONS = Direction.values();
 
 	private final String name;
 	private Direction moveDir;
@@ -61,6 +63,37 @@ public abstract class Creature extends Entity {
 		canTeleport = true;
 	}
 
+	@Override
+	public void hashState(StateHash hash) {
+		super.hashState(hash);
+		hash.add(moveDir).add(wishDir).add(targetTile).add(newTileEntered).add(gotReverseCommand).add(canTeleport)
+			.add(corneringSpeedUp).add(moveResult.moved).add(moveResult.tunnelEntered).add(moveResult.teleported);
+	}
+
+	@Override
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putEnum(moveDir).putEnum(wishDir).putTile(targetTile).putBoolean(newTileEntered)
+			.putBoolean(gotReverseCommand).putBoolean(canTeleport).putFloat(corneringSpeedUp).putBoolean(moveResult.moved)
+			.putBoolean(moveResult.tunnelEntered).putBoolean(moveResult.teleported);
+	}
+
+	@Override
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		moveDir = buffer.getEnum(DIRECTIONS);
+		wishDir = buffer.getEnum(DIRECTIONS);
+		targetTile = buffer.getTile();
+		newTileEntered = buffer.getBoolean();
+		gotReverseCommand = buffer.getBoolean();
+		canTeleport = buffer.getBoolean();
+		corneringSpeedUp = buffer.getFloat();
+		moveResult.clear();
+		moveResult.moved = buffer.getBoolean();
+		moveResult.tunnelEntered = buffer.getBoolean();
+		moveResult.teleported = buffer.getBoolean();
+	}
+
 	public World world() {
 		return world;
 	}
@@ -69,6 +102,18 @@ public abstract class Creature extends Entity {
 		this.world = world;
 	}
 
+	/**
+	 * Allocation-free variant of <code>world().index(tile())</code>.
+	 *
+	 * @return index of the tile containing the center of the collision box or <code>-1</code> if this tile is outside
+	 *         the world
+	 */
+	public int tileIndex() {
+		int col = (int) ((posX + HTS) / TS);
+		int row = (int) ((posY + HTS) / TS);
+		return world.insideBounds(col, row) ? world.index(col, row) : -1;
+	}
+
 	public abstract boolean canReverse();
 
 	/** Tells if the creature entered a new tile with its last move or placement. */
@@ -100,6 +145,13 @@ public abstract class Creature extends Entity {
 		return Optional.ofNullable(targetTile);
 	}
 
+	/**
+	 * @return if this creature has a target tile, unlike {@link #targetTile()} this does not create any objects
+	 */
+	public boolean hasTargetTile() {
+		return targetTile != null;
+	}
+
 	/**
 	 * Places this creature at the given tile coordinate with the given tile offsets. Updates the
 	 * <code>newTileEntered</code> state.
@@ -155,11 +207,7 @@ public abstract class Creature extends Entity {
 	 * @return if this creature can access the given tile
 	 */
 	public boolean canAccessTile(Vector2i tile) {
-		checkTileNotNull(tile);
-		if (world().insideBounds(tile)) {
-			return !world().isWall(tile) && !world().house().door().occupies(tile);
-		}
-		return world().belongsToPortal(tile);
+		return world().isAccessible(tile);
 	}
 
 	/**
@@ -171,8 +219,11 @@ public abstract class Creature extends Entity {
 		checkDirectionNotNull(dir);
 		if (moveDir != dir) {
 			moveDir = dir;
-			setVelocity(moveDir.vector().toFloatVec().scaled(velocity().length()));
-			Logger.trace("{}: New moveDir: {}. {}", name, moveDir, this);
+			float speed = (float) Math.hypot(velX, velY);
+			setVelocity(speed * moveDir.vector().x(), speed * moveDir.vector().y());
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{}: New moveDir: {}. {}", name, moveDir, this);
+			}
 		}
 	}
 
@@ -190,7 +241,9 @@ public abstract class Creature extends Entity {
 		checkDirectionNotNull(dir);
 		if (wishDir != dir) {
 			wishDir = dir;
-			Logger.trace("{}: New wishDir: {}. {}", name, wishDir, this);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{}: New wishDir: {}. {}", name, wishDir, this);
+			}
 		}
 	}
 
@@ -215,7 +268,9 @@ public abstract class Creature extends Entity {
 	public void reverseAsSoonAsPossible() {
 		gotReverseCommand = true;
 		newTileEntered = false;
-		Logger.trace("{} (moveDir={}, wishDir={}) got command to reverse direction", name, moveDir, wishDir);
+		if (Logger.isTraceEnabled()) {
+			Logger.trace("{} (moveDir={}, wishDir={}) got command to reverse direction", name, moveDir, wishDir);
+		}
 	}
 
 	/**
@@ -239,7 +294,11 @@ public abstract class Creature extends Entity {
 		if (pixelSpeed < 0) {
 			throw new IllegalArgumentException("Negative pixel speed: " + pixelSpeed);
 		}
-		setVelocity(pixelSpeed == 0 ? Vector2f.ZERO : moveDir.vector().toFloatVec().scaled(pixelSpeed));
+		if (pixelSpeed == 0) {
+			setVelocity(0, 0);
+		} else {
+			setVelocity(pixelSpeed * moveDir.vector().x(), pixelSpeed * moveDir.vector().y());
+		}
 	}
 
 	/**
@@ -255,27 +314,28 @@ public abstract class Creature extends Entity {
 		if (world().belongsToPortal(tile())) {
 			return; // inside portal, no navigation happens
 		}
-		computeTargetDirection().ifPresent(this::setWishDir);
+		var targetDir = computeTargetDirection();
+		if (targetDir != null) {
+			setWishDir(targetDir);
+		}
 	}
 
-	private Optional<Direction> computeTargetDirection() {
+	/**
+	 * @return direction to the accessible neighbor tile (not reversing) nearest to the target tile, ties are resolved in
+	 *         order {@link #DIRECTION_PRIORITY}, or <code>null</code> if there is no such neighbor
+	 */
+	private Direction computeTargetDirection() {
 		final var currentTile = tile();
-		Direction targetDir = null;
-		float minDistance = Float.MAX_VALUE;
+		int candidates = 0;
 		for (var dir : DIRECTION_PRIORITY) {
 			if (dir == moveDir.opposite()) {
 				continue; // reversing the move direction is not allowed
 			}
-			final var neighborTile = currentTile.plus(dir.vector());
-			if (canAccessTile(neighborTile)) {
-				final float distance = neighborTile.euclideanDistance(targetTile);
-				if (distance < minDistance) {
-					minDistance = distance;
-					targetDir = dir;
-				}
+			if (canAccessTile(currentTile.plus(dir.vector()))) {
+				candidates |= 1 << dir.ordinal();
 			}
 		}
-		return Optional.ofNullable(targetDir);
+		return world.navigationCache().bestDirection(currentTile, candidates, targetTile);
 	}
 
 	public boolean moved() {
@@ -295,6 +355,9 @@ public abstract class Creature extends Entity {
 	 * <p>
 	 * First checks if the creature can teleport, then if the creature can move to its wish direction. If this is not
 	 * possible, it keeps moving to its current move direction.
+	 * <p>
+	 * Moving does not create any objects, the messages describing the move result are only created if trace logging is
+	 * enabled.
 	 */
 	public void tryMoving() {
 		moveResult.clear();
@@ -308,7 +371,7 @@ public abstract class Creature extends Entity {
 				tryMoving(moveDir);
 			}
 		}
-		if (moveResult.teleported || moveResult.moved) {
+		if ((moveResult.teleported || moveResult.moved) && Logger.isTraceEnabled()) {
 			Logger.trace("{}: {} {} {}", name, moveResult, moveResult.summary(), this);
 		}
 	}
@@ -317,14 +380,17 @@ public abstract class Creature extends Entity {
 		if (gotReverseCommand && canReverse()) {
 			setWishDir(moveDir.opposite());
 			gotReverseCommand = false;
-			Logger.trace("{}: [turned around]", name);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{}: [turned around]", name);
+			}
 		}
 	}
 
 	private void tryTeleport(List<Portal> portals) {
 		if (canTeleport) {
-			for (var portal : portals) {
-				tryTeleport(portal);
+			// indexed loop, the portal list is unmodifiable and would create a new iterator each frame
+			for (int i = 0; i < portals.size(); ++i) {
+				tryTeleport(portals.get(i));
 				if (moveResult.teleported) {
 					return;
 				}
@@ -339,56 +405,68 @@ public abstract class Creature extends Entity {
 		if (tile.y() == portal.leftTunnelEnd().y() && posX < portal.leftTunnelEnd().x() - portal.depth() * TS) {
 			centerOverTile(portal.rightTunnelEnd());
 			moveResult.teleported = true;
-			moveResult.addMessage(String.format("%s: Teleported from (%.2f,%.2f) to (%.2f,%.2f)",
-				name, old_pos_x, old_pos_y, posX, posY));
 		} else if (tile.equals(portal.rightTunnelEnd().plus(portal.depth(), 0))) {
 			centerOverTile(portal.leftTunnelEnd().minus(portal.depth(), 0));
 			moveResult.teleported = true;
+		}
+		if (moveResult.teleported && Logger.isTraceEnabled()) {
 			moveResult.addMessage(String.format("%s: Teleported from (%.2f,%.2f) to (%.2f,%.2f)",
 				name, old_pos_x, old_pos_y, posX, posY));
 		}
 	}
 
 	private void tryMoving(Direction dir) {
+		// computed in primitive floats to avoid creating vector objects each frame
 		final Vector2i tileBeforeMove = tile();
-		final Vector2f dirVector = dir.vector().toFloatVec();
-		final Vector2f newVelocity = dirVector.scaled(velocity().length());
-		final Vector2f touchPosition = center().plus(dirVector.scaled(HTS)).plus(newVelocity);
-		final Vector2i touchedTile = tileAt(touchPosition);
+		final float dx = dir.vector().x(), dy = dir.vector().y();
+		final float speed = (float) Math.hypot(velX, velY);
+		final float newVelX = speed * dx, newVelY = speed * dy;
+		final float touchX = posX + HTS + HTS * dx + newVelX;
+		final float touchY = posY + HTS + HTS * dy + newVelY;
+		final Vector2i touchedTile = tileAt(touchX, touchY);
 		final boolean isTurn = !dir.sameOrientation(moveDir);
 
 		if (!canAccessTile(touchedTile)) {
 			if (!isTurn) {
 				centerOverTile(tile()); // adjust over tile (would move forward against wall)
 			}
-			moveResult.addMessage(String.format("Cannot move %s into tile %s", dir, touchedTile));
+			if (Logger.isTraceEnabled()) {
+				moveResult.addMessage(String.format("Cannot move %s into tile %s", dir, touchedTile));
+			}
 			return;
 		}
 
 		if (isTurn) {
-			float offset = dir.isHorizontal() ? offset().y() : offset().x();
+			var tile = tile();
+			float offset = dir.isHorizontal() ? posY - TS * tile.y() : posX - TS * tile.x();
 			boolean atTurnPosition = Math.abs(offset) <= 1; // TODO <= pixel-speed?
 			if (atTurnPosition) {
-				centerOverTile(tile()); // adjust over tile (starts moving around corner)
+				centerOverTile(tile); // adjust over tile (starts moving around corner)
 			} else {
-				moveResult.addMessage(String.format("Wants to take corner towards %s but not at turn position", dir));
+				if (Logger.isTraceEnabled()) {
+					moveResult.addMessage(String.format("Wants to take corner towards %s but not at turn position", dir));
+				}
 				return;
 			}
 		}
 
 		if (isTurn && corneringSpeedUp > 0) {
-			setVelocity(newVelocity.plus(dirVector.scaled(corneringSpeedUp)));
-			Logger.trace("{} velocity around corner: {}", name(), velocity().length());
+			setVelocity(newVelX + corneringSpeedUp * dx, newVelY + corneringSpeedUp * dy);
+			if (Logger.isTraceEnabled()) {
+				Logger.trace("{} velocity around corner: {}", name(), velocity().length());
+			}
 			move();
-			setVelocity(newVelocity);
+			setVelocity(newVelX, newVelY);
 		} else {
-			setVelocity(newVelocity);
+			setVelocity(newVelX, newVelY);
 			move();
 		}
 
 		newTileEntered = !tileBeforeMove.equals(tile());
 		moveResult.moved = true;
 		moveResult.tunnelEntered = !world().isTunnel(tileBeforeMove) && world().isTunnel(tile());
-		moveResult.addMessage(String.format("%5s (%.2f pixels)", dir, newVelocity.length()));
+		if (Logger.isTraceEnabled()) {
+			moveResult.addMessage(String.format("%5s (%.2f pixels)", dir, speed));
+		}
 	}
-}
\ No newline at end of file
+}
@@ -4,6 +4,8 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model.actors;
 
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.lib.Vector2f;
 import de.amr.games.pacman.lib.Vector2i;
 
@@ -24,6 +26,8 @@ public class Entity {
 	protected float velY;
 	protected float accX;
 	protected float accY;
+	protected float savedPosX;
+	protected float savedPosY;
 
 	@Override
 	public String toString() {
@@ -46,6 +50,34 @@ public class Entity {
 		velY = 0;
 		accX = 0;
 		accY = 0;
+		savedPosX = 0;
+		savedPosY = 0;
+	}
+
+	/**
+	 * Adds the state of this entity to the given hash.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(visible).add(posX).add(posY).add(velX).add(velY).add(accX).add(accY);
+	}
+
+	public void saveState(StateBuffer buffer) {
+		buffer.putBoolean(visible).putFloat(posX).putFloat(posY).putFloat(velX).putFloat(velY).putFloat(accX).putFloat(accY)
+			.putFloat(savedPosX).putFloat(savedPosY);
+	}
+
+	public void restoreState(StateBuffer buffer) {
+		visible = buffer.getBoolean();
+		posX = buffer.getFloat();
+		posY = buffer.getFloat();
+		velX = buffer.getFloat();
+		velY = buffer.getFloat();
+		accX = buffer.getFloat();
+		accY = buffer.getFloat();
+		savedPosX = buffer.getFloat();
+		savedPosY = buffer.getFloat();
 	}
 
 	public boolean isVisible() {
@@ -103,6 +135,25 @@ public class Entity {
 		return v2f(posX + HTS, posY + HTS);
 	}
 
+	/**
+	 * Saves the current position, e.g. before a simulation step, such that a renderer can interpolate between the saved
+	 * and the current position.
+	 */
+	public void savePosition() {
+		savedPosX = posX;
+		savedPosY = posY;
+	}
+
+	/** @return x-coordinate saved by {@link #savePosition()} */
+	public float savedPosX() {
+		return savedPosX;
+	}
+
+	/** @return y-coordinate saved by {@link #savePosition()} */
+	public float savedPosY() {
+		return savedPosY;
+	}
+
 	public Vector2f velocity() {
 		return v2f(velX, velY);
 	}
@@ -5,6 +5,8 @@ See file LICENSE in repository root directory for details.
 package de.amr.games.pacman.model.actors;
 
 import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.lib.Vector2f;
 import de.amr.games.pacman.lib.Vector2i;
 import de.amr.games.pacman.model.GameModel;
@@ -37,6 +39,9 @@ public class Ghost extends Creature implements AnimationDirector {
 	public static final String ANIM_BLINKY_PATCHED   = "patched";
 	public static final String ANIM_BLINKY_NAKED     = "naked";
 
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final GhostState[] STATES = GhostState.values();
+
 	private final byte id;
 	private GhostState state;
 	private byte killedIndex;
@@ -89,6 +94,34 @@ public class Ghost extends Creature implements AnimationDirector {
 		setKilledIndex(-1);
 	}
 
+	@Override
+	public void hashState(StateHash hash) {
+		super.hashState(hash);
+		hash.add(id).add(state).add(killedIndex);
+	}
+
+	@Override
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putEnum(state).putByte(killedIndex);
+	}
+
+	/**
+	 * Restores the ghost state and selects the animation matching it. Restore Pac-Man first, the frightened animation
+	 * depends on his power state.
+	 */
+	@Override
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		var restoredState = buffer.getEnum(STATES);
+		killedIndex = buffer.getByte();
+		if (restoredState != null) {
+			setState(restoredState);
+		} else {
+			state = null;
+		}
+	}
+
 	public void setHouse(House house) {
 		checkNotNull(house);
 		this.house = house;
@@ -154,22 +187,24 @@ public class Ghost extends Creature implements AnimationDirector {
 	public boolean canAccessTile(Vector2i tile) {
 		checkTileNotNull(tile);
 		var currentTile = tile();
-		for (var dir : Direction.values()) {
+		for (var dir : DIRECTIONS) {
 			if (tile.equals(currentTile.plus(dir.vector())) && !fnIsSteeringAllowed.test(dir)) {
-				Logger.trace("Ghost {} cannot access tile {} because he cannot move {} at tile {}",
-					name(), tile, dir, currentTile);
+				if (Logger.isTraceEnabled()) {
+					Logger.trace("Ghost {} cannot access tile {} because he cannot move {} at tile {}",
+						name(), tile, dir, currentTile);
+				}
 				return false;
 			}
 		}
-		if (house.door().occupies(tile)) {
-			return is(ENTERING_HOUSE, LEAVING_HOUSE);
+		if (world.isDoor(tile)) {
+			return is(GhostStateSet.PASSING_DOOR);
 		}
 		return super.canAccessTile(tile);
 	}
 
 	@Override
 	public boolean canReverse() {
-		return isNewTileEntered() && is(HUNTING_PAC, FRIGHTENED);
+		return isNewTileEntered() && is(GhostStateSet.HUNTING_OR_FRIGHTENED);
 	}
 
 	// Here begins the state machine part
@@ -179,13 +214,29 @@ public class Ghost extends Creature implements AnimationDirector {
 		return state;
 	}
 
+	/**
+	 * @param state ghost state to be checked
+	 * @return <code>true</code> if this ghost is in the given state (no varargs array is created)
+	 */
+	public boolean is(GhostState state) {
+		return this.state == state;
+	}
+
+	/**
+	 * @param states ghost states to be checked
+	 * @return <code>true</code> if this ghost is in any of the given states
+	 */
+	public boolean is(GhostStateSet states) {
+		return states.contains(state);
+	}
+
 	/**
 	 * @param alternatives ghost states to be checked
 	 * @return <code>true</code> if this ghost is in any of the given states. If no alternatives are given, returns
 	 *         <code>false</code>
 	 */
 	public boolean is(GhostState... alternatives) {
-		return oneOf(state, alternatives);
+		return GhostStateSet.of(alternatives).contains(state);
 	}
 
 	public void setState(GhostState state) {
@@ -267,8 +318,8 @@ public class Ghost extends Creature implements AnimationDirector {
 			return;
 		}
 		// move inside house
-		float centerX = center().x();
-		float houseCenterX = house.center().x();
+		float centerX = posX + HTS;
+		float houseCenterX = house.centerX();
 		if (differsAtMost(0.5f * speedInsideHouse, centerX, houseCenterX)) {
 			// align horizontally and raise
 			setPosX(houseCenterX - HTS);
@@ -358,10 +409,10 @@ public class Ghost extends Creature implements AnimationDirector {
 	 * then moves up again (if the house center is his revival position), or moves sidewards towards his revival position.
 	 */
 	private void updateStateEnteringHouse() {
-		Vector2f houseCenter = house.center();
-		if (posY >= houseCenter.y()) {
+		float houseCenterY = house.centerY();
+		if (posY >= houseCenterY) {
 			// reached ground
-			setPosY(houseCenter.y());
+			setPosY(houseCenterY);
 			if (revivalPosition.x() < posX) {
 				setMoveAndWishDir(LEFT);
 			} else if (revivalPosition.x() > posX) {
@@ -0,0 +1,144 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.model.actors;
+
+import java.util.StringJoiner;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Immutable set of ghost states, stored as a bit mask where bit <code>state.ordinal()</code> is set for each
+ * contained state.
+ * <p>
+ * All possible sets are created in advance, so {@link #of(GhostState)} and {@link #ofMask(int)} never allocate and
+ * membership tests are a single bit operation. Use the constants of this class in code that runs every frame instead
+ * of the varargs methods taking {@link GhostState} alternatives.
+ *
+ * @author Armin Reichert
+ */
+public final class GhostStateSet {
+
+	private static final GhostState[] STATES = GhostState.values();
+
+	private static final int ALL_MASK = (1 << STATES.length) - 1;
+
+	private static final GhostStateSet[] SETS = new GhostStateSet[ALL_MASK + 1];
+
+	static {
+		for (int mask = 0; mask <= ALL_MASK; ++mask) {
+			SETS[mask] = new GhostStateSet(mask);
+		}
+	}
+
+	public static final GhostStateSet NONE = ofMask(0);
+	public static final GhostStateSet ALL = ofMask(ALL_MASK);
+
+	/** Ghosts that Pac-Man can kill (when powered) or that can kill Pac-Man. */
+	public static final GhostStateSet HUNTING_OR_FRIGHTENED = of(GhostState.HUNTING_PAC, GhostState.FRIGHTENED);
+
+	/** Ghosts on their way back to the house, for the "ghost returning" sound. */
+	public static final GhostStateSet RETURNING_OR_ENTERING = of(GhostState.RETURNING_TO_HOUSE, GhostState.ENTERING_HOUSE);
+
+	/** Ghosts moving through the house door. */
+	public static final GhostStateSet PASSING_DOOR = of(GhostState.ENTERING_HOUSE, GhostState.LEAVING_HOUSE);
+
+	/** Ghosts approaching or passing the house door. */
+	public static final GhostStateSet USING_DOOR = of(GhostState.RETURNING_TO_HOUSE, GhostState.ENTERING_HOUSE,
+		GhostState.LEAVING_HOUSE);
+
+	/** Ghosts inside the house or passing its door. */
+	public static final GhostStateSet AT_HOUSE = of(GhostState.LOCKED, GhostState.ENTERING_HOUSE,
+		GhostState.LEAVING_HOUSE);
+
+	/** Ghosts that have been killed and not yet revived. */
+	public static final GhostStateSet EATEN_OR_RETURNING = of(GhostState.EATEN, GhostState.RETURNING_TO_HOUSE,
+		GhostState.ENTERING_HOUSE);
+
+	/** Ghosts that reverse their move direction when the hunting phase changes. */
+	public static final GhostStateSet REVERSING_ON_PHASE_CHANGE = of(GhostState.HUNTING_PAC, GhostState.LOCKED,
+		GhostState.LEAVING_HOUSE);
+
+	/**
+	 * @param mask bit mask with bit <code>state.ordinal()</code> set for each contained state
+	 * @return the (pre-built) set with this mask
+	 */
+	public static GhostStateSet ofMask(int mask) {
+		if (mask < 0 || mask > ALL_MASK) {
+			throw new IllegalArgumentException("Illegal ghost state mask: " + mask);
+		}
+		return SETS[mask];
+	}
+
+	/**
+	 * @param state ghost state
+	 * @return the (pre-built) set containing only the given state
+	 */
+	public static GhostStateSet of(GhostState state) {
+		checkNotNull(state);
+		return SETS[1 << state.ordinal()];
+	}
+
+	/**
+	 * @param states ghost states
+	 * @return the (pre-built) set containing exactly the given states
+	 */
+	public static GhostStateSet of(GhostState... states) {
+		checkNotNull(states);
+		int mask = 0;
+		for (var state : states) {
+			checkNotNull(state);
+			mask |= 1 << state.ordinal();
+		}
+		return SETS[mask];
+	}
+
+	private final int mask;
+
+	private GhostStateSet(int mask) {
+		this.mask = mask;
+	}
+
+	/** @return bit mask with bit <code>state.ordinal()</code> set for each contained state */
+	public int mask() {
+		return mask;
+	}
+
+	/**
+	 * @param state ghost state
+	 * @return if this set contains the given state
+	 */
+	public boolean contains(GhostState state) {
+		return (mask & (1 << state.ordinal())) != 0;
+	}
+
+	public boolean isEmpty() {
+		return mask == 0;
+	}
+
+	/** @return number of states in this set */
+	public int size() {
+		return Integer.bitCount(mask);
+	}
+
+	/**
+	 * @param other other set
+	 * @return set containing the states of both sets
+	 */
+	public GhostStateSet union(GhostStateSet other) {
+		checkNotNull(other);
+		return SETS[mask | other.mask];
+	}
+
+	@Override
+	public String toString() {
+		var joiner = new StringJoiner(", ", "{", "}");
+		for (var state : STATES) {
+			if (contains(state)) {
+				joiner.add(state.name());
+			}
+		}
+		return joiner.toString();
+	}
+}
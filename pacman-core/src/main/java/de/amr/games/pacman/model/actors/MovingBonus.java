@@ -4,17 +4,21 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model.actors;
 
-import de.amr.games.pacman.controller.GameController;
+import de.amr.games.pacman.controller.GameSession;
 import de.amr.games.pacman.event.GameEventType;
 import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.lib.NavigationPoint;
 import de.amr.games.pacman.lib.Pulse;
 import de.amr.games.pacman.lib.RouteBasedSteering;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
+import de.amr.games.pacman.lib.TimerWheel;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.world.World;
 import org.tinylog.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,24 +32,43 @@ import java.util.List;
  */
 public class MovingBonus extends Creature implements Bonus {
 
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final GameSession session;
+	private final TimerWheel timers;
 	private final Pulse jumpAnimation;
 	private final RouteBasedSteering steering = new RouteBasedSteering();
 	private final byte symbol;
 	private final int points;
-	private long eatenTimer;
+	private final List<NavigationPoint> route = new ArrayList<>(5);
+	private final TimerWheel.Timeout expiration;
 	private byte state;
 
-	public MovingBonus(byte symbol, int points) {
+	/**
+	 * @param session game session receiving the bonus events
+	 * @param timers  timer wheel of the level, advanced after each bonus update
+	 * @param symbol  bonus symbol
+	 * @param points  bonus value
+	 */
+	public MovingBonus(GameSession session, TimerWheel timers, byte symbol, int points) {
 		super("MovingBonus-" + symbol);
 		reset();
+		this.session = session;
+		this.timers = timers;
 		this.symbol = symbol;
 		this.points = points;
+		expiration = timers.timeout(this::expire);
 		jumpAnimation = new Pulse(10, false);
 		canTeleport = false; // override default from Creature
-		eatenTimer = 0;
 		state = Bonus.STATE_INACTIVE;
 	}
 
+	@Override
+	public void reset() {
+		super.reset();
+		canTeleport = false;
+	}
+
 	@Override
 	public boolean canReverse() {
 		return false;
@@ -58,8 +81,69 @@ public class MovingBonus extends Creature implements Bonus {
 
 	@Override
 	public String toString() {
-		return String.format("[MovingBonus state=%s symbol=%d value=%d eatenTimer=%d tile=%s]",
-				state, symbol(), points, eatenTimer, tile());
+		return String.format("[MovingBonus state=%s symbol=%d value=%d expiration=%s tile=%s]",
+				state, symbol(), points, expiration, tile());
+	}
+
+	@Override
+	public void hashState(StateHash hash) {
+		super.hashState(hash);
+		hash.add(symbol).add(points).add(state).add(expirationDeadline());
+		jumpAnimation.hashState(hash);
+		steering.hashState(hash);
+	}
+
+	@Override
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putByte(state).putLong(expirationDeadline());
+		jumpAnimation.saveState(buffer);
+		var route = steering.route();
+		buffer.putInt(route.size());
+		for (var point : route) {
+			buffer.putInt(point.x()).putInt(point.y()).putEnum(point.dir());
+		}
+		steering.saveState(buffer);
+	}
+
+	@Override
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		state = buffer.getByte();
+		long deadline = buffer.getLong();
+		if (deadline != -1) {
+			expiration.schedule(deadline - timers.now());
+		} else {
+			expiration.cancel();
+		}
+		jumpAnimation.restoreState(buffer);
+		restoreRoute(buffer);
+		steering.restoreState(buffer);
+	}
+
+	private long expirationDeadline() {
+		return expiration.isPending() ? expiration.deadline() : -1;
+	}
+
+	// keeps the current route if it is equal to the saved one, so restoring a bonus of the same level does not allocate
+	private void restoreRoute(StateBuffer buffer) {
+		var currentRoute = steering.route();
+		int size = buffer.getInt();
+		int start = buffer.position();
+		boolean equal = size == currentRoute.size();
+		for (int i = 0; i < size; ++i) {
+			int x = buffer.getInt(), y = buffer.getInt();
+			var dir = buffer.getEnum(DIRECTIONS);
+			equal = equal && currentRoute.get(i).x() == x && currentRoute.get(i).y() == y && currentRoute.get(i).dir() == dir;
+		}
+		if (!equal) {
+			buffer.seek(start);
+			route.clear();
+			for (int i = 0; i < size; ++i) {
+				route.add(NavigationPoint.np(buffer.getInt(), buffer.getInt(), buffer.getEnum(DIRECTIONS)));
+			}
+			steering.setRoute(route);
+		}
 	}
 
 	@Override
@@ -79,6 +163,7 @@ public class MovingBonus extends Creature implements Bonus {
 
 	@Override
 	public void setInactive() {
+		expiration.cancel();
 		state = Bonus.STATE_INACTIVE;
 		jumpAnimation.stop();
 		hide();
@@ -97,17 +182,43 @@ public class MovingBonus extends Creature implements Bonus {
 	@Override
 	public void setEaten(long ticks) {
 		state = Bonus.STATE_EATEN;
-		eatenTimer = ticks;
+		scheduleExpiration(ticks);
 		jumpAnimation.stop();
 		Logger.info("Bonus eaten: {}", this);
-		GameController.it().publishGameEvent(GameEventType.BONUS_EATEN, tile());
+		session.publishGameEvent(GameEventType.BONUS_EATEN, tile());
+	}
+
+	/*
+	 * The bonus is eaten during the bonus update and the wheel advances later in the same frame, so it expires after the
+	 * given number of frames following the current one. An expiration that is still pending is cancelled, the bonus
+	 * expires only once.
+	 */
+	private void scheduleExpiration(long ticks) {
+		expiration.cancel();
+		expiration.schedule(ticks + 1);
 	}
 
+	private void expire() {
+		setInactive();
+		Logger.trace("Bonus expired: {}", this);
+		session.publishGameEvent(GameEventType.BONUS_EXPIRED, tile());
+	}
+
+	/**
+	 * Places the bonus at the start point of the given route and lets it follow the other points. The points are copied
+	 * into a list owned by the bonus, so the caller can reuse its list.
+	 *
+	 * @param route       start point followed by the points to visit
+	 * @param leftToRight if the bonus starts moving to the right
+	 */
 	public void setRoute(List<NavigationPoint> route, boolean leftToRight) {
 		centerOverTile(route.get(0).tile());
 		setMoveAndWishDir(leftToRight ? Direction.RIGHT : Direction.LEFT);
-		route.remove(0);
-		steering.setRoute(route);
+		this.route.clear();
+		for (int i = 1; i < route.size(); ++i) {
+			this.route.add(route.get(i));
+		}
+		steering.setRoute(this.route);
 	}
 
 	public float dy() {
@@ -128,14 +239,14 @@ public class MovingBonus extends Creature implements Bonus {
 			if (sameTile(level.pac())) {
 				level.game().scorePoints(points());
 				setEaten(GameModel.BONUS_POINTS_SHOWN_TICKS);
-				GameController.it().publishGameEvent(GameEventType.BONUS_EATEN);
+				session.publishGameEvent(GameEventType.BONUS_EATEN);
 				return;
 			}
 			steering.steer(level, this);
 			if (steering.isComplete()) {
 				setInactive();
 				Logger.trace("Bonus left world: {}", this);
-				GameController.it().publishGameEvent(GameEventType.BONUS_EXPIRED, tile());
+				session.publishGameEvent(GameEventType.BONUS_EXPIRED, tile());
 			} else {
 				navigateTowardsTarget();
 				tryMoving();
@@ -144,14 +255,8 @@ public class MovingBonus extends Creature implements Bonus {
 			break;
 		}
 
-		case STATE_EATEN: {
-			if (--eatenTimer == 0) {
-				setInactive();
-				Logger.trace("Bonus expired: {}", this);
-				GameController.it().publishGameEvent(GameEventType.BONUS_EXPIRED, tile());
-			}
-			break;
-		}
+		case STATE_EATEN:
+			break; // expiration is scheduled on the timer wheel
 
 		default:
 			throw new IllegalStateException();
@@ -5,6 +5,8 @@ See file LICENSE in repository root directory for details.
 package de.amr.games.pacman.model.actors;
 
 import de.amr.games.pacman.controller.Steering;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.lib.TickTimer;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
@@ -83,6 +85,42 @@ public class Pac extends Creature implements AnimationDirector {
 		selectAnimation(ANIM_MUNCHING);
 	}
 
+	@Override
+	public void hashState(StateHash hash) {
+		super.hashState(hash);
+		hash.add(dead).add(restingTicks).add(starvingTicks);
+		powerTimer.hashState(hash);
+		if (steering != null) {
+			steering.hashState(hash);
+		}
+	}
+
+	/**
+	 * Saves the state of Pac-Man including the state of his own steering. The steering itself is set when the level is
+	 * created and not saved.
+	 */
+	@Override
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putBoolean(dead).putLong(restingTicks).putLong(starvingTicks);
+		powerTimer.saveState(buffer);
+		if (steering != null) {
+			steering.saveState(buffer);
+		}
+	}
+
+	@Override
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		dead = buffer.getBoolean();
+		restingTicks = buffer.getLong();
+		starvingTicks = buffer.getLong();
+		powerTimer.restoreState(buffer);
+		if (steering != null) {
+			steering.restoreState(buffer);
+		}
+	}
+
 	public void update(GameLevel level) {
 		if (dead || restingTicks == REST_FOREVER) {
 			return;
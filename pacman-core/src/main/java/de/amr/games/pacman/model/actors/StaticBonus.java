@@ -4,8 +4,12 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model.actors;
 
-import de.amr.games.pacman.controller.GameController;
+import de.amr.games.pacman.controller.GameSession;
 import de.amr.games.pacman.event.GameEventType;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
+import de.amr.games.pacman.lib.TickTimer;
+import de.amr.games.pacman.lib.TimerWheel;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
 import org.tinylog.Logger;
@@ -17,15 +21,25 @@ import org.tinylog.Logger;
  */
 public class StaticBonus extends Entity implements Bonus {
 
+	private final GameSession session;
+	private final TimerWheel timers;
 	private final byte symbol;
 	private final int points;
-	private long timer;
+	private final TimerWheel.Timeout expiration;
 	private byte state;
 
-	public StaticBonus(byte symbol, int points) {
+	/**
+	 * @param session game session receiving the bonus events
+	 * @param timers  timer wheel of the level, advanced after each bonus update
+	 * @param symbol  bonus symbol
+	 * @param points  bonus value
+	 */
+	public StaticBonus(GameSession session, TimerWheel timers, byte symbol, int points) {
+		this.session = session;
+		this.timers = timers;
 		this.symbol = symbol;
 		this.points = points;
-		this.timer = 0;
+		this.expiration = timers.timeout(this::expire);
 		this.state = Bonus.STATE_INACTIVE;
 	}
 
@@ -39,11 +53,39 @@ public class StaticBonus extends Entity implements Bonus {
 		return "StaticBonus{" +
 			"symbol=" + symbol +
 			", points=" + points +
-			", timer=" + timer +
+			", expiration=" + expiration +
 			", state=" + state +
 			'}';
 	}
 
+	@Override
+	public void hashState(StateHash hash) {
+		super.hashState(hash);
+		hash.add(symbol).add(points).add(state).add(expirationDeadline());
+	}
+
+	@Override
+	public void saveState(StateBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putByte(state).putLong(expirationDeadline());
+	}
+
+	@Override
+	public void restoreState(StateBuffer buffer) {
+		super.restoreState(buffer);
+		state = buffer.getByte();
+		long deadline = buffer.getLong();
+		if (deadline != -1) {
+			expiration.schedule(deadline - timers.now());
+		} else {
+			expiration.cancel();
+		}
+	}
+
+	private long expirationDeadline() {
+		return expiration.isPending() ? expiration.deadline() : -1;
+	}
+
 	@Override
 	public byte state() {
 		return state;
@@ -61,7 +103,7 @@ public class StaticBonus extends Entity implements Bonus {
 
 	@Override
 	public void setInactive() {
-		timer = 0;
+		expiration.cancel();
 		state = Bonus.STATE_INACTIVE;
 		hide();
 	}
@@ -71,7 +113,7 @@ public class StaticBonus extends Entity implements Bonus {
 		if (ticks <= 0) {
 			throw new IllegalArgumentException("Bonus edible time must be larger than zero");
 		}
-		timer = ticks;
+		scheduleExpiration(ticks);
 		state = Bonus.STATE_EDIBLE;
 		show();
 	}
@@ -81,23 +123,35 @@ public class StaticBonus extends Entity implements Bonus {
 		if (ticks <= 0) {
 			throw new IllegalArgumentException("Bonus edible time must be larger than zero");
 		}
-		timer = ticks;
+		scheduleExpiration(ticks);
 		state = Bonus.STATE_EATEN;
 		Logger.info("Bonus eaten: {}", this);
-		GameController.it().publishGameEvent(GameEventType.BONUS_EATEN, tile());
+		session.publishGameEvent(GameEventType.BONUS_EATEN, tile());
+	}
+
+	/*
+	 * The bonus is eaten or gets edible before the wheel advances in the current frame, so it expires after the given
+	 * number of frames following the current one.
+	 */
+	private void scheduleExpiration(long ticks) {
+		if (ticks != TickTimer.INDEFINITE) {
+			expiration.schedule(ticks + 1);
+		} else {
+			expiration.cancel();
+		}
 	}
 
 	private void expire() {
 		setInactive();
 		Logger.info("Bonus expired: {}", this);
-		GameController.it().publishGameEvent(GameEventType.BONUS_EXPIRED, tile());
+		session.publishGameEvent(GameEventType.BONUS_EXPIRED, tile());
 	}
 
 	@Override
 	public void update(GameLevel level) {
 		switch (state) {
-		case Bonus.STATE_INACTIVE: {
-			// stay inactive
+		case Bonus.STATE_INACTIVE, Bonus.STATE_EATEN: {
+			// expiration is scheduled on the timer wheel
 			break;
 		}
 		case Bonus.STATE_EDIBLE: {
@@ -106,19 +160,7 @@ public class StaticBonus extends Entity implements Bonus {
 				level.game().scorePoints(points());
 				setEaten(GameModel.BONUS_POINTS_SHOWN_TICKS);
 				Logger.info("Scored {} points for eating bonus {}", points(), this);
-				GameController.it().publishGameEvent(GameEventType.BONUS_EATEN);
-			} else if (timer == 0) {
-				expire();
-			} else {
-				--timer;
-			}
-			break;
-		}
-		case Bonus.STATE_EATEN: {
-			if (timer == 0) {
-				expire();
-			} else {
-				--timer;
+				session.publishGameEvent(GameEventType.BONUS_EATEN);
 			}
 			break;
 		}
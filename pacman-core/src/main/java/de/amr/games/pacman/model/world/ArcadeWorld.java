@@ -246,7 +246,9 @@ public interface ArcadeWorld {
 	};
 
 	static World createPacManWorld() {
-		return createArcadeWorld(PACMAN_MAP);
+		var world = createArcadeWorld(PACMAN_MAP);
+		world.setRedZone(PACMAN_RED_ZONE);
+		return world;
 	}
 
 	static World createMsPacManWorld(int number) {
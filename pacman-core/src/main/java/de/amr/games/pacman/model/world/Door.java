@@ -18,12 +18,14 @@ public final class Door {
 
 	private final Vector2i leftWing;
 	private final Vector2i rightWing;
+	private final Vector2f entryPosition;
 
 	public Door(Vector2i leftWing, Vector2i rightWing) {
 		checkNotNull(leftWing);
 		checkNotNull(rightWing);
 		this.leftWing = leftWing;
 		this.rightWing = rightWing;
+		entryPosition = v2f(TS * rightWing.x() - HTS, TS * (rightWing.y() - 1));
 	}
 
 	public Vector2i leftWing() {
@@ -43,10 +45,10 @@ public final class Door {
 	}
 
 	/**
-	 * @return position where ghost can enter the door
+	 * @return position where ghost can enter the door (computed once, ghosts ask for it every frame)
 	 */
 	public Vector2f entryPosition() {
-		return v2f(TS * rightWing.x() - HTS, TS * (rightWing.y() - 1));
+		return entryPosition;
 	}
 
 	@Override
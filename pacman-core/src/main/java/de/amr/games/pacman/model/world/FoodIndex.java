@@ -0,0 +1,136 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.model.world;
+
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.Vector2i;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+import static de.amr.games.pacman.lib.Globals.checkTileNotNull;
+
+/**
+ * Index of the uneaten food of a world, kept up-to-date by {@link World#removeFood(Vector2i)}.
+ * <p>
+ * Answers "which uneaten food tiles are nearest to a tile by maze path distance" with a breadth-first search over the
+ * precomputed accessible-neighbor masks of the world that stops as soon as the layer containing the nearest food has
+ * been completed. The search buffers are allocated once, so queries do not create any objects.
+ *
+ * @author Armin Reichert
+ */
+public class FoodIndex {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final World world;
+	private final BitSet food;
+	private final BitSet uneaten;
+	private final int[] queue;
+	private final int[] distance;
+	private final int[] visitStamp;
+	private int stamp;
+
+	/**
+	 * @param world world of the food
+	 * @param food  indices of all food tiles of the world
+	 */
+	FoodIndex(World world, BitSet food) {
+		this.world = world;
+		int numTiles = world.numCols() * world.numRows();
+		this.food = food;
+		uneaten = (BitSet) food.clone();
+		queue = new int[numTiles];
+		distance = new int[numTiles];
+		visitStamp = new int[numTiles];
+	}
+
+	void remove(int index) {
+		uneaten.clear(index);
+	}
+
+	/**
+	 * @param eaten indices of the tiles where food has been eaten
+	 */
+	void restore(BitSet eaten) {
+		uneaten.clear();
+		uneaten.or(food);
+		uneaten.andNot(eaten);
+	}
+
+	/** @return number of uneaten food tiles */
+	public int size() {
+		return uneaten.cardinality();
+	}
+
+	/**
+	 * @param index tile index
+	 * @return if the tile with this index contains uneaten food
+	 */
+	public boolean contains(int index) {
+		return index >= 0 && uneaten.get(index);
+	}
+
+	/**
+	 * Finds the uneaten food tiles with the smallest maze path distance from the given tile. Paths may lead through the
+	 * portals but not through the house door.
+	 *
+	 * @param from              start tile
+	 * @param includeEnergizers if energizer tiles are considered
+	 * @param found             receives the indices of the nearest food tiles in search order
+	 * @return number of nearest food tiles stored in {@code found} (at most its length), 0 if no food is reachable or
+	 *         the start tile is outside the world
+	 */
+	public int findNearestFood(Vector2i from, boolean includeEnergizers, int[] found) {
+		checkTileNotNull(from);
+		checkNotNull(found);
+		if (!world.insideBounds(from) || uneaten.isEmpty()) {
+			return 0;
+		}
+		if (++stamp == 0) {
+			Arrays.fill(visitStamp, 0);
+			stamp = 1;
+		}
+		int numCols = world.numCols();
+		int head = 0, tail = 0;
+		int start = world.index(from);
+		queue[tail++] = start;
+		visitStamp[start] = stamp;
+		distance[start] = 0;
+		int nearestDistance = -1;
+		int count = 0;
+		while (head < tail) {
+			int current = queue[head++];
+			int d = distance[current];
+			if (nearestDistance != -1 && d > nearestDistance) {
+				break;
+			}
+			if (uneaten.get(current) && (includeEnergizers || !world.isEnergizerTile(current))) {
+				nearestDistance = d;
+				if (count < found.length) {
+					found[count++] = current;
+				}
+				continue;
+			}
+			int col = current % numCols, row = current / numCols;
+			int mask = world.accessibleNeighbors(current);
+			for (var dir : DIRECTIONS) {
+				if ((mask & (1 << dir.ordinal())) == 0) {
+					continue;
+				}
+				// leaving the world through a portal leads to the opposite tunnel end
+				int nc = Math.floorMod(col + dir.vector().x(), numCols);
+				int neighbor = world.index(nc, row + dir.vector().y());
+				if (visitStamp[neighbor] != stamp) {
+					visitStamp[neighbor] = stamp;
+					distance[neighbor] = d + 1;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -64,7 +64,17 @@ public class House {
 	}
 
 	public Vector2f center() {
-		return minTile.toFloatVec().scaled(TS).plus(size.toFloatVec().scaled(HTS));
+		return v2f(centerX(), centerY());
+	}
+
+	/** @return x-coordinate of the house center, does not create any objects */
+	public float centerX() {
+		return minTile.x() * TS + size.x() * HTS;
+	}
+
+	/** @return y-coordinate of the house center, does not create any objects */
+	public float centerY() {
+		return minTile.y() * TS + size.y() * HTS;
 	}
 
 	/**
@@ -0,0 +1,154 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.model.world;
+
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.Vector2i;
+
+import java.util.Arrays;
+
+import static de.amr.games.pacman.lib.Globals.checkTileNotNull;
+
+/**
+ * Maze path distances between all pairs of walkable tiles of a world.
+ * <p>
+ * Walkable tiles are the tiles inside the world that are neither walls nor doors. Paths may lead through the portals.
+ * The distances are computed once by a breadth-first search from each walkable tile and stored in a single
+ * <code>short[]</code>. Worlds with the same map and house share the same instance, see {@link World#mazeDistances()}.
+ * Tiles inside a portal are treated like the tunnel end they belong to.
+ *
+ * @author Armin Reichert
+ */
+public final class MazeDistances {
+
+	/** Distance value for tiles that cannot reach each other or are not walkable. */
+	public static final int UNREACHABLE = -1;
+
+	/** Directions in the order used for breaking ties between shortest paths. */
+	private static final Direction[] DIRECTION_PRIORITY = { Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT };
+
+	private final int numCols;
+	private final int numRows;
+	/** For each tile index, the ordinal of the walkable tile or -1. */
+	private final short[] ordinal;
+	/** For each walkable tile ordinal, the tile index. */
+	private final int[] tileIndex;
+	/** For each walkable tile ordinal, the accessible neighbor mask. */
+	private final byte[] access;
+	/** Distance from walkable tile <code>a</code> to walkable tile <code>b</code> at <code>a * n + b</code>. */
+	private final short[] distances;
+
+	MazeDistances(World world) {
+		numCols = world.numCols();
+		numRows = world.numRows();
+		int numTiles = numCols * numRows;
+		ordinal = new short[numTiles];
+		Arrays.fill(ordinal, (short) -1);
+		int n = 0;
+		for (int i = 0; i < numTiles; ++i) {
+			if (world.isAccessible(world.tile(i))) {
+				ordinal[i] = (short) n++;
+			}
+		}
+		tileIndex = new int[n];
+		access = new byte[n];
+		for (int i = 0; i < numTiles; ++i) {
+			if (ordinal[i] != -1) {
+				tileIndex[ordinal[i]] = i;
+				access[ordinal[i]] = (byte) world.accessibleNeighbors(i);
+			}
+		}
+		distances = new short[n * n];
+		Arrays.fill(distances, (short) UNREACHABLE);
+		var queue = new int[n];
+		for (int source = 0; source < n; ++source) {
+			int base = source * n;
+			int head = 0, tail = 0;
+			queue[tail++] = source;
+			distances[base + source] = 0;
+			while (head < tail) {
+				int current = queue[head++];
+				int d = distances[base + current];
+				for (var dir : Direction.values()) {
+					int neighbor = neighbor(current, dir);
+					if (neighbor != -1 && distances[base + neighbor] == UNREACHABLE) {
+						distances[base + neighbor] = (short) (d + 1);
+						queue[tail++] = neighbor;
+					}
+				}
+			}
+		}
+	}
+
+	/** @return ordinal of the walkable neighbor of the given walkable tile or -1 */
+	private int neighbor(int ord, Direction dir) {
+		if ((access[ord] & (1 << dir.ordinal())) == 0) {
+			return -1;
+		}
+		int index = tileIndex[ord];
+		// leaving the world through a portal leads to the opposite tunnel end
+		int col = Math.floorMod(index % numCols + dir.vector().x(), numCols);
+		int row = index / numCols + dir.vector().y();
+		return ordinal[row * numCols + col];
+	}
+
+	/** @return ordinal of the walkable tile or -1 */
+	private int ordinalOf(Vector2i tile) {
+		int col = tile.x(), row = tile.y();
+		if (row < 0 || row >= numRows) {
+			return -1;
+		}
+		// portal tiles count as the tunnel end they belong to
+		col = Math.max(0, Math.min(col, numCols - 1));
+		return ordinal[row * numCols + col];
+	}
+
+	/** @return number of walkable tiles */
+	public int numWalkableTiles() {
+		return tileIndex.length;
+	}
+
+	/**
+	 * @param from some tile
+	 * @param to   some tile
+	 * @return length of the shortest path between the tiles (number of moves) or {@link #UNREACHABLE}
+	 */
+	public int distance(Vector2i from, Vector2i to) {
+		checkTileNotNull(from);
+		checkTileNotNull(to);
+		int a = ordinalOf(from), b = ordinalOf(to);
+		if (a == -1 || b == -1) {
+			return UNREACHABLE;
+		}
+		return distances[a * tileIndex.length + b];
+	}
+
+	/**
+	 * @param from some tile
+	 * @param to   some tile
+	 * @return direction of the first move on a shortest path (ties are resolved in order <code>UP, LEFT, DOWN,
+	 *         RIGHT</code>) or <code>null</code> if the tiles are equal or not connected
+	 */
+	public Direction firstStep(Vector2i from, Vector2i to) {
+		checkTileNotNull(from);
+		checkTileNotNull(to);
+		int a = ordinalOf(from), b = ordinalOf(to);
+		if (a == -1 || b == -1 || a == b) {
+			return null;
+		}
+		int n = tileIndex.length;
+		int d = distances[a * n + b];
+		if (d == UNREACHABLE) {
+			return null;
+		}
+		for (var dir : DIRECTION_PRIORITY) {
+			int neighbor = neighbor(a, dir);
+			if (neighbor != -1 && distances[neighbor * n + b] == d - 1) {
+				return dir;
+			}
+		}
+		return null; // cannot happen
+	}
+}
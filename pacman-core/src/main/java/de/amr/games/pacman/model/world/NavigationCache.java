@@ -0,0 +1,144 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.model.world;
+
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.Vector2i;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.amr.games.pacman.lib.Globals.checkTileNotNull;
+
+/**
+ * Caches the navigation decisions of creatures moving towards a target tile.
+ * <p>
+ * When a creature enters a tile, it takes the direction to the accessible neighbor tile (not reversing) with the
+ * smallest Euclidean distance to the target tile, where ties are resolved in the order <code>UP, LEFT, DOWN,
+ * RIGHT</code>. This decision only depends on the current tile, the target tile and the set of candidate directions,
+ * so it can be stored in a table with one byte for each combination of tile and 4-bit candidate mask.
+ * <p>
+ * Tables for fixed targets (scatter corners, house door) are computed completely by {@link #precompute(Vector2i)} and
+ * shared by all worlds of the same size. Decisions for other targets (chasing ghosts, autopilot) change too often to
+ * fill complete tables, they are kept in a bounded two-way set-associative cache with LRU replacement per set, owned
+ * by the world.
+ *
+ * @author Armin Reichert
+ */
+public class NavigationCache {
+
+	/** Number of sets of the cache for dynamic targets (power of 2), each set holds two decisions. */
+	public static final int LRU_SETS = 1024;
+
+	/** Directions in the order used for breaking ties. */
+	private static final Direction[] DIRECTION_PRIORITY = { Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT };
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private static final byte NO_DIRECTION = -1;
+
+	private record FixedTableKey(int numCols, int numRows, Vector2i target) {
+	}
+
+	private static final Map<FixedTableKey, byte[]> FIXED_TABLES = new ConcurrentHashMap<>();
+
+	private final int numCols;
+	private final int numRows;
+	private final Map<Vector2i, byte[]> fixedTables = new HashMap<>();
+	private final long[] lruKeys = new long[2 * LRU_SETS];
+	private final byte[] lruDecisions = new byte[2 * LRU_SETS];
+	/** For each set, the index (0 or 1) of the least recently used way. */
+	private final byte[] lruOldestWay = new byte[LRU_SETS];
+
+	/**
+	 * @param numCols number of tile columns of the world
+	 * @param numRows number of tile rows of the world
+	 */
+	public NavigationCache(int numCols, int numRows) {
+		this.numCols = numCols;
+		this.numRows = numRows;
+		Arrays.fill(lruKeys, -1);
+	}
+
+	/**
+	 * Computes the complete decision table for the given (fixed) target tile unless it already exists.
+	 *
+	 * @param target target tile
+	 */
+	public void precompute(Vector2i target) {
+		checkTileNotNull(target);
+		var table = FIXED_TABLES.computeIfAbsent(new FixedTableKey(numCols, numRows, target), key -> {
+			var decisions = new byte[numCols * numRows * 16];
+			for (int i = 0; i < decisions.length; ++i) {
+				int tileIndex = i >> 4;
+				decisions[i] = decide(tileIndex % numCols, tileIndex / numCols, i & 15, target);
+			}
+			return decisions;
+		});
+		fixedTables.put(target, table);
+	}
+
+	/**
+	 * @param tile       current tile
+	 * @param candidates bit mask where bit <code>dir.ordinal()</code> is set if moving towards <code>dir</code> is
+	 *                   possible
+	 * @param target     target tile
+	 * @return best direction towards the target or <code>null</code> if there is no candidate direction
+	 */
+	public Direction bestDirection(Vector2i tile, int candidates, Vector2i target) {
+		int x = tile.x(), y = tile.y();
+		if (x < 0 || x >= numCols || y < 0 || y >= numRows) {
+			return toDirection(decide(x, y, candidates, target));
+		}
+		int i = ((y * numCols + x) << 4) | candidates;
+		byte[] table = fixedTables.get(target);
+		if (table != null) {
+			return toDirection(table[i]);
+		}
+		return toDirection(cachedDecision(i, x, y, candidates, target));
+	}
+
+	private byte cachedDecision(int i, int x, int y, int candidates, Vector2i target) {
+		long key = ((long) i << 32) | ((target.x() & 0xFFFFL) << 16) | (target.y() & 0xFFFFL);
+		int set = (int) ((key ^ (key >>> 29)) * 0x9E3779B97F4A7C15L >>> 54) & (LRU_SETS - 1);
+		int way0 = 2 * set, way1 = way0 + 1;
+		if (lruKeys[way0] == key) {
+			lruOldestWay[set] = 1;
+			return lruDecisions[way0];
+		}
+		if (lruKeys[way1] == key) {
+			lruOldestWay[set] = 0;
+			return lruDecisions[way1];
+		}
+		byte decision = decide(x, y, candidates, target);
+		int way = way0 + lruOldestWay[set];
+		lruKeys[way] = key;
+		lruDecisions[way] = decision;
+		lruOldestWay[set] = (byte) (1 - lruOldestWay[set]);
+		return decision;
+	}
+
+	private static Direction toDirection(byte code) {
+		return code == NO_DIRECTION ? null : DIRECTIONS[code];
+	}
+
+	private static byte decide(int x, int y, int candidates, Vector2i target) {
+		var tile = Vector2i.of(x, y);
+		byte best = NO_DIRECTION;
+		float minDistance = Float.MAX_VALUE;
+		for (var dir : DIRECTION_PRIORITY) {
+			if ((candidates & (1 << dir.ordinal())) != 0) {
+				float distance = tile.plus(dir.vector()).euclideanDistance(target);
+				if (distance < minDistance) {
+					minDistance = distance;
+					best = (byte) dir.ordinal();
+				}
+			}
+		}
+		return best;
+	}
+}
@@ -4,20 +4,26 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.model.world;
 
+import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.lib.Pulse;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.StateHash;
 import de.amr.games.pacman.lib.Vector2i;
 
-import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static de.amr.games.pacman.lib.Globals.*;
 
 /**
+ * A tile-based world.
+ * <p>
+ * All static tile attributes (wall, tunnel, food, door, portal, intersection etc.) and the accessible neighbors of each
+ * tile are computed on first access, after the house and the red zone have been set, and shared by all worlds with the
+ * same map content, house and red zone, so the query methods are single array reads. The shared tables are kept in a
+ * small LRU cache, so worlds created from generated maps do not fill the memory.
+ *
  * @author Armin Reichert
  */
 public class World {
@@ -28,6 +34,103 @@ public class World {
 	public static final byte T_PELLET    = 3;
 	public static final byte T_ENERGIZER = 4;
 
+	private static final int FLAG_WALL         = 1;
+	private static final int FLAG_TUNNEL       = 1 << 1;
+	private static final int FLAG_FOOD         = 1 << 2;
+	private static final int FLAG_ENERGIZER    = 1 << 3;
+	private static final int FLAG_DOOR         = 1 << 4;
+	private static final int FLAG_PORTAL       = 1 << 5;
+	private static final int FLAG_INTERSECTION = 1 << 6;
+	private static final int FLAG_RED_ZONE     = 1 << 7;
+
+	/**
+	 * Derived tile data. The maze distances are computed on first access and dropped together with the tables.
+	 */
+	private static final class TileTables {
+
+		/** Attribute flags of each tile, indexed by tile index. */
+		final byte[] flags;
+
+		/**
+		 * For each tile, bit <code>dir.ordinal()</code> is set if the neighbor tile towards <code>dir</code> can be
+		 * accessed by a creature not allowed to pass the house door.
+		 */
+		final byte[] access;
+
+		/** For each row, depth of the portal in this row or 0 if there is no portal. */
+		final byte[] portalDepth;
+
+		private MazeDistances mazeDistances;
+
+		TileTables(byte[] flags, byte[] access, byte[] portalDepth) {
+			this.flags = flags;
+			this.access = access;
+			this.portalDepth = portalDepth;
+		}
+
+		synchronized MazeDistances mazeDistances(World world) {
+			if (mazeDistances == null) {
+				mazeDistances = new MazeDistances(world);
+			}
+			return mazeDistances;
+		}
+	}
+
+	/**
+	 * Key of the shared tile tables: the map content (not the identity of the map array), the house and the red zone.
+	 */
+	private static final class TileTablesKey {
+
+		private final byte[] mapContent;
+		private final Vector2i houseMinTile;
+		private final Vector2i houseSize;
+		private final Door door;
+		private final List<Vector2i> redZone;
+		private final int hashCode;
+
+		TileTablesKey(byte[][] map, House house, List<Vector2i> redZone) {
+			int numCols = map[0].length;
+			mapContent = new byte[map.length * numCols];
+			for (int row = 0; row < map.length; ++row) {
+				System.arraycopy(map[row], 0, mapContent, row * numCols, numCols);
+			}
+			houseMinTile = house != null ? house.topLeftTile() : null;
+			houseSize = house != null ? house.size() : null;
+			door = house != null ? house.door() : null;
+			this.redZone = redZone;
+			hashCode = Objects.hash(Arrays.hashCode(mapContent), numCols, houseMinTile, houseSize, door, redZone);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TileTablesKey other)) {
+				return false;
+			}
+			// same content and hash code imply the same number of columns in practice, the map is checked anyway
+			return hashCode == other.hashCode && Arrays.equals(mapContent, other.mapContent)
+				&& Objects.equals(houseMinTile, other.houseMinTile) && Objects.equals(houseSize, other.houseSize)
+				&& Objects.equals(door, other.door) && redZone.equals(other.redZone);
+		}
+	}
+
+	private static final int TILE_TABLES_CACHE_SIZE = 16;
+
+	private static final Map<TileTablesKey, TileTables> TILE_TABLES_CACHE = Collections.synchronizedMap(
+		new LinkedHashMap<>(TILE_TABLES_CACHE_SIZE, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TileTablesKey, TileTables> eldest) {
+				return size() > TILE_TABLES_CACHE_SIZE;
+			}
+		});
+
 	private static byte[][] validateTileMapData(byte[][] data) {
 		if (data == null) {
 			throw new IllegalArgumentException("Map data missing");
@@ -63,7 +166,12 @@ public class World {
 	private final Pulse mazeFlashing;
 	private final int totalFoodCount;
 	private House house;
+	private List<Vector2i> redZone = List.of();
+	private TileTables tables;
+	private final NavigationCache navigationCache;
+	private final FoodIndex foodIndex;
 	private int uneatenFoodCount;
+	private long eatenFoodHash;
 
 	/**
 	 * @param tileMapData byte-array of tile map data
@@ -83,11 +191,21 @@ public class World {
 		}
 		portalList.trimToSize();
 		portals = Collections.unmodifiableList(portalList);
-
-		energizerTiles = tiles().filter(this::isEnergizerTile).collect(Collectors.toList());
+		navigationCache = new NavigationCache(numCols(), numRows());
+
+		// the tile tables are not computed before the house and the red zone are set, so read the map here
+		energizerTiles = tiles().filter(tile -> tileMap[tile.y()][tile.x()] == T_ENERGIZER).toList();
+		var food = new BitSet(numCols() * numRows());
+		for (int i = 0; i < numCols() * numRows(); ++i) {
+			byte content = tileMap[i / numCols()][i % numCols()];
+			if (content == T_PELLET || content == T_ENERGIZER) {
+				food.set(i);
+			}
+		}
 		eaten = new BitSet(numCols() * numRows());
-		totalFoodCount = (int) tiles().filter(this::isFoodTile).count();
+		totalFoodCount = food.cardinality();
 		uneatenFoodCount = totalFoodCount;
+		foodIndex = new FoodIndex(this, food);
 
 		// Animations
 		energizerBlinking = new Pulse(10, true);
@@ -98,9 +216,177 @@ public class World {
 		return house;
 	}
 
+	/**
+	 * @param house the (completely configured) house
+	 */
 	public void setHouse(House house) {
 		checkNotNull(house);
 		this.house = house;
+		tables = null;
+	}
+
+	/**
+	 * @return tiles where hunting ghosts cannot move upwards
+	 */
+	public List<Vector2i> redZone() {
+		return redZone;
+	}
+
+	/**
+	 * @param redZone tiles where hunting ghosts cannot move upwards
+	 */
+	public void setRedZone(Collection<Vector2i> redZone) {
+		checkNotNull(redZone);
+		this.redZone = List.copyOf(redZone);
+		tables = null;
+	}
+
+	private TileTables tables() {
+		var t = tables;
+		if (t == null) {
+			t = TILE_TABLES_CACHE.computeIfAbsent(new TileTablesKey(tileMap, house, redZone), this::computeTileTables);
+			tables = t;
+		}
+		return t;
+	}
+
+	private TileTables computeTileTables(TileTablesKey key) {
+		int numTiles = numCols() * numRows();
+		var flags = new byte[numTiles];
+		var access = new byte[numTiles];
+		var portalDepth = new byte[numRows()];
+		for (var portal : portals) {
+			portalDepth[portal.leftTunnelEnd().y()] = (byte) portal.depth();
+		}
+		for (int row = 0; row < numRows(); ++row) {
+			for (int col = 0; col < numCols(); ++col) {
+				int f = switch (tileMap[row][col]) {
+					case T_WALL      -> FLAG_WALL;
+					case T_TUNNEL    -> FLAG_TUNNEL;
+					case T_PELLET    -> FLAG_FOOD;
+					case T_ENERGIZER -> FLAG_FOOD | FLAG_ENERGIZER;
+					default          -> 0;
+				};
+				if (portalDepth[row] > 0 && (col == 0 || col == numCols() - 1)) {
+					f |= FLAG_PORTAL;
+				}
+				flags[index(col, row)] = (byte) f;
+			}
+		}
+		if (key.door != null) {
+			flags[index(key.door.leftWing())] |= FLAG_DOOR;
+			flags[index(key.door.rightWing())] |= FLAG_DOOR;
+		}
+		for (var tile : key.redZone) {
+			if (insideBounds(tile)) {
+				flags[index(tile)] |= FLAG_RED_ZONE;
+			}
+		}
+		for (int row = 0; row < numRows(); ++row) {
+			for (int col = 0; col < numCols(); ++col) {
+				int blocked = 0;
+				int mask = 0;
+				for (var dir : Direction.values()) {
+					int nx = col + dir.vector().x(), ny = row + dir.vector().y();
+					if (insideBounds(nx, ny)) {
+						int nf = flags[index(nx, ny)];
+						// a door tile that is also a wall counts twice, as in the original intersection rule
+						blocked += ((nf & FLAG_WALL) != 0 ? 1 : 0) + ((nf & FLAG_DOOR) != 0 ? 1 : 0);
+						if ((nf & (FLAG_WALL | FLAG_DOOR)) == 0) {
+							mask |= 1 << dir.ordinal();
+						}
+					} else if (0 <= ny && ny < numRows() && portalDepth[ny] > 0) {
+						mask |= 1 << dir.ordinal();
+					}
+				}
+				int i = index(col, row);
+				access[i] = (byte) mask;
+				// portal entries, tiles inside the house and dead ends/corridors are no intersections
+				boolean insideHouse = key.houseMinTile != null
+					&& col >= key.houseMinTile.x() && col < key.houseMinTile.x() + key.houseSize.x()
+					&& row >= key.houseMinTile.y() && row < key.houseMinTile.y() + key.houseSize.y();
+				if (col > 0 && col < numCols() - 1 && !insideHouse && blocked < 2) {
+					flags[i] |= FLAG_INTERSECTION;
+				}
+			}
+		}
+		return new TileTables(flags, access, portalDepth);
+	}
+
+	private boolean hasFlag(Vector2i tile, int flag) {
+		return insideBounds(tile) && (tables().flags[index(tile)] & flag) != 0;
+	}
+
+	/**
+	 * Adds the eaten food and the animation states to the given hash. The hash of the eaten food is maintained
+	 * incrementally by {@link #removeFood(Vector2i)} and does not depend on the order in which the food was eaten.
+	 *
+	 * @param hash state hash
+	 */
+	public void hashState(StateHash hash) {
+		hash.add(eatenFoodHash).add(uneatenFoodCount);
+		energizerBlinking.hashState(hash);
+		mazeFlashing.hashState(hash);
+	}
+
+	/**
+	 * Writes the eaten food (one bit per tile) and the animation states to the buffer.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void saveState(StateBuffer buffer) {
+		int numTiles = numCols() * numRows();
+		for (int start = 0; start < numTiles; start += 64) {
+			long word = 0;
+			for (int i = eaten.nextSetBit(start); i != -1 && i < start + 64; i = eaten.nextSetBit(i + 1)) {
+				word |= 1L << (i - start);
+			}
+			buffer.putLong(word);
+		}
+		energizerBlinking.saveState(buffer);
+		mazeFlashing.saveState(buffer);
+	}
+
+	/**
+	 * Restores the eaten food and the animation states. The food index, the food count and the food hash are
+	 * recomputed from the eaten food.
+	 *
+	 * @param buffer snapshot buffer
+	 */
+	public void restoreState(StateBuffer buffer) {
+		int numTiles = numCols() * numRows();
+		eaten.clear();
+		uneatenFoodCount = totalFoodCount;
+		eatenFoodHash = 0;
+		for (int start = 0; start < numTiles; start += 64) {
+			long word = buffer.getLong();
+			while (word != 0) {
+				int index = start + Long.numberOfTrailingZeros(word);
+				eaten.set(index);
+				--uneatenFoodCount;
+				eatenFoodHash ^= StateHash.mix(index + 1);
+				word &= word - 1;
+			}
+		}
+		foodIndex.restore(eaten);
+		energizerBlinking.restoreState(buffer);
+		mazeFlashing.restoreState(buffer);
+	}
+
+	public NavigationCache navigationCache() {
+		return navigationCache;
+	}
+
+	public FoodIndex foodIndex() {
+		return foodIndex;
+	}
+
+	/**
+	 * @return maze path distances of this world, computed on first access and shared by all worlds with the same map
+	 *         content, house and red zone
+	 */
+	public MazeDistances mazeDistances() {
+		return tables().mazeDistances(this);
 	}
 
 	public Pulse energizerBlinking() {
@@ -122,6 +408,11 @@ public class World {
 		return energizerTiles.stream();
 	}
 
+	/** @return unmodifiable list of the energizer tiles, can be shared with game snapshots */
+	public List<Vector2i> energizerTileList() {
+		return energizerTiles;
+	}
+
 	/**
 	 * @param index tile index in order top-to-bottom, left-to-right
 	 * @return tile with given index
@@ -138,6 +429,15 @@ public class World {
 		return 0 <= tile.x() && tile.x() < numCols() && 0 <= tile.y() && tile.y() < numRows();
 	}
 
+	/**
+	 * @param col tile x coordinate (grid column)
+	 * @param row tile y coordinate (grid row)
+	 * @return if the tile with these coordinates is located inside the world bounds
+	 */
+	public boolean insideBounds(int col, int row) {
+		return 0 <= col && col < numCols() && 0 <= row && row < numRows();
+	}
+
 	/**
 	 * @return if this position is located inside the world bounds
 	 */
@@ -145,8 +445,21 @@ public class World {
 		return 0 <= x && x < numCols() * TS && 0 <= y && y < numRows() * TS;
 	}
 
-	private int index(Vector2i tile) {
-		return numCols() * tile.y() + tile.x();
+	/**
+	 * @param tile a tile inside the world bounds
+	 * @return tile index in order top-to-bottom, left-to-right
+	 */
+	public int index(Vector2i tile) {
+		return index(tile.x(), tile.y());
+	}
+
+	/**
+	 * @param col tile x coordinate (grid column), must be inside the world bounds
+	 * @param row tile y coordinate (grid row), must be inside the world bounds
+	 * @return tile index in order top-to-bottom, left-to-right
+	 */
+	public int index(int col, int row) {
+		return numCols() * row + col;
 	}
 
 	public int numCols() {
@@ -161,47 +474,105 @@ public class World {
 		return portals;
 	}
 
+	/**
+	 * @param tile some tile (normally outside the world bounds)
+	 * @return if the tile is located inside one of the portals left or right of the world
+	 */
 	public boolean belongsToPortal(Vector2i tile) {
 		checkTileNotNull(tile);
-		return portals.stream().anyMatch(portal -> portal.contains(tile));
+		int x = tile.x(), y = tile.y();
+		if (y < 0 || y >= numRows()) {
+			return false;
+		}
+		int depth = tables().portalDepth[y];
+		return (-depth <= x && x < 0) || (numCols() <= x && x < numCols() + depth);
 	}
 
-	private byte content(Vector2i tile) {
-		return insideBounds(tile) ? tileMap[tile.y()][tile.x()] : T_SPACE;
+	/**
+	 * @param tile some tile
+	 * @return if the tile is a tunnel end at the world border that is connected to a portal
+	 */
+	public boolean isPortalEntry(Vector2i tile) {
+		checkTileNotNull(tile);
+		return hasFlag(tile, FLAG_PORTAL);
 	}
 
 	public boolean isWall(Vector2i tile) {
 		checkTileNotNull(tile);
-		return content(tile) == T_WALL;
+		return hasFlag(tile, FLAG_WALL);
 	}
 
 	public boolean isTunnel(Vector2i tile) {
 		checkTileNotNull(tile);
-		return content(tile) == T_TUNNEL;
+		return hasFlag(tile, FLAG_TUNNEL);
 	}
 
 	public boolean isFoodTile(Vector2i tile) {
 		checkTileNotNull(tile);
-		byte data = content(tile);
-		return data == T_PELLET || data == T_ENERGIZER;
+		return hasFlag(tile, FLAG_FOOD);
 	}
 
 	public boolean isEnergizerTile(Vector2i tile) {
 		checkTileNotNull(tile);
-		return content(tile) == T_ENERGIZER;
+		return hasFlag(tile, FLAG_ENERGIZER);
+	}
+
+	public boolean isDoor(Vector2i tile) {
+		checkTileNotNull(tile);
+		return hasFlag(tile, FLAG_DOOR);
+	}
+
+	/**
+	 * @param tile some tile
+	 * @return if hunting ghosts cannot move upwards at this tile
+	 */
+	public boolean isRedZone(Vector2i tile) {
+		checkTileNotNull(tile);
+		return hasFlag(tile, FLAG_RED_ZONE);
 	}
 
 	public boolean isIntersection(Vector2i tile) {
 		checkTileNotNull(tile);
-		if (tile.x() <= 0 || tile.x() >= numCols() - 1) {
-			return false; // exclude portal entries and tiles outside the map
-		}
-		if (house.contains(tile)) {
-			return false;
+		return hasFlag(tile, FLAG_INTERSECTION);
+	}
+
+	/**
+	 * @param tile some tile
+	 * @return if the tile can be accessed by a creature not allowed to pass the house door: a tile inside the world
+	 *         that is neither a wall nor a door, or a portal tile
+	 */
+	public boolean isAccessible(Vector2i tile) {
+		checkTileNotNull(tile);
+		if (insideBounds(tile)) {
+			return (tables().flags[index(tile)] & (FLAG_WALL | FLAG_DOOR)) == 0;
 		}
-		long numWallNeighbors = tile.neighbors().filter(this::isWall).count();
-		long numDoorNeighbors = tile.neighbors().filter(house.door()::occupies).count();
-		return numWallNeighbors + numDoorNeighbors < 2;
+		return belongsToPortal(tile);
+	}
+
+	/**
+	 * @param tile some tile
+	 * @return bit mask where bit <code>dir.ordinal()</code> is set if the neighbor towards <code>dir</code> is
+	 *         accessible (see {@link #isAccessible(Vector2i)}), 0 for tiles outside the world
+	 */
+	public int accessibleNeighbors(Vector2i tile) {
+		checkTileNotNull(tile);
+		return insideBounds(tile) ? tables().access[index(tile)] : 0;
+	}
+
+	/**
+	 * @param index tile index inside the world
+	 * @return bit mask of the accessible neighbors, see {@link #accessibleNeighbors(Vector2i)}
+	 */
+	public int accessibleNeighbors(int index) {
+		return tables().access[index];
+	}
+
+	/**
+	 * @param index tile index inside the world
+	 * @return if the tile with this index is an energizer tile
+	 */
+	public boolean isEnergizerTile(int index) {
+		return (tables().flags[index] & FLAG_ENERGIZER) != 0;
 	}
 
 
@@ -219,22 +590,37 @@ public class World {
 
 	public void removeFood(Vector2i tile) {
 		if (hasFoodAt(tile)) {
-			eaten.set(index(tile));
+			int index = index(tile);
+			eaten.set(index);
+			foodIndex.remove(index);
 			--uneatenFoodCount;
+			eatenFoodHash ^= StateHash.mix(index + 1);
 		}
 	}
 
 	public boolean hasFoodAt(Vector2i tile) {
 		checkTileNotNull(tile);
-		if (insideBounds(tile)) {
-			byte data = tileMap[tile.y()][tile.x()];
-			return (data == T_PELLET || data == T_ENERGIZER) && !eaten.get(index(tile));
-		}
-		return false;
+		return insideBounds(tile) && hasFoodAt(index(tile));
+	}
+
+	/**
+	 * @param index tile index in order top-to-bottom, left-to-right, negative values denote tiles outside the world
+	 * @return if the tile with the given index contains food that has not been eaten yet
+	 */
+	public boolean hasFoodAt(int index) {
+		var flags = tables().flags;
+		return 0 <= index && index < flags.length && (flags[index] & FLAG_FOOD) != 0 && !eaten.get(index);
 	}
 
 	public boolean hasEatenFoodAt(Vector2i tile) {
 		checkTileNotNull(tile);
 		return insideBounds(tile) && eaten.get(index(tile));
 	}
+
+	/**
+	 * @return copy of the set of tile indices where food has been eaten, see {@link #index(Vector2i)}
+	 */
+	public BitSet copyOfEatenFood() {
+		return (BitSet) eaten.clone();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.model.GameVariant;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static de.amr.games.pacman.test.TestSessions.autopilotSession;
+import static de.amr.games.pacman.test.TestSessions.demoLevelSession;
+import static de.amr.games.pacman.test.TestSessions.levelTestSession;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs scripted games and fails if a game state allocates more bytes per frame than its budget or if starting a level
+ * allocates more than the level start budget. The budgets are defined in file <code>allocation-budget.properties</code>.
+ * <p>
+ * Each scenario is run twice and only the second run is measured, so class loading and interpreted code (before
+ * escape analysis removes allocations) do not count.
+ *
+ * @author Armin Reichert
+ */
+public class AllocationBudgetTest {
+
+	private static final String BUDGET_FILE = "/allocation-budget.properties";
+
+	private static Properties budget;
+
+	@BeforeClass
+	public static void loadBudget() throws IOException {
+		try (var in = AllocationBudgetTest.class.getResourceAsStream(BUDGET_FILE)) {
+			assertNotNull("Budget file not found: " + BUDGET_FILE, in);
+			budget = new Properties();
+			budget.load(in);
+		}
+	}
+
+	private static long budget(String key) {
+		var value = budget.getProperty(key);
+		if (value == null) {
+			value = budget.getProperty("frame.default");
+		}
+		return Long.parseLong(value.trim());
+	}
+
+	private static AllocationProfile profile(String name, Supplier<GameSession> scenario, int numFrames) {
+		new AllocationProfile(name).measure(scenario.get(), numFrames); // warm-up
+		var profile = new AllocationProfile(name).measure(scenario.get(), numFrames);
+		Logger.debug("Allocation profile:\n{}", profile.report());
+		return profile;
+	}
+
+	private static void assertWithinBudget(AllocationProfile... profiles) {
+		List<String> violations = new ArrayList<>();
+		for (var profile : profiles) {
+			for (var state : GameState.values()) {
+				long limit = budget("frame." + state.name());
+				if (profile.frames(state) > 0 && profile.bytesPerFrame(state) > limit) {
+					violations.add(String.format("%s: %s allocates %.1f bytes/frame, budget is %d", profile.name(), state,
+						profile.bytesPerFrame(state), limit));
+				}
+			}
+			long limit = budget("levelStart");
+			if (profile.levelStartBytesMax() > limit) {
+				violations.add(String.format("%s: level start allocates %d bytes, budget is %d", profile.name(),
+					profile.levelStartBytesMax(), limit));
+			}
+		}
+		if (!violations.isEmpty()) {
+			var message = new StringBuilder("Allocation budget exceeded:\n").append(String.join("\n", violations));
+			for (var profile : profiles) {
+				message.append("\n\n").append(profile.report());
+			}
+			fail(message.toString());
+		}
+	}
+
+	@Test
+	public void testDemoLevel() {
+		assertWithinBudget(
+			profile("Pac-Man demo level", () -> demoLevelSession(GameVariant.PACMAN, 42), 5_000),
+			profile("Ms. Pac-Man demo level", () -> demoLevelSession(GameVariant.MS_PACMAN, 42), 5_000));
+	}
+
+	@Test
+	public void testAutopilot() {
+		assertWithinBudget(
+			profile("Pac-Man autopilot", () -> autopilotSession(GameVariant.PACMAN, 42), 30_000),
+			profile("Ms. Pac-Man autopilot", () -> autopilotSession(GameVariant.MS_PACMAN, 42), 30_000));
+	}
+
+	@Test
+	public void testLevelTest() {
+		assertWithinBudget(
+			profile("Pac-Man level test", () -> levelTestSession(GameVariant.PACMAN, 42), 15_000),
+			profile("Ms. Pac-Man level test", () -> levelTestSession(GameVariant.MS_PACMAN, 42), 15_000));
+	}
+}
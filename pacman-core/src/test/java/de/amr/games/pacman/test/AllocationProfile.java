@@ -0,0 +1,124 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.model.GameLevel;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the updates of a game session, per game state and per level start, using the
+ * allocation counter of the current thread.
+ * <p>
+ * The measurement loop itself does not allocate, so the numbers only contain allocations of the game.
+ *
+ * @author Armin Reichert
+ */
+public class AllocationProfile {
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+		(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static final GameState[] STATES = GameState.values();
+
+	private final String name;
+	private final long[] bytesByState = new long[STATES.length];
+	private final long[] framesByState = new long[STATES.length];
+	private long levelStarts;
+	private long levelStartBytesMax;
+	private long levelStartBytesTotal;
+	private long frames;
+
+	public AllocationProfile(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Runs the given number of session updates and records their allocations. The update in which a new level is
+	 * created counts as level start and not as frame of its game state.
+	 *
+	 * @param session   game session
+	 * @param numFrames number of updates
+	 * @return this profile
+	 */
+	public AllocationProfile measure(GameSession session, int numFrames) {
+		long overhead = counterOverhead();
+		GameLevel level = session.game().level().orElse(null);
+		for (int i = 0; i < numFrames; ++i) {
+			int state = session.state().ordinal();
+			long before = THREADS.getCurrentThreadAllocatedBytes();
+			session.update();
+			long bytes = Math.max(0, THREADS.getCurrentThreadAllocatedBytes() - before - overhead);
+			++frames;
+			GameLevel currentLevel = session.game().level().orElse(null);
+			if (currentLevel != null && currentLevel != level) {
+				++levelStarts;
+				levelStartBytesTotal += bytes;
+				levelStartBytesMax = Math.max(levelStartBytesMax, bytes);
+			} else {
+				bytesByState[state] += bytes;
+				++framesByState[state];
+			}
+			level = currentLevel;
+		}
+		return this;
+	}
+
+	private static long counterOverhead() {
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < 10; ++i) {
+			long before = THREADS.getCurrentThreadAllocatedBytes();
+			min = Math.min(min, THREADS.getCurrentThreadAllocatedBytes() - before);
+		}
+		return min;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public long frames() {
+		return frames;
+	}
+
+	public long frames(GameState state) {
+		return framesByState[state.ordinal()];
+	}
+
+	/**
+	 * @param state game state
+	 * @return average number of bytes allocated by an update in this state, 0 if the state was not visited
+	 */
+	public double bytesPerFrame(GameState state) {
+		long n = framesByState[state.ordinal()];
+		return n == 0 ? 0 : (double) bytesByState[state.ordinal()] / n;
+	}
+
+	public long levelStarts() {
+		return levelStarts;
+	}
+
+	/** @return maximum number of bytes allocated by an update which started a level */
+	public long levelStartBytesMax() {
+		return levelStartBytesMax;
+	}
+
+	public String report() {
+		var sb = new StringBuilder();
+		sb.append(String.format("Allocation profile '%s': %d frames%n", name, frames));
+		for (var state : STATES) {
+			if (frames(state) > 0) {
+				sb.append(String.format("  %-24s %8d frames %12.1f bytes/frame%n", state, frames(state), bytesPerFrame(state)));
+			}
+		}
+		if (levelStarts > 0) {
+			sb.append(String.format("  %-24s %8d starts  %12.1f bytes/start (max %d)%n", "Level start", levelStarts,
+				(double) levelStartBytesTotal / levelStarts, levelStartBytesMax));
+		}
+		return sb.toString();
+	}
+}
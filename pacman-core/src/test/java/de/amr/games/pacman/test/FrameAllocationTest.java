@@ -0,0 +1,153 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.controller.Steering;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameModel;
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.model.actors.Creature;
+import de.amr.games.pacman.model.actors.GhostState;
+import de.amr.games.pacman.model.world.MazeDistances;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static de.amr.games.pacman.test.TestSessions.session;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that simulating a frame of a running level does not create any objects. The immune Pac-Man chases frightened
+ * ghosts and otherwise eats the nearest food, so the measured frames move Pac-Man, eat pellets and energizers, let the
+ * ghosts leave the house, chase and flee and activate the bonus. Each round starts from the same snapshot. Killing
+ * ghosts is done by the game state machine, not by the simulated frame.
+ * <p>
+ * The thread allocation counter also sees the few objects created while the JIT compiler replaces code (e.g. after a
+ * deoptimization), so the warm-up runs until a round allocates nothing and the median of the measured rounds must be
+ * 0 bytes. Objects created by the simulated frame itself show up in every round.
+ * <p>
+ * The autopilot is not used because its decisions are not allocation-free, its budget is checked by
+ * {@link AllocationBudgetTest}.
+ *
+ * @author Armin Reichert
+ */
+public class FrameAllocationTest {
+
+	/**
+	 * Steering that does not create any objects.
+	 */
+	private static class HungrySteering extends Steering {
+
+		private final int[] found = new int[1];
+
+		@Override
+		public void steer(GameLevel level, Creature guy) {
+			var world = level.world();
+			var distances = world.mazeDistances();
+			Vector2i target = null;
+			int minDistance = Integer.MAX_VALUE;
+			for (byte id = GameModel.RED_GHOST; id <= GameModel.ORANGE_GHOST; ++id) {
+				var ghost = level.ghost(id);
+				if (ghost.is(GhostState.FRIGHTENED)) {
+					int distance = distances.distance(guy.tile(), ghost.tile());
+					if (distance != MazeDistances.UNREACHABLE && distance < minDistance) {
+						minDistance = distance;
+						target = ghost.tile();
+					}
+				}
+			}
+			if (target == null && world.foodIndex().findNearestFood(guy.tile(), true, found) > 0) {
+				target = world.tile(found[0]);
+			}
+			var dir = target != null ? distances.firstStep(guy.tile(), target) : null;
+			if (dir != null) {
+				guy.setWishDir(dir);
+			}
+		}
+	}
+
+	private static final int MIN_WARMUP_ROUNDS = 20;
+	private static final int MAX_WARMUP_ROUNDS = 200;
+	private static final int MEASURED_ROUNDS = 11;
+	private static final int FRAMES_PER_ROUND = 1_500;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+		(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static GameSession startHunting(GameVariant variant) {
+		var session = session(variant, 42);
+		session.setCredit(1);
+		session.setImmune(true);
+		session.setManualSteering(new HungrySteering());
+		session.restart(GameState.READY);
+		while (session.state() != GameState.HUNTING) {
+			session.update();
+		}
+		return session;
+	}
+
+	private static long allocatedBytes(GameLevel level, int numFrames) {
+		long threadId = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < numFrames; ++i) {
+			level.simulateOneFrame();
+		}
+		return THREADS.getThreadAllocatedBytes(threadId) - before;
+	}
+
+	private static void assertNoAllocation(GameVariant variant) {
+		var session = startHunting(variant);
+		var level = session.game().level().orElseThrow();
+		var start = new StateBuffer();
+		session.saveState(start);
+		int foodAtStart = level.world().uneatenFoodCount();
+
+		for (int round = 0; round < MAX_WARMUP_ROUNDS; ++round) {
+			session.restoreState(start.rewind());
+			if (allocatedBytes(level, FRAMES_PER_ROUND) == 0 && round >= MIN_WARMUP_ROUNDS) {
+				break;
+			}
+		}
+		var bytesPerRound = new long[MEASURED_ROUNDS];
+		for (int round = 0; round < MEASURED_ROUNDS; ++round) {
+			session.restoreState(start.rewind());
+			bytesPerRound[round] = allocatedBytes(level, FRAMES_PER_ROUND);
+		}
+		var sorted = bytesPerRound.clone();
+		Arrays.sort(sorted);
+		assertEquals(variant + ": median of bytes allocated per round " + Arrays.toString(bytesPerRound), 0,
+			sorted[MEASURED_ROUNDS / 2]);
+
+		// not measured: check that the ghosts get frightened in a round
+		session.restoreState(start.rewind());
+		boolean frightened = false;
+		for (int i = 0; i < FRAMES_PER_ROUND; ++i) {
+			level.simulateOneFrame();
+			frightened |= level.ghosts(GhostState.FRIGHTENED).findAny().isPresent();
+		}
+
+		// the measured frames really covered the hot paths
+		assertTrue("No food eaten", level.world().uneatenFoodCount() < foodAtStart - 50);
+		assertTrue("No energizer eaten", level.world().energizerTiles().anyMatch(level.world()::hasEatenFoodAt));
+		assertTrue("No ghost frightened", frightened);
+		assertTrue("No bonus activated", level.bonus().isPresent());
+	}
+
+	@Test
+	public void testPacManFrameDoesNotAllocate() {
+		assertNoAllocation(GameVariant.PACMAN);
+	}
+
+	@Test
+	public void testMsPacManFrameDoesNotAllocate() {
+		assertNoAllocation(GameVariant.MS_PACMAN);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.lib.FrameProfiler;
+import de.amr.games.pacman.lib.LatencyHistogram;
+import de.amr.games.pacman.model.GameVariant;
+import org.junit.Test;
+
+import static de.amr.games.pacman.test.TestSessions.autopilotSession;
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class FrameProfilerTest {
+
+	@Test
+	public void testHistogramPercentiles() {
+		var histogram = new LatencyHistogram();
+		assertEquals(0, histogram.valueAtPercentile(50));
+		for (long value = 1; value <= 10_000; ++value) {
+			histogram.record(value * 1000);
+		}
+		assertEquals(10_000, histogram.count());
+		assertEquals(10_000_000, histogram.max());
+		long p50 = histogram.valueAtPercentile(50);
+		long p99 = histogram.valueAtPercentile(99);
+		assertTrue(5_000_000 <= p50 && p50 <= 5_000_000 * 1.04);
+		assertTrue(9_900_000 <= p99 && p99 <= 9_900_000 * 1.04);
+		assertEquals(10_000_000, histogram.valueAtPercentile(100));
+		histogram.reset();
+		assertEquals(0, histogram.count());
+		assertEquals(0, histogram.max());
+	}
+
+	@Test
+	public void testSmallValuesAreExact() {
+		var histogram = new LatencyHistogram();
+		for (int value = 0; value < 64; ++value) {
+			histogram.record(value);
+		}
+		assertEquals(31, histogram.valueAtPercentile(50));
+		assertEquals(63, histogram.valueAtPercentile(100));
+	}
+
+	@Test
+	public void testDisabledProbeDoesNotMeasure() {
+		var profiler = new FrameProfiler();
+		var probe = profiler.probe("Test");
+		assertSame(probe, profiler.probe("Test"));
+		long start = probe.start();
+		assertEquals(0, start);
+		probe.stop(start);
+		profiler.completeInterval();
+		assertTrue(profiler.summaries().isEmpty());
+	}
+
+	@Test
+	public void testSessionPhasesAreSummarized() {
+		var session = autopilotSession(GameVariant.PACMAN, 0);
+		var profiler = session.profiler();
+		profiler.setLogging(false);
+		profiler.setReportIntervalFrames(500);
+		profiler.setEnabled(true);
+		for (int i = 0; i < 500; ++i) {
+			session.update();
+		}
+		var phases = profiler.summaries().stream().map(FrameProfiler.Summary::phase).toList();
+		assertTrue(phases.contains("Game update"));
+		assertTrue(phases.contains("Pac movement"));
+		assertTrue(phases.contains("Ghost AI"));
+		assertTrue(phases.contains("House management"));
+		assertTrue(phases.contains("Food handling"));
+		var update = profiler.summaries().get(phases.indexOf("Game update"));
+		assertEquals(500, update.count());
+		assertTrue(update.p50() <= update.p99() && update.p99() <= update.max());
+	}
+
+	@Test
+	public void testProbeOfOtherThreadIsSummarizedByItsOwner() throws InterruptedException {
+		var profiler = new FrameProfiler();
+		profiler.setLogging(false);
+		profiler.setEnabled(true);
+		var probe = profiler.probe("Other thread");
+		Runnable measure = () -> {
+			for (int i = 0; i < 10; ++i) {
+				probe.stop(probe.start());
+			}
+		};
+		var thread = new Thread(measure);
+		thread.start();
+		thread.join();
+		profiler.completeInterval();
+		// the owner has not yet handed over its values
+		assertTrue(profiler.summaries().isEmpty());
+
+		thread = new Thread(measure);
+		thread.start();
+		thread.join();
+		profiler.completeInterval();
+		assertEquals(1, profiler.summaries().size());
+		assertEquals(10, profiler.summaries().get(0).count());
+	}
+}
@@ -0,0 +1,260 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.controller.SimulationRunner;
+import de.amr.games.pacman.event.GameEvent;
+import de.amr.games.pacman.event.GameEventListener;
+import de.amr.games.pacman.event.GameEventType;
+import de.amr.games.pacman.lib.TimerWheel;
+import de.amr.games.pacman.model.GameModel;
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.model.actors.Bonus;
+import de.amr.games.pacman.model.actors.MovingBonus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static de.amr.games.pacman.test.TestSessions.autopilotSession;
+import static de.amr.games.pacman.test.TestSessions.session;
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class GameSessionTest {
+
+	private static GameEventListener listener(Consumer<GameEvent> action) {
+		return new GameEventListener() {
+			@Override
+			public void onGameEvent(GameEvent event) {
+				action.accept(event);
+			}
+		};
+	}
+
+	@Test
+	public void testSessionsAreIndependent() {
+		var pacManSession = autopilotSession(GameVariant.PACMAN, 0);
+		var msPacManSession = new GameSession(GameVariant.MS_PACMAN);
+		msPacManSession.restart(GameState.BOOT);
+
+		for (int i = 0; i < 300; ++i) {
+			pacManSession.update();
+		}
+		assertEquals(GameState.HUNTING, pacManSession.state());
+		assertEquals(GameState.BOOT, msPacManSession.state());
+		assertNotSame(pacManSession.timer(GameState.READY), msPacManSession.timer(GameState.READY));
+		assertEquals(0, msPacManSession.timer().tick());
+		assertNotSame(pacManSession.game(), msPacManSession.game());
+		assertSame(pacManSession, pacManSession.game().session());
+		assertNotSame(pacManSession.manualSteering(), msPacManSession.manualSteering());
+		pacManSession.manualSteering().setEnabled(true);
+		assertFalse(msPacManSession.manualSteering().isEnabled());
+	}
+
+	@Test
+	public void testEventsArePublishedToOwnSessionOnly() {
+		var events1 = new ArrayList<GameEventType>();
+		var events2 = new ArrayList<GameEventType>();
+		var session1 = new GameSession(GameVariant.PACMAN);
+		var session2 = new GameSession(GameVariant.PACMAN);
+		session1.addListener(new GameEventListener() {
+			@Override
+			public void onGameEvent(GameEvent event) {
+				events1.add(event.type);
+			}
+		});
+		session2.addListener(new GameEventListener() {
+			@Override
+			public void onGameEvent(GameEvent event) {
+				events2.add(event.type);
+			}
+		});
+		session1.setCredit(1);
+		session1.setAutoControlled(true);
+		session1.restart(GameState.READY);
+		for (int i = 0; i < 600; ++i) {
+			session1.update();
+		}
+		assertTrue(events1.contains(GameEventType.LEVEL_STARTED));
+		assertTrue(events1.contains(GameEventType.PAC_FOUND_FOOD));
+		assertTrue(events2.isEmpty());
+	}
+
+	@Test
+	public void testSameSeedReplaysExactly() {
+		var session1 = autopilotSession(GameVariant.MS_PACMAN, 42);
+		var session2 = autopilotSession(GameVariant.MS_PACMAN, 42);
+		for (int i = 0; i < 5000; ++i) {
+			session1.update();
+			session2.update();
+			var level1 = session1.game().level().orElse(null);
+			var level2 = session2.game().level().orElse(null);
+			if (level1 != null && level2 != null) {
+				assertEquals(level1.pac().position(), level2.pac().position());
+				for (byte id = 0; id < 4; ++id) {
+					assertEquals(level1.ghost(id).position(), level2.ghost(id).position());
+				}
+			}
+			assertEquals(session1.state(), session2.state());
+		}
+		assertEquals(session1.game().score().points(), session2.game().score().points());
+		assertEquals(42, session1.seed());
+	}
+
+	@Test
+	public void testSnapshotIsDetachedFromModel() {
+		var session = autopilotSession(GameVariant.PACMAN, 42);
+		var runner = new SimulationRunner(session, GameModel.FPS);
+		for (int i = 0; i < 600; ++i) {
+			runner.tick();
+		}
+		var snapshot = runner.latestSnapshot();
+		var level = session.game().level().orElseThrow();
+		assertEquals(600, snapshot.tick());
+		assertEquals(session.state(), snapshot.state());
+		assertEquals(level.pac().posX(), snapshot.pac().x(), 0);
+		assertEquals(level.pac().posY(), snapshot.pac().y(), 0);
+		assertEquals(level.ghost(GameModel.RED_GHOST).state(), snapshot.ghost(GameModel.RED_GHOST).ghostState());
+		assertEquals(session.game().score().points(), snapshot.scorePoints());
+		long eatenCount = level.world().tiles().filter(snapshot::hasEatenFoodAt).count();
+		assertEquals(level.world().eatenFoodCount(), eatenCount);
+
+		int points = snapshot.scorePoints();
+		float pacX = snapshot.pac().x();
+		for (int i = 0; i < 300; ++i) {
+			runner.tick();
+		}
+		assertNotSame(snapshot, runner.latestSnapshot());
+		assertEquals(points, snapshot.scorePoints());
+		assertEquals(pacX, snapshot.pac().x(), 0);
+		assertEquals(eatenCount, level.world().tiles().filter(snapshot::hasEatenFoodAt).count());
+	}
+
+	@Test
+	public void testSimulationThread() throws InterruptedException {
+		var session = autopilotSession(GameVariant.MS_PACMAN, 42);
+		var runner = new SimulationRunner(session, 1000);
+		runner.startThread();
+		try {
+			long deadline = System.currentTimeMillis() + 10_000;
+			while (runner.latestSnapshot().tick() < 300 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertTrue(runner.latestSnapshot().tick() >= 300);
+			runner.runExclusive(() -> {
+				long tick = runner.latestSnapshot().tick();
+				session.setImmune(true);
+				// no tick can happen while the action runs
+				assertEquals(tick, runner.latestSnapshot().tick());
+			});
+			runner.setPaused(true);
+			Thread.sleep(20);
+			long pausedTick = runner.latestSnapshot().tick();
+			Thread.sleep(50);
+			assertEquals(pausedTick, runner.latestSnapshot().tick());
+			runner.requestSteps(5);
+			deadline = System.currentTimeMillis() + 10_000;
+			while (runner.latestSnapshot().tick() < pausedTick + 5 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(pausedTick + 5, runner.latestSnapshot().tick());
+		} finally {
+			runner.stopThread();
+		}
+		assertFalse(runner.isThreadRunning());
+	}
+
+	@Test
+	public void testEventBusDeliversSubscribedTypesOnly() {
+		var session = autopilotSession(GameVariant.PACMAN, 42);
+		var foodEvents = new ArrayList<GameEvent>();
+		var allTypes = new ArrayList<GameEventType>();
+		var foodListener = listener(foodEvents::add);
+		var allListener = listener(event -> allTypes.add(event.type));
+		session.eventBus().subscribe(GameEventType.PAC_FOUND_FOOD, foodListener);
+		session.addListener(allListener);
+		assertTrue(session.eventBus().hasSubscribers(GameEventType.BONUS_EATEN));
+		assertTrue(session.eventBus().hasSubscribers(GameEventType.PAC_FOUND_FOOD));
+		for (int i = 0; i < 600; ++i) {
+			session.update();
+		}
+		assertFalse(foodEvents.isEmpty());
+		assertTrue(foodEvents.stream().allMatch(event -> event.type == GameEventType.PAC_FOUND_FOOD));
+		assertTrue(allTypes.contains(GameEventType.GAME_STATE_CHANGED));
+		assertEquals(foodEvents.size(), allTypes.stream().filter(type -> type == GameEventType.PAC_FOUND_FOOD).count());
+
+		session.eventBus().unsubscribe(foodListener);
+		int numFoodEvents = foodEvents.size();
+		for (int i = 0; i < 300; ++i) {
+			session.update();
+		}
+		assertEquals(numFoodEvents, foodEvents.size());
+	}
+
+	@Test
+	public void testEventsWithoutTileAreFlyweights() {
+		var session = new GameSession(GameVariant.PACMAN);
+		var events = new ArrayList<GameEvent>();
+		session.eventBus().subscribe(GameEventType.CREDIT_ADDED, listener(events::add));
+		session.publishGameEvent(GameEventType.CREDIT_ADDED);
+		session.publishGameEvent(GameEventType.CREDIT_ADDED);
+		assertEquals(2, events.size());
+		assertSame(events.get(0), events.get(1));
+		assertSame(session.game(), events.get(0).game);
+		session.newGame(GameVariant.MS_PACMAN);
+		session.publishGameEvent(GameEventType.CREDIT_ADDED);
+		assertSame(session.game(), events.get(2).game);
+	}
+
+	@Test
+	public void testAsyncEventDelivery() throws InterruptedException {
+		var session = autopilotSession(GameVariant.PACMAN, 42);
+		var received = new AtomicInteger();
+		var deliveryThreads = ConcurrentHashMap.<Thread>newKeySet();
+		var delivery = session.eventBus().subscribeAsync(EnumSet.of(GameEventType.PAC_FOUND_FOOD), listener(event -> {
+			received.incrementAndGet();
+			deliveryThreads.add(Thread.currentThread());
+		}), 1000);
+		for (int i = 0; i < 600; ++i) {
+			session.update();
+		}
+		int published = (int) session.game().level().orElseThrow().world().eatenFoodCount();
+		delivery.close();
+		assertEquals(1024, delivery.capacity());
+		assertEquals(0, delivery.droppedEvents());
+		assertEquals(published, received.get());
+		assertFalse(deliveryThreads.contains(Thread.currentThread()));
+	}
+
+	@Test
+	public void testMovingBonusEatenAgainExpiresOnce() {
+		var session = session(GameVariant.MS_PACMAN, 0);
+		var timers = new TimerWheel();
+		var bonus = new MovingBonus(session, timers, (byte) 0, 100);
+		var expired = new ArrayList<GameEvent>();
+		session.eventBus().subscribe(GameEventType.BONUS_EXPIRED, listener(expired::add));
+		bonus.setEdible(600);
+		bonus.setEaten(60);
+		for (int i = 0; i < 30; ++i) {
+			timers.advance();
+		}
+		bonus.setEaten(60);
+		assertEquals(1, timers.size());
+		for (int i = 0; i < 200; ++i) {
+			timers.advance();
+		}
+		assertEquals(1, expired.size());
+		assertEquals(Bonus.STATE_INACTIVE, bonus.state());
+		assertEquals(0, timers.size());
+	}
+}
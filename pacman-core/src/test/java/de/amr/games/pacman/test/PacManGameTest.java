@@ -9,11 +9,17 @@ import de.amr.games.pacman.lib.Vector2f;
 import de.amr.games.pacman.lib.Vector2i;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.model.actors.Ghost;
+import de.amr.games.pacman.model.actors.GhostState;
+import de.amr.games.pacman.model.actors.GhostStateSet;
 import de.amr.games.pacman.model.actors.StaticBonus;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -176,4 +182,34 @@ public class PacManGameTest {
 	public void testIllegalCruiseElroyState() {
 		game.level().ifPresent(level -> level.setCruiseElroyState(42));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testGhostStateSet() {
+		var set = GhostStateSet.of(GhostState.FRIGHTENED, GhostState.EATEN);
+		assertTrue(set.contains(GhostState.FRIGHTENED));
+		assertTrue(set.contains(GhostState.EATEN));
+		assertFalse(set.contains(GhostState.LOCKED));
+		assertEquals(2, set.size());
+		assertSame(set, GhostStateSet.of(GhostState.EATEN).union(GhostStateSet.of(GhostState.FRIGHTENED)));
+		assertSame(set, GhostStateSet.ofMask(set.mask()));
+		assertTrue(GhostStateSet.NONE.isEmpty());
+		assertEquals(GhostState.values().length, GhostStateSet.ALL.size());
+		assertThrows(IllegalArgumentException.class, () -> GhostStateSet.ofMask(-1));
+	}
+
+	@Test
+	public void testGhostQueriesByStateSet() {
+		game.level().ifPresent(level -> {
+			level.letsGetReadyToRumble();
+			assertEquals(4, level.countGhosts(GhostStateSet.of(GhostState.LOCKED)));
+			assertEquals(0, level.countGhosts(GhostStateSet.HUNTING_OR_FRIGHTENED));
+			level.ghost(GameModel.PINK_GHOST).setState(GhostState.FRIGHTENED);
+			assertEquals(1, level.countGhosts(GhostStateSet.HUNTING_OR_FRIGHTENED));
+			assertEquals(0, level.countGhosts(GhostStateSet.HUNTING_OR_FRIGHTENED, Ghost::isVisible));
+			assertSame(level.ghost(GameModel.PINK_GHOST), level.findGhost(GhostStateSet.ALL, ghost -> ghost.id() == 1));
+			var locked = new ArrayList<Byte>();
+			level.forEachGhost(GhostStateSet.of(GhostState.LOCKED), ghost -> locked.add(ghost.id()));
+			assertEquals(List.of((byte) 0, (byte) 2, (byte) 3), locked);
+		});
+	}
+}
@@ -0,0 +1,175 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.*;
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.model.actors.Creature;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class ReplayTest {
+
+	/** Changes the direction at random ticks like a player pressing keys. */
+	private static class KeyPressingSteering extends Steering {
+
+		private final SplittableRandom rnd;
+
+		KeyPressingSteering(long seed) {
+			rnd = new SplittableRandom(seed);
+		}
+
+		@Override
+		public void steer(GameLevel level, Creature guy) {
+			if (rnd.nextInt(20) == 0) {
+				guy.setWishDir(Direction.values()[rnd.nextInt(4)]);
+			}
+		}
+	}
+
+	private static GameSession session(GameVariant variant, long seed) {
+		var session = TestSessions.session(variant, seed);
+		session.setCredit(1);
+		session.setManualSteering(new KeyPressingSteering(seed));
+		session.restart(GameState.READY);
+		return session;
+	}
+
+	private static Replay record(GameSession session, long[] hashes, IntConsumer betweenTicks) {
+		var recorder = new ReplayRecorder(session, 600);
+		for (int tick = 0; tick < hashes.length; ++tick) {
+			betweenTicks.accept(tick);
+			if (session.state() == GameState.INTERMISSION) {
+				session.terminateCurrentState();
+			}
+			recorder.beforeTick();
+			session.update();
+			recorder.afterTick();
+			hashes[tick] = session.stateHash();
+		}
+		return recorder.stop();
+	}
+
+	private static GameSession playbackSession(Replay replay) {
+		return TestSessions.session(replay.variant(), 0);
+	}
+
+	private static void assertPlaybackMatches(Replay replay, long[] hashes) {
+		var session = playbackSession(replay);
+		var player = new ReplayPlayer(session, replay);
+		for (long hash : hashes) {
+			player.step();
+			assertEquals("Tick " + player.tick(), hash, session.stateHash());
+		}
+		assertTrue(player.isFinished());
+		assertEquals(-1, player.divergence());
+	}
+
+	@Test
+	public void testPlaybackReachesRecordedStates() {
+		for (var variant : GameVariant.values()) {
+			var hashes = new long[6000];
+			var replay = record(session(variant, 42), hashes, tick -> {});
+			assertEquals(hashes.length, replay.ticks());
+			assertEquals(hashes[hashes.length - 1], replay.finalHash());
+			assertFalse(replay.inputs().isEmpty());
+			assertEquals(hashes.length / 600, replay.keyFrames().size());
+			assertPlaybackMatches(replay, hashes);
+		}
+	}
+
+	@Test
+	public void testChangesBetweenTicksArePlayedBack() {
+		var session = session(GameVariant.MS_PACMAN, 7);
+		var hashes = new long[5000];
+		var replay = record(session, hashes, tick -> {
+			switch (tick) {
+				case 1000 -> session.setImmune(true);
+				case 2000 -> session.toggleAutoControlled();
+				case 2001 -> session.setCredit(3);
+				case 3000 -> session.toggleAutoControlled();
+				default -> {}
+			}
+		});
+		var syncTicks = replay.keyFrames().stream().filter(Replay.KeyFrame::sync).mapToInt(Replay.KeyFrame::tick).toArray();
+		assertArrayEquals(new int[] { 0, 1000, 2000, 2001, 3000 }, syncTicks);
+		assertPlaybackMatches(replay, hashes);
+	}
+
+	@Test
+	public void testSeek() {
+		var hashes = new long[4000];
+		var replay = record(session(GameVariant.PACMAN, 42), hashes, tick -> {});
+		var session = playbackSession(replay);
+		var player = new ReplayPlayer(session, replay);
+		for (int tick : new int[] { 3333, 1200, 1201, 599, 4000 }) {
+			player.seek(tick);
+			assertEquals(tick, player.tick());
+			assertEquals(hashes[tick - 1], session.stateHash());
+		}
+		assertEquals(-1, player.divergence());
+	}
+
+	@Test
+	public void testSegmentsArePlayedIndependently() {
+		var hashes = new long[3000];
+		var replay = record(session(GameVariant.MS_PACMAN, 42), hashes, tick -> {});
+		for (int k = replay.keyFrames().size() - 1; k >= 0; --k) {
+			assertEquals(-1, new ReplayPlayer(playbackSession(replay), replay).playSegment(k));
+		}
+	}
+
+	@Test
+	public void testDivergenceIsDetected() {
+		var hashes = new long[3000];
+		var replay = record(session(GameVariant.PACMAN, 42), hashes, tick -> {});
+		var firstInput = replay.inputs().get(0);
+		var inputs = new ArrayList<>(replay.inputs());
+		inputs.set(0, new Replay.Input(firstInput.tick(), firstInput.dir().opposite()));
+		var tampered = new Replay(replay.variant(), replay.seed(), replay.keyFrameInterval(), replay.ticks(),
+			replay.finalHash(), inputs, replay.keyFrames());
+		int divergence = new ReplayPlayer(playbackSession(tampered), tampered).playToEnd();
+		assertTrue("Divergence: " + divergence, divergence > firstInput.tick());
+	}
+
+	@Test
+	public void testFileRoundTrip() throws IOException {
+		var hashes = new long[6000];
+		var replay = record(session(GameVariant.MS_PACMAN, 42), hashes, tick -> {});
+		var out = new ByteArrayOutputStream();
+		replay.write(out);
+		assertTrue("Replay size: " + out.size(), out.size() < 8000);
+		var copy = Replay.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(replay, copy);
+		assertPlaybackMatches(copy, hashes);
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidFileIsRejected() throws IOException {
+		var out = new ByteArrayOutputStream();
+		new GZIPOutputStream(out).close();
+		Replay.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOtherVariantIsRejected() {
+		var replay = record(session(GameVariant.PACMAN, 42), new long[10], tick -> {});
+		new ReplayPlayer(new GameSession(GameVariant.MS_PACMAN), replay);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.lib.StateHash;
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.model.world.ArcadeWorld;
+import org.junit.Test;
+
+import static de.amr.games.pacman.lib.Globals.v2i;
+import static de.amr.games.pacman.test.TestSessions.autopilotSession;
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class StateHashTest {
+
+	@Test
+	public void testHashDependsOnValuesAndOrder() {
+		var hash = new StateHash();
+		long ab = hash.reset().add(1).add(2).value();
+		long ba = hash.reset().add(2).add(1).value();
+		assertNotEquals(ab, ba);
+		assertEquals(ab, hash.reset().add(1).add(2).value());
+		assertNotEquals(hash.reset().add(0).value(), hash.reset().value());
+		assertNotEquals(hash.reset().add(0.0f).value(), hash.reset().add(-0.0f).value());
+	}
+
+	@Test
+	public void testSameSeedSameHashes() {
+		var a = autopilotSession(GameVariant.MS_PACMAN, 4711);
+		var b = autopilotSession(GameVariant.MS_PACMAN, 4711);
+		assertEquals(a.computeStateHash(), b.computeStateHash());
+		for (int frame = 0; frame < 5000; ++frame) {
+			a.update();
+			b.update();
+			assertEquals("Frame " + frame, a.stateHash(), b.stateHash());
+		}
+	}
+
+	@Test
+	public void testHashChangesWithState() {
+		var session = autopilotSession(GameVariant.MS_PACMAN, 0);
+		session.update();
+		long hash = session.stateHash();
+		assertEquals(hash, session.computeStateHash());
+		var pac = session.game().level().orElseThrow().pac();
+		pac.setPosX(pac.posX() + 0.5f);
+		assertNotEquals(hash, session.computeStateHash());
+		pac.setPosX(pac.posX() - 0.5f);
+		assertEquals(hash, session.computeStateHash());
+		session.game().scorePoints(10);
+		assertNotEquals(hash, session.computeStateHash());
+	}
+
+	@Test
+	public void testEatenFoodHashIsOrderIndependent() {
+		var a = ArcadeWorld.createPacManWorld();
+		var b = ArcadeWorld.createPacManWorld();
+		var hashA = new StateHash();
+		var hashB = new StateHash();
+		a.hashState(hashA.reset());
+		b.hashState(hashB.reset());
+		assertEquals(hashA.value(), hashB.value());
+
+		assertTrue(a.hasFoodAt(v2i(1, 4)) && a.hasFoodAt(v2i(2, 4)));
+		a.removeFood(v2i(1, 4));
+		a.removeFood(v2i(2, 4));
+		b.removeFood(v2i(2, 4));
+		a.hashState(hashA.reset());
+		b.hashState(hashB.reset());
+		assertNotEquals(hashA.value(), hashB.value());
+
+		b.removeFood(v2i(1, 4));
+		a.hashState(hashA.reset());
+		b.hashState(hashB.reset());
+		assertEquals(hashA.value(), hashB.value());
+	}
+}
@@ -0,0 +1,198 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.controller.RewindBuffer;
+import de.amr.games.pacman.lib.SplitMixRandom;
+import de.amr.games.pacman.lib.StateBuffer;
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.model.GameVariant;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static de.amr.games.pacman.test.TestSessions.levelTestSession;
+import static de.amr.games.pacman.test.TestSessions.session;
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class StateSnapshotTest {
+
+	private static GameSession autopilotSessionSkippingIntermissions(GameVariant variant, long seed) {
+		var session = session(variant, seed);
+		session.setCredit(1);
+		session.setAutoControlled(true);
+		session.addStateChangeListener((oldState, newState) -> {
+			if (newState == GameState.INTERMISSION) {
+				session.terminateCurrentState();
+			}
+		});
+		session.restart(GameState.READY);
+		return session;
+	}
+
+	private static long[] hashes(GameSession session, int frames) {
+		var hashes = new long[frames];
+		for (int i = 0; i < frames; ++i) {
+			session.update();
+			hashes[i] = session.stateHash();
+		}
+		return hashes;
+	}
+
+	private static void assertReplaysAfterRestore(GameSession session, int framesBefore, int framesAfter) {
+		hashes(session, framesBefore);
+		var buffer = new StateBuffer();
+		session.saveState(buffer);
+		long hashAtSave = session.computeStateHash();
+		long[] expected = hashes(session, framesAfter);
+		session.restoreState(buffer.rewind());
+		assertEquals(buffer.size(), buffer.position());
+		assertEquals(hashAtSave, session.stateHash());
+		assertArrayEquals(expected, hashes(session, framesAfter));
+	}
+
+	@Test
+	public void testSplitMixRandomIsSplittableRandom() {
+		var expected = new SplittableRandom(42);
+		var rnd = new SplitMixRandom(42);
+		var expectedSplit = expected.split();
+		var split = rnd.split();
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(expected.nextInt(), rnd.nextInt());
+			assertEquals(expected.nextInt(1, 320), rnd.nextInt(1, 320));
+			assertEquals(expected.nextBoolean(), rnd.nextBoolean());
+			assertEquals(expected.nextFloat(), rnd.nextFloat(), 0);
+			assertEquals(expectedSplit.nextInt(100), split.nextInt(100));
+		}
+		// split() draws one value
+		assertEquals(1 + 4 * 1000, rnd.draws());
+	}
+
+	@Test
+	public void testRandomStateIsRestored() {
+		var rnd = new SplitMixRandom(7);
+		rnd.nextInt();
+		var buffer = new StateBuffer();
+		rnd.saveState(buffer);
+		int next = rnd.nextInt();
+		rnd.restoreState(buffer.rewind());
+		assertEquals(1, rnd.draws());
+		assertEquals(next, rnd.nextInt());
+	}
+
+	@Test
+	public void testBufferValues() {
+		var buffer = new StateBuffer(1);
+		buffer.putLong(Long.MIN_VALUE).putInt(-5).putByte(200).putFloat(-0.5f).putBoolean(true)
+			.putEnum(GameState.HUNTING).putEnum(null).putTile(null).putTile(Vector2i.of(3, 4));
+		assertEquals(buffer.size(), buffer.toByteArray().length);
+		var copy = new StateBuffer().load(buffer.toByteArray(), buffer.size());
+		assertEquals(Long.MIN_VALUE, copy.getLong());
+		assertEquals(-5, copy.getInt());
+		assertEquals((byte) 200, copy.getByte());
+		assertEquals(-0.5f, copy.getFloat(), 0);
+		assertTrue(copy.getBoolean());
+		assertEquals(GameState.HUNTING, copy.getEnum(GameState.values()));
+		assertNull(copy.getEnum(GameState.values()));
+		assertNull(copy.getTile());
+		assertEquals(Vector2i.of(3, 4), copy.getTile());
+		assertThrows(IllegalStateException.class, copy::getByte);
+	}
+
+	@Test
+	public void testRestoreReplaysPacMan() {
+		assertReplaysAfterRestore(autopilotSessionSkippingIntermissions(GameVariant.PACMAN, 42), 3000, 3000);
+	}
+
+	@Test
+	public void testRestoreReplaysMsPacMan() {
+		// Ms. Pac-Man has moving bonuses, restored with their routes
+		assertReplaysAfterRestore(autopilotSessionSkippingIntermissions(GameVariant.MS_PACMAN, 42), 3000, 3000);
+	}
+
+	@Test
+	public void testRestoreReplaysDemoLevel() {
+		var session = session(GameVariant.PACMAN, 42);
+		session.restart(GameState.READY);
+		assertReplaysAfterRestore(session, 500, 1500);
+	}
+
+	@Test
+	public void testRestoreAcrossLevelChange() {
+		for (var variant : GameVariant.values()) {
+			var session = levelTestSession(variant, 42);
+			hashes(session, 100);
+			int levelNumber = session.game().level().orElseThrow().number();
+			var buffer = new StateBuffer();
+			session.saveState(buffer);
+			long[] expected = hashes(session, 3000);
+			assertNotEquals(levelNumber, session.game().level().orElseThrow().number());
+			session.restoreState(buffer.rewind());
+			assertEquals(levelNumber, session.game().level().orElseThrow().number());
+			assertArrayEquals(expected, hashes(session, 3000));
+		}
+	}
+
+	@Test
+	public void testRestoreIntoOtherSession() {
+		var original = autopilotSessionSkippingIntermissions(GameVariant.MS_PACMAN, 42);
+		hashes(original, 2500);
+		var buffer = new StateBuffer();
+		original.saveState(buffer);
+		var copy = autopilotSessionSkippingIntermissions(GameVariant.MS_PACMAN, 4711);
+		copy.restoreState(buffer.rewind());
+		assertEquals(original.computeStateHash(), copy.stateHash());
+		assertArrayEquals(hashes(original, 3000), hashes(copy, 3000));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOtherVariantIsRejected() {
+		var buffer = new StateBuffer();
+		autopilotSessionSkippingIntermissions(GameVariant.PACMAN, 0).saveState(buffer);
+		autopilotSessionSkippingIntermissions(GameVariant.MS_PACMAN, 0).restoreState(buffer.rewind());
+	}
+
+	@Test
+	public void testRewindBuffer() {
+		var session = autopilotSessionSkippingIntermissions(GameVariant.PACMAN, 42);
+		var rewindBuffer = new RewindBuffer(120);
+		var hashes = new long[300];
+		for (int i = 0; i < hashes.length; ++i) {
+			session.update();
+			rewindBuffer.capture(session);
+			hashes[i] = session.stateHash();
+		}
+		assertEquals(120, rewindBuffer.size());
+		assertEquals(60, rewindBuffer.rewind(session, 60));
+		assertEquals(hashes[299 - 60], session.stateHash());
+		assertEquals(60, rewindBuffer.size());
+		// clamped to the oldest snapshot
+		assertEquals(59, rewindBuffer.rewind(session, 1000));
+		assertEquals(hashes[299 - 119], session.stateHash());
+		assertEquals(0, rewindBuffer.rewind(session, 1));
+		// the game continues as before
+		session.update();
+		assertEquals(hashes[299 - 118], session.stateHash());
+		// a new game makes the snapshots invalid
+		rewindBuffer.capture(session);
+		session.newGame(GameVariant.MS_PACMAN);
+		assertEquals(0, rewindBuffer.rewind(session, 1));
+		assertEquals(0, rewindBuffer.size());
+	}
+
+	@Test
+	public void testSnapshotIsSmall() {
+		var session = autopilotSessionSkippingIntermissions(GameVariant.MS_PACMAN, 42);
+		hashes(session, 1000);
+		var buffer = new StateBuffer();
+		session.saveState(buffer);
+		assertTrue("Snapshot size: " + buffer.size(), buffer.size() < 1500);
+	}
+}
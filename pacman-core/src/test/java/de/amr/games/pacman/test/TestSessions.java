@@ -0,0 +1,70 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.model.GameVariant;
+
+/**
+ * Game sessions used by the tests. None of them reads or writes the high score file.
+ *
+ * @author Armin Reichert
+ */
+public final class TestSessions {
+
+	private TestSessions() {
+	}
+
+	/**
+	 * @param variant game variant
+	 * @param seed    seed of the random generator
+	 * @return new session, not yet started
+	 */
+	public static GameSession session(GameVariant variant, long seed) {
+		var session = new GameSession(variant, seed);
+		session.game().setHighScoreFileEnabled(false);
+		return session;
+	}
+
+	/**
+	 * @param variant game variant
+	 * @param seed    seed of the random generator
+	 * @return session with one credit, playing a game steered by the autopilot, started in state READY
+	 */
+	public static GameSession autopilotSession(GameVariant variant, long seed) {
+		var session = session(variant, seed);
+		session.setCredit(1);
+		session.setAutoControlled(true);
+		session.restart(GameState.READY);
+		return session;
+	}
+
+	/**
+	 * @param variant game variant
+	 * @param seed    seed of the random generator
+	 * @return session without credit, playing the demo level, started in state READY
+	 */
+	public static GameSession demoLevelSession(GameVariant variant, long seed) {
+		var session = session(variant, seed);
+		session.setCredit(0);
+		session.setAutoControlled(true);
+		session.restart(GameState.READY);
+		return session;
+	}
+
+	/**
+	 * @param variant game variant
+	 * @param seed    seed of the random generator
+	 * @return session with one credit, steered by the autopilot, started in state LEVEL_TEST
+	 */
+	public static GameSession levelTestSession(GameVariant variant, long seed) {
+		var session = session(variant, seed);
+		session.setCredit(1);
+		session.setAutoControlled(true);
+		session.restart(GameState.LEVEL_TEST);
+		return session;
+	}
+}
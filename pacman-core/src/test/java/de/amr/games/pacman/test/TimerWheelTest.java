@@ -0,0 +1,161 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.test;
+
+import de.amr.games.pacman.lib.TimerWheel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class TimerWheelTest {
+
+	private static void advance(TimerWheel wheel, int ticks) {
+		for (int i = 0; i < ticks; ++i) {
+			wheel.advance();
+		}
+	}
+
+	@Test
+	public void testTimeoutFiresAtDeadline() {
+		var wheel = new TimerWheel(8);
+		var fired = new ArrayList<Long>();
+		wheel.schedule(3, () -> fired.add(wheel.now()));
+		advance(wheel, 2);
+		assertTrue(fired.isEmpty());
+		wheel.advance();
+		assertEquals(List.of(3L), fired);
+		advance(wheel, 20);
+		assertEquals(1, fired.size());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testDelayLongerThanRevolution() {
+		var wheel = new TimerWheel(4);
+		var fired = new ArrayList<Long>();
+		wheel.schedule(2, () -> fired.add(wheel.now()));
+		wheel.schedule(10, () -> fired.add(wheel.now()));
+		wheel.schedule(1000, () -> fired.add(wheel.now()));
+		advance(wheel, 1000);
+		assertEquals(List.of(2L, 10L, 1000L), fired);
+	}
+
+	@Test
+	public void testPeriodicTimeout() {
+		var wheel = new TimerWheel();
+		var fired = new ArrayList<Long>();
+		var timeout = wheel.schedulePeriodic(10, () -> fired.add(wheel.now()));
+		advance(wheel, 35);
+		assertEquals(List.of(10L, 20L, 30L), fired);
+		assertTrue(timeout.isPending());
+		timeout.cancel();
+		advance(wheel, 100);
+		assertEquals(3, fired.size());
+		assertFalse(timeout.isPending());
+	}
+
+	@Test
+	public void testCancel() {
+		var wheel = new TimerWheel();
+		var fired = new ArrayList<String>();
+		var a = wheel.schedule(5, () -> fired.add("a"));
+		wheel.schedule(5, () -> fired.add("b"));
+		assertEquals(2, wheel.size());
+		a.cancel();
+		a.cancel();
+		assertEquals(1, wheel.size());
+		advance(wheel, 5);
+		assertEquals(List.of("b"), fired);
+	}
+
+	@Test
+	public void testDueTimeoutsFireInSchedulingOrder() {
+		var wheel = new TimerWheel(16);
+		var fired = new ArrayList<Integer>();
+		for (int i = 0; i < 10; ++i) {
+			int n = i;
+			wheel.schedule(i % 2 == 0 ? 7 : 23, () -> fired.add(n));
+		}
+		advance(wheel, 7);
+		assertEquals(List.of(0, 2, 4, 6, 8), fired);
+	}
+
+	@Test
+	public void testActionsMayModifyWheel() {
+		var wheel = new TimerWheel(8);
+		var fired = new ArrayList<String>();
+		var holder = new TimerWheel.Timeout[1];
+		wheel.schedule(2, () -> {
+			fired.add("first");
+			holder[0].cancel();
+			wheel.schedule(8, () -> fired.add("rescheduled"));
+		});
+		holder[0] = wheel.schedule(2, () -> fired.add("cancelled"));
+		var periodic = new TimerWheel.Timeout[1];
+		periodic[0] = wheel.schedulePeriodic(3, () -> {
+			fired.add("periodic");
+			periodic[0].cancel();
+		});
+		advance(wheel, 20);
+		assertEquals(List.of("first", "periodic", "rescheduled"), fired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testReusableTimeout() {
+		var wheel = new TimerWheel(8);
+		var fired = new ArrayList<Long>();
+		var timeout = wheel.timeout(() -> fired.add(wheel.now()));
+		assertFalse(timeout.isPending());
+		assertSame(timeout, timeout.schedule(3));
+		advance(wheel, 5);
+		timeout.schedule(2);
+		timeout.schedule(4); // replaces the pending schedule
+		advance(wheel, 10);
+		assertEquals(List.of(3L, 9L), fired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testDueTimeoutScheduledAgainByAction() {
+		var wheel = new TimerWheel(8);
+		var fired = new ArrayList<String>();
+		var holder = new TimerWheel.Timeout[1];
+		wheel.schedule(2, () -> {
+			fired.add("first");
+			holder[0].schedule(3);
+		});
+		holder[0] = wheel.timeout(() -> fired.add("second at " + wheel.now()));
+		holder[0].schedule(2);
+		wheel.schedule(2, () -> fired.add("third"));
+		advance(wheel, 10);
+		assertEquals(List.of("first", "third", "second at 5"), fired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testClear() {
+		var wheel = new TimerWheel();
+		var count = new int[1];
+		var timeout = wheel.schedule(1, () -> ++count[0]);
+		wheel.schedulePeriodic(1, () -> ++count[0]);
+		wheel.clear();
+		assertEquals(0, wheel.size());
+		assertFalse(timeout.isPending());
+		advance(wheel, 10);
+		assertEquals(0, count[0]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveDelayRejected() {
+		new TimerWheel().schedule(0, () -> {});
+	}
+}
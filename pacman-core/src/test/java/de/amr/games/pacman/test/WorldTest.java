@@ -4,14 +4,21 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.test;
 
+import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.lib.Vector2f;
 import de.amr.games.pacman.lib.Vector2i;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.actors.Ghost;
 import de.amr.games.pacman.model.world.ArcadeWorld;
+import de.amr.games.pacman.model.world.MazeDistances;
 import de.amr.games.pacman.model.world.World;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.amr.games.pacman.lib.Direction.RIGHT;
 import static de.amr.games.pacman.lib.Globals.*;
 import static java.util.function.Predicate.not;
 import static org.junit.Assert.*;
@@ -145,4 +152,237 @@ public class WorldTest {
 		byte[][] map = { { 0, 1, 2 }, { 1, 1, 1 }, { 2, 2, 2 } };
 		assertThrows(IllegalArgumentException.class, () -> ArcadeWorld.createArcadeWorld(map));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testInternedTiles() {
+		assertSame(v2i(3, 4), v2i(3, 4));
+		assertSame(v2i(-40, -40), v2i(-5, -5).scaled(8));
+		assertSame(v2i(67, 75), v2i(66, 75).plus(1, 0));
+		assertSame(v2i(1, 0), v2i(0, 0).plus(RIGHT.vector()));
+		assertNotSame(v2i(68, 0), v2i(68, 0));
+		assertEquals(v2i(68, 0), v2i(68, 0));
+		assertEquals(v2i(-100, 5), v2i(-99, 5).minus(1, 0));
+	}
+
+	@Test
+	public void testTileIndex() {
+		var world = ArcadeWorld.createPacManWorld();
+		var guy = new Ghost(GameModel.RED_GHOST, "Guy");
+		guy.setWorld(world);
+		guy.setPosition(5 * TS, 7 * TS);
+		assertEquals(world.index(guy.tile()), guy.tileIndex());
+		assertSame(guy.tile(), world.tile(guy.tileIndex()));
+		guy.setPosition(world.numCols() * TS, 7 * TS);
+		assertEquals(-1, guy.tileIndex());
+	}
+
+	@Test
+	public void testFoodByIndex() {
+		var world = ArcadeWorld.createPacManWorld();
+		var foodTile = world.tiles().filter(world::isFoodTile).findFirst().orElseThrow();
+		int index = world.index(foodTile);
+		assertTrue(world.hasFoodAt(index));
+		world.removeFood(foodTile);
+		assertFalse(world.hasFoodAt(index));
+		assertFalse(world.hasFoodAt(-1));
+		assertFalse(world.hasFoodAt(world.numCols() * world.numRows()));
+		world.tiles().forEach(tile -> assertEquals(world.hasFoodAt(tile), world.hasFoodAt(world.index(tile))));
+	}
+
+	private static List<World> allArcadeWorlds() {
+		var worlds = new ArrayList<World>();
+		worlds.add(ArcadeWorld.createPacManWorld());
+		for (int number = 1; number <= 4; ++number) {
+			worlds.add(ArcadeWorld.createMsPacManWorld(number));
+		}
+		return worlds;
+	}
+
+	@Test
+	public void testTileTablesMatchMapData() {
+		for (var world : allArcadeWorlds()) {
+			var house = world.house();
+			for (int x = -3; x < world.numCols() + 3; ++x) {
+				for (int y = -1; y < world.numRows() + 1; ++y) {
+					var tile = v2i(x, y);
+					boolean inside = world.insideBounds(tile);
+					assertEquals(world.portals().stream().anyMatch(portal -> portal.contains(tile)), world.belongsToPortal(tile));
+					assertEquals(house.door().occupies(tile), world.isDoor(tile));
+					boolean accessible = inside ? !world.isWall(tile) && !house.door().occupies(tile) : world.belongsToPortal(tile);
+					assertEquals(accessible, world.isAccessible(tile));
+					if (inside) {
+						boolean intersection = x > 0 && x < world.numCols() - 1 && !house.contains(tile)
+							&& tile.neighbors().filter(world::isWall).count()
+								+ tile.neighbors().filter(house.door()::occupies).count() < 2;
+						assertEquals(intersection, world.isIntersection(tile));
+						int mask = 0;
+						for (var dir : Direction.values()) {
+							if (world.isAccessible(tile.plus(dir.vector()))) {
+								mask |= 1 << dir.ordinal();
+							}
+						}
+						assertEquals(mask, world.accessibleNeighbors(tile));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRedZone() {
+		var world = ArcadeWorld.createPacManWorld();
+		ArcadeWorld.PACMAN_RED_ZONE.forEach(tile -> assertTrue(world.isRedZone(tile)));
+		assertEquals(4, world.tiles().filter(world::isRedZone).count());
+		var msPacManWorld = ArcadeWorld.createMsPacManWorld(1);
+		assertEquals(0, msPacManWorld.tiles().filter(msPacManWorld::isRedZone).count());
+	}
+
+	private static Direction bruteForceBestDirection(Vector2i tile, int candidates, Vector2i target) {
+		Direction best = null;
+		float minDistance = Float.MAX_VALUE;
+		for (var dir : new Direction[] { Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT }) {
+			if ((candidates & (1 << dir.ordinal())) != 0) {
+				float distance = tile.plus(dir.vector()).euclideanDistance(target);
+				if (distance < minDistance) {
+					minDistance = distance;
+					best = dir;
+				}
+			}
+		}
+		return best;
+	}
+
+	@Test
+	public void testNavigationCacheMatchesBruteForce() {
+		var world = ArcadeWorld.createPacManWorld();
+		var cache = world.navigationCache();
+		var fixedTarget = ArcadeWorld.SCATTER_TARGET_LEFT_LOWER_CORNER;
+		cache.precompute(fixedTarget);
+		var targets = List.of(fixedTarget, v2i(13, 26), v2i(-5, 40), v2i(14, 14));
+		// two passes: the second one reads the cached decisions
+		for (int pass = 0; pass < 2; ++pass) {
+			for (var target : targets) {
+				world.tiles().forEach(tile -> {
+					for (int candidates = 0; candidates < 16; ++candidates) {
+						assertEquals(bruteForceBestDirection(tile, candidates, target),
+							cache.bestDirection(tile, candidates, target));
+					}
+				});
+			}
+		}
+		// tie: both UP and LEFT neighbors have the same distance to the target, UP wins
+		assertEquals(Direction.UP, cache.bestDirection(v2i(5, 5), 0b1111, v2i(4, 4)));
+		assertNull(cache.bestDirection(v2i(5, 5), 0, v2i(4, 4)));
+	}
+
+	private static int[] bruteForcePathDistances(World world, Vector2i from) {
+		var dist = new int[world.numCols() * world.numRows()];
+		java.util.Arrays.fill(dist, -1);
+		var queue = new java.util.ArrayDeque<Vector2i>();
+		dist[world.index(from)] = 0;
+		queue.add(from);
+		while (!queue.isEmpty()) {
+			var tile = queue.poll();
+			for (var dir : Direction.values()) {
+				var neighbor = tile.plus(dir.vector());
+				if (!world.isAccessible(neighbor)) {
+					continue;
+				}
+				if (!world.insideBounds(neighbor)) {
+					neighbor = v2i(Math.floorMod(neighbor.x(), world.numCols()), neighbor.y());
+				}
+				if (dist[world.index(neighbor)] == -1) {
+					dist[world.index(neighbor)] = dist[world.index(tile)] + 1;
+					queue.add(neighbor);
+				}
+			}
+		}
+		return dist;
+	}
+
+	@Test
+	public void testFoodIndexFindsNearestFoodByPathDistance() {
+		var world = ArcadeWorld.createPacManWorld();
+		var found = new int[16];
+		// eat some food to make it interesting
+		world.tiles().filter(tile -> tile.y() < 20).forEach(world::removeFood);
+		assertEquals(world.uneatenFoodCount(), world.foodIndex().size());
+		for (var from : List.of(v2i(13, 26), v2i(1, 4), v2i(0, 17), v2i(26, 32), v2i(6, 14))) {
+			var dist = bruteForcePathDistances(world, from);
+			int minDist = world.tiles().filter(world::hasFoodAt).mapToInt(tile -> dist[world.index(tile)])
+				.filter(d -> d >= 0).min().orElseThrow();
+			long expectedCount = world.tiles().filter(world::hasFoodAt).filter(tile -> dist[world.index(tile)] == minDist).count();
+			int count = world.foodIndex().findNearestFood(from, true, found);
+			assertEquals(expectedCount, count);
+			for (int i = 0; i < count; ++i) {
+				assertTrue(world.hasFoodAt(found[i]));
+				assertEquals(minDist, dist[found[i]]);
+			}
+		}
+	}
+
+	@Test
+	public void testFoodIndexIgnoresEnergizersOnRequest() {
+		var world = ArcadeWorld.createPacManWorld();
+		world.tiles().filter(not(world::isEnergizerTile)).forEach(world::removeFood);
+		var found = new int[16];
+		assertEquals(0, world.foodIndex().findNearestFood(v2i(13, 26), false, found));
+		assertEquals(1, world.foodIndex().findNearestFood(v2i(1, 4), true, found));
+		assertEquals(v2i(1, 6), world.tile(found[0]));
+		world.tiles().forEach(world::removeFood);
+		assertEquals(0, world.foodIndex().findNearestFood(v2i(1, 4), true, found));
+	}
+
+	@Test
+	public void testMazeDistancesMatchBruteForce() {
+		for (var world : allArcadeWorlds()) {
+			var distances = world.mazeDistances();
+			var walkable = world.tiles().filter(world::isAccessible).toList();
+			assertEquals(walkable.size(), distances.numWalkableTiles());
+			for (var from : walkable) {
+				var expected = bruteForcePathDistances(world, from);
+				for (var to : walkable) {
+					int d = distances.distance(from, to);
+					assertEquals(expected[world.index(to)], d);
+					var step = distances.firstStep(from, to);
+					if (d > 0) {
+						var next = from.plus(step.vector());
+						next = v2i(Math.floorMod(next.x(), world.numCols()), next.y());
+						assertEquals(d - 1, distances.distance(next, to));
+					} else {
+						assertNull(step);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMazeDistancesSharedAndPortalAware() {
+		var world = ArcadeWorld.createPacManWorld();
+		assertSame(world.mazeDistances(), ArcadeWorld.createPacManWorld().mazeDistances());
+		assertNotSame(world.mazeDistances(), ArcadeWorld.createMsPacManWorld(1).mazeDistances());
+		// through the portal, the tunnel ends are neighbors
+		assertEquals(1, world.mazeDistances().distance(v2i(0, 17), v2i(27, 17)));
+		assertEquals(Direction.LEFT, world.mazeDistances().firstStep(v2i(0, 17), v2i(27, 17)));
+		assertEquals(0, world.mazeDistances().distance(v2i(-1, 17), v2i(0, 17)));
+		assertEquals(MazeDistances.UNREACHABLE, world.mazeDistances().distance(v2i(0, 0), v2i(1, 4)));
+		// ghost house interior is not connected to the maze (door is not walkable)
+		assertEquals(MazeDistances.UNREACHABLE, world.mazeDistances().distance(v2i(13, 17), v2i(1, 4)));
+	}
+
+	@Test
+	public void testTileTablesSharedByMapContent() {
+		var world = ArcadeWorld.createPacManWorld();
+		var mapCopy = Arrays.stream(ArcadeWorld.PACMAN_MAP).map(byte[]::clone).toArray(byte[][]::new);
+		var worldFromCopy = ArcadeWorld.createArcadeWorld(mapCopy);
+		worldFromCopy.setRedZone(ArcadeWorld.PACMAN_RED_ZONE);
+		assertSame(world.mazeDistances(), worldFromCopy.mazeDistances());
+		mapCopy[4][1] = World.T_SPACE;
+		var changedWorld = ArcadeWorld.createArcadeWorld(mapCopy);
+		changedWorld.setRedZone(ArcadeWorld.PACMAN_RED_ZONE);
+		assertNotSame(world.mazeDistances(), changedWorld.mazeDistances());
+		assertFalse(changedWorld.isFoodTile(v2i(1, 4)));
+		assertTrue(world.isFoodTile(v2i(1, 4)));
+	}
+}
@@ -0,0 +1,121 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import de.amr.games.pacman.controller.Steering;
+import de.amr.games.pacman.lib.RuleBasedSteering;
+import de.amr.games.pacman.model.GameVariant;
+
+import java.util.function.Supplier;
+
+import static de.amr.games.pacman.lib.Globals.*;
+
+/**
+ * Configuration of a batch of headless games.
+ *
+ * @param variant         game variant
+ * @param startLevel      number of the level where each game starts (1-based)
+ * @param firstSeed       seed of the first game, each game of the batch is played with its own random seed
+ * @param lastSeed        seed of the last game (inclusive)
+ * @param frameBudget     maximum number of frames simulated per game
+ * @param steeringFactory creates the Pac-Man steering for each game
+ * @param parallelism     number of worker threads
+ * @param mode            how the games are played
+ *
+ * @author Armin Reichert
+ */
+public record BatchConfig(
+	GameVariant variant,
+	int startLevel,
+	long firstSeed,
+	long lastSeed,
+	long frameBudget,
+	Supplier<Steering> steeringFactory,
+	int parallelism,
+	Mode mode)
+{
+	/** Frame budget used if none is specified: one hour of game time. */
+	public static final long DEFAULT_FRAME_BUDGET = 60L * 60 * 60;
+
+	/**
+	 * How the games of a batch are played.
+	 */
+	public enum Mode {
+		/** One credit, Pac-Man is steered by the configured steering, the game ends when the game is over. */
+		PLAY,
+		/** Demo level (attract mode) without credit, Pac-Man follows the demo route, ends with the demo level. */
+		DEMO_LEVEL,
+		/** Level test mode: the levels are played automatically one after the other, ends after the last level. */
+		LEVEL_TEST
+	}
+
+	public BatchConfig {
+		checkGameVariant(variant);
+		checkLevelNumber(startLevel);
+		checkNotNull(steeringFactory);
+		checkNotNull(mode);
+		if (mode != Mode.PLAY && startLevel != 1) {
+			throw new IllegalArgumentException("Start level cannot be chosen in mode " + mode);
+		}
+		if (firstSeed > lastSeed) {
+			throw new IllegalArgumentException(
+				String.format("Seed range is empty: first seed %d is larger than last seed %d", firstSeed, lastSeed));
+		}
+		if (frameBudget <= 0) {
+			throw new IllegalArgumentException("Frame budget must be positive but is " + frameBudget);
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Parallelism must be positive but is " + parallelism);
+		}
+	}
+
+	public BatchConfig(GameVariant variant, int startLevel, long firstSeed, long lastSeed, long frameBudget,
+		Supplier<Steering> steeringFactory, int parallelism) {
+		this(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, Mode.PLAY);
+	}
+
+	/**
+	 * Creates a configuration using the autopilot steering, the default frame budget and all available processors.
+	 *
+	 * @param variant   game variant
+	 * @param numGames  number of games, seeds are <code>0..numGames-1</code>
+	 * @return batch configuration
+	 */
+	public static BatchConfig autopilot(GameVariant variant, int numGames) {
+		return new BatchConfig(variant, 1, 0, numGames - 1, DEFAULT_FRAME_BUDGET, RuleBasedSteering::new,
+			Runtime.getRuntime().availableProcessors());
+	}
+
+	public BatchConfig withStartLevel(int startLevel) {
+		return new BatchConfig(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, mode);
+	}
+
+	public BatchConfig withFrameBudget(long frameBudget) {
+		return new BatchConfig(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, mode);
+	}
+
+	public BatchConfig withSteering(Supplier<Steering> steeringFactory) {
+		return new BatchConfig(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, mode);
+	}
+
+	public BatchConfig withParallelism(int parallelism) {
+		return new BatchConfig(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, mode);
+	}
+
+	public BatchConfig withSeeds(long firstSeed, long lastSeed) {
+		return new BatchConfig(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, mode);
+	}
+
+	public BatchConfig withMode(Mode mode) {
+		return new BatchConfig(variant, startLevel, firstSeed, lastSeed, frameBudget, steeringFactory, parallelism, mode);
+	}
+
+	/**
+	 * @return number of games in this batch
+	 */
+	public long numGames() {
+		return lastSeed - firstSeed + 1;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import java.util.List;
+
+/**
+ * Aggregated results of a batch of headless games.
+ *
+ * @param config      the batch configuration
+ * @param games       results of the single games, ordered by seed
+ * @param elapsedNanos wall-clock time used by the batch
+ *
+ * @author Armin Reichert
+ */
+public record BatchResult(BatchConfig config, List<GameResult> games, long elapsedNanos) {
+
+	public int numGames() {
+		return games.size();
+	}
+
+	public long totalFrames() {
+		return games.stream().mapToLong(GameResult::frames).sum();
+	}
+
+	public int totalDeaths() {
+		return games.stream().mapToInt(GameResult::deaths).sum();
+	}
+
+	public int maxScore() {
+		return games.stream().mapToInt(GameResult::score).max().orElse(0);
+	}
+
+	public double meanScore() {
+		return games.stream().mapToInt(GameResult::score).average().orElse(0);
+	}
+
+	public int maxLevel() {
+		return games.stream().mapToInt(GameResult::levelReached).max().orElse(0);
+	}
+
+	public double meanLevel() {
+		return games.stream().mapToInt(GameResult::levelReached).average().orElse(0);
+	}
+
+	public long numGamesOver() {
+		return games.stream().filter(GameResult::gameOver).count();
+	}
+
+	public double elapsedSeconds() {
+		return elapsedNanos / 1e9;
+	}
+
+	/**
+	 * @return simulated frames per wall-clock second, summed over all worker threads
+	 */
+	public double framesPerSecond() {
+		return elapsedNanos > 0 ? totalFrames() / elapsedSeconds() : 0;
+	}
+
+	/**
+	 * @return simulated frames per wall-clock second and worker thread
+	 */
+	public double framesPerSecondPerCore() {
+		return framesPerSecond() / config.parallelism();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d games (%d game over), score mean=%.1f max=%d, level mean=%.2f max=%d, deaths=%d, "
+				+ "frames=%d, time=%.2fs, %.0f frames/sec (%.0f per core, %d cores)",
+			config.variant(), numGames(), numGamesOver(), meanScore(), maxScore(), meanLevel(), maxLevel(), totalDeaths(),
+			totalFrames(), elapsedSeconds(), framesPerSecond(), framesPerSecondPerCore(), config.parallelism());
+	}
+}
@@ -0,0 +1,116 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.model.GameLevel;
+import org.tinylog.Logger;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Runs batches of complete games headlessly and as fast as possible, spread over the threads of a fork-join pool.
+ * <p>
+ * Each game is played in its own {@link GameSession} with one credit, starting at the configured level and steered
+ * by the configured steering. A game ends when the game is over or when the frame budget is exhausted. States that
+ * wait for the user interface (intermissions) are skipped. In the modes {@link BatchConfig.Mode#DEMO_LEVEL} and
+ * {@link BatchConfig.Mode#LEVEL_TEST}, the game ends when the demo level or the level test is over.
+ *
+ * @author Armin Reichert
+ */
+public class BatchSimulator {
+
+	private final BatchConfig config;
+
+	public BatchSimulator(BatchConfig config) {
+		checkNotNull(config);
+		this.config = config;
+	}
+
+	public BatchConfig config() {
+		return config;
+	}
+
+	/**
+	 * Runs all games of the batch and waits for their completion.
+	 *
+	 * @return aggregated results
+	 */
+	public BatchResult run() {
+		Logger.info("Batch simulation started: {} games, {} threads", config.numGames(), config.parallelism());
+		var pool = new ForkJoinPool(config.parallelism());
+		long start = System.nanoTime();
+		try {
+			List<GameResult> games = pool.submit(() -> LongStream.rangeClosed(config.firstSeed(), config.lastSeed())
+				.parallel()
+				.mapToObj(this::runGame)
+				.toList()
+			).get();
+			var result = new BatchResult(config, games, System.nanoTime() - start);
+			Logger.info("Batch simulation finished: {}", result);
+			return result;
+		} catch (InterruptedException x) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Batch simulation interrupted", x);
+		} catch (ExecutionException x) {
+			throw new IllegalStateException("Batch simulation failed", x.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Plays a single game in a new session.
+	 *
+	 * @param seed seed of the session random generator
+	 * @return game result
+	 */
+	public GameResult runGame(long seed) {
+		var session = new GameSession(config.variant(), seed);
+		var game = session.game();
+		game.setHighScoreFileEnabled(false);
+		if (config.mode() != BatchConfig.Mode.DEMO_LEVEL) {
+			session.setCredit(1);
+			session.setManualSteering(config.steeringFactory().get());
+		}
+
+		var deaths = new int[1];
+		session.addStateChangeListener((oldState, newState) -> {
+			switch (newState) {
+				case PACMAN_DYING -> ++deaths[0];
+				// intermission scenes are played by the UI which also terminates the state
+				case INTERMISSION -> session.terminateCurrentState();
+				default -> {}
+			}
+		});
+
+		var endState = switch (config.mode()) {
+			case PLAY -> GameState.GAME_OVER;
+			case DEMO_LEVEL -> GameState.INTRO;
+			case LEVEL_TEST -> GameState.BOOT;
+		};
+		session.restart(config.mode() == BatchConfig.Mode.LEVEL_TEST ? GameState.LEVEL_TEST : GameState.READY);
+		if (config.startLevel() > 1) {
+			game.clearLevelCounter();
+			game.setLevel(config.startLevel());
+			game.startLevel();
+		}
+
+		long frames = 0;
+		while (frames < config.frameBudget() && session.state() != endState) {
+			session.update();
+			++frames;
+		}
+		int levelReached = game.level().map(GameLevel::number).orElse(config.startLevel());
+		return new GameResult(seed, game.score().points(), levelReached, deaths[0], frames,
+			session.state() == endState);
+	}
+}
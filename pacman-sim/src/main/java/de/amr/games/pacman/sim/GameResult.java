@@ -0,0 +1,26 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+/**
+ * Result of a single headless game.
+ *
+ * @param seed         seed of the game
+ * @param score        final score
+ * @param levelReached number of the last level played
+ * @param deaths       number of times Pac-Man died
+ * @param frames       number of simulated frames
+ * @param gameOver     if the game ended regularly (<code>false</code> if the frame budget was exhausted before)
+ *
+ * @author Armin Reichert
+ */
+public record GameResult(long seed, int score, int levelReached, int deaths, long frames, boolean gameOver) {
+
+	@Override
+	public String toString() {
+		return String.format("Game seed=%d score=%d level=%d deaths=%d frames=%d%s",
+			seed, score, levelReached, deaths, frames, gameOver ? "" : " (frame budget exhausted)");
+	}
+}
@@ -0,0 +1,348 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.model.GameVariant;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static de.amr.games.pacman.lib.Globals.checkGameVariant;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Sequence of state hashes (see {@link GameSession#stateHash()}) of a scripted headless game.
+ * <p>
+ * A trace recorded before a change of the simulation code ("golden trace") is compared with a trace recorded after the
+ * change. If the change did not alter the game behavior, both traces are equal, otherwise {@link #firstDivergence}
+ * tells the first frame where the states differ. To keep golden traces small, only every <code>interval</code>-th
+ * hash may be stored. Then the divergence is located up to the interval, and recording both revisions with interval 1
+ * finds the exact frame.
+ * <p>
+ * Trace file format (text, UTF-8):
+ * <pre>
+ * # comment
+ * variant=PACMAN
+ * script=AUTOPILOT
+ * seed=42
+ * frames=12000
+ * interval=10
+ * 10 5f0c8a1d9e3b2c47
+ * 20 ...
+ * </pre>
+ * Each data line contains the frame number (1-based) and the hexadecimal state hash after this frame.
+ *
+ * @param scenario the recorded game
+ * @param interval number of frames between two stored hashes
+ * @param hashes   state hash after frame <code>(i + 1) * interval</code> at index <code>i</code>
+ *
+ * @author Armin Reichert
+ */
+public record GoldenTrace(Scenario scenario, int interval, long[] hashes) {
+
+	/**
+	 * How the game is played.
+	 */
+	public enum Script {
+		/** Demo level (attract mode) without credit, ends with the demo level. */
+		DEMO_LEVEL,
+		/** One credit, Pac-Man steered by the autopilot, intermissions are skipped. */
+		AUTOPILOT,
+		/** Level test mode: levels are played automatically one after the other. */
+		LEVEL_TEST
+	}
+
+	/**
+	 * A scripted headless game.
+	 *
+	 * @param variant game variant
+	 * @param script  how the game is played
+	 * @param seed    seed of the session random generator
+	 * @param frames  number of simulated frames
+	 */
+	public record Scenario(GameVariant variant, Script script, long seed, int frames) {
+
+		public Scenario {
+			checkGameVariant(variant);
+			checkNotNull(script);
+			if (frames <= 0) {
+				throw new IllegalArgumentException("Number of frames must be positive but is " + frames);
+			}
+		}
+
+		/**
+		 * @return new session, ready to run the first frame of this scenario
+		 */
+		public GameSession createSession() {
+			var session = new GameSession(variant, seed);
+			session.game().setHighScoreFileEnabled(false);
+			switch (script) {
+				case DEMO_LEVEL -> session.restart(GameState.READY);
+				case AUTOPILOT -> {
+					session.setCredit(1);
+					session.setAutoControlled(true);
+					// intermission scenes are played by the UI which also terminates the state
+					session.addStateChangeListener((oldState, newState) -> {
+						if (newState == GameState.INTERMISSION) {
+							session.terminateCurrentState();
+						}
+					});
+					session.restart(GameState.READY);
+				}
+				case LEVEL_TEST -> {
+					session.setCredit(1);
+					session.restart(GameState.LEVEL_TEST);
+				}
+			}
+			return session;
+		}
+	}
+
+	public GoldenTrace {
+		checkNotNull(scenario);
+		checkNotNull(hashes);
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Interval must be positive but is " + interval);
+		}
+		if (hashes.length != scenario.frames() / interval) {
+			throw new IllegalArgumentException(String.format("Trace must contain %d hashes but contains %d",
+				scenario.frames() / interval, hashes.length));
+		}
+	}
+
+	/**
+	 * Plays the scenario and records the state hash after every <code>interval</code>-th frame.
+	 *
+	 * @param scenario scripted game
+	 * @param interval number of frames between two stored hashes
+	 * @return recorded trace
+	 */
+	public static GoldenTrace record(Scenario scenario, int interval) {
+		checkNotNull(scenario);
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Interval must be positive but is " + interval);
+		}
+		var session = scenario.createSession();
+		var hashes = new long[scenario.frames() / interval];
+		for (int frame = 1; frame <= scenario.frames(); ++frame) {
+			session.update();
+			if (frame % interval == 0) {
+				hashes[frame / interval - 1] = session.stateHash();
+			}
+		}
+		return new GoldenTrace(scenario, interval, hashes);
+	}
+
+	/**
+	 * @param index hash index
+	 * @return frame number (1-based) after which the hash with the given index was taken
+	 */
+	public int frameAt(int index) {
+		return (index + 1) * interval;
+	}
+
+	/**
+	 * Compares this trace with another trace of the same scenario.
+	 *
+	 * @param other other trace
+	 * @return first frame stored in both traces where the hashes differ, or -1 if all common frames have equal hashes
+	 */
+	public int firstDivergence(GoldenTrace other) {
+		checkNotNull(other);
+		if (!scenario.equals(other.scenario)) {
+			throw new IllegalArgumentException("Traces of different scenarios cannot be compared: " + scenario + ", "
+				+ other.scenario);
+		}
+		for (int frame = lcm(interval, other.interval); frame <= scenario.frames(); frame += lcm(interval, other.interval)) {
+			if (hashes[frame / interval - 1] != other.hashes[frame / other.interval - 1]) {
+				return frame;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Plays the scenario of this trace again and compares.
+	 *
+	 * @return first frame where the current simulation diverges from this trace, or -1 if it does not diverge
+	 */
+	public int verify() {
+		return firstDivergence(record(scenario, interval));
+	}
+
+	private static int lcm(int a, int b) {
+		int x = a, y = b;
+		while (y != 0) {
+			int t = x % y;
+			x = y;
+			y = t;
+		}
+		return a / x * b;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof GoldenTrace other && scenario.equals(other.scenario) && interval == other.interval
+			&& Arrays.equals(hashes, other.hashes);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * scenario.hashCode() + interval) + Arrays.hashCode(hashes);
+	}
+
+	@Override
+	public String toString() {
+		return "GoldenTrace[" + scenario + ", interval=" + interval + ", hashes=" + hashes.length + "]";
+	}
+
+	// I/O
+
+	public void write(Writer out) throws IOException {
+		out.write("# State hash trace, see " + GoldenTrace.class.getName() + "\n");
+		out.write("variant=" + scenario.variant() + "\n");
+		out.write("script=" + scenario.script() + "\n");
+		out.write("seed=" + scenario.seed() + "\n");
+		out.write("frames=" + scenario.frames() + "\n");
+		out.write("interval=" + interval + "\n");
+		for (int i = 0; i < hashes.length; ++i) {
+			out.write(frameAt(i) + " " + String.format("%016x", hashes[i]) + "\n");
+		}
+	}
+
+	public void write(Path path) throws IOException {
+		try (var out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			write(out);
+		}
+	}
+
+	public static GoldenTrace read(Reader in) throws IOException {
+		checkNotNull(in);
+		var reader = new BufferedReader(in);
+		Map<String, String> header = new HashMap<>();
+		long[] hashes = null;
+		int interval = 0;
+		int count = 0;
+		int lineNumber = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			++lineNumber;
+			line = line.strip();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			int eq = line.indexOf('=');
+			if (eq != -1) {
+				header.put(line.substring(0, eq).strip(), line.substring(eq + 1).strip());
+				continue;
+			}
+			if (hashes == null) {
+				interval = Integer.parseInt(headerValue(header, "interval"));
+				hashes = new long[Math.max(0, Integer.parseInt(headerValue(header, "frames")) / Math.max(1, interval))];
+			}
+			var fields = line.split("\\s+");
+			if (fields.length != 2 || count == hashes.length || Integer.parseInt(fields[0]) != (count + 1) * interval) {
+				throw new IOException("Invalid trace data at line " + lineNumber + ": " + line);
+			}
+			hashes[count++] = Long.parseUnsignedLong(fields[1], 16);
+		}
+		var scenario = new Scenario(
+			GameVariant.valueOf(headerValue(header, "variant")),
+			Script.valueOf(headerValue(header, "script")),
+			Long.parseLong(headerValue(header, "seed")),
+			Integer.parseInt(headerValue(header, "frames")));
+		if (hashes == null) {
+			interval = Integer.parseInt(headerValue(header, "interval"));
+			hashes = new long[0];
+		}
+		if (count != hashes.length) {
+			throw new IOException("Trace is incomplete: " + count + " of " + hashes.length + " hashes");
+		}
+		return new GoldenTrace(scenario, interval, hashes);
+	}
+
+	public static GoldenTrace read(Path path) throws IOException {
+		try (var in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return read(in);
+		}
+	}
+
+	private static String headerValue(Map<String, String> header, String key) throws IOException {
+		var value = header.get(key);
+		if (value == null) {
+			throw new IOException("Trace header entry missing: " + key);
+		}
+		return value;
+	}
+
+	// Command line
+
+	/**
+	 * Records or verifies golden traces.
+	 * <pre>
+	 * record &lt;file&gt; &lt;variant&gt; &lt;script&gt; &lt;seed&gt; &lt;frames&gt; [interval]
+	 * verify &lt;file&gt;...
+	 * compare &lt;file&gt; &lt;file&gt;
+	 * </pre>
+	 * The exit code is 1 if a trace diverges, 2 on usage errors.
+	 *
+	 * @param args command line arguments
+	 * @throws IOException if a trace file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length >= 6 && args[0].equals("record")) {
+			var scenario = new Scenario(GameVariant.valueOf(args[2]), Script.valueOf(args[3]), Long.parseLong(args[4]),
+				Integer.parseInt(args[5]));
+			var trace = record(scenario, args.length > 6 ? Integer.parseInt(args[6]) : 1);
+			trace.write(Path.of(args[1]));
+			System.out.println("Recorded " + trace + " to " + args[1]);
+		} else if (args.length >= 2 && args[0].equals("verify")) {
+			boolean diverged = false;
+			for (int i = 1; i < args.length; ++i) {
+				var golden = read(Path.of(args[i]));
+				int frame = golden.verify();
+				diverged |= frame != -1;
+				System.out.println(args[i] + ": " + describeDivergence(golden, frame));
+			}
+			System.exit(diverged ? 1 : 0);
+		} else if (args.length == 3 && args[0].equals("compare")) {
+			var golden = read(Path.of(args[1]));
+			int frame = golden.firstDivergence(read(Path.of(args[2])));
+			System.out.println(describeDivergence(golden, frame));
+			System.exit(frame != -1 ? 1 : 0);
+		} else {
+			System.err.println("Usage: record <file> <variant> <script> <seed> <frames> [interval]");
+			System.err.println("       verify <file>...");
+			System.err.println("       compare <file> <file>");
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * @param golden golden trace
+	 * @param frame  result of {@link #firstDivergence(GoldenTrace)}
+	 * @return readable description of the comparison result
+	 */
+	public static String describeDivergence(GoldenTrace golden, int frame) {
+		if (frame == -1) {
+			return "OK, " + golden.scenario().frames() + " frames match";
+		}
+		if (golden.interval() == 1) {
+			return "Diverges at frame " + frame;
+		}
+		return String.format("Diverges between frames %d and %d, record with interval 1 to find the exact frame",
+			Math.max(1, frame - golden.interval() + 1), frame);
+	}
+}
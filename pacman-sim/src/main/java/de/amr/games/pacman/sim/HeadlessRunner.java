@@ -0,0 +1,269 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import de.amr.games.pacman.controller.GameSession;
+import de.amr.games.pacman.controller.Replay;
+import de.amr.games.pacman.controller.ReplayPlayer;
+import de.amr.games.pacman.lib.RuleBasedSteering;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.GameVariant;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Command line entry point running games without display, as fast as the CPU allows, e.g. for soak tests and tuning
+ * on machines without JavaFX.
+ * <pre>
+ * --variant=PACMAN|MS_PACMAN             game variant (default: PACMAN)
+ * --level=&lt;n&gt;                            start level (default: 1)
+ * --steering=autopilot|demo|level-test|replay
+ *                                        how Pac-Man is steered (default: autopilot)
+ * --replay=&lt;file or directory&gt;           replays to play, implies steering "replay"
+ * --games=&lt;n&gt;                            number of games (default: 1)
+ * --seed=&lt;n&gt;                             seed of the first game, the games use consecutive seeds (default: 0)
+ * --frames=&lt;n&gt;                           frame limit per game (default: one hour of game time)
+ * --format=text|csv|json                 output format (default: text)
+ * --threads=&lt;n&gt;                          number of worker threads (default: number of processors)
+ * </pre>
+ * Steering "demo" plays the demo level (attract mode) where Pac-Man follows the demo route, "level-test" plays the
+ * level test mode. With steering "replay", each replay is one game, variant, seed and initial settings are taken from
+ * the replays. The results of the single games and the simulated frames per second are printed. The exit code is 1
+ * if a replay diverges, 2 on usage errors.
+ *
+ * @author Armin Reichert
+ */
+public class HeadlessRunner {
+
+	public enum PacSteering {
+		AUTOPILOT, DEMO, LEVEL_TEST, REPLAY
+	}
+
+	public enum Format {
+		TEXT, CSV, JSON
+	}
+
+	/**
+	 * Parsed command line options.
+	 */
+	public record Options(GameVariant variant, int startLevel, PacSteering steering, Path replay, int games, long seed,
+		long frames, Format format, int threads)
+	{
+		private static final Set<String> NAMES = Set.of("variant", "level", "steering", "replay", "games", "seed",
+			"frames", "format", "threads");
+
+		/**
+		 * @param args command line arguments of the form <code>--name=value</code>
+		 * @return parsed options
+		 * @throws IllegalArgumentException if an option is unknown or has an invalid value
+		 */
+		public static Options parse(String... args) {
+			checkNotNull(args);
+			Map<String, String> values = new HashMap<>();
+			for (var arg : args) {
+				int eq = arg.indexOf('=');
+				if (!arg.startsWith("--") || eq == -1 || !NAMES.contains(arg.substring(2, eq))) {
+					throw new IllegalArgumentException("Invalid option: " + arg);
+				}
+				values.put(arg.substring(2, eq), arg.substring(eq + 1));
+			}
+			var replay = values.containsKey("replay") ? Path.of(values.get("replay")) : null;
+			var steering = PacSteering.valueOf(values.getOrDefault("steering", replay != null ? "replay" : "autopilot")
+				.toUpperCase(Locale.ROOT).replace('-', '_'));
+			if ((steering == PacSteering.REPLAY) != (replay != null)) {
+				throw new IllegalArgumentException("Steering 'replay' requires option --replay and vice versa");
+			}
+			var options = new Options(
+				GameVariant.valueOf(values.getOrDefault("variant", "PACMAN").toUpperCase(Locale.ROOT)),
+				Integer.parseInt(values.getOrDefault("level", "1")),
+				steering,
+				replay,
+				Integer.parseInt(values.getOrDefault("games", "1")),
+				Long.parseLong(values.getOrDefault("seed", "0")),
+				Long.parseLong(values.getOrDefault("frames", String.valueOf(BatchConfig.DEFAULT_FRAME_BUDGET))),
+				Format.valueOf(values.getOrDefault("format", "text").toUpperCase(Locale.ROOT)),
+				Integer.parseInt(values.getOrDefault("threads",
+					String.valueOf(Runtime.getRuntime().availableProcessors()))));
+			if (options.games <= 0) {
+				throw new IllegalArgumentException("Number of games must be positive but is " + options.games);
+			}
+			// also validates the other values
+			options.batchConfig();
+			return options;
+		}
+
+		/**
+		 * @return configuration of the game batch (not used for replays)
+		 */
+		public BatchConfig batchConfig() {
+			var mode = switch (steering) {
+				case DEMO -> BatchConfig.Mode.DEMO_LEVEL;
+				case LEVEL_TEST -> BatchConfig.Mode.LEVEL_TEST;
+				default -> BatchConfig.Mode.PLAY;
+			};
+			return new BatchConfig(variant, startLevel, seed, seed + games - 1, frames, RuleBasedSteering::new, threads,
+				mode);
+		}
+	}
+
+	/**
+	 * Result of a single game or replay.
+	 *
+	 * @param name       name of the game: seed or replay file
+	 * @param game       game result
+	 * @param divergence tick where a replay diverged from the recorded state, -1 if it did not diverge or is no replay
+	 */
+	public record Run(String name, GameResult game, int divergence) {
+	}
+
+	/**
+	 * Plays a replay as fast as possible.
+	 *
+	 * @param name   name of the replay
+	 * @param replay replay
+	 * @param frames frame limit
+	 * @return result of the replayed game, the divergence is -1 if the frame limit was reached before
+	 */
+	public static Run playReplay(String name, Replay replay, long frames) {
+		checkNotNull(replay);
+		var session = new GameSession(replay.variant(), replay.seed());
+		session.game().setHighScoreFileEnabled(false);
+		var deaths = new int[1];
+		var gameOver = new boolean[1];
+		session.addStateChangeListener((oldState, newState) -> {
+			switch (newState) {
+				case PACMAN_DYING -> ++deaths[0];
+				case GAME_OVER -> gameOver[0] = true;
+				default -> {}
+			}
+		});
+		var player = new ReplayPlayer(session, replay);
+		long ticks = 0;
+		while (!player.isFinished() && ticks < frames) {
+			player.step();
+			++ticks;
+		}
+		var game = session.game();
+		int levelReached = game.level().map(GameLevel::number).orElse(1);
+		var result = new GameResult(replay.seed(), game.score().points(), levelReached, deaths[0], ticks, gameOver[0]);
+		return new Run(name, result, player.divergence());
+	}
+
+	private final Options options;
+
+	public HeadlessRunner(Options options) {
+		checkNotNull(options);
+		this.options = options;
+	}
+
+	/**
+	 * Runs the games and prints the results.
+	 *
+	 * @param out output of the results
+	 * @return exit code: 1 if a replay diverged, 0 otherwise
+	 * @throws IOException if a replay cannot be read
+	 */
+	public int run(PrintStream out) throws IOException {
+		checkNotNull(out);
+		long start = System.nanoTime();
+		List<Run> runs;
+		if (options.steering() == PacSteering.REPLAY) {
+			runs = playReplays();
+		} else {
+			runs = new BatchSimulator(options.batchConfig()).run().games().stream()
+				.map(game -> new Run(String.valueOf(game.seed()), game, -1))
+				.toList();
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		print(out, runs, elapsedNanos);
+		return runs.stream().anyMatch(run -> run.divergence() != -1) ? 1 : 0;
+	}
+
+	private List<Run> playReplays() throws IOException {
+		var files = ReplayVerifier.replayFiles(List.of(options.replay()));
+		var replays = new ArrayList<Replay>();
+		for (var file : files) {
+			replays.add(Replay.read(file));
+		}
+		var pool = new ForkJoinPool(options.threads());
+		try {
+			return pool.submit(() -> IntStream.range(0, files.size()).parallel()
+				.mapToObj(i -> playReplay(files.get(i).toString(), replays.get(i), options.frames()))
+				.toList()
+			).get();
+		} catch (InterruptedException x) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Replay playback interrupted", x);
+		} catch (ExecutionException x) {
+			throw new IllegalStateException("Replay playback failed", x.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private void print(PrintStream out, List<Run> runs, long elapsedNanos) {
+		long totalFrames = runs.stream().mapToLong(run -> run.game().frames()).sum();
+		double seconds = elapsedNanos / 1e9;
+		double framesPerSecond = elapsedNanos > 0 ? totalFrames / seconds : 0;
+		switch (options.format()) {
+			case TEXT -> {
+				for (var run : runs) {
+					out.println(run.name() + ": " + run.game()
+						+ (run.divergence() != -1 ? " DIVERGED at tick " + run.divergence() : ""));
+				}
+				out.printf(Locale.ROOT, "%d games, %d frames in %.2f seconds, %.0f frames/sec (%d threads)%n", runs.size(),
+					totalFrames, seconds, framesPerSecond, options.threads());
+			}
+			case CSV -> {
+				out.println("name,seed,score,level,deaths,frames,gameOver,divergence");
+				for (var run : runs) {
+					var game = run.game();
+					out.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%b,%d%n", run.name(), game.seed(), game.score(),
+						game.levelReached(), game.deaths(), game.frames(), game.gameOver(), run.divergence());
+				}
+			}
+			case JSON -> {
+				out.println("{");
+				out.println("  \"games\": [");
+				for (int i = 0; i < runs.size(); ++i) {
+					var run = runs.get(i);
+					var game = run.game();
+					out.printf(Locale.ROOT,
+						"    {\"name\": \"%s\", \"seed\": %d, \"score\": %d, \"level\": %d, \"deaths\": %d, \"frames\": %d, "
+							+ "\"gameOver\": %b, \"divergence\": %d}%s%n",
+						run.name().replace("\\", "\\\\").replace("\"", "\\\""), game.seed(), game.score(), game.levelReached(),
+						game.deaths(), game.frames(), game.gameOver(), run.divergence(), i < runs.size() - 1 ? "," : "");
+				}
+				out.println("  ],");
+				out.printf(Locale.ROOT, "  \"frames\": %d,%n  \"seconds\": %.3f,%n  \"framesPerSecond\": %.0f,%n"
+					+ "  \"threads\": %d%n", totalFrames, seconds, framesPerSecond, options.threads());
+				out.println("}");
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		Options options;
+		try {
+			options = Options.parse(args);
+		} catch (IllegalArgumentException x) {
+			System.err.println(x.getMessage());
+			System.err.println("Usage: [--variant=PACMAN|MS_PACMAN] [--level=<n>] "
+				+ "[--steering=autopilot|demo|level-test|replay] [--replay=<file or directory>] [--games=<n>] [--seed=<n>] "
+				+ "[--frames=<n>] [--format=text|csv|json] [--threads=<n>]");
+			System.exit(2);
+			return;
+		}
+		System.exit(new HeadlessRunner(options).run(System.out));
+	}
+}
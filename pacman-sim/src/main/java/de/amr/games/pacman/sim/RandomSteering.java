@@ -0,0 +1,48 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import de.amr.games.pacman.controller.Steering;
+import de.amr.games.pacman.lib.Direction;
+import de.amr.games.pacman.lib.SplitMixRandom;
+import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.model.actors.Creature;
+
+/**
+ * Steers Pac-Man like a player hitting random keys at random times. Uses its own random generator, so it does not
+ * change the random values drawn by the game. Used to record replays with many input changes.
+ *
+ * @author Armin Reichert
+ */
+public class RandomSteering extends Steering {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final SplitMixRandom rnd;
+	private final float changeProbability;
+
+	/**
+	 * @param seed              seed of the random generator
+	 * @param changeProbability probability of a direction change per tick
+	 */
+	public RandomSteering(long seed, float changeProbability) {
+		if (changeProbability < 0 || changeProbability > 1) {
+			throw new IllegalArgumentException("Invalid probability: " + changeProbability);
+		}
+		this.rnd = new SplitMixRandom(seed);
+		this.changeProbability = changeProbability;
+	}
+
+	public RandomSteering(long seed) {
+		this(seed, 0.05f);
+	}
+
+	@Override
+	public void steer(GameLevel level, Creature guy) {
+		if (rnd.nextFloat() < changeProbability) {
+			guy.setWishDir(DIRECTIONS[rnd.nextInt(DIRECTIONS.length)]);
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim;
+
+import de.amr.games.pacman.controller.*;
+import de.amr.games.pacman.model.GameVariant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static de.amr.games.pacman.lib.Globals.checkGameVariant;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Plays stored replays (see {@link Replay}) headlessly and checks that the current simulation still reaches the
+ * recorded states, e.g. to keep the replays of bug reports as a regression corpus.
+ * <p>
+ * The key frames split each replay into segments that are independent of each other. All segments of all replays
+ * are played in parallel, each in its own session, spread over the threads of a fork-join pool.
+ *
+ * @author Armin Reichert
+ */
+public class ReplayVerifier {
+
+	/** File name extension of replay files. */
+	public static final String EXTENSION = ".replay";
+
+	/**
+	 * Verification result of a replay.
+	 *
+	 * @param name       name of the replay, e.g. the file name
+	 * @param replay     replay
+	 * @param divergence first tick where the state differed from the recorded state, -1 if none
+	 */
+	public record Result(String name, Replay replay, int divergence) {
+
+		public boolean ok() {
+			return divergence == -1;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + (ok()
+				? "OK, " + replay.ticks() + " ticks match"
+				: "Diverges at tick " + divergence + " of " + replay.ticks());
+		}
+	}
+
+	private final int parallelism;
+
+	/**
+	 * @param parallelism number of worker threads
+	 */
+	public ReplayVerifier(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Parallelism must be positive but is " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	public ReplayVerifier() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Records a headless game with one credit. Intermissions are skipped between two ticks like the user interface
+	 * does when the intermission scene ends, so the recorded state changes are played back.
+	 *
+	 * @param variant  game variant
+	 * @param seed     seed of the session random generator
+	 * @param ticks    number of recorded ticks
+	 * @param steering manual steering of Pac-Man, its decisions are recorded
+	 * @return the replay
+	 */
+	public static Replay record(GameVariant variant, long seed, int ticks, Steering steering) {
+		checkGameVariant(variant);
+		checkNotNull(steering);
+		var session = new GameSession(variant, seed);
+		session.game().setHighScoreFileEnabled(false);
+		session.setCredit(1);
+		session.setManualSteering(steering);
+		session.restart(GameState.READY);
+		var recorder = new ReplayRecorder(session);
+		for (int tick = 0; tick < ticks; ++tick) {
+			if (session.state() == GameState.INTERMISSION) {
+				session.terminateCurrentState();
+			}
+			recorder.beforeTick();
+			session.update();
+			recorder.afterTick();
+		}
+		return recorder.stop();
+	}
+
+	private static GameSession createSession(Replay replay) {
+		var session = new GameSession(replay.variant(), replay.seed());
+		session.game().setHighScoreFileEnabled(false);
+		return session;
+	}
+
+	/**
+	 * Plays a segment of a replay in a new session.
+	 *
+	 * @param replay        replay
+	 * @param keyFrameIndex index of the key frame starting the segment
+	 * @return first tick of the segment where the state differed from the recorded state, -1 if none
+	 */
+	public static int verifySegment(Replay replay, int keyFrameIndex) {
+		return new ReplayPlayer(createSession(replay), replay).playSegment(keyFrameIndex);
+	}
+
+	/**
+	 * Verifies the given replays, the segments of all replays are played in parallel.
+	 *
+	 * @param names   names of the replays
+	 * @param replays replays
+	 * @return results in the order of the replays
+	 */
+	public List<Result> verify(List<String> names, List<Replay> replays) {
+		checkNotNull(names);
+		checkNotNull(replays);
+		if (names.size() != replays.size()) {
+			throw new IllegalArgumentException("Number of names and replays differ");
+		}
+		// flat list of (replay index, key frame index) pairs
+		var segments = new ArrayList<int[]>();
+		for (int i = 0; i < replays.size(); ++i) {
+			for (int k = 0; k < replays.get(i).keyFrames().size(); ++k) {
+				segments.add(new int[] { i, k });
+			}
+		}
+		var pool = new ForkJoinPool(parallelism);
+		try {
+			int[] divergences = pool.submit(() -> segments.parallelStream()
+				.mapToInt(segment -> verifySegment(replays.get(segment[0]), segment[1]))
+				.toArray()
+			).get();
+			var results = new ArrayList<Result>(replays.size());
+			int s = 0;
+			for (int i = 0; i < replays.size(); ++i) {
+				int divergence = -1;
+				// segments start at exact states, so the earliest diverging segment has the first divergence
+				for (int k = 0; k < replays.get(i).keyFrames().size(); ++k, ++s) {
+					if (divergence == -1) {
+						divergence = divergences[s];
+					}
+				}
+				results.add(new Result(names.get(i), replays.get(i), divergence));
+			}
+			return results;
+		} catch (InterruptedException x) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Replay verification interrupted", x);
+		} catch (ExecutionException x) {
+			throw new IllegalStateException("Replay verification failed", x.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @param paths replay files or directories, directories are searched for files with extension {@value #EXTENSION}
+	 * @return the replay files
+	 * @throws IOException if a directory cannot be searched
+	 */
+	public static List<Path> replayFiles(List<Path> paths) throws IOException {
+		checkNotNull(paths);
+		var files = new ArrayList<Path>();
+		for (var path : paths) {
+			if (Files.isDirectory(path)) {
+				try (Stream<Path> found = Files.walk(path)) {
+					found.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).sorted().forEach(files::add);
+				}
+			} else {
+				files.add(path);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Verifies the replay files.
+	 *
+	 * @param paths replay files or directories, see {@link #replayFiles(List)}
+	 * @return results in the order of the files
+	 * @throws IOException if a replay cannot be read
+	 */
+	public List<Result> verifyFiles(List<Path> paths) throws IOException {
+		var files = replayFiles(paths);
+		List<Replay> replays;
+		try {
+			replays = files.parallelStream().map(file -> {
+				try {
+					return Replay.read(file);
+				} catch (IOException x) {
+					throw new UncheckedIOException("Could not read replay " + file, x);
+				}
+			}).toList();
+		} catch (UncheckedIOException x) {
+			throw new IOException(x.getMessage(), x.getCause());
+		}
+		return verify(files.stream().map(Path::toString).toList(), replays);
+	}
+
+	// Command line
+
+	/**
+	 * Records or verifies replays.
+	 * <pre>
+	 * record &lt;file&gt; &lt;variant&gt; &lt;seed&gt; &lt;ticks&gt;
+	 * verify &lt;file or directory&gt;...
+	 * </pre>
+	 * Recorded games are played by a {@link RandomSteering} with the same seed as the game. The exit code is 1 if a
+	 * replay diverges, 2 on usage errors.
+	 *
+	 * @param args command line arguments
+	 * @throws IOException if a replay file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 5 && args[0].equals("record")) {
+			long seed = Long.parseLong(args[3]);
+			var replay = record(GameVariant.valueOf(args[2]), seed, Integer.parseInt(args[4]), new RandomSteering(seed));
+			replay.write(Path.of(args[1]));
+			System.out.println("Recorded " + replay + " to " + args[1]);
+		} else if (args.length >= 2 && args[0].equals("verify")) {
+			long start = System.nanoTime();
+			var results = new ReplayVerifier().verifyFiles(IntStream.range(1, args.length).mapToObj(i -> Path.of(args[i]))
+				.toList());
+			results.forEach(System.out::println);
+			long failed = results.stream().filter(result -> !result.ok()).count();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%d replays verified in %.1f seconds, %d diverged%n", results.size(), seconds, failed);
+			System.exit(failed > 0 ? 1 : 0);
+		} else {
+			System.err.println("Usage: record <file> <variant> <seed> <ticks>");
+			System.err.println("       verify <file or directory>...");
+			System.exit(2);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim.test;
+
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.sim.BatchConfig;
+import de.amr.games.pacman.sim.BatchSimulator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class BatchSimulatorTest {
+
+	@Test
+	public void testBatchRunsAllGames() {
+		var config = BatchConfig.autopilot(GameVariant.PACMAN, 8).withParallelism(4);
+		var result = new BatchSimulator(config).run();
+		assertEquals(8, result.numGames());
+		for (int i = 0; i < result.numGames(); ++i) {
+			var game = result.games().get(i);
+			assertEquals(i, game.seed());
+			assertTrue(game.frames() > 0);
+			assertTrue(game.score() > 0);
+			assertTrue(game.gameOver() || game.frames() == config.frameBudget());
+		}
+		assertTrue(result.totalFrames() > 0);
+	}
+
+	@Test
+	public void testFrameBudgetAndStartLevel() {
+		var config = BatchConfig.autopilot(GameVariant.MS_PACMAN, 2).withStartLevel(3).withFrameBudget(1000);
+		var result = new BatchSimulator(config).run();
+		for (var game : result.games()) {
+			assertFalse(game.gameOver());
+			assertEquals(1000, game.frames());
+			assertEquals(3, game.levelReached());
+		}
+	}
+
+	@Test
+	public void testSameSeedSameResult() {
+		var simulator = new BatchSimulator(BatchConfig.autopilot(GameVariant.MS_PACMAN, 1).withFrameBudget(20_000));
+		assertEquals(simulator.runGame(7), simulator.runGame(7));
+	}
+
+	@Test
+	public void testLevelTestMode() {
+		var config = BatchConfig.autopilot(GameVariant.PACMAN, 1).withMode(BatchConfig.Mode.LEVEL_TEST);
+		var game = new BatchSimulator(config).runGame(0);
+		assertTrue(game.gameOver());
+		assertEquals(0, game.deaths());
+		assertTrue(game.levelReached() > 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptySeedRange() {
+		new BatchConfig(GameVariant.PACMAN, 1, 10, 9, 100, BatchConfig.autopilot(GameVariant.PACMAN, 1).steeringFactory(), 1);
+	}
+}
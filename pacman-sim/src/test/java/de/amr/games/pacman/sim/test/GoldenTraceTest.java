@@ -0,0 +1,96 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim.test;
+
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.sim.GoldenTrace;
+import de.amr.games.pacman.sim.GoldenTrace.Scenario;
+import de.amr.games.pacman.sim.GoldenTrace.Script;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays the scripted games of the golden traces in <code>src/test/resources/golden</code> and checks that the
+ * simulation still produces the same state hashes. If a change of the game behavior is intended, record the traces
+ * again, e.g. <code>GoldenTrace record pacman-autopilot.trace PACMAN AUTOPILOT 42 12000 10</code>.
+ *
+ * @author Armin Reichert
+ */
+public class GoldenTraceTest {
+
+	private static GoldenTrace golden(String name) throws IOException {
+		var in = GoldenTraceTest.class.getResourceAsStream("/golden/" + name);
+		assertNotNull("Golden trace not found: " + name, in);
+		try (var reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			return GoldenTrace.read(reader);
+		}
+	}
+
+	private static void assertMatches(String name) throws IOException {
+		var golden = golden(name);
+		int frame = golden.verify();
+		assertEquals(name + ": " + GoldenTrace.describeDivergence(golden, frame), -1, frame);
+	}
+
+	@Test
+	public void testPacManAutopilot() throws IOException {
+		assertMatches("pacman-autopilot.trace");
+	}
+
+	@Test
+	public void testMsPacManAutopilot() throws IOException {
+		assertMatches("mspacman-autopilot.trace");
+	}
+
+	@Test
+	public void testPacManDemoLevel() throws IOException {
+		assertMatches("pacman-demo.trace");
+	}
+
+	@Test
+	public void testMsPacManLevelTest() throws IOException {
+		assertMatches("mspacman-leveltest.trace");
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		var trace = GoldenTrace.record(new Scenario(GameVariant.MS_PACMAN, Script.DEMO_LEVEL, 3, 500), 7);
+		var out = new StringWriter();
+		trace.write(out);
+		assertEquals(trace, GoldenTrace.read(new StringReader(out.toString())));
+	}
+
+	@Test
+	public void testDivergenceIsLocated() {
+		var scenario = new Scenario(GameVariant.PACMAN, Script.AUTOPILOT, 1, 3000);
+		var trace = GoldenTrace.record(scenario, 1);
+		assertEquals(-1, trace.firstDivergence(GoldenTrace.record(scenario, 1)));
+		var coarse = GoldenTrace.record(scenario, 100);
+		assertEquals(-1, trace.firstDivergence(coarse));
+
+		var modified = trace.hashes().clone();
+		modified[1233] ^= 1;
+		assertEquals(1234, trace.firstDivergence(new GoldenTrace(scenario, 1, modified)));
+		// the coarse trace only sees divergences at multiples of its interval
+		assertEquals(-1, coarse.firstDivergence(new GoldenTrace(scenario, 1, modified)));
+		modified[1299] ^= 1;
+		assertEquals(1300, coarse.firstDivergence(new GoldenTrace(scenario, 1, modified)));
+	}
+
+	@Test
+	public void testDifferentSeedsDiverge() {
+		var a = GoldenTrace.record(new Scenario(GameVariant.PACMAN, Script.AUTOPILOT, 1, 3000), 1).hashes();
+		var b = GoldenTrace.record(new Scenario(GameVariant.PACMAN, Script.AUTOPILOT, 2, 3000), 1).hashes();
+		assertFalse(Arrays.equals(a, b));
+	}
+}
@@ -0,0 +1,118 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim.test;
+
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.sim.BatchConfig;
+import de.amr.games.pacman.sim.HeadlessRunner;
+import de.amr.games.pacman.sim.HeadlessRunner.Format;
+import de.amr.games.pacman.sim.HeadlessRunner.Options;
+import de.amr.games.pacman.sim.HeadlessRunner.PacSteering;
+import de.amr.games.pacman.sim.RandomSteering;
+import de.amr.games.pacman.sim.ReplayVerifier;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class HeadlessRunnerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static String run(String... args) throws IOException {
+		var bytes = new ByteArrayOutputStream();
+		try (var out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+			assertEquals(0, new HeadlessRunner(Options.parse(args)).run(out));
+		}
+		return bytes.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testDefaultOptions() {
+		var options = Options.parse();
+		assertEquals(GameVariant.PACMAN, options.variant());
+		assertEquals(1, options.startLevel());
+		assertEquals(PacSteering.AUTOPILOT, options.steering());
+		assertEquals(1, options.games());
+		assertEquals(BatchConfig.DEFAULT_FRAME_BUDGET, options.frames());
+		assertEquals(Format.TEXT, options.format());
+	}
+
+	@Test
+	public void testOptions() {
+		var options = Options.parse("--variant=ms_pacman", "--level=3", "--games=10", "--seed=100", "--frames=500",
+			"--format=json", "--threads=2");
+		var config = options.batchConfig();
+		assertEquals(GameVariant.MS_PACMAN, config.variant());
+		assertEquals(3, config.startLevel());
+		assertEquals(100, config.firstSeed());
+		assertEquals(109, config.lastSeed());
+		assertEquals(500, config.frameBudget());
+		assertEquals(2, config.parallelism());
+		assertEquals(BatchConfig.Mode.PLAY, config.mode());
+		assertEquals(Format.JSON, options.format());
+		assertEquals(BatchConfig.Mode.LEVEL_TEST, Options.parse("--steering=level-test").batchConfig().mode());
+		assertEquals(PacSteering.REPLAY, Options.parse("--replay=games").steering());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownOptionIsRejected() {
+		Options.parse("--speed=fast");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReplaySteeringRequiresReplay() {
+		Options.parse("--steering=replay");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStartLevelOfDemoIsRejected() {
+		Options.parse("--steering=demo", "--level=2");
+	}
+
+	@Test
+	public void testCsvOutput() throws IOException {
+		var lines = run("--games=3", "--frames=1000", "--format=csv", "--threads=2").lines().toList();
+		assertEquals(4, lines.size());
+		assertEquals("name,seed,score,level,deaths,frames,gameOver,divergence", lines.get(0));
+		for (int i = 1; i < lines.size(); ++i) {
+			var fields = lines.get(i).split(",");
+			assertEquals(String.valueOf(i - 1), fields[1]);
+			assertEquals("1000", fields[5]);
+		}
+	}
+
+	@Test
+	public void testDemoLevel() throws IOException {
+		var output = run("--steering=demo", "--variant=MS_PACMAN", "--format=json");
+		assertTrue(output, output.contains("\"score\": 0"));
+		assertTrue(output, output.contains("\"gameOver\": true"));
+		assertTrue(output, output.contains("\"framesPerSecond\""));
+	}
+
+	@Test
+	public void testReplays() throws IOException {
+		var dir = folder.newFolder("replays").toPath();
+		for (int seed = 0; seed < 3; ++seed) {
+			ReplayVerifier.record(GameVariant.PACMAN, seed, 3000, new RandomSteering(seed))
+				.write(dir.resolve("game-" + seed + ReplayVerifier.EXTENSION));
+		}
+		var lines = run("--replay=" + dir).lines().toList();
+		assertEquals(4, lines.size());
+		assertTrue(lines.get(0), lines.get(0).contains("frames=3000"));
+		assertFalse(lines.get(0), lines.get(0).contains("DIVERGED"));
+		assertTrue(lines.get(3), lines.get(3).startsWith("3 games, 9000 frames"));
+	}
+}
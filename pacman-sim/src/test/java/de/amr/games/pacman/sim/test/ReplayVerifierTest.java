@@ -0,0 +1,62 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.sim.test;
+
+import de.amr.games.pacman.controller.Replay;
+import de.amr.games.pacman.model.GameVariant;
+import de.amr.games.pacman.sim.RandomSteering;
+import de.amr.games.pacman.sim.ReplayVerifier;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Armin Reichert
+ */
+public class ReplayVerifierTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Replay record(GameVariant variant, long seed, int ticks) {
+		return ReplayVerifier.record(variant, seed, ticks, new RandomSteering(seed));
+	}
+
+	@Test
+	public void testCorpusIsVerified() throws IOException {
+		var dir = folder.newFolder("corpus").toPath();
+		for (int seed = 0; seed < 8; ++seed) {
+			var variant = seed % 2 == 0 ? GameVariant.PACMAN : GameVariant.MS_PACMAN;
+			record(variant, seed, 10_000).write(dir.resolve("game-" + seed + ReplayVerifier.EXTENSION));
+		}
+		var results = new ReplayVerifier().verifyFiles(List.of(dir));
+		assertEquals(8, results.size());
+		for (var result : results) {
+			assertTrue(result.toString(), result.ok());
+			assertFalse(result.replay().inputs().isEmpty());
+		}
+	}
+
+	@Test
+	public void testDivergenceIsReported() {
+		var replay = record(GameVariant.PACMAN, 42, 5000);
+		var tampered = new Replay(replay.variant(), replay.seed(), replay.keyFrameInterval(), replay.ticks(),
+			replay.finalHash() + 1, replay.inputs(), replay.keyFrames());
+		var results = new ReplayVerifier(2).verify(List.of("original", "tampered"), List.of(replay, tampered));
+		assertTrue(results.get(0).ok());
+		assertEquals(tampered.ticks(), results.get(1).divergence());
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnreadableFileIsReported() throws IOException {
+		var file = folder.newFile("broken" + ReplayVerifier.EXTENSION).toPath();
+		new ReplayVerifier().verifyFiles(List.of(file));
+	}
+}
@@ -19,6 +19,18 @@ public interface ActionHandler {
 
     void doSimulationSteps(int numSteps);
 
+    /**
+     * Sets the game back by the given number of ticks, as far as the rewind buffer reaches.
+     *
+     * @param ticks number of ticks
+     */
+    void rewind(int ticks);
+
+    /**
+     * Starts recording a replay of the game or stops the recording and saves the replay.
+     */
+    void toggleRecording();
+
     void changeSimulationSpeed(int delta);
 
     void resetSimulationSpeed();
@@ -5,6 +5,7 @@ See file LICENSE in repository root directory for details.
 package de.amr.games.pacman.ui.fx;
 
 import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.GameVariant;
 import de.amr.games.pacman.ui.fx.input.Keyboard;
 import de.amr.games.pacman.ui.fx.input.KeyboardSteering;
@@ -56,7 +57,7 @@ public class GamePage extends CanvasContainer implements Page {
 		layersContainer.getChildren().addAll(popupLayer, flashMessageLayer);
 		layersContainer.setOnKeyPressed(e -> {
 			Keyboard.handleKeyEvent(e);
-			handleKeyboardInput();
+			sceneContext.gameClock().runExclusive(this::handleKeyboardInput);
 			Keyboard.clearState();
 		});
 
@@ -157,6 +158,10 @@ public class GamePage extends CanvasContainer implements Page {
 			actionHandler.doSimulationSteps(1);
 		} else if (Keyboard.pressed(KEY_TEN_STEPS)) {
 			actionHandler.doSimulationSteps(10);
+		} else if (Keyboard.pressed(KEY_REWIND)) {
+			actionHandler.rewind(GameModel.FPS);
+		} else if (Keyboard.pressed(KEY_RECORD)) {
+			actionHandler.toggleRecording();
 		} else if (Keyboard.pressed(KEY_SIMULATION_FASTER)) {
 			actionHandler.changeSimulationSpeed(5);
 		} else if (Keyboard.pressed(KEY_SIMULATION_SLOWER)) {
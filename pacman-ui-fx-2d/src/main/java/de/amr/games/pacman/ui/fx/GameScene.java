@@ -30,6 +30,17 @@ public interface GameScene extends GameEventListener {
 	 */
 	void update();
 
+	/**
+	 * When the simulation runs in its own thread, scenes that read only the game snapshot are updated without locking
+	 * the simulation. All other scenes (e.g. scripted scenes driving the game controller) are updated while the
+	 * simulation is locked.
+	 *
+	 * @return if {@link #update()} reads only the game snapshot and does not access the game model
+	 */
+	default boolean readsSnapshotOnly() {
+		return false;
+	}
+
 	/**
 	 * Called when the scene ends and gets replaced by another scene.
 	 */
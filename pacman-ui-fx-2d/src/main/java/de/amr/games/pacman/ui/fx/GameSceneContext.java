@@ -1,6 +1,7 @@
 package de.amr.games.pacman.ui.fx;
 
 import de.amr.games.pacman.controller.GameController;
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.controller.GameState;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
@@ -24,6 +25,11 @@ public interface GameSceneContext {
 
   GameClock gameClock();
 
+  /**
+   * @return snapshot of the game state taken after the last simulation tick, can be read without synchronization
+   */
+  GameSnapshot snapshot();
+
   ActionHandler actionHandler();
 
   ObjectProperty<GameScene> gameSceneProperty();
@@ -4,11 +4,17 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.controller.GameState;
+import de.amr.games.pacman.controller.Replay;
+import de.amr.games.pacman.controller.ReplayRecorder;
+import de.amr.games.pacman.controller.RewindBuffer;
+import de.amr.games.pacman.controller.SimulationRunner;
 import de.amr.games.pacman.event.GameEvent;
 import de.amr.games.pacman.event.GameEventListener;
 import de.amr.games.pacman.event.GameEventType;
 import de.amr.games.pacman.event.GameStateChangeEvent;
+import de.amr.games.pacman.lib.FrameProfiler;
 import de.amr.games.pacman.lib.Globals;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
@@ -21,6 +27,7 @@ import de.amr.games.pacman.ui.fx.util.GameClock;
 import de.amr.games.pacman.ui.fx.util.ResourceManager;
 import de.amr.games.pacman.ui.fx.util.SpriteSheet;
 import de.amr.games.pacman.ui.fx.util.Theme;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -35,7 +42,13 @@ import javafx.stage.Screen;
 import javafx.stage.Stage;
 import org.tinylog.Logger;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static de.amr.games.pacman.controller.GameState.INTRO;
 import static de.amr.games.pacman.lib.Globals.checkNotNull;
@@ -65,6 +78,7 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 	public static final KeyCodeCombination KEY_IMMUNITY          = alt(KeyCode.I);
 	public static final KeyCodeCombination KEY_CHEAT_ADD_LIVES   = alt(KeyCode.L);
 	public static final KeyCodeCombination KEY_CHEAT_NEXT_LEVEL  = alt(KeyCode.N);
+	public static final KeyCodeCombination KEY_REWIND            = alt(KeyCode.R);
 	public static final KeyCodeCombination KEY_TEST_LEVELS       = alt(KeyCode.T);
 	public static final KeyCodeCombination KEY_CHEAT_KILL_GHOSTS = alt(KeyCode.X);
 
@@ -77,6 +91,7 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 	public static final KeyCodeCombination[] KEYS_START_GAME     = { just(KeyCode.DIGIT1), just(KeyCode.NUMPAD1) };
 	public static final KeyCodeCombination[] KEYS_ADD_CREDIT     = { just(KeyCode.DIGIT5), just(KeyCode.NUMPAD5) };
 	public static final KeyCodeCombination KEY_BOOT              = just(KeyCode.F3);
+	public static final KeyCodeCombination KEY_RECORD            = just(KeyCode.F9);
 	public static final KeyCodeCombination KEY_FULLSCREEN        = just(KeyCode.F11);
 
 	public static final int CANVAS_WIDTH_UNSCALED  = ArcadeWorld.TILES_X * Globals.TS; // 28*8 = 224
@@ -197,6 +212,7 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 		Logger.info("Pac-Man games 2D theme loaded");
 	}
 
+	protected final SimulationRunner simulation;
 	protected final GameClock clock;
 	protected final Map<GameVariant, Map<String, GameScene>> gameScenesByVariant = new EnumMap<>(GameVariant.class);
 	protected final SoundHandler soundHandler;
@@ -205,6 +221,11 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 	protected final StartPage startPage;
 	protected final GamePage gamePage;
 	protected Page currentPage;
+	private final Queue<GameEvent> queuedGameEvents = new ConcurrentLinkedQueue<>();
+	private final FrameProfiler.Probe sceneUpdateProbe;
+	private final FrameProfiler.Probe renderProbe;
+	private long lastSceneUpdateTick;
+	private Replay startupReplay;
 	public final ObjectProperty<GameScene> gameScenePy = new SimpleObjectProperty<>(this, "gameScene");
 
 	public PacManGames2dUI(Stage stage, Settings settings) {
@@ -216,7 +237,23 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 		this.mainScene = createMainScene();
 		this.startPage = createStartPage();
 		this.gamePage = createGamePage(mainScene);
+		this.simulation = new SimulationRunner(gameController(), GameModel.FPS);
 		this.clock = createClock();
+		if (settings.simulationThread) {
+			clock.useSimulationThread(simulation);
+		}
+		if (settings.rewindSeconds > 0) {
+			simulation.setRewindBuffer(RewindBuffer.ofSeconds(settings.rewindSeconds));
+		}
+		if (settings.replay != null) {
+			startupReplay = loadReplay(Path.of(settings.replay));
+		}
+		var profiler = gameController().profiler();
+		this.sceneUpdateProbe = profiler.probe("Scene update");
+		this.renderProbe = profiler.probe("Render");
+		if (settings.profiler) {
+			profiler.setEnabled(true);
+		}
 
 		addGameScenes();
 		configurePacSteering();
@@ -259,13 +296,54 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 		clock.targetFrameratePy.set(GameModel.FPS);
 		clock.pausedPy.addListener((py, ov, nv) -> updateStage());
 		clock.setOnTick(() -> {
-			gameController().update();
-			currentGameScene().ifPresent(GameScene::update);
+			simulation.tick();
+			updateGameScene();
+		});
+		clock.setOnRender(() -> {
+			if (clock.isSimulationThreaded()) {
+				catchUpWithSimulationThread();
+			}
+			long start = renderProbe.start();
+			gamePage.render();
+			renderProbe.stop(start);
 		});
-		clock.setOnRender(gamePage::render);
 		return clock;
 	}
 
+	/*
+	 * Runs on the application thread: delivers the game events published since the last pulse while the simulation
+	 * thread waits and updates the game scene once if at least one tick has been simulated in the meantime. Scenes
+	 * reading only the snapshot are updated while the simulation thread keeps running, scripted scenes which drive the
+	 * game controller are updated while it waits.
+	 */
+	private void catchUpWithSimulationThread() {
+		simulation.runExclusive(this::dispatchQueuedGameEvents);
+		long tick = simulation.latestSnapshot().tick();
+		if (tick == lastSceneUpdateTick) {
+			return;
+		}
+		lastSceneUpdateTick = tick;
+		var gameScene = currentGameScene();
+		if (gameScene.isPresent() && gameScene.get().readsSnapshotOnly()) {
+			updateGameScene();
+		} else {
+			simulation.runExclusive(this::updateGameScene);
+		}
+	}
+
+	private void updateGameScene() {
+		long start = sceneUpdateProbe.start();
+		currentGameScene().ifPresent(GameScene::update);
+		sceneUpdateProbe.stop(start);
+	}
+
+	private void dispatchQueuedGameEvents() {
+		GameEvent event;
+		while ((event = queuedGameEvents.poll()) != null) {
+			dispatchGameEvent(event);
+		}
+	}
+
 	protected Scene createMainScene() {
 		double screenHeight = Screen.getPrimary().getBounds().getHeight();
 		double height = Math.min(screenHeight * 0.8, 800);
@@ -334,11 +412,30 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 	public void showGamePage() {
 		// call reboot() first such that current game scene is set
 		reboot();
+		if (startupReplay != null) {
+			simulation.startPlayback(startupReplay);
+			startupReplay = null;
+		}
 		setPage(gamePage);
 		clock.start();
 		Logger.info("Clock started, speed={} Hz", clock.targetFrameratePy.get());
 	}
 
+	private Replay loadReplay(Path path) {
+		try {
+			var replay = Replay.read(path);
+			if (replay.variant() != gameVariant()) {
+				Logger.error("Replay {} plays {}, start the application with this variant", path, replay.variant());
+				return null;
+			}
+			Logger.info("Replay {} loaded: {}", path, replay);
+			return replay;
+		} catch (IOException x) {
+			Logger.error(x, "Could not read replay {}", path);
+			return null;
+		}
+	}
+
 	protected void configurePacSteering() {
 		gameController().setManualSteering(new KeyboardSteering());
 	}
@@ -407,6 +504,11 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 		return clock;
 	}
 
+	@Override
+	public GameSnapshot snapshot() {
+		return simulation.latestSnapshot();
+	}
+
 	@Override
 	public ActionHandler actionHandler() {
 		return this;
@@ -449,6 +551,16 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 
 	@Override
 	public void onGameEvent(GameEvent e) {
+		if (!Platform.isFxApplicationThread()) {
+			// published by the simulation thread, delivered in a batch on the next pulse
+			queuedGameEvents.add(e);
+			return;
+		}
+		dispatchQueuedGameEvents();
+		dispatchGameEvent(e);
+	}
+
+	private void dispatchGameEvent(GameEvent e) {
 		Logger.trace("Handle game event: {}", e);
 		// call event specific hook method:
 		GameEventListener.super.onGameEvent(e);
@@ -571,6 +683,35 @@ public class PacManGames2dUI implements GameEventListener, GameSceneContext, Act
 		}
 	}
 
+	@Override
+	public void rewind(int ticks) {
+		int steps = simulation.rewind(ticks);
+		if (steps > 0) {
+			showFlashMessageSeconds(0.75, "-%d ticks", steps);
+		}
+	}
+
+	@Override
+	public void toggleRecording() {
+		if (!simulation.isRecording()) {
+			simulation.startRecording(ReplayRecorder.DEFAULT_KEY_FRAME_INTERVAL);
+			showFlashMessage("Recording replay");
+			return;
+		}
+		var replay = simulation.stopRecording();
+		var timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+		var file = new File(System.getProperty("user.home"),
+			"replay-" + replay.variant().name().toLowerCase() + "-" + timestamp + ".replay");
+		try {
+			replay.write(file.toPath());
+			Logger.info("Replay saved to {}: {}", file, replay);
+			showFlashMessage("Replay saved: %s", file.getName());
+		} catch (IOException x) {
+			Logger.error(x, "Could not save replay to {}", file);
+			showFlashMessage("Replay could not be saved");
+		}
+	}
+
 	@Override
 	public void changeSimulationSpeed(int delta) {
 		int newRate = clock.targetFrameratePy.get() + delta;
@@ -43,6 +43,10 @@ public class Settings {
 	public GameVariant variant;
 	public float zoom;
 	public Map<Direction, KeyCode> keyMap;
+	public boolean simulationThread;
+	public boolean profiler;
+	public int rewindSeconds;
+	public String replay;
 
 	public Settings() {
 		this(Collections.emptyMap());
@@ -53,6 +57,10 @@ public class Settings {
 		variant = GameVariant.PACMAN;
 		zoom = 2;
 		keyMap = keyMap("cursor");
+		simulationThread = false;
+		profiler = false;
+		rewindSeconds = 0;
+		replay = null;
 		merge(pm);
 	}
 
@@ -69,10 +77,23 @@ public class Settings {
 		if (pm.containsKey("keys")) {
 			keyMap = keyMap(pm.get("keys"));
 		}
+		if (pm.containsKey("simulationThread")) {
+			simulationThread = Boolean.valueOf(pm.get("simulationThread"));
+		}
+		if (pm.containsKey("profiler")) {
+			profiler = Boolean.valueOf(pm.get("profiler"));
+		}
+		if (pm.containsKey("rewindSeconds")) {
+			rewindSeconds = Integer.parseInt(pm.get("rewindSeconds"));
+		}
+		if (pm.containsKey("replay")) {
+			replay = pm.get("replay");
+		}
 	}
 
 	@Override
 	public String toString() {
-		return "Settings [fullScreen=" + fullScreen + ", variant=" + variant + ", zoom=" + zoom + "]";
+		return "Settings [fullScreen=" + fullScreen + ", variant=" + variant + ", zoom=" + zoom + ", simulationThread="
+			+ simulationThread + ", profiler=" + profiler + ", rewindSeconds=" + rewindSeconds + ", replay=" + replay + "]";
 	}
 }
\ No newline at end of file
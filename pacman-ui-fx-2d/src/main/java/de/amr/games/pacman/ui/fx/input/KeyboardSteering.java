@@ -28,7 +28,8 @@ import java.util.stream.Stream;
 public class KeyboardSteering extends Steering implements EventHandler<KeyEvent> {
 
 	protected Map<KeyCodeCombination, Direction> dirByCombination = new HashMap<>();
-	protected Direction dir;
+	// set by key events on the application thread, consumed by steer() on the simulation thread
+	protected volatile Direction dir;
 
 	/**
 	 * Default steering: unmodified cursor keys.
@@ -50,17 +51,19 @@ public class KeyboardSteering extends Steering implements EventHandler<KeyEvent>
 			event.consume();
 			return;
 		}
-		dir = computeDirection(event).orElse(null);
-		if (dir != null) {
+		var newDir = computeDirection(event).orElse(null);
+		if (newDir != null) {
+			dir = newDir;
 			event.consume();
 		}
 	}
 
 	@Override
 	public void steer(GameLevel level, Creature guy) {
-		if (dir != null) {
-			guy.setWishDir(dir);
+		var newDir = dir; // read once, the application thread may change it meanwhile
+		if (newDir != null) {
 			dir = null;
+			guy.setWishDir(newDir);
 		}
 	}
 
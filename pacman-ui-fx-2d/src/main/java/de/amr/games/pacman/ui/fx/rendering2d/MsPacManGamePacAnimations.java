@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.rendering2d;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.model.actors.Pac;
 import de.amr.games.pacman.ui.fx.util.SpriteAnimation;
@@ -68,4 +69,15 @@ public class MsPacManGamePacAnimations extends SpriteAnimations {
 		}
 		return currentAnimation != null ? currentAnimation.currentSprite() : null;
 	}
+
+	@Override
+	protected Rectangle2D[] sprites(GameSnapshot.Actor state) {
+		if (Pac.ANIM_MUNCHING.equals(state.animationName())) {
+			return spriteSheet.msPacManMunchingSprites(state.moveDir());
+		}
+		if (Pac.ANIM_HUSBAND_MUNCHING.equals(state.animationName())) {
+			return spriteSheet.pacManMunchingSprites(state.moveDir());
+		}
+		return super.sprites(state);
+	}
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.rendering2d;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.model.actors.Ghost;
 import de.amr.games.pacman.ui.fx.util.SpriteAnimation;
@@ -115,4 +116,13 @@ public class PacManGameGhostAnimations extends SpriteAnimations {
 		}
 		return currentAnimation != null ? currentAnimation.currentSprite() : null;
 	}
+
+	@Override
+	protected Rectangle2D[] sprites(GameSnapshot.Actor state) {
+		return switch (state.animationName()) {
+			case Ghost.ANIM_GHOST_NORMAL -> spriteSheet.ghostNormalSprites(ghost.id(), state.wishDir());
+			case Ghost.ANIM_GHOST_EYES -> spriteSheet.ghostEyesSprites(state.wishDir());
+			default -> super.sprites(state);
+		};
+	}
 }
\ No newline at end of file
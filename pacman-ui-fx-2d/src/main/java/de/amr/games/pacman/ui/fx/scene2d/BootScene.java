@@ -32,14 +32,16 @@ public class BootScene extends GameScene2D {
 
 	@Override
 	public void update() {
-		if (context.gameState().timer().atSecond(start + 3)) {
+		// the simulation might run on its own thread and be some ticks ahead
+		var timer = context.gameController().timer();
+		if (timer.tick() >= timer.secToTicks(start + 3)) {
 			context.gameController().terminateCurrentState();
 		}
 	}
 
 	@Override
 	public void draw() {
-		var timer = context.gameState().timer();
+		var timer = context.gameController().timer();
 		if (timer.tick() == 1) {
 			clearCanvas();
 		}
@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.scene2d;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.lib.Score;
 import de.amr.games.pacman.model.actors.*;
 import de.amr.games.pacman.model.world.ArcadeWorld;
@@ -27,6 +28,8 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import org.tinylog.Logger;
 
+import java.util.List;
+
 import static de.amr.games.pacman.lib.Globals.*;
 
 /**
@@ -111,9 +114,7 @@ public abstract class GameScene2D implements GameScene {
 			return;
 		}
 		if (isScoreVisible()) {
-			drawScore(context.game().score(), "SCORE", t(1), t(1));
-			drawScore(context.game().highScore(), "HIGH SCORE", t(14), t(1));
-
+			drawScores();
 		}
 		if (isCreditVisible()) {
 			drawCredit(context.gameController().credit(), t(2), t(36) - 1);
@@ -141,22 +142,35 @@ public abstract class GameScene2D implements GameScene {
 		g.fillRect(0, 0, g.getCanvas().getWidth(), g.getCanvas().getHeight());
 	}
 
+	protected void drawScores() {
+		drawScore(context.game().score(), "SCORE", t(1), t(1));
+		drawScore(context.game().highScore(), "HIGH SCORE", t(14), t(1));
+	}
+
 	protected void drawScore(Score score, String title, double x, double y) {
-		var pointsText = String.format("%02d", score.points());
+		drawScore(score.points(), score.levelNumber(), title, x, y);
+	}
+
+	protected void drawScore(int points, int levelNumber, String title, double x, double y) {
+		var pointsText = String.format("%02d", points);
 		var font = sceneFont(TS);
 		drawText(title, context.theme().color("palette.pale"), font, x, y);
 		drawText(String.format("%7s", pointsText), context.theme().color("palette.pale"),
 			font, x, y + TS + 1);
-		if (score.points() != 0) {
-			drawText("L" + score.levelNumber(), context.theme().color("palette.pale"),
+		if (points != 0) {
+			drawText("L" + levelNumber, context.theme().color("palette.pale"),
 				font,x + t(8),y + TS + 1);
 		}
 	}
 
 	protected void drawLevelCounter() {
+		drawLevelCounter(context.game().levelCounter());
+	}
+
+	protected void drawLevelCounter(List<Byte> symbols) {
 		double x = t(ArcadeWorld.TILES_X - 4);
 		double y = t( ArcadeWorld.TILES_Y - 2);
-		for (byte symbol : context.game().levelCounter()) {
+		for (byte symbol : symbols) {
 			var sprite = switch (context.gameVariant()) {
 				case MS_PACMAN -> context.<MsPacManGameSpriteSheet>spriteSheet().bonusSymbolSprite(symbol);
 				case PACMAN -> context.<PacManGameSpriteSheet>spriteSheet().bonusSymbolSprite(symbol);
@@ -258,6 +272,55 @@ public abstract class GameScene2D implements GameScene {
 		});
 	}
 
+	/**
+	 * Draws Pac-Man in the state captured by a snapshot, including the animation frame.
+	 *
+	 * @param state Pac-Man state from snapshot
+	 */
+	protected void drawPac(GameSnapshot.Actor state) {
+		if (!state.visible()) {
+			return;
+		}
+		if (state.animations() instanceof SpriteAnimations animations) {
+			drawSpriteInterpolated(animations.sprite(state), state.x(), state.y(), state.prevX(), state.prevY());
+			if (infoVisiblePy.get()) {
+				g.setFill(Color.WHITE);
+				g.setFont(Font.font("Monospaced", s(6)));
+				var text = state.animationName() + " " + state.animationFrame();
+				g.fillText(text, s(state.x() - 4), s(state.y() - 4));
+				// indicate wish direction
+				float r = 2;
+				double cx = state.x() + HTS, cy = state.y() + HTS;
+				var wishVector = state.wishDir().vector();
+				double ix = cx + wishVector.x() * 1.5 * TS, iy = cy + wishVector.y() * 1.5 * TS;
+				g.setStroke(Color.WHITE);
+				g.strokeLine(s(cx), s(cy), s(ix), s(iy));
+				g.setFill(Color.GREEN);
+				g.fillOval(s(ix - r), s(iy - r), s(2 * r), s(2 * r));
+			}
+		}
+	}
+
+	/**
+	 * Draws a ghost in the state captured by a snapshot, including the animation frame.
+	 *
+	 * @param state ghost state from snapshot
+	 */
+	protected void drawGhost(GameSnapshot.Actor state) {
+		if (!state.visible()) {
+			return;
+		}
+		if (state.animations() instanceof SpriteAnimations animations) {
+			drawSpriteInterpolated(animations.sprite(state), state.x(), state.y(), state.prevX(), state.prevY());
+			if (infoVisiblePy.get()) {
+				g.setFill(Color.WHITE);
+				g.setFont(Font.font("Monospaced", s(6)));
+				var text = state.animationName() + " " + state.animationFrame();
+				g.fillText(text, s(state.x() - 4), s(state.y() - 4));
+			}
+		}
+	}
+
 	/**
 	 * Draws a sprite using the current scene scaling.
 	 *
@@ -305,8 +368,32 @@ public abstract class GameScene2D implements GameScene {
 	 */
 	protected void drawEntitySprite(Entity entity, Rectangle2D sprite) {
 		if (entity.isVisible()) {
-			drawSpriteCenteredOverBox(sprite, entity.posX(), entity.posY());
+			drawSpriteInterpolated(sprite, entity.posX(), entity.posY(), entity.savedPosX(), entity.savedPosY());
+		}
+	}
+
+	/**
+	 * Draws the sprite over the bounding box at a position between the positions before and after the last tick,
+	 * depending on the interpolation value of the game clock.
+	 *
+	 * @param sprite the sprite, nothing is drawn if it is <code>null</code>
+	 * @param x      x coordinate of left-upper corner of bounding box after last tick
+	 * @param y      y coordinate of left-upper corner of bounding box after last tick
+	 * @param prevX  x coordinate of left-upper corner of bounding box before last tick
+	 * @param prevY  y coordinate of left-upper corner of bounding box before last tick
+	 */
+	protected void drawSpriteInterpolated(Rectangle2D sprite, double x, double y, double prevX, double prevY) {
+		if (sprite == null) {
+			return;
+		}
+		// interpolate between the position before and after the last tick, unless the entity teleported
+		double dx = x - prevX, dy = y - prevY;
+		if (Math.abs(dx) <= TS && Math.abs(dy) <= TS) {
+			double lag = 1 - context.gameClock().interpolationAlpha();
+			x -= lag * dx;
+			y -= lag * dy;
 		}
+		drawSpriteCenteredOverBox(sprite, x, y);
 	}
 
 	protected void drawCredit(int credit, double x, double y) {
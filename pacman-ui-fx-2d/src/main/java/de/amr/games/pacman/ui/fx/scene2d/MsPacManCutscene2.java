@@ -34,7 +34,7 @@ public class MsPacManCutscene2 extends GameScene2D {
 	public void init() {
 		var ss = context.<MsPacManGameSpriteSheet>spriteSheet();
 		setScoreVisible(true);
-		intermission = new MsPacManIntermission2();
+		intermission = new MsPacManIntermission2(context.gameController());
 		intermission.msPac.setAnimations(new MsPacManGamePacAnimations(intermission.msPac, ss));
 		intermission.pacMan.setAnimations(new MsPacManGamePacAnimations(intermission.pacMan, ss));
 		clapAnimation = new ClapperboardAnimation("2", "THE CHASE");
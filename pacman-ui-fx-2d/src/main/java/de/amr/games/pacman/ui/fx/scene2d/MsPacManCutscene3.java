@@ -39,7 +39,7 @@ public class MsPacManCutscene3 extends GameScene2D {
 	public void init() {
 		ss = context.spriteSheet();
 		setScoreVisible(true);
-		intermission = new MsPacManIntermission3();
+		intermission = new MsPacManIntermission3(context.gameController());
 		intermission.msPacMan.setAnimations(new MsPacManGamePacAnimations(intermission.msPacMan, ss));
 		intermission.pacMan.setAnimations(new MsPacManGamePacAnimations(intermission.pacMan, ss));
 		storkAnimation = ss.createStorkFlyingAnimation();
@@ -56,7 +56,7 @@ public class PacManCutscene1 extends GameScene2D {
 			return;
 		}
 
-		if (context.gameState().timer().hasExpired()) {
+		if (context.gameController().timer().hasExpired()) {
 			return;
 		}
 
@@ -89,7 +89,7 @@ public class PacManCutscene1 extends GameScene2D {
 				pac.selectAnimation(Pac.ANIM_BIG_PACMAN);
 				pac.startAnimation();
 			}
-			case 632 -> context.gameState().timer().expire();
+			case 632 -> context.gameController().timer().expire();
 			default -> {
 				pac.move();
 				blinky.move();
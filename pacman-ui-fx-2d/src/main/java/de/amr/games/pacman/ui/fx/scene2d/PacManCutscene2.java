@@ -65,7 +65,7 @@ public class PacManCutscene2 extends GameScene2D {
 			return;
 		}
 
-		if (context.gameState().timer().hasExpired()) {
+		if (context.gameController().timer().hasExpired()) {
 			return;
 		}
 
@@ -100,7 +100,7 @@ public class PacManCutscene2 extends GameScene2D {
 			case 389 ->	blinkyDamaged.nextFrame(); // Eyes right-down
 			case 508 -> {
 				blinky.setVisible(false);
-				context.gameState().timer().expire();
+				context.gameController().timer().expire();
 			}
 			default -> {}
 		}
@@ -67,7 +67,7 @@ public class PacManCutscene3 extends GameScene2D {
 			}
 			return;
 		}
-		if (context.gameState().timer().hasExpired()) {
+		if (context.gameController().timer().hasExpired()) {
 			return;
 		}
 		switch (++frame) {
@@ -77,7 +77,7 @@ public class PacManCutscene3 extends GameScene2D {
 				blinky.selectAnimation(Ghost.ANIM_BLINKY_NAKED);
 				blinky.startAnimation();
 			}
-			case 700 -> context.gameState().timer().expire();
+			case 700 -> context.gameController().timer().expire();
 			default -> {}
 		}
 		pac.move();
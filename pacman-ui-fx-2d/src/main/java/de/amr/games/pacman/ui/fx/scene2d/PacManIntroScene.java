@@ -37,7 +37,7 @@ public class PacManIntroScene extends GameScene2D {
 	@Override
 	public void init() {
 		setScoreVisible(true);
-		intro = new PacManIntro();
+		intro = new PacManIntro(context.gameController());
 		var ss = context.<PacManGameSpriteSheet>spriteSheet();
 		intro.pacMan.setAnimations(new PacManGamePacAnimations(intro.pacMan, ss));
 		intro.ghosts().forEach(ghost -> ghost.setAnimations(new PacManGameGhostAnimations(ghost, ss)));
@@ -65,7 +65,7 @@ public class PacManIntroScene extends GameScene2D {
 
 	@Override
 	public void drawSceneContent() {
-		var timer = intro.state().timer();
+		var timer = intro.timer();
 		drawGallery();
 		switch (intro.state()) {
 			case SHOWING_POINTS -> drawPoints();
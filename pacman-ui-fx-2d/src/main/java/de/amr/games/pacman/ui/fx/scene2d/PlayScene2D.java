@@ -4,38 +4,43 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.scene2d;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.controller.GameState;
 import de.amr.games.pacman.lib.Vector2i;
-import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.GameVariant;
-import de.amr.games.pacman.model.actors.Ghost;
+import de.amr.games.pacman.model.actors.Bonus;
+import de.amr.games.pacman.model.actors.GhostStateSet;
 import de.amr.games.pacman.model.world.ArcadeWorld;
-import de.amr.games.pacman.model.world.World;
 import de.amr.games.pacman.ui.fx.input.Keyboard;
 import de.amr.games.pacman.ui.fx.rendering2d.MsPacManGameSpriteSheet;
 import de.amr.games.pacman.ui.fx.rendering2d.PacManGameSpriteSheet;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
-import java.util.stream.Stream;
-
 import static de.amr.games.pacman.lib.Globals.*;
-import static de.amr.games.pacman.model.actors.GhostState.ENTERING_HOUSE;
-import static de.amr.games.pacman.model.actors.GhostState.RETURNING_TO_HOUSE;
 import static de.amr.games.pacman.ui.fx.PacManGames2dUI.*;
 
 /**
  * 2D play scene.
+ * <p>
+ * The scene content is drawn from the latest game snapshot: actor positions and animation frames, eaten food, scores
+ * and counters. The actor animations are only used to look up the sprites of the captured frames. Only the scene info
+ * (drawn if the info layer is visible) reads the tiles blocked for ghosts from the live game level.
  *
  * @author Armin Reichert
  */
 public class PlayScene2D extends GameScene2D {
 
+	private static final byte[] GHOST_DRAWING_ORDER = {
+		GameModel.ORANGE_GHOST, GameModel.CYAN_GHOST, GameModel.PINK_GHOST, GameModel.RED_GHOST };
+
 	@Override
 	public boolean isCreditVisible() {
-		return !context.gameController().hasCredit() || context.gameState() == GameState.GAME_OVER;
+		var snapshot = context.snapshot();
+		return snapshot.credit() == 0 || snapshot.state() == GameState.GAME_OVER;
 	}
 
 	@Override
@@ -43,9 +48,17 @@ public class PlayScene2D extends GameScene2D {
 		setScoreVisible(true);
 	}
 
+	@Override
+	public boolean readsSnapshotOnly() {
+		return true;
+	}
+
 	@Override
 	public void update() {
-		context.gameLevel().ifPresent(this::updateSound);
+		var snapshot = context.snapshot();
+		if (snapshot.hasLevel()) {
+			updateSound(snapshot);
+		}
 	}
 
 	@Override
@@ -65,41 +78,78 @@ public class PlayScene2D extends GameScene2D {
 		}
 	}
 
+	@Override
+	protected void drawScores() {
+		var snapshot = context.snapshot();
+		drawScore(snapshot.scorePoints(), snapshot.scoreLevelNumber(), "SCORE", t(1), t(1));
+		drawScore(snapshot.highScorePoints(), snapshot.highScoreLevelNumber(), "HIGH SCORE", t(14), t(1));
+	}
+
 	@Override
 	protected void drawSceneContent() {
-		context.gameLevel().ifPresent(level -> {
-			if (context.gameVariant() == GameVariant.MS_PACMAN) {
-				drawMsPacManMaze(level.world(), context.game().mazeNumber(level.number()));
-			} else {
-				drawPacManMaze(level.world());
-			}
-			if (context.gameState() == GameState.LEVEL_TEST) {
-				drawText(String.format("TEST    L%d", level.number()),
-					context.theme().color("palette.yellow"), sceneFont(8), t(8.5), t(21));
-			} else if (context.gameState() == GameState.GAME_OVER || !context.gameController().hasCredit()) {
-				// text "GAME OVER" is also drawn on demo mode screen
-				drawText("GAME  OVER", context.theme().color("palette.red"), sceneFont(8), t(9), t(21));
-			} else if (context.gameState() == GameState.READY) {
-				drawText("READY!", context.theme().color("palette.yellow"), sceneFont(8), t(11), t(21));
+		var snapshot = context.snapshot();
+		if (!snapshot.hasLevel()) {
+			return;
+		}
+		if (context.gameVariant() == GameVariant.MS_PACMAN) {
+			drawMsPacManMaze(context.game().mazeNumber(snapshot.levelNumber()), snapshot);
+		} else {
+			drawPacManMaze(snapshot);
+		}
+		if (snapshot.state() == GameState.LEVEL_TEST) {
+			drawText(String.format("TEST    L%d", snapshot.levelNumber()),
+				context.theme().color("palette.yellow"), sceneFont(8), t(8.5), t(21));
+		} else if (snapshot.state() == GameState.GAME_OVER || snapshot.credit() == 0) {
+			// text "GAME OVER" is also drawn on demo mode screen
+			drawText("GAME  OVER", context.theme().color("palette.red"), sceneFont(8), t(9), t(21));
+		} else if (snapshot.state() == GameState.READY) {
+			drawText("READY!", context.theme().color("palette.yellow"), sceneFont(8), t(11), t(21));
+		}
+		if (snapshot.bonus() != null) {
+			drawBonus(snapshot.bonus());
+		}
+		drawPac(snapshot.pac());
+		for (byte id : GHOST_DRAWING_ORDER) {
+			drawGhost(snapshot.ghost(id));
+		}
+		if (!isCreditVisible()) {
+			boolean hideOne = snapshot.pac().visible() || snapshot.state() == GameState.GHOST_DYING;
+			int lives = hideOne ? snapshot.lives() - 1 : snapshot.lives();
+			drawLivesCounter(lives);
+		}
+		drawLevelCounter(snapshot.levelCounter());
+	}
+
+	private void drawBonus(GameSnapshot.BonusInfo bonus) {
+		Rectangle2D sprite = null;
+		switch (context.gameVariant()) {
+			case MS_PACMAN -> {
+				var ss = context.<MsPacManGameSpriteSheet>spriteSheet();
+				if (bonus.state() == Bonus.STATE_EDIBLE) {
+					sprite = ss.bonusSymbolSprite(bonus.symbol());
+				} else if (bonus.state() == Bonus.STATE_EATEN) {
+					sprite = ss.bonusValueSprite(bonus.symbol());
+				}
 			}
-			level.bonus().ifPresent(this::drawBonus);
-			drawPac(level.pac());
-			Stream.of(GameModel.ORANGE_GHOST, GameModel.CYAN_GHOST, GameModel.PINK_GHOST, GameModel.RED_GHOST)
-					.map(level::ghost).forEach(this::drawGhost);
-			if (!isCreditVisible()) {
-				boolean hideOne = level.pac().isVisible() || context.gameState() == GameState.GHOST_DYING;
-				int lives = hideOne ? context.game().lives() - 1 : context.game().lives();
-				drawLivesCounter(lives);
+			case PACMAN -> {
+				var ss = context.<PacManGameSpriteSheet>spriteSheet();
+				if (bonus.state() == Bonus.STATE_EDIBLE) {
+					sprite = ss.bonusSymbolSprite(bonus.symbol());
+				} else if (bonus.state() == Bonus.STATE_EATEN) {
+					sprite = ss.bonusValueSprite(bonus.symbol());
+				}
 			}
-			drawLevelCounter();
-		});
+		}
+		if (sprite != null) {
+			drawSpriteCenteredOverBox(sprite, bonus.x(), bonus.y() + bonus.jumpOffset());
+		}
 	}
 
-	private void drawPacManMaze(World world) {
+	private void drawPacManMaze(GameSnapshot snapshot) {
 		PacManGameSpriteSheet sheet = context.spriteSheet();
 		double x = 0, y = t(3);
-		if (world.mazeFlashing().isRunning()) {
-			if (world.mazeFlashing().on()) {
+		if (snapshot.isMazeFlashing()) {
+			if (snapshot.isMazeFlashingOn()) {
 				var flashingMaze = sheet.getFlashingMazeImage();
 				g.drawImage(flashingMaze, s(x), s(y), s(flashingMaze.getWidth()), s(flashingMaze.getHeight()));
 			} else {
@@ -107,18 +157,15 @@ public class PlayScene2D extends GameScene2D {
 			}
 		} else {
 			drawSprite(sheet.getFullMazeSprite(), x, y);
-			world.tiles().filter(world::hasEatenFoodAt).forEach(tile -> hideTileContent(world, tile));
-			if (world.energizerBlinking().off()) {
-				world.energizerTiles().forEach(tile -> hideTileContent(world, tile));
-			}
+			hideEatenFood(snapshot);
 		}
 	}
 
-	private void drawMsPacManMaze(World world, int mazeNumber) {
+	private void drawMsPacManMaze(int mazeNumber, GameSnapshot snapshot) {
 		MsPacManGameSpriteSheet sheet = context.spriteSheet();
 		double x = 0, y = t(3);
-		if (world.mazeFlashing().isRunning()) {
-			if (world.mazeFlashing().on()) {
+		if (snapshot.isMazeFlashing()) {
+			if (snapshot.isMazeFlashingOn()) {
 				var flashingMazeSprite = sheet.highlightedMaze(mazeNumber);
 				drawSprite(sheet.getFlashingMazesImage(), flashingMazeSprite, x - 3 /* don't tell your mommy */, y);
 			} else {
@@ -127,17 +174,21 @@ public class PlayScene2D extends GameScene2D {
 		} else {
 			// draw filled maze and hide eaten food (including energizers)
 			drawSprite(sheet.filledMaze(mazeNumber), x, y);
-			world.tiles().filter(world::hasEatenFoodAt).forEach(tile -> hideTileContent(world, tile));
-			// energizer animation
-			if (world.energizerBlinking().off()) {
-				world.energizerTiles().forEach(tile -> hideTileContent(world, tile));
-			}
+			hideEatenFood(snapshot);
+		}
+	}
+
+	private void hideEatenFood(GameSnapshot snapshot) {
+		snapshot.eatenFoodTiles().forEach(tile -> hideTileContent(snapshot, tile));
+		// energizer animation
+		if (!snapshot.isEnergizersOn()) {
+			snapshot.energizerTiles().forEach(tile -> hideTileContent(snapshot, tile));
 		}
 	}
 
-	private void hideTileContent(World world, Vector2i tile) {
+	private void hideTileContent(GameSnapshot snapshot, Vector2i tile) {
 		g.setFill(context.theme().color("canvas.background"));
-		double r = world.isEnergizerTile(tile) ? 4.5 : 2;
+		double r = snapshot.isEnergizerTile(tile) ? 4.5 : 2;
 		double cx = t(tile.x()) + HTS;
 		double cy = t(tile.y()) + HTS ;
 		g.fillRect(s(cx-r), s(cy-r), s(2*r), s(2*r));
@@ -155,7 +206,8 @@ public class PlayScene2D extends GameScene2D {
 		}));
 		g.setFill(Color.YELLOW);
 		g.setFont(Font.font("Sans", FontWeight.BOLD, 24));
-		g.fillText(String.format("%s %d",	context.gameState(), context.gameState().timer().tick()),	0, 80);
+		var snapshot = context.snapshot();
+		g.fillText(String.format("%s %d",	snapshot.state(), snapshot.stateTick()),	0, 80);
 	}
 
 	@Override
@@ -167,14 +219,14 @@ public class PlayScene2D extends GameScene2D {
 		});
 	}
 
-	private void updateSound(GameLevel level) {
-		if (level.isDemoLevel()) {
+	private void updateSound(GameSnapshot snapshot) {
+		if (snapshot.isDemoLevel()) {
 			return;
 		}
-		if (level.pac().starvingTicks() > 8) { // TODO not sure
+		if (snapshot.pacStarvingTicks() > 8) { // TODO not sure
 			context.clip("audio.pacman_munch").stop();
 		}
-		if (!level.thisFrame().pacKilled && level.ghosts(RETURNING_TO_HOUSE, ENTERING_HOUSE).anyMatch(Ghost::isVisible)) {
+		if (!snapshot.isPacKilled() && snapshot.countVisibleGhosts(GhostStateSet.RETURNING_OR_ENTERING) > 0) {
 			context.soundHandler().ensureLoopEndless(context.clip("audio.ghost_returning"));
 		} else {
 			context.clip("audio.ghost_returning").stop();
@@ -4,24 +4,37 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.util;
 
-import javafx.animation.Animation;
-import javafx.animation.Animation.Status;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import de.amr.games.pacman.controller.SimulationRunner;
+import javafx.animation.AnimationTimer;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.util.Duration;
 import org.tinylog.Logger;
 
 /**
- * Game clock with modifiable frame rate.
- * 
+ * Game clock with fixed simulation time step and modifiable simulation rate.
+ * <p>
+ * The clock is driven by an {@link AnimationTimer}, i.e. by the JavaFX pulse which runs at display refresh rate. On
+ * each pulse, the elapsed time is added to an accumulator and as many simulation ticks as fit into the accumulated
+ * time are executed, but at most {@link #MAX_TICKS_PER_PULSE}. Time exceeding that limit (e.g. after the window was
+ * blocked) is dropped instead of making the simulation race to catch up. After the ticks, the render phase is executed
+ * once. The fraction of a tick that remains in the accumulator is available as {@link #interpolationAlpha()} so the
+ * renderer can draw moving objects between their last two simulated positions, which gives smooth motion on displays
+ * with a refresh rate different from the simulation rate.
+ * <p>
+ * Optionally, the ticks are executed by the thread of a {@link SimulationRunner} (see {@link #useSimulationThread}).
+ * The clock then only executes the render phase on each pulse, the tick hook is not used. Rate and pause state of the
+ * clock are forwarded to the simulation thread and the interpolation value is derived from the age of the latest
+ * snapshot.
+ *
  * @author Armin Reichert
  */
 public class GameClock {
 
+	/** Maximum number of simulation ticks executed on a single pulse. */
+	public static final int MAX_TICKS_PER_PULSE = 4;
+
 	private static void snooze() {
 		// rest
 	}
@@ -29,22 +42,45 @@ public class GameClock {
 	public final IntegerProperty targetFrameratePy = new SimpleIntegerProperty(this, "targetFramerate", 60) {
 		@Override
 		protected void invalidated() {
-			updateClock();
+			updateTickDuration();
+		}
+	};
+	public final BooleanProperty pausedPy = new SimpleBooleanProperty(this, "paused", false) {
+		@Override
+		protected void invalidated() {
+			if (simulationThread != null) {
+				simulationThread.setPaused(get());
+			}
 		}
 	};
-	public final BooleanProperty pausedPy = new SimpleBooleanProperty(this, "paused", false);
 	public final BooleanProperty timeMeasuredPy = new SimpleBooleanProperty(this, "timeMeasured", false);
 
+	private final AnimationTimer pulseTimer = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			onPulse(now);
+		}
+	};
+
 	private Runnable onTick = GameClock::snooze;
 	private Runnable onRender = GameClock::snooze;
-	private Timeline timeline;
+	private SimulationRunner simulationThread;
+	private boolean running;
+	private long tickDurationNanos;
+	private long lastPulseTime = -1;
+	private long accumulatedNanos;
+	private double interpolationAlpha = 1;
 	private long updateCount;
+	private long droppedTicks;
+	private long caughtUpTicks;
 	private long ticksPerSec;
+	private long rendersPerSec;
 	private long countTicksStartTime;
 	private long ticks;
+	private long renders;
 
 	public GameClock() {
-		createTimeline();
+		updateTickDuration();
 	}
 
 	public void setOnTick(Runnable onTick) {
@@ -55,46 +91,107 @@ public class GameClock {
 		this.onRender = onRender;
 	}
 
-	private void createTimeline() {
-		int targetFPS = targetFrameratePy.get();
-		var tick = new KeyFrame(Duration.seconds(1.0 / targetFPS), e -> executeSingleStep(!isPaused()));
-		timeline = new Timeline(targetFPS, tick);
-		timeline.setCycleCount(Animation.INDEFINITE);
+	/**
+	 * Lets the thread of the given runner execute the simulation ticks. Must be called before the clock is started.
+	 *
+	 * @param runner simulation runner
+	 */
+	public void useSimulationThread(SimulationRunner runner) {
+		if (running) {
+			throw new IllegalStateException("Simulation thread cannot be set while clock is running");
+		}
+		simulationThread = runner;
+		if (runner != null) {
+			runner.setTicksPerSecond(Math.max(1, targetFrameratePy.get()));
+			runner.setPaused(isPaused());
+		}
 	}
 
-	private void updateClock() {
-		boolean running = timeline.getStatus() == Status.RUNNING;
-		if (running) {
-			timeline.stop();
+	/** @return if the simulation ticks are executed on a separate thread */
+	public boolean isSimulationThreaded() {
+		return simulationThread != null;
+	}
+
+	/**
+	 * Runs the given action such that it does not overlap with a simulation tick. Code on the application thread that
+	 * modifies the game model must use this method when the simulation runs on a separate thread.
+	 *
+	 * @param action action
+	 */
+	public void runExclusive(Runnable action) {
+		if (simulationThread != null) {
+			simulationThread.runExclusive(action);
+		} else {
+			action.run();
 		}
-		createTimeline();
-		if (running) {
-			start();
+	}
+
+	private void updateTickDuration() {
+		// only the step size changes, the running clock keeps its accumulated time
+		tickDurationNanos = 1_000_000_000L / Math.max(1, targetFrameratePy.get());
+		if (simulationThread != null) {
+			simulationThread.setTicksPerSecond(Math.max(1, targetFrameratePy.get()));
 		}
 	}
 
 	public void start() {
-		timeline.play();
+		lastPulseTime = -1;
+		accumulatedNanos = 0;
+		if (simulationThread != null) {
+			simulationThread.startThread();
+		}
+		pulseTimer.start();
+		running = true;
 	}
 
 	public void stop() {
-		timeline.stop();
+		pulseTimer.stop();
+		if (simulationThread != null) {
+			simulationThread.stopThread();
+		}
+		running = false;
 	}
 
 	public boolean isRunning() {
-		return timeline.getStatus() == Status.RUNNING;
+		return running;
 	}
 
 	public boolean isPaused() {
 		return pausedPy.get();
 	}
 
+	/** @return number of simulation ticks executed so far */
 	public long getUpdateCount() {
-		return updateCount;
+		return simulationThread != null ? simulationThread.latestSnapshot().tick() : updateCount;
 	}
 
+	/** @return number of simulation ticks during the last second */
 	public long getFPS() {
-		return ticksPerSec;
+		return simulationThread != null ? simulationThread.ticksPerSecond() : ticksPerSec;
+	}
+
+	/** @return number of rendered frames during the last second */
+	public long getRenderFPS() {
+		return rendersPerSec;
+	}
+
+	/** @return number of simulation ticks skipped because a pulse came too late to execute them all */
+	public long getDroppedTicks() {
+		return simulationThread != null ? simulationThread.droppedTicks() : droppedTicks;
+	}
+
+	/** @return number of additional simulation ticks executed on pulses to catch up with the simulation rate */
+	public long getCaughtUpTicks() {
+		return caughtUpTicks;
+	}
+
+	/**
+	 * @return fraction <code>[0, 1]</code> of a simulation tick elapsed since the last tick. Renderers may use it to
+	 *         interpolate between the previous and the current simulation state. When the clock is paused or stepped
+	 *         manually, the value is 1 (draw the current state).
+	 */
+	public double interpolationAlpha() {
+		return interpolationAlpha;
 	}
 
 	public void setTimeMeasured(boolean measured) {
@@ -108,14 +205,69 @@ public class GameClock {
 	}
 
 	public void executeSingleStep(boolean updateEnabled) {
-		long tickTime = System.nanoTime();
+		if (simulationThread != null) {
+			// the simulation thread executes the steps, the result is rendered on the next pulses
+			if (updateEnabled) {
+				simulationThread.requestSteps(1);
+			}
+			return;
+		}
 		if (updateEnabled) {
-			runPhase(onTick, "Update phase: {} milliseconds");
-			updateCount++;
+			tick();
 		}
-		runPhase(onRender, "Render phase: {} milliseconds");
+		interpolationAlpha = 1;
+		render();
+	}
+
+	private void onPulse(long now) {
+		if (lastPulseTime == -1) {
+			lastPulseTime = now;
+		}
+		long elapsed = now - lastPulseTime;
+		lastPulseTime = now;
+		if (simulationThread != null) {
+			if (isPaused()) {
+				interpolationAlpha = 1;
+			} else {
+				long age = now - simulationThread.latestSnapshot().timeNanos();
+				interpolationAlpha = Math.max(0, Math.min(1, (double) age / simulationThread.tickDurationNanos()));
+			}
+			render();
+		} else if (isPaused()) {
+			accumulatedNanos = 0;
+			interpolationAlpha = 1;
+			render();
+		} else {
+			accumulatedNanos += elapsed;
+			int numTicks = 0;
+			while (accumulatedNanos >= tickDurationNanos && numTicks < MAX_TICKS_PER_PULSE) {
+				tick();
+				accumulatedNanos -= tickDurationNanos;
+				++numTicks;
+			}
+			if (numTicks > 1) {
+				caughtUpTicks += numTicks - 1;
+			}
+			if (accumulatedNanos >= tickDurationNanos) {
+				long numDropped = accumulatedNanos / tickDurationNanos;
+				droppedTicks += numDropped;
+				accumulatedNanos -= numDropped * tickDurationNanos;
+			}
+			interpolationAlpha = (double) accumulatedNanos / tickDurationNanos;
+			render();
+		}
+		computeFrameRates(now);
+	}
+
+	private void tick() {
+		runPhase(onTick, "Update phase: {} milliseconds");
+		++updateCount;
 		++ticks;
-		computeFrameRate(tickTime);
+	}
+
+	private void render() {
+		runPhase(onRender, "Render phase: {} milliseconds");
+		++renders;
 	}
 
 	private void runPhase(Runnable phase, String logMessage) {
@@ -129,11 +281,13 @@ public class GameClock {
 		}
 	}
 
-	private void computeFrameRate(long time) {
+	private void computeFrameRates(long time) {
 		if (time - countTicksStartTime > 1e9) {
 			ticksPerSec = ticks;
+			rendersPerSec = renders;
 			ticks = 0;
+			renders = 0;
 			countTicksStartTime = time;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -72,7 +72,8 @@ public class SpriteAnimation {
 	private int frameTicks = 1;
 	private int fps = 60;
 	private Transition transition;
-	private int frameIndex;
+	// advanced on the application thread, read by the simulation thread when it takes a game snapshot
+	private volatile int frameIndex;
 
 	public void setSprites(Rectangle2D[] sprites) {
 		this.sprites = sprites;
@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.util;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.model.actors.Animations;
 import javafx.geometry.Rectangle2D;
 import org.tinylog.Logger;
@@ -15,10 +16,17 @@ public abstract class SpriteAnimations implements Animations {
 
 	protected String currentAnimationName;
 
+	@Override
 	public String currentAnimationName() {
 		return currentAnimationName;
 	}
 
+	@Override
+	public int currentFrameIndex() {
+		var currentAnimation = currentAnimationName != null ? currentAnimation() : null;
+		return currentAnimation != null ? currentAnimation.frameIndex() : 0;
+	}
+
 	@Override
 	public SpriteAnimation currentAnimation() {
 		return animation(currentAnimationName);
@@ -28,6 +36,35 @@ public abstract class SpriteAnimations implements Animations {
 
 	public abstract SpriteAnimation animation(String name);
 
+	/**
+	 * Returns the sprite of an actor in the state captured by a game snapshot. Animation, frame and direction are taken
+	 * from the snapshot, the live actor and the state of the animations are neither read nor modified. So this can be
+	 * called while the simulation keeps running.
+	 *
+	 * @param state actor state from a game snapshot
+	 * @return sprite of the captured animation frame or <code>null</code> if no animation was selected
+	 */
+	public Rectangle2D sprite(GameSnapshot.Actor state) {
+		if (state.animationName() == null) {
+			return null;
+		}
+		var sprites = sprites(state);
+		if (sprites == null || sprites.length == 0) {
+			return null;
+		}
+		return sprites[Math.min(state.animationFrame(), sprites.length - 1)];
+	}
+
+	/**
+	 * @param state actor state from a game snapshot, the animation name is not <code>null</code>
+	 * @return sprites of the animation selected in the snapshot, subclasses provide the sprites of direction-dependent
+	 * animations for the captured direction
+	 */
+	protected Rectangle2D[] sprites(GameSnapshot.Actor state) {
+		var animation = animation(state.animationName());
+		return animation != null ? animation.getSprites() : null;
+	}
+
 	@Override
 	public void select(String name, int index) {
 		if (!name.equals(currentAnimationName)) {
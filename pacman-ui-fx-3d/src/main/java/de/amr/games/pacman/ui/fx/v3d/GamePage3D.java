@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d;
 
+import de.amr.games.pacman.lib.FrameProfiler;
 import de.amr.games.pacman.ui.fx.GamePage;
 import de.amr.games.pacman.ui.fx.GameScene;
 import de.amr.games.pacman.ui.fx.GameSceneContext;
@@ -38,10 +39,16 @@ public class GamePage3D extends GamePage {
 	private final Pane dashboard;
 	private final GamePageContextMenu contextMenu;
 	private final List<InfoBox> infoBoxes = new ArrayList<>();
+	private final FrameProfiler.Probe dashboardProbe;
+	private final FrameProfiler.Probe pipProbe;
 
 	public GamePage3D(Scene parentScene, GameSceneContext sceneContext, double width, double height) {
 		super(sceneContext, width, height);
 
+		var profiler = sceneContext.gameController().profiler();
+		dashboardProbe = profiler.probe("Dashboard");
+		pipProbe = profiler.probe("PiP");
+
 		pip = createPictureInPicture();
 		contextMenu = createContextMenu(parentScene);
 		dashboard = createDashboard();
@@ -93,6 +100,7 @@ public class GamePage3D extends GamePage {
 		infoBoxes.add(new InfoBox3D(sceneContext.theme(), sceneContext.tt("infobox.3D_settings.title")));
 		infoBoxes.add(new InfoBoxGameInfo(sceneContext.theme(), sceneContext.tt("infobox.game_info.title")));
 		infoBoxes.add(new InfoBoxGhostsInfo(sceneContext.theme(), sceneContext.tt("infobox.ghosts_info.title")));
+		infoBoxes.add(new InfoBoxProfiler(sceneContext.theme(), sceneContext.tt("infobox.profiler.title")));
 		infoBoxes.add(new InfoBoxKeys(sceneContext.theme(), sceneContext.tt("infobox.keyboard_shortcuts.title")));
 		infoBoxes.add(new InfoBoxAbout(sceneContext.theme(), sceneContext.tt("infobox.about.title")));
 		infoBoxes.forEach(infoBox -> {
@@ -151,9 +159,13 @@ public class GamePage3D extends GamePage {
 	public void render() {
 		super.render();
 		contextMenu.updateState();
+		long start = dashboardProbe.start();
 		infoBoxes.forEach(InfoBox::update);
+		dashboardProbe.stop(start);
+		start = pipProbe.start();
 		pip.canvas().setVisible(PY_PIP_ON.get() && isCurrentGameScene3D());
 		pip.draw();
+		pipProbe.stop(start);
 	}
 
 	@Override
@@ -38,11 +38,11 @@ public class GamePageContextMenu extends ContextMenu {
 		getItems().add(createTitleItem(sceneContext.tt("scene_display")));
 		if (gameScene instanceof PlayScene2D) {
 			var item = new MenuItem(sceneContext.tt("use_3D_scene"));
-			item.setOnAction(e -> actionHandler.toggle2D3D());
+			item.setOnAction(e -> sceneContext.gameClock().runExclusive(actionHandler::toggle2D3D));
 			getItems().add(item);
 		} else if (gameScene instanceof PlayScene3D) {
 			var item = new MenuItem(sceneContext.tt("use_2D_scene"));
-			item.setOnAction(e -> actionHandler.toggle2D3D());
+			item.setOnAction(e -> sceneContext.gameClock().runExclusive(actionHandler::toggle2D3D));
 			getItems().add(item);
 			pipItem = new CheckMenuItem(sceneContext.tt("pip"));
 			pipItem.setOnAction(e -> actionHandler.togglePipVisible());
@@ -66,10 +66,10 @@ public class GamePageContextMenu extends ContextMenu {
 
 		getItems().add(createTitleItem(sceneContext.tt("pacman")));
 		autopilotItem = new CheckMenuItem(sceneContext.tt("autopilot"));
-		autopilotItem.setOnAction(e -> actionHandler.toggleAutopilot());
+		autopilotItem.setOnAction(e -> sceneContext.gameClock().runExclusive(actionHandler::toggleAutopilot));
 		getItems().add(autopilotItem);
 		immunityItem = new CheckMenuItem(sceneContext.tt("immunity"));
-		immunityItem.setOnAction(e -> actionHandler.toggleImmunity());
+		immunityItem.setOnAction(e -> sceneContext.gameClock().runExclusive(actionHandler::toggleImmunity));
 		getItems().add(immunityItem);
 	}
 
@@ -14,6 +14,7 @@ import de.amr.games.pacman.ui.fx.input.KeyboardSteering;
 import de.amr.games.pacman.ui.fx.util.Picker;
 import de.amr.games.pacman.ui.fx.util.ResourceManager;
 import de.amr.games.pacman.ui.fx.util.Ufx;
+import de.amr.games.pacman.ui.fx.v3d.entity.PelletDetail;
 import de.amr.games.pacman.ui.fx.v3d.model.Model3D;
 import de.amr.games.pacman.ui.fx.v3d.scene3d.Perspective;
 import de.amr.games.pacman.ui.fx.v3d.scene3d.PlayScene3D;
@@ -74,6 +75,7 @@ public class PacManGames3dUI extends PacManGames2dUI implements ActionHandler3D
 	public static final ObjectProperty<Color> PY_3D_LIGHT_COLOR       = new SimpleObjectProperty<>(Color.GHOSTWHITE);
 	public static final BooleanProperty PY_3D_NIGHT_MODE              = new SimpleBooleanProperty(false);
 	public static final BooleanProperty PY_3D_PAC_LIGHT_ENABLED       = new SimpleBooleanProperty(true);
+	public static final ObjectProperty<PelletDetail> PY_3D_PELLET_DETAIL = new SimpleObjectProperty<>(PelletDetail.LOW_POLY);
 	public static final ObjectProperty<Perspective> PY_3D_PERSPECTIVE = new SimpleObjectProperty<>(Perspective.NEAR_PLAYER);
 	public static final DoubleProperty  PY_3D_WALL_HEIGHT             = new SimpleDoubleProperty(1.75);
 	public static final DoubleProperty  PY_3D_WALL_THICKNESS          = new SimpleDoubleProperty(1.25);
@@ -96,9 +98,13 @@ public class PacManGames3dUI extends PacManGames2dUI implements ActionHandler3D
 	static {
 		ResourceManager rm = () -> PacManGames3dUI.class;
 
-		THEME.set("model3D.pacman", new Model3D(rm.url("model3D/pacman.obj")));
-		THEME.set("model3D.ghost",  new Model3D(rm.url("model3D/ghost.obj")));
-		THEME.set("model3D.pellet", new Model3D(rm.url("model3D/12206_Fruit_v1_L3.obj")));
+		var models = Model3D.loadInParallel(
+			rm.url("model3D/pacman.obj"),
+			rm.url("model3D/ghost.obj"),
+			rm.url("model3D/12206_Fruit_v1_L3.obj"));
+		THEME.set("model3D.pacman", models.get(0));
+		THEME.set("model3D.ghost",  models.get(1));
+		THEME.set("model3D.pellet", models.get(2));
 
 		THEME.set("model3D.wallpaper", rm.imageBackground("graphics/sea-wallpaper.jpg",
 			BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
@@ -26,10 +26,9 @@ package de.amr.games.pacman.ui.fx.v3d.animation;
 
 import de.amr.games.pacman.lib.Vector2f;
 import de.amr.games.pacman.model.world.ArcadeWorld;
-import de.amr.games.pacman.ui.fx.v3d.entity.Pellet3D;
+import de.amr.games.pacman.ui.fx.v3d.entity.Pellets3D;
 import javafx.animation.Interpolator;
 import javafx.animation.Transition;
-import javafx.scene.Group;
 import javafx.util.Duration;
 
 import static de.amr.games.pacman.lib.Globals.TS;
@@ -42,10 +41,18 @@ public class FoodOscillation extends Transition {
 
 	private static final Vector2f CENTER = v2f(0.5f * TS * ArcadeWorld.TILES_X, 0.5f * TS * ArcadeWorld.TILES_Y);
 
-	private final Group foodGroup;
+	private final Pellets3D pellets3D;
+	private final float[] amplitudes;
 
-	public FoodOscillation(Group foodGroup) {
-		this.foodGroup = foodGroup;
+	public FoodOscillation(Pellets3D pellets3D) {
+		this.pellets3D = pellets3D;
+		var pellets = pellets3D.pellets();
+		amplitudes = new float[pellets.size()];
+		for (var pellet3D : pellets) {
+			var position2D = new Vector2f((float) pellet3D.position().getX(), (float) pellet3D.position().getY());
+			var centerDistance = position2D.euclideanDistance(CENTER);
+			amplitudes[pellet3D.index()] = (float) (2 * Math.sin(2 * centerDistance));
+		}
 		setCycleDuration(Duration.seconds(0.6));
 		setCycleCount(INDEFINITE);
 		setAutoReverse(true);
@@ -54,13 +61,9 @@ public class FoodOscillation extends Transition {
 
 	@Override
 	protected void interpolate(double t) {
-		for (var node : foodGroup.getChildren()) {
-			if (node.getUserData() instanceof Pellet3D pellet3D) {
-				var position2D = new Vector2f((float) pellet3D.position().getX(), (float) pellet3D.position().getY());
-				var centerDistance = position2D.euclideanDistance(CENTER);
-				double dz = 2 * Math.sin(2 * centerDistance) * t;
-				node.setTranslateZ(-4 + dz);
-			}
+		for (int i = 0; i < amplitudes.length; ++i) {
+			pellets3D.setElevation(i, (float) (-4 + amplitudes[i] * t));
 		}
+		pellets3D.updatePoints();
 	}
 }
\ No newline at end of file
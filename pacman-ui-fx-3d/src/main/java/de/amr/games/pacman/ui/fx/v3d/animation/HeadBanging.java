@@ -4,7 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.animation;
 
-import de.amr.games.pacman.model.actors.Pac;
+import de.amr.games.pacman.lib.Direction;
 import javafx.animation.Animation;
 import javafx.animation.Interpolator;
 import javafx.animation.RotateTransition;
@@ -21,11 +21,9 @@ public class HeadBanging implements WalkingAnimation {
 	private static final short DEFAULT_ANGLE_TO = 15;
 	private static final Duration DEFAULT_DURATION = Duration.seconds(0.25);
 
-	private final Pac pac;
 	private final RotateTransition animation;
 
-	public HeadBanging(Pac pac, Node node) {
-		this.pac = pac;
+	public HeadBanging(Node node) {
 		animation = new RotateTransition(DEFAULT_DURATION, node);
 		animation.setAxis(Rotate.X_AXIS);
 		animation.setCycleCount(Animation.INDEFINITE);
@@ -50,13 +48,8 @@ public class HeadBanging implements WalkingAnimation {
 	}
 
 	@Override
-	public void play() {
-		if (pac.isStandingStill()) {
-			stop();
-			animation.getNode().setRotate(0);
-			return;
-		}
-		var axis = pac.moveDir().isVertical() ? Rotate.X_AXIS : Rotate.Y_AXIS;
+	public void play(Direction moveDir) {
+		var axis = moveDir.isVertical() ? Rotate.X_AXIS : Rotate.Y_AXIS;
 		if (!axis.equals(animation.getAxis())) {
 			animation.stop();
 			animation.setAxis(axis);
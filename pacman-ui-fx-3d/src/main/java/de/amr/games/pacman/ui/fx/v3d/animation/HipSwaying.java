@@ -4,7 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.animation;
 
-import de.amr.games.pacman.model.actors.Pac;
+import de.amr.games.pacman.lib.Direction;
 import javafx.animation.Animation;
 import javafx.animation.Interpolator;
 import javafx.animation.RotateTransition;
@@ -21,11 +21,9 @@ public class HipSwaying implements WalkingAnimation {
 	private static final short DEFAULT_ANGLE_TO = 20;
 	private static final Duration DEFAULT_DURATION = Duration.seconds(0.4);
 
-	private final Pac pac;
 	private final RotateTransition animation;
 
-	public HipSwaying(Pac pac, Node node) {
-		this.pac = pac;
+	public HipSwaying(Node node) {
 		animation = new RotateTransition(DEFAULT_DURATION, node);
 		animation.setAxis(Rotate.Z_AXIS);
 		animation.setCycleCount(Animation.INDEFINITE);
@@ -50,12 +48,7 @@ public class HipSwaying implements WalkingAnimation {
 	}
 
 	@Override
-	public void play() {
-		if (pac.isStandingStill()) {
-			stop();
-			animation.getNode().setRotate(0);
-			return;
-		}
+	public void play(Direction moveDir) {
 		animation.play();
 	}
 
@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.animation;
 
+import de.amr.games.pacman.lib.Direction;
 import javafx.animation.Animation;
 
 /**
@@ -11,7 +12,12 @@ import javafx.animation.Animation;
  */
 public interface WalkingAnimation {
 
-	void play();
+	/**
+	 * Plays the animation of a moving Pac-Man.
+	 *
+	 * @param moveDir move direction
+	 */
+	void play(Direction moveDir);
 
 	void stop();
 
@@ -95,6 +95,16 @@ public abstract class InfoBox {
 		return (ActionHandler3D) sceneContext.actionHandler();
 	}
 
+	/**
+	 * Runs an action changing the game model. If the simulation runs in its own thread, the action waits until the
+	 * current tick has been completed.
+	 *
+	 * @param action action changing the game model
+	 */
+	protected void runExclusive(Runnable action) {
+		sceneContext.gameClock().runExclusive(action);
+	}
+
 	protected boolean isCurrentGameScene3D() {
 		return sceneContext.currentGameScene().isPresent()
 			&& sceneContext.currentGameScene().get() instanceof PlayScene3D;
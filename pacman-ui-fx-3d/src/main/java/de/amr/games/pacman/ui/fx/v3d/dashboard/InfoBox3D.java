@@ -6,6 +6,7 @@ package de.amr.games.pacman.ui.fx.v3d.dashboard;
 
 import de.amr.games.pacman.ui.fx.GameSceneContext;
 import de.amr.games.pacman.ui.fx.util.Theme;
+import de.amr.games.pacman.ui.fx.v3d.entity.PelletDetail;
 import de.amr.games.pacman.ui.fx.v3d.scene3d.Perspective;
 import de.amr.games.pacman.ui.fx.v3d.scene3d.PlayScene3D;
 import javafx.scene.control.CheckBox;
@@ -36,6 +37,7 @@ public class InfoBox3D extends InfoBox {
 	private final CheckBox cbEnergizerExplodes;
 	private final Slider sliderWallHeight;
 	private final Slider sliderWallThickness;
+	private final ComboBox<PelletDetail> comboPelletDetail;
 	private final CheckBox cbPacLighted;
 	private final CheckBox cbNightMode;
 	private final CheckBox cbAxesVisible;
@@ -54,6 +56,7 @@ public class InfoBox3D extends InfoBox {
 		sliderPiPOpacity     = addSlider("PiP Opacity", 0.0, 1.0, PY_PIP_OPACITY.get());
 		sliderWallHeight     = addSlider("Wall Height", 0.1, 8.5, PY_3D_WALL_HEIGHT.get());
 		sliderWallThickness  = addSlider("Wall Thickness", 0.1, 2.0, PY_3D_WALL_THICKNESS.get());
+		comboPelletDetail    = addComboBox("Pellet Detail", PelletDetail.values());
 		cbEnergizerExplodes  = addCheckBox("Energizer Explosion");
 		cbNightMode          = addCheckBox("Night Mode");
 		cbPacLighted         = addCheckBox("Pac-Man Lighted");
@@ -81,6 +84,7 @@ public class InfoBox3D extends InfoBox {
 		sliderWallThickness  .valueProperty().bindBidirectional(PY_3D_WALL_THICKNESS);
 
 		comboPerspectives    .setOnAction(e -> PY_3D_PERSPECTIVE.set(comboPerspectives.getValue()));
+		comboPelletDetail    .setOnAction(e -> PY_3D_PELLET_DETAIL.set(comboPelletDetail.getValue()));
 		cbEnergizerExplodes  .setOnAction(e -> toggle(PY_3D_ENERGIZER_EXPLODES));
 		cbNightMode          .setOnAction(e -> toggle(PY_3D_NIGHT_MODE));
 		cbPacLighted         .setOnAction(e -> toggle(PY_3D_PAC_LIGHT_ENABLED));
@@ -94,6 +98,7 @@ public class InfoBox3D extends InfoBox {
 		comboFloorTexture     .setValue(PY_3D_FLOOR_TEXTURE.get());
 		cbFloorTextureRandom  .setSelected(PY_3D_FLOOR_TEXTURE_RND.get());
 		comboPerspectives     .setValue(PY_3D_PERSPECTIVE.get());
+		comboPelletDetail     .setValue(PY_3D_PELLET_DETAIL.get());
 		cbEnergizerExplodes   .setSelected(PY_3D_ENERGIZER_EXPLODES.get());
 		cbNightMode           .setSelected(PY_3D_NIGHT_MODE.get());
 		cbPacLighted          .setSelected(PY_3D_PAC_LIGHT_ENABLED.get());
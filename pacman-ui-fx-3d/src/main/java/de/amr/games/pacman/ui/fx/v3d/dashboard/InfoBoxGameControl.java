@@ -53,25 +53,26 @@ public class InfoBoxGameControl extends InfoBox {
 	@Override
 	public void init(GameSceneContext sceneContext) {
 		super.init(sceneContext);
-		comboGameVariant.setOnAction(e -> {
+		comboGameVariant.setOnAction(e -> runExclusive(() -> {
 			var selectedVariant = comboGameVariant.getValue();
 			if (selectedVariant != sceneContext.game().variant()) {
 				sceneContext.gameController().newGame(selectedVariant);
 				sceneContext.gameController().restart(GameState.BOOT);
 			}
-		});
-		buttonsIntermissionTest[INTERMISSION_TEST_START].setOnAction(e -> actionHandler().startCutscenesTest());
-		buttonsIntermissionTest[INTERMISSION_TEST_QUIT].setOnAction(e -> actionHandler().restartIntro());
-		comboInitialLives.setOnAction(e -> sceneContext.game().setInitialLives((comboInitialLives.getValue().shortValue())));
-		buttonsGameLevel[GAME_LEVEL_START].setOnAction(e -> sceneContext.gameController().startPlaying());
-		buttonsGameLevel[GAME_LEVEL_QUIT].setOnAction(e -> actionHandler().restartIntro());
-		buttonsGameLevel[GAME_LEVEL_NEXT].setOnAction(e -> sceneContext.actionHandler().cheatEnterNextLevel());
-		spinnerGameLevel.valueProperty().addListener((py, ov, nv) -> actionHandler().enterLevel(nv));
+		}));
+		buttonsIntermissionTest[INTERMISSION_TEST_START].setOnAction(e -> runExclusive(actionHandler()::startCutscenesTest));
+		buttonsIntermissionTest[INTERMISSION_TEST_QUIT].setOnAction(e -> runExclusive(actionHandler()::restartIntro));
+		comboInitialLives.setOnAction(e -> runExclusive(
+			() -> sceneContext.game().setInitialLives(comboInitialLives.getValue().shortValue())));
+		buttonsGameLevel[GAME_LEVEL_START].setOnAction(e -> runExclusive(sceneContext.gameController()::startPlaying));
+		buttonsGameLevel[GAME_LEVEL_QUIT].setOnAction(e -> runExclusive(actionHandler()::restartIntro));
+		buttonsGameLevel[GAME_LEVEL_NEXT].setOnAction(e -> runExclusive(sceneContext.actionHandler()::cheatEnterNextLevel));
+		spinnerGameLevel.valueProperty().addListener((py, ov, nv) -> runExclusive(() -> actionHandler().enterLevel(nv)));
 		spinnerGameLevel.getValueFactory().setValue(sceneContext.gameLevel().isPresent() ? sceneContext.gameLevel().get().number() : 1);
-		spinnerGameCredit.valueProperty().addListener((py, ov, nv) -> sceneContext.gameController().setCredit(nv));
+		spinnerGameCredit.valueProperty().addListener((py, ov, nv) -> runExclusive(() -> sceneContext.gameController().setCredit(nv)));
 		spinnerGameCredit.getValueFactory().setValue(sceneContext.gameController().credit());
-		cbAutopilot.setOnAction(e -> actionHandler().toggleAutopilot());
-		cbImmunity.setOnAction(e -> actionHandler().toggleImmunity());
+		cbAutopilot.setOnAction(e -> runExclusive(actionHandler()::toggleAutopilot));
+		cbImmunity.setOnAction(e -> runExclusive(actionHandler()::toggleImmunity));
 	}
 
 	@Override
@@ -67,6 +67,9 @@ public class InfoBoxGeneral extends InfoBox {
 		addInfo("", () -> String.format("Target %dHz Actual %dHz",
 			sceneContext.gameClock().targetFrameratePy.get(), sceneContext.gameClock().getFPS()));
 		addInfo("Total Updates", () -> sceneContext.gameClock().getUpdateCount());
+		addInfo("Rendering", () -> String.format("%dHz", sceneContext.gameClock().getRenderFPS()));
+		addInfo("Ticks dropped/caught up", () -> String.format("%d/%d",
+			sceneContext.gameClock().getDroppedTicks(), sceneContext.gameClock().getCaughtUpTicks()));
 
 		cbUsePlayScene3D = addCheckBox("3D Play Scene");
 		cbPoliticallyCorrect = addCheckBox("Woke Pussy Mode");
@@ -81,7 +84,7 @@ public class InfoBoxGeneral extends InfoBox {
 		buttonsSimulation[1].setOnAction(e -> sceneContext.gameClock().executeSteps(PacManGames3dUI.PY_SIMULATION_STEPS.get(), true));
 		sliderTargetFPS.valueProperty().addListener(
 			(py, ov, nv) -> sceneContext.gameClock().targetFrameratePy.set(nv.intValue()));
-		cbUsePlayScene3D.setOnAction(e -> actionHandler().toggle2D3D());
+		cbUsePlayScene3D.setOnAction(e -> runExclusive(actionHandler()::toggle2D3D));
 		cbPoliticallyCorrect.setOnAction(e -> Ufx.toggle(PacManGames3dUI.PY_WOKE_PUSSY));
 		cbDebugUI.setOnAction(e -> Ufx.toggle(PY_SHOW_DEBUG_INFO));
 		cbTimeMeasured.setOnAction(e -> Ufx.toggle(sceneContext.gameClock().timeMeasuredPy));
@@ -0,0 +1,72 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.ui.fx.v3d.dashboard;
+
+import de.amr.games.pacman.lib.FrameProfiler;
+import de.amr.games.pacman.ui.fx.GameSceneContext;
+import de.amr.games.pacman.ui.fx.util.Theme;
+import javafx.scene.control.CheckBox;
+
+import java.util.List;
+
+/**
+ * Frame profiler: duration percentiles of the frame phases measured in the last interval.
+ *
+ * @author Armin Reichert
+ */
+public class InfoBoxProfiler extends InfoBox {
+
+	private final CheckBox cbEnabled;
+	private final CheckBox cbLogging;
+	private List<FrameProfiler.Summary> displayedSummaries;
+	private String phasesText = InfoText.NO_INFO;
+
+	public InfoBoxProfiler(Theme theme, String title) {
+		super(theme, title);
+		cbEnabled = addCheckBox("Enabled");
+		cbLogging = addCheckBox("Log Summary");
+		addInfo("Interval", () -> String.format("%d frames", profiler().reportIntervalFrames()));
+		addInfo("p50 / p99 / max", this::phasesText);
+	}
+
+	@Override
+	public void init(GameSceneContext sceneContext) {
+		super.init(sceneContext);
+		cbEnabled.setOnAction(e -> profiler().setEnabled(cbEnabled.isSelected()));
+		cbLogging.setOnAction(e -> profiler().setLogging(cbLogging.isSelected()));
+	}
+
+	@Override
+	public void update() {
+		super.update();
+		cbEnabled.setSelected(profiler().isEnabled());
+		cbLogging.setSelected(profiler().isLogging());
+	}
+
+	private FrameProfiler profiler() {
+		return sceneContext.gameController().profiler();
+	}
+
+	private String phasesText() {
+		if (!profiler().isEnabled()) {
+			return InfoText.NO_INFO;
+		}
+		// the summaries change once per interval, so the text is only built then
+		var summaries = profiler().summaries();
+		if (summaries != displayedSummaries) {
+			var sb = new StringBuilder();
+			for (var summary : summaries) {
+				if (!sb.isEmpty()) {
+					sb.append('\n');
+				}
+				sb.append(String.format("%-16s %6.3f %6.3f %7.3f ms", summary.phase(),
+					summary.p50() / 1e6, summary.p99() / 1e6, summary.max() / 1e6));
+			}
+			phasesText = sb.isEmpty() ? InfoText.NO_INFO : sb.toString();
+			displayedSummaries = summaries;
+		}
+		return phasesText;
+	}
+}
@@ -4,12 +4,11 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.entity;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.lib.Vector2f;
-import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.actors.Bonus;
 import de.amr.games.pacman.model.actors.MovingBonus;
-import de.amr.games.pacman.model.world.World;
 import javafx.animation.Animation;
 import javafx.animation.Interpolator;
 import javafx.animation.RotateTransition;
@@ -32,6 +31,7 @@ import static de.amr.games.pacman.lib.Globals.*;
 public class Bonus3D {
 
 	private final Bonus bonus;
+	private final double worldWidth;
 	private final Image symbolImage;
 	private final Image pointsImage;
 	private final Box shape;
@@ -39,12 +39,13 @@ public class Bonus3D {
 	private RotateTransition eatenAnimation;
 	private RotateTransition edibleAnimation;
 
-	public Bonus3D(Bonus bonus, Image symbolImage, Image pointsImage) {
+	public Bonus3D(Bonus bonus, double worldWidth, Image symbolImage, Image pointsImage) {
 		checkNotNull(bonus);
 		checkNotNull(symbolImage);
 		checkNotNull(pointsImage);
 
 		this.bonus = bonus;
+		this.worldWidth = worldWidth;
 		this.symbolImage = symbolImage;
 		this.pointsImage = pointsImage;
 		this.shape = new Box(TS, TS, TS);
@@ -64,18 +65,25 @@ public class Bonus3D {
 		eatenAnimation.setRate(2);
 	}
 
-	public void update(GameLevel level) {
-		setPosition(bonus.entity().center());
-		boolean visible = bonus.state() != Bonus.STATE_INACTIVE && !outsideWorld(level.world());
+	/**
+	 * Updates the 3D shape from the state captured in a game snapshot.
+	 *
+	 * @param state state of the bonus in the latest game snapshot
+	 */
+	public void update(GameSnapshot.BonusInfo state) {
+		shape.setTranslateX(state.centerX());
+		shape.setTranslateY(state.centerY());
+		shape.setTranslateZ(-HTS);
+		boolean visible = state.state() != Bonus.STATE_INACTIVE && !outsideWorld(state.centerX());
 		shape.setVisible(visible);
-		updateEdibleAnimation();
+		updateEdibleAnimation(state.moveDir());
 	}
 
-	private void updateEdibleAnimation() {
+	private void updateEdibleAnimation(Direction moveDir) {
 		var rotationAxis = Rotate.X_AXIS; // default for static bonus
-		if (bonus instanceof MovingBonus movingBonus) {
-			rotationAxis = movingBonus.entity().moveDir().isVertical() ? Rotate.X_AXIS : Rotate.Y_AXIS;
-			if (movingBonus.entity().moveDir() == Direction.UP || movingBonus.entity().moveDir() == Direction.RIGHT) {
+		if (moveDir != null) {
+			rotationAxis = moveDir.isVertical() ? Rotate.X_AXIS : Rotate.Y_AXIS;
+			if (moveDir == Direction.UP || moveDir == Direction.RIGHT) {
 				edibleAnimation.setRate(-1);
 			} else {
 				edibleAnimation.setRate(1);
@@ -94,7 +102,7 @@ public class Bonus3D {
 		imageView.setFitWidth(TS);
 		showImage(imageView.getImage());
 		shape.setWidth(TS);
-		updateEdibleAnimation();
+		updateEdibleAnimation(bonus instanceof MovingBonus movingBonus ? movingBonus.entity().moveDir() : null);
 		edibleAnimation.playFromStart();
 	}
 
@@ -130,8 +138,7 @@ public class Bonus3D {
 		shape.setTranslateZ(-HTS);
 	}
 
-	private boolean outsideWorld(World world) {
-		double x = bonus.entity().center().x();
-		return x < HTS || x > world.numCols() * TS - HTS;
+	private boolean outsideWorld(double centerX) {
+		return centerX < HTS || centerX > worldWidth - HTS;
 	}
 }
\ No newline at end of file
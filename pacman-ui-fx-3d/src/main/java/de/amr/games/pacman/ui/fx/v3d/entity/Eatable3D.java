@@ -7,7 +7,6 @@ package de.amr.games.pacman.ui.fx.v3d.entity;
 import de.amr.games.pacman.lib.Vector2i;
 import javafx.animation.Animation;
 import javafx.geometry.Point3D;
-import javafx.scene.Node;
 
 import java.util.Optional;
 
@@ -16,7 +15,9 @@ import java.util.Optional;
  */
 public interface Eatable3D {
 
-	Node getRoot();
+	boolean isVisible();
+
+	void setVisible(boolean visible);
 
 	void onEaten();
 
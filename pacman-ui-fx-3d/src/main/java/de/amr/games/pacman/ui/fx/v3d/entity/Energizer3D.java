@@ -76,11 +76,20 @@ public class Energizer3D implements Eatable3D {
 		return tileAt((float) shape.getTranslateX(), (float) shape.getTranslateY());
 	}
 
-	@Override
 	public Shape3D getRoot() {
 		return shape;
 	}
 
+	@Override
+	public boolean isVisible() {
+		return shape.isVisible();
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+		shape.setVisible(visible);
+	}
+
 	@Override
 	public Optional<Animation> getEatenAnimation() {
 		return Optional.ofNullable(eatenAnimation);
@@ -4,7 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.entity;
 
-import de.amr.games.pacman.controller.GameController;
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.controller.GameState;
 import de.amr.games.pacman.lib.Globals;
 import de.amr.games.pacman.model.GameLevel;
@@ -12,7 +12,7 @@ import de.amr.games.pacman.model.GameModel;
 import de.amr.games.pacman.model.IllegalGameVariantException;
 import de.amr.games.pacman.model.actors.Bonus;
 import de.amr.games.pacman.model.actors.Ghost;
-import de.amr.games.pacman.model.actors.GhostState;
+import de.amr.games.pacman.model.actors.GhostStateSet;
 import de.amr.games.pacman.model.world.Door;
 import de.amr.games.pacman.ui.fx.rendering2d.MsPacManGameSpriteSheet;
 import de.amr.games.pacman.ui.fx.rendering2d.PacManGameSpriteSheet;
@@ -29,7 +29,6 @@ import javafx.scene.paint.Color;
 
 import java.util.Optional;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 import static de.amr.games.pacman.lib.Globals.*;
 
@@ -118,6 +117,7 @@ public class GameLevel3D {
 		world3D.floorTexturePy.bind(PacManGames3dUI.PY_3D_FLOOR_TEXTURE);
 		world3D.wallHeightPy.bind(PacManGames3dUI.PY_3D_WALL_HEIGHT);
 		world3D.wallThicknessPy.bind(PacManGames3dUI.PY_3D_WALL_THICKNESS);
+		world3D.pelletDetailPy.bind(PacManGames3dUI.PY_3D_PELLET_DETAIL);
 		livesCounter3D.drawModePy.bind(PacManGames3dUI.PY_3D_DRAW_MODE);
 	}
 
@@ -140,13 +140,13 @@ public class GameLevel3D {
 		switch (level.game().variant()) {
 			case PACMAN -> {
 				PacManGameSpriteSheet ss = (PacManGameSpriteSheet) spriteSheet;
-				return new Bonus3D(bonus,
+				return new Bonus3D(bonus, level.world().numCols() * TS,
 						spriteSheet.subImage(ss.bonusSymbolSprite(symbol)),
 						spriteSheet.subImage(ss.bonusValueSprite(symbol)));
 			}
 			case MS_PACMAN -> {
 				MsPacManGameSpriteSheet ss = (MsPacManGameSpriteSheet) spriteSheet;
-				return new Bonus3D(bonus,
+				return new Bonus3D(bonus, level.world().numCols() * TS,
 						spriteSheet.subImage(ss.bonusSymbolSprite(symbol)),
 						spriteSheet.subImage(ss.bonusValueSprite(symbol)));
 			}
@@ -154,24 +154,33 @@ public class GameLevel3D {
 		}
 	}
 
-	public void update() {
-		pac3D.update();
-		Stream.of(ghosts3D).forEach(Ghost3D::update);
-		if (bonus3D != null) {
-			bonus3D.update(level);
+	/**
+	 * Updates the 3D level from the state captured in a game snapshot. Does not access the game model, so it can run
+	 * while the simulation thread computes the next tick.
+	 *
+	 * @param snapshot latest game snapshot of this level
+	 */
+	public void update(GameSnapshot snapshot) {
+		checkNotNull(snapshot);
+		pac3D.update(snapshot.pac());
+		for (var ghost3D : ghosts3D) {
+			ghost3D.update(snapshot);
+		}
+		if (bonus3D != null && snapshot.bonus() != null) {
+			bonus3D.update(snapshot.bonus());
 		}
-		boolean hideOneLife = level.pac().isVisible() || GameController.it().state() == GameState.GHOST_DYING;
-		int numLivesShown = hideOneLife ? level.game().lives() - 1 : level.game().lives();
+		boolean hideOneLife = snapshot.pac().visible() || snapshot.state() == GameState.GHOST_DYING;
+		int numLivesShown = hideOneLife ? snapshot.lives() - 1 : snapshot.lives();
 		livesCounter3D.update(numLivesShown);
-		livesCounter3D.getRoot().setVisible(GameController.it().hasCredit());
-		scores3D.update(level);
-		if (GameController.it().hasCredit()) {
+		livesCounter3D.getRoot().setVisible(snapshot.credit() > 0);
+		scores3D.update(snapshot);
+		if (snapshot.credit() > 0) {
 			scores3D.setShowPoints(true);
 		} else {
 			scores3D.setShowText(Color.RED, "GAME OVER!");
 		}
-		pacLight.update();
-		updateHouseState();
+		pacLight.update(snapshot);
+		updateHouseState(snapshot);
 	}
 
 	public void updateLevelCounter3D() {
@@ -194,7 +203,7 @@ public class GameLevel3D {
 		}
 		// Delay hiding of pellet for some milliseconds because in case the player approaches the pellet from the right,
 		// the pellet disappears too early (collision by same tile in game model is too simplistic).
-		var delayHiding = Ufx.actionAfterSeconds(0.05, () -> eatable3D.getRoot().setVisible(false));
+		var delayHiding = Ufx.actionAfterSeconds(0.05, () -> eatable3D.setVisible(false));
 		var eatenAnimation = eatable3D.getEatenAnimation();
 		if (eatenAnimation.isPresent() && PacManGames3dUI.PY_3D_ENERGIZER_EXPLODES.get()) {
 			new SequentialTransition(delayHiding, eatenAnimation.get()).play();
@@ -203,20 +212,25 @@ public class GameLevel3D {
 		}
 	}
 
-	private void updateHouseState() {
-		boolean isHouseActive = level.ghosts(GhostState.LOCKED, GhostState.ENTERING_HOUSE, GhostState.LEAVING_HOUSE)
-				.anyMatch(Ghost::isVisible);
-		boolean accessGranted = isAccessGranted(level.ghosts(), level.world().house().door());
+	private void updateHouseState(GameSnapshot snapshot) {
+		boolean isHouseActive = snapshot.countVisibleGhosts(GhostStateSet.AT_HOUSE) > 0;
+		boolean accessGranted = isAccessGranted(snapshot, level.world().house().door());
 		if (accessGranted) {
 			world3D.doorWings3D().forEach(DoorWing3D::playTraversalAnimation);
 		}
 		world3D.houseLighting().setLightOn(isHouseActive);
 	}
 
-	private boolean isAccessGranted(Stream<Ghost> ghosts, Door door) {
-		return ghosts.anyMatch(ghost -> ghost.isVisible()
-				&& ghost.is(GhostState.RETURNING_TO_HOUSE, GhostState.ENTERING_HOUSE, GhostState.LEAVING_HOUSE)
-				&& ghost.position().euclideanDistance(door.entryPosition()) <= 1.5 * TS);
+	private boolean isAccessGranted(GameSnapshot snapshot, Door door) {
+		var entry = door.entryPosition();
+		for (byte id = GameModel.RED_GHOST; id <= GameModel.ORANGE_GHOST; ++id) {
+			var ghost = snapshot.ghost(id);
+			if (ghost.visible() && ghost.is(GhostStateSet.USING_DOOR)
+				&& Math.hypot(ghost.x() - entry.x(), ghost.y() - entry.y()) <= 1.5 * TS) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public GameLevel level() {
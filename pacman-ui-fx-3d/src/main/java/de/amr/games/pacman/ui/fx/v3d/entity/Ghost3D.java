@@ -4,9 +4,11 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.entity;
 
+import de.amr.games.pacman.controller.GameSnapshot;
+import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.actors.Ghost;
-import de.amr.games.pacman.model.world.World;
+import de.amr.games.pacman.model.actors.GhostState;
 import de.amr.games.pacman.ui.fx.util.Theme;
 import de.amr.games.pacman.ui.fx.v3d.animation.Turn;
 import de.amr.games.pacman.ui.fx.v3d.model.Model3D;
@@ -55,6 +57,7 @@ public class Ghost3D {
 
 	private final GameLevel level;
 	private final Ghost ghost;
+	private final double worldWidth;
 	private final Group root;
 	private final Group numberGroup;
 	private final Group coloredGhostGroup;
@@ -76,6 +79,7 @@ public class Ghost3D {
 
 		this.level = level;
 		this.ghost = ghost;
+		this.worldWidth = level.world().numCols() * TS;
 
 		coloredGhost3D = new ColoredGhost3D(model3D, theme, ghost.id(), size);
 		coloredGhost3D.dressShape().drawModeProperty().bind(drawModePy);
@@ -116,30 +120,41 @@ public class Ghost3D {
 		return root;
 	}
 
+	/**
+	 * Initializes the 3D shape from the live model. Called by game event handlers which never run concurrently to a
+	 * simulation tick.
+	 */
 	public void init() {
 		brakeAnimation.stop();
 		dressAnimation.stop();
-		updateTransform();
-		updateLook();
+		var center = ghost.center();
+		updateTransform(center.x(), center.y(), ghost.moveDir(), ghost.isVisible());
+		updateLook(ghost.state(), level.pac().powerTimer().isRunning(), ghost.killedIndex(), level.pac().isPowerFading());
 	}
 
-	public void update() {
-		updateTransform();
-		updateLook();
-		updateAnimations();
+	/**
+	 * Updates the 3D shape from the state captured in a game snapshot.
+	 *
+	 * @param snapshot latest game snapshot
+	 */
+	public void update(GameSnapshot snapshot) {
+		var state = snapshot.ghost(ghost.id());
+		updateTransform(state.centerX(), state.centerY(), state.moveDir(), state.visible());
+		updateLook(state.ghostState(), snapshot.isPacPowerRunning(), state.killedIndex(), snapshot.pac().powerFading());
+		updateAnimations(state.enteredTunnel());
 	}
 
-	private void updateTransform() {
-		position.setX(ghost.center().x());
-		position.setY(ghost.center().y());
+	private void updateTransform(double centerX, double centerY, Direction moveDir, boolean visible) {
+		position.setX(centerX);
+		position.setY(centerY);
 		position.setZ(-5);
-		orientation.setAngle(Turn.angle(ghost.moveDir()));
-		root.setVisible(ghost.isVisible() && !outsideWorld(level.world()));
+		orientation.setAngle(Turn.angle(moveDir));
+		root.setVisible(visible && !outsideWorld(centerX));
 	}
 
-	private void updateAnimations() {
+	private void updateAnimations(boolean enteredTunnel) {
 		if (currentLook != Look.NUMBER) {
-			if (ghost.enteredTunnel()) {
+			if (enteredTunnel) {
 				brakeAnimation.playFromStart();
 			}
 			if (dressAnimation.getStatus() != Status.RUNNING) {
@@ -160,10 +175,10 @@ public class Ghost3D {
 		}
 	}
 
-	private void updateLook() {
-		var newLook = switch (ghost.state()) {
-		case LOCKED, LEAVING_HOUSE -> normalOrFrightenedOrFlashingLook();
-		case FRIGHTENED -> frightenedOrFlashingLook();
+	private void updateLook(GhostState state, boolean powerRunning, byte killedIndex, boolean powerFading) {
+		var newLook = switch (state) {
+		case LOCKED, LEAVING_HOUSE -> powerRunning && killedIndex == -1 ? frightenedOrFlashingLook(powerFading) : Look.NORMAL;
+		case FRIGHTENED -> frightenedOrFlashingLook(powerFading);
 		case ENTERING_HOUSE, RETURNING_TO_HOUSE -> Look.EYES;
 		case EATEN -> Look.NUMBER;
 		default -> Look.NORMAL;
@@ -197,28 +212,20 @@ public class Ghost3D {
 			material.setBumpMap(numberImage);
 			material.setDiffuseMap(numberImage);
 			numberCube.setMaterial(material);
-			numberGroup.setTranslateX(ghost.center().x());
-			numberGroup.setTranslateY(ghost.center().y());
+			numberGroup.setTranslateX(position.getX());
+			numberGroup.setTranslateY(position.getY());
 		}
 		default -> throw new IllegalArgumentException("Unknown Ghost3D look: %s ".formatted(look));
 		}
 		showAsGhost(look != Look.NUMBER);
 	}
 
-	private Look normalOrFrightenedOrFlashingLook() {
-		if (level.pac().powerTimer().isRunning() && ghost.killedIndex() == -1) {
-			return frightenedOrFlashingLook();
-		}
-		return Look.NORMAL;
-	}
-
-	private Look frightenedOrFlashingLook() {
-		return level.pac().isPowerFading() ? Look.FLASHING : Look.FRIGHTENED;
+	private Look frightenedOrFlashingLook(boolean powerFading) {
+		return powerFading ? Look.FLASHING : Look.FRIGHTENED;
 	}
 
-	private boolean outsideWorld(World world) {
-		double centerX = ghost.position().x() + HTS;
-		return centerX < 0 || centerX > world.numCols() * TS;
+	private boolean outsideWorld(double centerX) {
+		return centerX < 0 || centerX > worldWidth;
 	}
 
 	public void setNumberImage(Image numberImage) {
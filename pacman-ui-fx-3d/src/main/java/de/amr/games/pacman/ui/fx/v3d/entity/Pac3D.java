@@ -4,6 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.entity;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import de.amr.games.pacman.lib.Direction;
 import de.amr.games.pacman.model.GameVariant;
 import de.amr.games.pacman.model.actors.Pac;
@@ -56,6 +57,7 @@ public class Pac3D {
 	public final BooleanProperty lightedPy           = new SimpleBooleanProperty(this, "lighted", true);
 
 	private final Pac pac;
+	private final double worldWidth;
 	private final Group root;
 	private final Color headColor;
 	private final Translate position = new Translate();
@@ -84,7 +86,7 @@ public class Pac3D {
 		checkNotNull(pacMan);
 
 		var pac3D = new Pac3D(createPacManGroup(model3D, theme), pacMan, theme.color("pacman.color.head"));
-		pac3D.walkingAnimation = new HeadBanging(pacMan, pac3D.root);
+		pac3D.walkingAnimation = new HeadBanging(pac3D.root);
 		pac3D.drawModePy.bind(PacManGames3dUI.PY_3D_DRAW_MODE);
 
 		return pac3D;
@@ -96,7 +98,7 @@ public class Pac3D {
 		checkNotNull(msPacMan);
 
 		var pac3D = new Pac3D(createMsPacManGroup(model3D, theme), msPacMan, theme.color("mspacman.color.head"));
-		pac3D.walkingAnimation = new HipSwaying(msPacMan, pac3D.root);
+		pac3D.walkingAnimation = new HipSwaying(pac3D.root);
 		pac3D.drawModePy.bind(PacManGames3dUI.PY_3D_DRAW_MODE);
 
 		return pac3D;
@@ -170,6 +172,7 @@ public class Pac3D {
 	private Pac3D(Node pacNode, Pac pac, Color headColor) {
 		this.root = new Group(pacNode);
 		this.pac = pac;
+		this.worldWidth = TS * pac.world().numCols();
 		this.headColor = headColor;
 		pacNode.getTransforms().setAll(position, orientation);
 		meshView(pacNode, MESH_ID_EYES).drawModeProperty().bind(drawModePy);
@@ -205,31 +208,40 @@ public class Pac3D {
 		return walkingAnimation;
 	}
 
+	/**
+	 * Initializes the 3D shape from the live model. Called by game event handlers which never run concurrently to a
+	 * simulation tick.
+	 */
 	public void init() {
 		headColorPy.set(headColor);
 		root.setScaleX(1.0);
 		root.setScaleY(1.0);
 		root.setScaleZ(1.0);
-		updatePosition();
+		setPosition(pac.center().x(), pac.center().y());
 		turnTo(pac.moveDir());
-		updateVisibility();
+		updateVisibility(pac.isVisible());
 		walkingAnimation.stop();
 	}
 
-	public void update() {
-		if (pac.velocity().length() == 0) {
+	/**
+	 * Updates the 3D shape from the state captured in a game snapshot.
+	 *
+	 * @param state state of Pac-Man in the latest game snapshot
+	 */
+	public void update(GameSnapshot.Actor state) {
+		if (!state.moving()) {
 			walkingAnimation.stop();
 		} else {
-			updatePosition();
-			turnTo(pac.moveDir());
-			walkingAnimation.play();
+			setPosition(state.centerX(), state.centerY());
+			turnTo(state.moveDir());
+			walkingAnimation.play(state.moveDir());
 		}
-		updateVisibility();
+		updateVisibility(state.visible());
 	}
 
-	private void updatePosition() {
-		position.setX(pac.center().x());
-		position.setY(pac.center().y());
+	private void setPosition(double centerX, double centerY) {
+		position.setX(centerX);
+		position.setY(centerY);
 		position.setZ(-5.0);
 	}
 
@@ -241,12 +253,12 @@ public class Pac3D {
 		}
 	}
 
-	private void updateVisibility() {
-		root.setVisible(pac.isVisible() && !outsideWorld());
+	private void updateVisibility(boolean visible) {
+		root.setVisible(visible && !outsideWorld());
 	}
 
 	private boolean outsideWorld() {
-		return position.getX() < HTS || position.getX() > TS * pac.world().numCols() - HTS;
+		return position.getX() < HTS || position.getX() > worldWidth - HTS;
 	}
 
 	private Animation createMsPacManDyingAnimation() {
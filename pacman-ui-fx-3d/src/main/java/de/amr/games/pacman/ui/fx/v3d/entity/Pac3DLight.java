@@ -1,5 +1,6 @@
 package de.amr.games.pacman.ui.fx.v3d.entity;
 
+import de.amr.games.pacman.controller.GameSnapshot;
 import javafx.scene.PointLight;
 import javafx.scene.paint.Color;
 
@@ -22,13 +23,12 @@ public class Pac3DLight extends PointLight {
 		setTranslateZ(-10);
 	}
 
-	public void update() {
-		var pac = pac3D.pac();
-		boolean isVisible = pac.isVisible();
-		boolean hasPower = pac.powerTimer().isRunning();
+	public void update(GameSnapshot snapshot) {
+		boolean isVisible = snapshot.pac().visible();
+		boolean hasPower = snapshot.isPacPowerRunning();
 		double radius = 0;
-		if (pac.powerTimer().duration() > 0) {
-			double t = (double) pac.powerTimer().remaining() / pac.powerTimer().duration();
+		if (snapshot.pacPowerDuration() > 0) {
+			double t = (double) snapshot.pacPowerRemaining() / snapshot.pacPowerDuration();
 			radius = t * 6 * TS;
 		}
 		setMaxRange(hasPower ? 2 * TS + radius : 0);
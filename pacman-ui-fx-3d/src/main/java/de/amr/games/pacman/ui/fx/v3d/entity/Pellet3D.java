@@ -6,69 +6,63 @@ package de.amr.games.pacman.ui.fx.v3d.entity;
 
 import de.amr.games.pacman.lib.Vector2i;
 import de.amr.games.pacman.ui.fx.util.Ufx;
-import de.amr.games.pacman.ui.fx.v3d.model.Model3D;
 import javafx.animation.Animation;
 import javafx.geometry.Point3D;
-import javafx.scene.shape.Shape3D;
-import javafx.scene.transform.Rotate;
-import javafx.scene.transform.Scale;
 
 import java.util.Optional;
 
-import static de.amr.games.pacman.lib.Globals.*;
 import static java.util.Objects.requireNonNull;
 
 /**
- * 3D pellet.
- * 
+ * 3D pellet. All pellets of a maze are parts of a single mesh, see {@link Pellets3D}.
+ *
  * @author Armin Reichert
  */
 public class Pellet3D implements Eatable3D {
 
-	public static final String MESH_ID_PELLET = "Fruit";
+	private final Pellets3D pellets3D;
+	private final int index;
+	private final Vector2i tile;
 
-	private final Shape3D shape;
-
-	public Pellet3D(Model3D model3D, double radius) {
-		requireNonNull(model3D);
-		requirePositive(radius, "Pellet3D radius must be positive but is %f");
+	Pellet3D(Pellets3D pellets3D, int index, Vector2i tile) {
+		requireNonNull(pellets3D);
+		requireNonNull(tile);
 
-		shape = model3D.meshView(MESH_ID_PELLET);
-		shape.setRotationAxis(Rotate.Z_AXIS);
-		shape.setRotate(90);
-		shape.setUserData(this);
-		var bounds = shape.getBoundsInLocal();
-		var max = Math.max(Math.max(bounds.getWidth(), bounds.getHeight()), bounds.getDepth());
-		var scaling = new Scale(2 * radius / max, 2 * radius / max, 2 * radius / max);
-		shape.getTransforms().add(scaling);
+		this.pellets3D = pellets3D;
+		this.index = index;
+		this.tile = tile;
 	}
 
-	public void placeAtTile(Vector2i tile) {
-		requireNonNull(tile);
-
-		shape.setTranslateX(tile.x() * TS + HTS);
-		shape.setTranslateY(tile.y() * TS + HTS);
-		shape.setTranslateZ(-HTS);
+	/**
+	 * @return index of this pellet in the pellet mesh
+	 */
+	public int index() {
+		return index;
 	}
 
 	@Override
 	public Point3D position() {
-		return new Point3D(shape.getTranslateX(), shape.getTranslateY(), shape.getTranslateZ());
+		return new Point3D(pellets3D.centerX(index), pellets3D.centerY(index), pellets3D.centerZ(index));
 	}
 
 	@Override
 	public Vector2i tile() {
-		return tileAt((float) shape.getTranslateX(), (float) shape.getTranslateY());
+		return tile;
+	}
+
+	@Override
+	public boolean isVisible() {
+		return pellets3D.isVisible(index);
 	}
 
 	@Override
-	public Shape3D getRoot() {
-		return shape;
+	public void setVisible(boolean visible) {
+		pellets3D.setVisible(index, visible);
 	}
 
 	@Override
 	public void onEaten() {
-		Ufx.actionAfterSeconds(0.05, () -> shape.setVisible(false)).play();
+		Ufx.actionAfterSeconds(0.05, () -> setVisible(false)).play();
 	}
 
 	@Override
@@ -78,6 +72,6 @@ public class Pellet3D implements Eatable3D {
 
 	@Override
 	public String toString() {
-		return String.format("[Pellet, tile: %s, %s]", tile(), shape);
+		return String.format("[Pellet, tile: %s, index: %d]", tile, index);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.ui.fx.v3d.entity;
+
+import de.amr.games.pacman.lib.EnumMethods;
+
+/**
+ * Level of detail of the 3D pellets: the full fruit model (5376 triangles per pellet, for showcases on strong
+ * machines), a low-poly sphere (32 triangles) or a flat octahedron (8 triangles).
+ *
+ * @author Armin Reichert
+ */
+public enum PelletDetail implements EnumMethods<PelletDetail> {
+	MODEL, LOW_POLY, OCTAHEDRON;
+}
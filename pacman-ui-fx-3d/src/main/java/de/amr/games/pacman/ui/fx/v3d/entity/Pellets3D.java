@@ -0,0 +1,311 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.ui.fx.v3d.entity;
+
+import de.amr.games.pacman.lib.Vector2i;
+import de.amr.games.pacman.ui.fx.v3d.model.Model3D;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.Node;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.DrawMode;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static de.amr.games.pacman.lib.Globals.*;
+
+/**
+ * All normal pellets of a maze as a single triangle mesh. Each pellet is a copy of a shared template mesh whose level
+ * of detail can be changed at any time (see {@link PelletDetail}).
+ * <p>
+ * An eaten pellet is hidden by collapsing its triangles into a single vertex, only the face indices of the pellet are
+ * updated. Elevation changes (see {@link de.amr.games.pacman.ui.fx.v3d.animation.FoodOscillation}) update the
+ * vertices in place.
+ *
+ * @author Armin Reichert
+ */
+public class Pellets3D {
+
+	public static final String MESH_ID_PELLET = "Fruit";
+
+	private static final float RADIUS = 1.0f;
+
+	/**
+	 * Template mesh of a single pellet centered at the origin.
+	 *
+	 * @param points          vertex coordinates
+	 * @param faces           point indices, 3 per triangle, counter-clockwise seen from outside
+	 * @param smoothingGroups smoothing group of each triangle
+	 */
+	private record Template(float[] points, int[] faces, int[] smoothingGroups) {
+
+		int numVertices() {
+			return points.length / 3;
+		}
+
+		int numFaces() {
+			return faces.length / 3;
+		}
+	}
+
+	public final ObjectProperty<PelletDetail> detailPy = new SimpleObjectProperty<>(this, "detail",
+		PelletDetail.LOW_POLY) {
+		@Override
+		protected void invalidated() {
+			build();
+		}
+	};
+
+	public final ObjectProperty<DrawMode> drawModePy = new SimpleObjectProperty<>(this, "drawMode", DrawMode.FILL);
+
+	private final Model3D model3D;
+	private final List<Pellet3D> pellets = new ArrayList<>();
+	private final float[] centers;
+	private final boolean[] visible;
+	private final TriangleMesh mesh = new TriangleMesh();
+	private final MeshView meshView = new MeshView(mesh);
+	private Template template;
+	private float[] points;
+	private int[] faces;
+	private int[] collapsedFaces;
+
+	/**
+	 * @param tiles    tiles of the pellets
+	 * @param model3D  model containing the pellet mesh used for detail level {@link PelletDetail#MODEL}
+	 * @param material material of all pellets
+	 */
+	public Pellets3D(List<Vector2i> tiles, Model3D model3D, PhongMaterial material) {
+		checkNotNull(tiles);
+		checkNotNull(model3D);
+		checkNotNull(material);
+		this.model3D = model3D;
+		centers = new float[tiles.size() * 3];
+		visible = new boolean[tiles.size()];
+		for (int i = 0; i < tiles.size(); ++i) {
+			var tile = tiles.get(i);
+			checkTileNotNull(tile);
+			pellets.add(new Pellet3D(this, i, tile));
+			centers[3 * i]     = tile.x() * TS + HTS;
+			centers[3 * i + 1] = tile.y() * TS + HTS;
+			centers[3 * i + 2] = -HTS;
+			visible[i] = true;
+		}
+		mesh.getTexCoords().addAll(0, 0);
+		meshView.setMaterial(material);
+		meshView.drawModeProperty().bind(drawModePy);
+		build();
+	}
+
+	public Node getRoot() {
+		return meshView;
+	}
+
+	public List<Pellet3D> pellets() {
+		return Collections.unmodifiableList(pellets);
+	}
+
+	/**
+	 * @param index pellet index
+	 * @return position of the pellet center
+	 */
+	float centerX(int index) {
+		return centers[3 * index];
+	}
+
+	float centerY(int index) {
+		return centers[3 * index + 1];
+	}
+
+	float centerZ(int index) {
+		return centers[3 * index + 2];
+	}
+
+	/**
+	 * Moves a pellet vertically. Call {@link #updatePoints()} after moving the pellets.
+	 *
+	 * @param index pellet index
+	 * @param z     new z coordinate of the pellet center
+	 */
+	public void setElevation(int index, float z) {
+		centers[3 * index + 2] = z;
+		var templatePoints = template.points();
+		int offset = index * templatePoints.length;
+		for (int i = 2; i < templatePoints.length; i += 3) {
+			points[offset + i] = z + templatePoints[i];
+		}
+	}
+
+	/**
+	 * Writes the vertex coordinates into the mesh.
+	 */
+	public void updatePoints() {
+		mesh.getPoints().set(0, points, 0, points.length);
+	}
+
+	boolean isVisible(int index) {
+		return visible[index];
+	}
+
+	void setVisible(int index, boolean visible) {
+		if (this.visible[index] != visible) {
+			this.visible[index] = visible;
+			int length = template.numFaces() * 6;
+			int offset = index * length;
+			if (visible) {
+				mesh.getFaces().set(offset, faces, offset, length);
+			} else {
+				collapse(index);
+			}
+		}
+	}
+
+	// all triangles of the pellet degenerate to its first vertex
+	private void collapse(int index) {
+		int length = template.numFaces() * 6;
+		for (int i = 0; i < length; i += 2) {
+			collapsedFaces[i] = index * template.numVertices();
+		}
+		mesh.getFaces().set(index * length, collapsedFaces, 0, length);
+	}
+
+	private void build() {
+		template = switch (detailPy.get()) {
+			case MODEL -> modelTemplate();
+			case LOW_POLY -> sphereTemplate(1);
+			case OCTAHEDRON -> sphereTemplate(0);
+		};
+		int numPellets = pellets.size();
+		int numVertices = template.numVertices();
+		int numFaces = template.numFaces();
+		points = new float[numPellets * numVertices * 3];
+		faces = new int[numPellets * numFaces * 6];
+		collapsedFaces = new int[numFaces * 6];
+		var smoothingGroups = new int[numPellets * numFaces];
+		for (int p = 0; p < numPellets; ++p) {
+			for (int v = 0; v < numVertices; ++v) {
+				for (int c = 0; c < 3; ++c) {
+					points[(p * numVertices + v) * 3 + c] = centers[3 * p + c] + template.points()[3 * v + c];
+				}
+			}
+			for (int f = 0; f < numFaces; ++f) {
+				int i = (p * numFaces + f) * 6;
+				for (int k = 0; k < 3; ++k) {
+					faces[i + 2 * k] = p * numVertices + template.faces()[3 * f + k];
+					// the single texture coordinate has index 0
+				}
+				smoothingGroups[p * numFaces + f] = template.smoothingGroups()[f];
+			}
+		}
+		mesh.getPoints().setAll(points);
+		mesh.getFaces().setAll(faces);
+		mesh.getFaceSmoothingGroups().setAll(smoothingGroups);
+		for (int p = 0; p < numPellets; ++p) {
+			if (!visible[p]) {
+				collapse(p);
+			}
+		}
+		Logger.trace("Pellet mesh built: detail={}, pellets={}, triangles={}", detailPy.get(), numPellets,
+			numPellets * numFaces);
+	}
+
+	/*
+	 * The fruit mesh of the pellet model, rotated, centered and scaled to the pellet size.
+	 */
+	private Template modelTemplate() {
+		var modelMesh = (TriangleMesh) model3D.mesh(MESH_ID_PELLET);
+		var modelPoints = modelMesh.getPoints().toArray(null);
+		var modelFaces = modelMesh.getFaces().toArray(null);
+		var points = new float[modelPoints.length];
+		float[] min = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+		float[] max = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+		for (int i = 0; i < points.length; i += 3) {
+			// rotate by 90 degrees around the z-axis
+			points[i]     = -modelPoints[i + 1];
+			points[i + 1] = modelPoints[i];
+			points[i + 2] = modelPoints[i + 2];
+			for (int c = 0; c < 3; ++c) {
+				min[c] = Math.min(min[c], points[i + c]);
+				max[c] = Math.max(max[c], points[i + c]);
+			}
+		}
+		float size = Math.max(Math.max(max[0] - min[0], max[1] - min[1]), max[2] - min[2]);
+		float scaling = 2 * RADIUS / size;
+		for (int i = 0; i < points.length; i += 3) {
+			for (int c = 0; c < 3; ++c) {
+				points[i + c] = (points[i + c] - 0.5f * (min[c] + max[c])) * scaling;
+			}
+		}
+		var faces = new int[modelFaces.length / 2];
+		for (int i = 0; i < faces.length; ++i) {
+			faces[i] = modelFaces[2 * i]; // skip texture coordinate indices
+		}
+		return new Template(points, faces, modelMesh.getFaceSmoothingGroups().toArray(null));
+	}
+
+	/*
+	 * Octahedron, subdivided the given number of times. Each subdivision splits a triangle into four and moves the new
+	 * vertices onto the sphere. The octahedron is flat-shaded, the subdivided shapes are smoothed.
+	 */
+	private static Template sphereTemplate(int subdivisions) {
+		var points = new ArrayList<float[]>(List.of(
+			new float[] { 1, 0, 0 }, new float[] { -1, 0, 0 },
+			new float[] { 0, 1, 0 }, new float[] { 0, -1, 0 },
+			new float[] { 0, 0, 1 }, new float[] { 0, 0, -1 }));
+		var faces = new ArrayList<int[]>();
+		for (int sx = 1; sx >= -1; sx -= 2) {
+			for (int sy = 1; sy >= -1; sy -= 2) {
+				for (int sz = 1; sz >= -1; sz -= 2) {
+					int a = sx > 0 ? 0 : 1, b = sy > 0 ? 2 : 3, c = sz > 0 ? 4 : 5;
+					faces.add(sx * sy * sz > 0 ? new int[] { a, b, c } : new int[] { a, c, b });
+				}
+			}
+		}
+		for (int n = 0; n < subdivisions; ++n) {
+			var midpoints = new HashMap<Long, Integer>();
+			var subdivided = new ArrayList<int[]>();
+			for (var face : faces) {
+				int ab = midpoint(points, midpoints, face[0], face[1]);
+				int bc = midpoint(points, midpoints, face[1], face[2]);
+				int ca = midpoint(points, midpoints, face[2], face[0]);
+				subdivided.add(new int[] { face[0], ab, ca });
+				subdivided.add(new int[] { ab, face[1], bc });
+				subdivided.add(new int[] { ca, bc, face[2] });
+				subdivided.add(new int[] { ab, bc, ca });
+			}
+			faces = subdivided;
+		}
+		var pointArray = new float[points.size() * 3];
+		for (int i = 0; i < points.size(); ++i) {
+			for (int c = 0; c < 3; ++c) {
+				pointArray[3 * i + c] = RADIUS * points.get(i)[c];
+			}
+		}
+		var faceArray = new int[faces.size() * 3];
+		var smoothingGroups = new int[faces.size()];
+		for (int f = 0; f < faces.size(); ++f) {
+			System.arraycopy(faces.get(f), 0, faceArray, 3 * f, 3);
+			smoothingGroups[f] = subdivisions == 0 ? 1 << f : 1;
+		}
+		return new Template(pointArray, faceArray, smoothingGroups);
+	}
+
+	private static int midpoint(List<float[]> points, HashMap<Long, Integer> midpoints, int a, int b) {
+		long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+		return midpoints.computeIfAbsent(key, k -> {
+			var p = points.get(a);
+			var q = points.get(b);
+			float x = p[0] + q[0], y = p[1] + q[1], z = p[2] + q[2];
+			float length = (float) Math.sqrt(x * x + y * y + z * z);
+			points.add(new float[] { x / length, y / length, z / length });
+			return points.size() - 1;
+		});
+	}
+}
@@ -4,7 +4,7 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.entity;
 
-import de.amr.games.pacman.model.GameLevel;
+import de.amr.games.pacman.controller.GameSnapshot;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.layout.GridPane;
@@ -71,14 +71,14 @@ public class Scores3D {
 		this.pointsDisplayed = show;
 	}
 
-	public void update(GameLevel level) {
-		requireNonNull(level);
+	public void update(GameSnapshot snapshot) {
+		requireNonNull(snapshot);
 
 		txtScoreTitle.setFill(titleColor);
 		txtScoreTitle.setFont(font);
 		if (pointsDisplayed) {
 			txtScore.setFont(font);
-			txtScore.setText(String.format("%7d L%d", level.game().score().points(), level.game().score().levelNumber()));
+			txtScore.setText(String.format("%7d L%d", snapshot.scorePoints(), snapshot.scoreLevelNumber()));
 			txtScore.setFill(Color.YELLOW);
 		}
 		txtHiscoreTitle.setFill(titleColor);
@@ -86,6 +86,6 @@ public class Scores3D {
 		txtHiscore.setFill(scoreColor);
 		txtHiscore.setFont(font);
 		txtHiscore
-				.setText(String.format("%7d L%d", level.game().highScore().points(), level.game().highScore().levelNumber()));
+				.setText(String.format("%7d L%d", snapshot.highScorePoints(), snapshot.highScoreLevelNumber()));
 	}
 }
\ No newline at end of file
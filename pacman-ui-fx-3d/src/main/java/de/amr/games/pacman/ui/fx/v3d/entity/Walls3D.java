@@ -0,0 +1,269 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.ui.fx.v3d.entity;
+
+import de.amr.games.pacman.model.world.FloorPlan;
+import de.amr.games.pacman.model.world.World;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.DrawMode;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.amr.games.pacman.lib.Globals.TS;
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * 3D walls of a maze, built from the floor plan as a few triangle meshes: one for the wall bases, one for the ghost
+ * house walls and one for the wall tops. Each wall is a box with the height of the walls.
+ * <p>
+ * The walls are found by a greedy meshing pass over the floor plan: each maximal horizontal (vertical) run of
+ * horizontal (vertical) wall cells, including the corner cells inside and at the end of the run, becomes a single box.
+ * Only corners that do not belong to any run get boxes of their own. When the wall height or thickness changes,
+ * the vertex coordinates are updated in place, the faces stay the same.
+ *
+ * @author Armin Reichert
+ */
+public class Walls3D {
+
+	private static final float TOP_HEIGHT = 0.5f;
+	private static final float TOP_GAP = 0.05f;
+	private static final float HOUSE_HEIGHT = 9.0f;
+
+	// box corners are numbered (x ? 1 : 0) + (y ? 2 : 0) + (z ? 4 : 0), triangles are counter-clockwise seen from outside
+	private static final int[] BOX_TRIANGLES = {
+		0, 2, 1, /**/ 1, 2, 3, // -z
+		4, 5, 6, /**/ 5, 7, 6, // +z
+		0, 1, 4, /**/ 1, 5, 4, // -y
+		2, 6, 3, /**/ 3, 6, 7, // +y
+		0, 4, 2, /**/ 2, 4, 6, // -x
+		1, 3, 5, /**/ 3, 7, 5, // +x
+	};
+
+	/**
+	 * A wall box in floor plan cell coordinates.
+	 *
+	 * @param x1       first cell x
+	 * @param y1       first cell y
+	 * @param x2       last cell x
+	 * @param y2       last cell y
+	 * @param startCap if the box starts at a corner (and then ends half a wall thickness behind its center)
+	 * @param endCap   if the box ends at a corner
+	 */
+	private record Segment(int x1, int y1, int x2, int y2, boolean startCap, boolean endCap) {
+	}
+
+	/**
+	 * Triangle mesh of boxes sharing one material. The boxes have their own vertices, so the faces of different boxes
+	 * are not smoothed together.
+	 */
+	private static class BoxMesh {
+		final TriangleMesh mesh = new TriangleMesh();
+		final MeshView view = new MeshView(mesh);
+		final float[] points;
+		int numBoxes;
+
+		BoxMesh(int capacity, PhongMaterial material) {
+			points = new float[capacity * 8 * 3];
+			var faces = new int[capacity * 12 * 6];
+			var smoothingGroups = new int[capacity * 12];
+			for (int box = 0; box < capacity; ++box) {
+				for (int t = 0; t < 12; ++t) {
+					for (int v = 0; v < 3; ++v) {
+						faces[(box * 12 + t) * 6 + 2 * v] = box * 8 + BOX_TRIANGLES[3 * t + v];
+						// the single texture coordinate has index 0
+					}
+					smoothingGroups[box * 12 + t] = 1 << (t / 2);
+				}
+			}
+			mesh.getTexCoords().addAll(0, 0);
+			mesh.getPoints().setAll(points);
+			mesh.getFaces().setAll(faces);
+			mesh.getFaceSmoothingGroups().setAll(smoothingGroups);
+			view.setMaterial(material);
+		}
+
+		void setBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+			int i = numBoxes++ * 24;
+			for (int corner = 0; corner < 8; ++corner) {
+				points[i++] = (corner & 1) == 0 ? minX : maxX;
+				points[i++] = (corner & 2) == 0 ? minY : maxY;
+				points[i++] = (corner & 4) == 0 ? minZ : maxZ;
+			}
+		}
+
+		void commit() {
+			mesh.getPoints().set(0, points, 0, points.length);
+			numBoxes = 0;
+		}
+	}
+
+	public final DoubleProperty wallHeightPy = new SimpleDoubleProperty(this, "wallHeight", 2.0) {
+		@Override
+		protected void invalidated() {
+			updateVertices();
+		}
+	};
+
+	public final DoubleProperty wallThicknessPy = new SimpleDoubleProperty(this, "wallThickness", 1.0) {
+		@Override
+		protected void invalidated() {
+			updateVertices();
+		}
+	};
+
+	public final ObjectProperty<DrawMode> drawModePy = new SimpleObjectProperty<>(this, "drawMode", DrawMode.FILL);
+
+	private final Group root = new Group();
+	private final float cellSize;
+	private final List<Segment> segments = new ArrayList<>();
+	private final List<Segment> houseSegments = new ArrayList<>();
+	private final BoxMesh base;
+	private final BoxMesh house;
+	private final BoxMesh top;
+
+	public Walls3D(World world, FloorPlan floorPlan, PhongMaterial baseMaterial, PhongMaterial topMaterial,
+		PhongMaterial houseMaterial) {
+		checkNotNull(world);
+		checkNotNull(floorPlan);
+		checkNotNull(baseMaterial);
+		checkNotNull(topMaterial);
+		checkNotNull(houseMaterial);
+		cellSize = (float) TS / floorPlan.getResolution();
+		findSegments(world, floorPlan);
+		base = new BoxMesh(segments.size(), baseMaterial);
+		house = new BoxMesh(houseSegments.size(), houseMaterial);
+		top = new BoxMesh(segments.size() + houseSegments.size(), topMaterial);
+		for (var mesh : List.of(base, house, top)) {
+			mesh.view.drawModeProperty().bind(drawModePy);
+			root.getChildren().add(mesh.view);
+		}
+		updateVertices();
+	}
+
+	public Node getRoot() {
+		return root;
+	}
+
+	/** @return number of wall boxes */
+	public int numBoxes() {
+		return segments.size() + houseSegments.size();
+	}
+
+	private static boolean isCorner(FloorPlan floorPlan, int x, int y) {
+		return floorPlan.cell(x, y) == FloorPlan.CORNER;
+	}
+
+	private void findSegments(World world, FloorPlan floorPlan) {
+		var covered = new boolean[floorPlan.sizeY()][floorPlan.sizeX()];
+		// horizontal runs
+		for (int y = 0; y < floorPlan.sizeY(); ++y) {
+			int x = 0;
+			while (x < floorPlan.sizeX()) {
+				int start = x;
+				boolean wall = false;
+				while (x < floorPlan.sizeX() && isRunCell(world, floorPlan, x, y, start, y, FloorPlan.HWALL)) {
+					wall |= floorPlan.cell(x, y) == FloorPlan.HWALL;
+					++x;
+				}
+				if (wall) {
+					addSegment(world, floorPlan, start, y, x - 1, y, covered);
+				}
+				x = Math.max(x, start + 1);
+			}
+		}
+		// vertical runs
+		for (int x = 0; x < floorPlan.sizeX(); ++x) {
+			int y = 0;
+			while (y < floorPlan.sizeY()) {
+				int start = y;
+				boolean wall = false;
+				while (y < floorPlan.sizeY() && isRunCell(world, floorPlan, x, y, x, start, FloorPlan.VWALL)) {
+					wall |= floorPlan.cell(x, y) == FloorPlan.VWALL;
+					++y;
+				}
+				if (wall) {
+					addSegment(world, floorPlan, x, start, x, y - 1, covered);
+				}
+				y = Math.max(y, start + 1);
+			}
+		}
+		// corners not part of any run
+		for (int y = 0; y < floorPlan.sizeY(); ++y) {
+			for (int x = 0; x < floorPlan.sizeX(); ++x) {
+				if (isCorner(floorPlan, x, y) && !covered[y][x]) {
+					addSegment(world, floorPlan, x, y, x, y, covered);
+				}
+			}
+		}
+	}
+
+	// a run contains wall cells of the given type and corners, all inside or all outside the ghost house
+	private boolean isRunCell(World world, FloorPlan floorPlan, int x, int y, int startX, int startY, byte wallType) {
+		byte cell = floorPlan.cell(x, y);
+		return (cell == wallType || cell == FloorPlan.CORNER)
+			&& world.house().contains(floorPlan.tile(x, y)) == world.house().contains(floorPlan.tile(startX, startY));
+	}
+
+	private void addSegment(World world, FloorPlan floorPlan, int x1, int y1, int x2, int y2, boolean[][] covered) {
+		var segment = new Segment(x1, y1, x2, y2, isCorner(floorPlan, x1, y1), isCorner(floorPlan, x2, y2));
+		if (world.house().contains(floorPlan.tile(x1, y1))) {
+			houseSegments.add(segment);
+		} else {
+			segments.add(segment);
+		}
+		for (int y = y1; y <= y2; ++y) {
+			for (int x = x1; x <= x2; ++x) {
+				covered[y][x] = true;
+			}
+		}
+	}
+
+	private void updateVertices() {
+		if (top == null) {
+			return; // called during construction
+		}
+		float height = (float) wallHeightPy.get();
+		for (var segment : segments) {
+			addBoxes(segment, base, height);
+		}
+		for (var segment : houseSegments) {
+			addBoxes(segment, house, HOUSE_HEIGHT);
+		}
+		base.commit();
+		house.commit();
+		top.commit();
+	}
+
+	private void addBoxes(Segment segment, BoxMesh baseMesh, float height) {
+		float halfThickness = 0.5f * (float) wallThicknessPy.get();
+		// a run ending without corner extends to the center of the next cell
+		float startExtension = segment.startCap ? halfThickness : cellSize;
+		float endExtension = segment.endCap ? halfThickness : cellSize;
+		float minX, minY, maxX, maxY;
+		if (segment.y1 == segment.y2 && segment.x1 != segment.x2) {
+			minX = (segment.x1 + 0.5f) * cellSize - startExtension;
+			maxX = (segment.x2 + 0.5f) * cellSize + endExtension;
+			minY = (segment.y1 + 0.5f) * cellSize - halfThickness;
+			maxY = (segment.y1 + 0.5f) * cellSize + halfThickness;
+		} else {
+			minX = (segment.x1 + 0.5f) * cellSize - halfThickness;
+			maxX = (segment.x1 + 0.5f) * cellSize + halfThickness;
+			minY = (segment.y1 + 0.5f) * cellSize - (segment.y1 != segment.y2 ? startExtension : halfThickness);
+			maxY = (segment.y2 + 0.5f) * cellSize + (segment.y1 != segment.y2 ? endExtension : halfThickness);
+		}
+		baseMesh.setBox(minX, minY, -height, maxX, maxY, 0);
+		float topZ = -height - TOP_GAP;
+		top.setBox(minX, minY, topZ - TOP_HEIGHT, maxX, maxY, topZ);
+	}
+}
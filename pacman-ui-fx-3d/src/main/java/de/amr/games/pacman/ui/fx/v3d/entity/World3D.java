@@ -28,6 +28,7 @@ import javafx.scene.transform.Translate;
 import org.tinylog.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -35,22 +36,13 @@ import java.util.stream.Stream;
 import static de.amr.games.pacman.lib.Globals.*;
 
 /**
- * 3D-model for the world in a game level. Creates walls/doors using information from the floor plan.
+ * 3D-model for the world in a game level. Creates walls/doors using information from the floor plan, see {@link Walls3D}.
  * 
  * @author Armin Reichert
  */
 public class World3D {
 	private static final double FLOOR_THICKNESS = 0.25;
 
-	private static class WallData {
-		byte type;
-		int x;
-		int y;
-		int numBricksX;
-		int numBricksY;
-		float brickSize;
-	}
-
 	public final DoubleProperty wallHeightPy = new SimpleDoubleProperty(this, "wallHeight", 2.0);
 
 	public final DoubleProperty wallThicknessPy = new SimpleDoubleProperty(this, "wallThickness", 1.0);
@@ -74,6 +66,9 @@ public class World3D {
 
 	public final ObjectProperty<DrawMode> drawModePy = new SimpleObjectProperty<>(this, "drawMode", DrawMode.FILL);
 
+	public final ObjectProperty<PelletDetail> pelletDetailPy = new SimpleObjectProperty<>(this, "pelletDetail",
+			PelletDetail.LOW_POLY);
+
 	private final Theme theme;
 	private final Model3D pelletModel3D;
 	private final World world;
@@ -84,6 +79,10 @@ public class World3D {
 	private final Group doorGroup = new Group();
 	private final PointLight houseLight;
 	private final Group foodGroup = new Group();
+	// food by tile index, see World.index(Vector2i)
+	private final Eatable3D[] foodByTile;
+	private Pellets3D pellets3D;
+	private Energizer3D[] energizers3D;
 	private final FoodOscillation foodOscillation;
 
 	private final Color foodColor;
@@ -117,12 +116,14 @@ public class World3D {
 		this.houseMaterial = ResourceManager.coloredMaterial(ResourceManager.color(ghostHouseColor, 0.25));
 
 		this.houseLight = createGhostHouseLight(wallBaseColor);
-		this.foodOscillation = new FoodOscillation(foodGroup);
+		this.foodByTile = new Eatable3D[world.numCols() * world.numRows()];
 
 		buildFloor();
 		buildWorld(4);
 		addFood();
 
+		this.foodOscillation = new FoodOscillation(pellets3D);
+
 		root.getChildren().addAll(floorGroup, wallsGroup, doorGroup, houseLight, foodGroup);
 	}
 
@@ -173,21 +174,17 @@ public class World3D {
 		floor.setMaterial(texture);
 	}
 
-	private WallData createWallData(int resolution) {
-		var wallData = new WallData();
-		wallData.brickSize = (float) TS / resolution;
-		return wallData;
-	}
-
 	private void buildWorld(int resolution) {
 		var floorPlan = new FloorPlan(world, resolution);
-		wallsGroup.getChildren().clear();
-		addCorners(floorPlan, createWallData(resolution));
-		addHorizontalWalls(floorPlan, createWallData(resolution));
-		addVerticalWalls(floorPlan, createWallData(resolution));
+		var walls3D = new Walls3D(world, floorPlan, baseMaterial, topMaterial, houseMaterial);
+		walls3D.wallHeightPy.bind(wallHeightPy);
+		walls3D.wallThicknessPy.bind(wallThicknessPy);
+		walls3D.drawModePy.bind(drawModePy);
+		wallsGroup.getChildren().setAll(walls3D.getRoot());
 		addDoorWing(world.house().door().leftWing(), doorColor);
 		addDoorWing(world.house().door().rightWing(), doorColor);
-		Logger.info("Built 3D world (resolution={}, wall height={})", floorPlan.getResolution(), wallHeightPy.get());
+		Logger.info("Built 3D world (resolution={}, wall height={}, wall boxes={})", floorPlan.getResolution(),
+				wallHeightPy.get(), walls3D.numBoxes());
 	}
 
 	public Stream<DoorWing3D> doorWings3D() {
@@ -201,157 +198,25 @@ public class World3D {
 		doorGroup.getChildren().add(doorWing3D.getRoot());
 	}
 
-	private void addHorizontalWalls(FloorPlan floorPlan, WallData wallData) {
-		wallData.type = FloorPlan.HWALL;
-		wallData.numBricksY = 1;
-		for (int y = 0; y < floorPlan.sizeY(); ++y) {
-			wallData.x = -1;
-			wallData.y = y;
-			wallData.numBricksX = 0;
-			for (int x = 0; x < floorPlan.sizeX(); ++x) {
-				if (floorPlan.cell(x, y) == FloorPlan.HWALL) {
-					if (wallData.numBricksX == 0) {
-						wallData.x = x;
-					}
-					wallData.numBricksX++;
-				} else if (wallData.numBricksX > 0) {
-					addCompositeWall(floorPlan, wallData);
-					wallData.numBricksX = 0;
-				}
-			}
-			if (wallData.numBricksX > 0 && y == floorPlan.sizeY() - 1) {
-				addCompositeWall(floorPlan, wallData);
-			}
-		}
-	}
-
-	private void addVerticalWalls(FloorPlan floorPlan, WallData wallData) {
-		wallData.type = FloorPlan.VWALL;
-		wallData.numBricksX = 1;
-		for (int x = 0; x < floorPlan.sizeX(); ++x) {
-			wallData.x = x;
-			wallData.y = -1;
-			wallData.numBricksY = 0;
-			for (int y = 0; y < floorPlan.sizeY(); ++y) {
-				if (floorPlan.cell(x, y) == FloorPlan.VWALL) {
-					if (wallData.numBricksY == 0) {
-						wallData.y = y;
-					}
-					wallData.numBricksY++;
-				} else if (wallData.numBricksY > 0) {
-					addCompositeWall(floorPlan, wallData);
-					wallData.numBricksY = 0;
-				}
-			}
-			if (wallData.numBricksY > 0 && x == floorPlan.sizeX() - 1) {
-				addCompositeWall(floorPlan, wallData);
-			}
-		}
-	}
-
-	private void addCorners(FloorPlan floorPlan, WallData wallData) {
-		wallData.type = FloorPlan.CORNER;
-		wallData.numBricksX = 1;
-		wallData.numBricksY = 1;
-		for (int x = 0; x < floorPlan.sizeX(); ++x) {
-			for (int y = 0; y < floorPlan.sizeY(); ++y) {
-				if (floorPlan.cell(x, y) == FloorPlan.CORNER) {
-					wallData.x = x;
-					wallData.y = y;
-					addCompositeWall(floorPlan, wallData);
-				}
-			}
-		}
-	}
-
-	private void addCompositeWall(FloorPlan floorPlan, WallData wallData) {
-		final double topHeight = 0.5;
-		final double ghostHouseHeight = 9.0;
-		final Vector2i tile = floorPlan.tile(wallData.x, wallData.y);
-		final boolean ghostHouseWall = world.house().contains(tile);
-
-		var base = switch (wallData.type) {
-		case FloorPlan.HWALL -> horizontalWall(wallData);
-		case FloorPlan.VWALL -> verticalWall(wallData);
-		case FloorPlan.CORNER -> corner();
-		default -> throw new IllegalStateException();
-		};
-		if (ghostHouseWall) {
-			base.setDepth(ghostHouseHeight);
-			base.setTranslateZ(-ghostHouseHeight / 2);
-			base.setMaterial(houseMaterial);
-		} else {
-			base.depthProperty().bind(wallHeightPy);
-			base.translateZProperty().bind(wallHeightPy.multiply(-0.5));
-			base.setMaterial(baseMaterial);
-		}
-
-		var top = switch (wallData.type) {
-		case FloorPlan.HWALL -> horizontalWall(wallData);
-		case FloorPlan.VWALL -> verticalWall(wallData);
-		case FloorPlan.CORNER -> corner();
-		default -> throw new IllegalStateException();
-		};
-		top.setMaterial(topMaterial);
-		top.setDepth(topHeight);
-		if (ghostHouseWall) {
-			top.setTranslateZ(-ghostHouseHeight - 0.2);
-		} else {
-			top.translateZProperty()
-					.bind(base.translateZProperty().subtract(wallHeightPy.add(topHeight + 0.1).multiply(0.5)));
-		}
-
-		var wall = new Group(base, top);
-		wall.setTranslateX((wallData.x + 0.5 * wallData.numBricksX) * wallData.brickSize);
-		wall.setTranslateY((wallData.y + 0.5 * wallData.numBricksY) * wallData.brickSize);
-		wall.setUserData(wallData);
-
-		wallsGroup.getChildren().add(wall);
-	}
-
-	private Box horizontalWall(WallData wallData) {
-		Box wall = new Box();
-		// without ...+1 there are gaps. why?
-		wall.setWidth((wallData.numBricksX + 1) * wallData.brickSize);
-		wall.heightProperty().bind(wallThicknessPy);
-		wall.drawModeProperty().bind(drawModePy);
-		return wall;
-	}
-
-	private Box verticalWall(WallData wallData) {
-		Box wall = new Box();
-		wall.widthProperty().bind(wallThicknessPy);
-		// without ...+1 there are gaps. why?
-		wall.setHeight((wallData.numBricksY + 1) * wallData.brickSize);
-		wall.drawModeProperty().bind(drawModePy);
-		return wall;
-	}
-
-	private Box corner() {
-		Box corner = new Box();
-		corner.widthProperty().bind(wallThicknessPy);
-		corner.heightProperty().bind(wallThicknessPy);
-		corner.drawModeProperty().bind(drawModePy);
-		return corner;
-	}
-
 	// Food
 
 	private void addFood() {
 		var foodMaterial = ResourceManager.coloredMaterial(foodColor);
-		world.tiles().filter(world::hasFoodAt).forEach(tile -> {
-			var food3D = world.isEnergizerTile(tile)//
-					? createEnergizer3D(tile, foodMaterial)//
-					: createNormalPellet3D(tile, foodMaterial);
-			foodGroup.getChildren().add(food3D.getRoot());
-		});
-	}
-
-	private Pellet3D createNormalPellet3D(Vector2i tile, PhongMaterial material) {
-		var pellet3D = new Pellet3D(pelletModel3D, 1.0);
-		pellet3D.getRoot().setMaterial(material);
-		pellet3D.placeAtTile(tile);
-		return pellet3D;
+		var pelletTiles = world.tiles().filter(world::hasFoodAt).filter(tile -> !world.isEnergizerTile(tile)).toList();
+		pellets3D = new Pellets3D(pelletTiles, pelletModel3D, foodMaterial);
+		pellets3D.detailPy.bind(pelletDetailPy);
+		pellets3D.drawModePy.bind(drawModePy);
+		foodGroup.getChildren().add(pellets3D.getRoot());
+		for (var pellet3D : pellets3D.pellets()) {
+			foodByTile[world.index(pellet3D.tile())] = pellet3D;
+		}
+		energizers3D = world.energizerTiles().filter(world::hasFoodAt)
+				.map(tile -> createEnergizer3D(tile, foodMaterial))
+				.toArray(Energizer3D[]::new);
+		for (var energizer3D : energizers3D) {
+			foodByTile[world.index(energizer3D.tile())] = energizer3D;
+			foodGroup.getChildren().add(energizer3D.getRoot());
+		}
 	}
 
 	private Energizer3D createEnergizer3D(Vector2i tile, PhongMaterial material) {
@@ -376,15 +241,19 @@ public class World3D {
 	 * @return all 3D pellets, including energizers
 	 */
 	public Stream<Eatable3D> eatables3D() {
-		return foodGroup.getChildren().stream().map(Node::getUserData).map(Eatable3D.class::cast);
+		return Stream.concat(pellets3D.pellets().stream(), Arrays.stream(energizers3D));
 	}
 
 	public Stream<Energizer3D> energizers3D() {
-		return eatables3D().filter(Energizer3D.class::isInstance).map(Energizer3D.class::cast);
+		return Arrays.stream(energizers3D);
 	}
 
+	/**
+	 * @param tile some tile
+	 * @return the 3D pellet or energizer at the tile (eaten or not), found by tile index
+	 */
 	public Optional<Eatable3D> eatableAt(Vector2i tile) {
 		checkTileNotNull(tile);
-		return eatables3D().filter(eatable -> eatable.tile().equals(tile)).findFirst();
+		return world.insideBounds(tile) ? Optional.ofNullable(foodByTile[world.index(tile)]) : Optional.empty();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.ui.fx.v3d.model;
+
+import javafx.scene.shape.TriangleMesh;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static de.amr.games.pacman.lib.Globals.checkNotNull;
+
+/**
+ * Binary cache of imported meshes. The points, texture coordinates, faces and smoothing groups of the meshes are stored
+ * as raw arrays in a file keyed by the hash of the model source, so later starts memory-map the file instead of parsing
+ * the model again. A changed model source gets a new cache file, files of another format version are ignored.
+ * <p>
+ * File format (little endian): magic "PACM", version, SHA-256 hash of the source (32 bytes), number of material
+ * libraries and their file names, number of meshes and for each mesh its name, the array lengths and the arrays.
+ * Strings are stored as length and UTF-8 bytes.
+ * <p>
+ * The cache directory can be set with the system property {@value #DIR_PROPERTY}, the value <code>off</code> disables
+ * the cache (see {@link #configured()}).
+ *
+ * @author Armin Reichert
+ */
+public class MeshCache {
+
+	/** Format version, must be incremented when the file format or the importer output changes. */
+	public static final int VERSION = 2;
+
+	/** Name of the system property selecting the cache directory, value <code>off</code> disables the cache. */
+	public static final String DIR_PROPERTY = "pacmanfx.meshcache";
+
+	private static final int MAGIC = 0x5041434D; // "PACM"
+	private static final int HASH_LENGTH = 32;
+
+	/**
+	 * Cached content of a model file.
+	 *
+	 * @param meshes               meshes by name
+	 * @param materialLibraryNames file names of the material libraries referenced by the model
+	 */
+	public record Content(Map<String, TriangleMesh> meshes, List<String> materialLibraryNames) {
+	}
+
+	/**
+	 * @return default cache directory <code>.pacmanfx/meshcache</code> in the user home directory
+	 */
+	public static Path defaultDir() {
+		return Path.of(System.getProperty("user.home"), ".pacmanfx", "meshcache");
+	}
+
+	/**
+	 * @return cache in the directory given by system property {@value #DIR_PROPERTY} (default: {@link #defaultDir()})
+	 *         or nothing if the cache is disabled
+	 */
+	public static Optional<MeshCache> configured() {
+		var value = System.getProperty(DIR_PROPERTY, "").strip();
+		if (value.isEmpty()) {
+			return Optional.of(new MeshCache(defaultDir()));
+		}
+		if (value.equalsIgnoreCase("off")) {
+			Logger.info("Mesh cache is disabled");
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(new MeshCache(Path.of(value)));
+		} catch (InvalidPathException x) {
+			Logger.warn("Invalid mesh cache directory '{}', mesh cache is disabled", value);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @param source content of a model file
+	 * @return SHA-256 hash of the content
+	 */
+	public static byte[] hash(byte[] source) {
+		checkNotNull(source);
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(source);
+		} catch (NoSuchAlgorithmException x) {
+			throw new IllegalStateException("SHA-256 not available", x);
+		}
+	}
+
+	private final Path dir;
+
+	/**
+	 * @param dir directory of the cache files, created when the first file is stored
+	 */
+	public MeshCache(Path dir) {
+		checkNotNull(dir);
+		this.dir = dir;
+	}
+
+	public Path dir() {
+		return dir;
+	}
+
+	/**
+	 * @param name name of the model file
+	 * @param hash hash of the model file content
+	 * @return path of the cache file
+	 */
+	public Path file(String name, byte[] hash) {
+		checkNotNull(name);
+		checkNotNull(hash);
+		var hex = new StringBuilder();
+		for (int i = 0; i < 8; ++i) {
+			hex.append("%02x".formatted(hash[i]));
+		}
+		return dir.resolve(name + "-" + hex + ".mesh");
+	}
+
+	/**
+	 * Loads the cached content of a model file.
+	 *
+	 * @param name name of the model file
+	 * @param hash hash of the model file content
+	 * @return the cached content or nothing if the file is not cached, has another version or cannot be read
+	 */
+	public Optional<Content> load(String name, byte[] hash) {
+		var file = file(name, hash);
+		if (!Files.isRegularFile(file)) {
+			return Optional.empty();
+		}
+		try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				Logger.info("Mesh cache file {} has other format, ignored", file);
+				return Optional.empty();
+			}
+			var storedHash = new byte[HASH_LENGTH];
+			buffer.get(storedHash);
+			if (!Arrays.equals(storedHash, hash)) {
+				Logger.info("Mesh cache file {} belongs to other source, ignored", file);
+				return Optional.empty();
+			}
+			int numLibraries = buffer.getInt();
+			var libraryNames = new ArrayList<String>(numLibraries);
+			for (int i = 0; i < numLibraries; ++i) {
+				libraryNames.add(getString(buffer));
+			}
+			int numMeshes = buffer.getInt();
+			var meshes = new LinkedHashMap<String, TriangleMesh>();
+			for (int i = 0; i < numMeshes; ++i) {
+				var meshName = getString(buffer);
+				var mesh = new TriangleMesh();
+				mesh.getPoints().setAll(getFloats(buffer));
+				mesh.getTexCoords().setAll(getFloats(buffer));
+				mesh.getFaces().setAll(getInts(buffer));
+				mesh.getFaceSmoothingGroups().setAll(getInts(buffer));
+				meshes.put(meshName, mesh);
+			}
+			Logger.trace("Meshes of {} loaded from cache file {}", name, file);
+			return Optional.of(new Content(meshes, libraryNames));
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException x) {
+			Logger.warn("Could not read mesh cache file {}: {}", file, x.toString());
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Stores the content of a model file. Errors are logged, the cache is optional.
+	 *
+	 * @param name    name of the model file
+	 * @param hash    hash of the model file content
+	 * @param content imported content
+	 */
+	public void store(String name, byte[] hash, Content content) {
+		checkNotNull(content);
+		if (hash.length != HASH_LENGTH) {
+			throw new IllegalArgumentException("Hash must have %d bytes but has %d".formatted(HASH_LENGTH, hash.length));
+		}
+		var file = file(name, hash);
+		var libraryNames = content.materialLibraryNames().stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+		var meshNames = content.meshes().keySet().stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+		int size = 4 + 4 + HASH_LENGTH + 4 + 4;
+		for (var bytes : libraryNames) {
+			size += 4 + bytes.length;
+		}
+		int m = 0;
+		for (var mesh : content.meshes().values()) {
+			size += 4 + meshNames.get(m++).length + 4 * 4;
+			size += 4 * (mesh.getPoints().size() + mesh.getTexCoords().size() + mesh.getFaces().size()
+				+ mesh.getFaceSmoothingGroups().size());
+		}
+		var buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).put(hash);
+		buffer.putInt(libraryNames.size());
+		libraryNames.forEach(bytes -> buffer.putInt(bytes.length).put(bytes));
+		buffer.putInt(content.meshes().size());
+		m = 0;
+		for (var mesh : content.meshes().values()) {
+			var bytes = meshNames.get(m++);
+			buffer.putInt(bytes.length).put(bytes);
+			putFloats(buffer, mesh.getPoints().toArray(null));
+			putFloats(buffer, mesh.getTexCoords().toArray(null));
+			putInts(buffer, mesh.getFaces().toArray(null));
+			putInts(buffer, mesh.getFaceSmoothingGroups().toArray(null));
+		}
+		try {
+			Files.createDirectories(dir);
+			// write to a temporary file first, so other processes never see a partial file
+			var tmp = Files.createTempFile(dir, name, ".tmp");
+			try {
+				Files.write(tmp, buffer.array());
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+			Logger.info("Meshes of {} stored in cache file {}", name, file);
+		} catch (IOException x) {
+			Logger.warn("Could not write mesh cache file {}: {}", file, x.toString());
+		}
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		var bytes = new byte[checkLength(buffer.getInt(), buffer, 1)];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static float[] getFloats(ByteBuffer buffer) {
+		var values = new float[checkLength(buffer.getInt(), buffer, 4)];
+		buffer.asFloatBuffer().get(values);
+		buffer.position(buffer.position() + 4 * values.length);
+		return values;
+	}
+
+	private static int[] getInts(ByteBuffer buffer) {
+		var values = new int[checkLength(buffer.getInt(), buffer, 4)];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + 4 * values.length);
+		return values;
+	}
+
+	private static int checkLength(int length, ByteBuffer buffer, int elementSize) {
+		if (length < 0 || (long) length * elementSize > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid array length: " + length);
+		}
+		return length;
+	}
+
+	private static void putFloats(ByteBuffer buffer, float[] values) {
+		buffer.putInt(values.length);
+		buffer.asFloatBuffer().put(values);
+		buffer.position(buffer.position() + 4 * values.length);
+	}
+
+	private static void putInts(ByteBuffer buffer, int[] values) {
+		buffer.putInt(values.length);
+		buffer.asIntBuffer().put(values);
+		buffer.position(buffer.position() + 4 * values.length);
+	}
+}
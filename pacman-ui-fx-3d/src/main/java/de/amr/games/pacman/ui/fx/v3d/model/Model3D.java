@@ -4,26 +4,34 @@ See file LICENSE in repository root directory for details.
 */
 package de.amr.games.pacman.ui.fx.v3d.model;
 
+import de.amr.games.pacman.ui.fx.v3d.objimport.MtlReader;
 import de.amr.games.pacman.ui.fx.v3d.objimport.ObjImporter;
 import javafx.scene.Node;
+import javafx.scene.paint.Material;
 import javafx.scene.paint.PhongMaterial;
 import javafx.scene.shape.Mesh;
 import javafx.scene.shape.MeshView;
+import javafx.scene.shape.TriangleMesh;
 import javafx.scene.transform.Scale;
 import javafx.scene.transform.Translate;
 import org.tinylog.Logger;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * A 3D-model imported from a Wavefront .obj file.
  * <p>
- * Uses the importer code from Oracle's JFX3DViewer sample project.
+ * Uses the importer code from Oracle's JFX3DViewer sample project. Imported meshes are stored in a {@link MeshCache}
+ * and loaded from there as long as the model file does not change. The cache can be moved or disabled by a system
+ * property, see {@link MeshCache#configured()}.
  * 
  * @author Armin Reichert
  */
@@ -60,6 +68,20 @@ public class Model3D {
 		return id.replace('.', '-');
 	}
 
+	private static final MeshCache CACHE = MeshCache.configured().orElse(null); // null: cache disabled
+
+	/**
+	 * Loads independent models in parallel.
+	 *
+	 * @param urls URLs of the model files
+	 * @return the models in the order of the URLs
+	 */
+	public static List<Model3D> loadInParallel(URL... urls) {
+		requireNonNull(urls);
+		// the work is done in the constructor of this (already initialized) class, so a caller may be a static initializer
+		return Arrays.stream(urls).parallel().map(Model3D::new).toList();
+	}
+
 	private final Map<String, Mesh> meshes = new HashMap<>();
 	private final Map<String, PhongMaterial> materials = new HashMap<>();
 
@@ -72,15 +94,27 @@ public class Model3D {
 		var fileName = urlString.substring(lastSlash + 1);
 		Logger.trace("*** Load 3D model from file '{}'. URL: {}", fileName, url);
 		try {
-			var importer = new ObjImporter(url.toExternalForm());
-			for (var meshName : importer.getMeshNames()) {
-				var mesh = importer.getMesh(meshName);
-				ObjImporter.validateTriangleMesh(mesh);
-				meshes.put(meshName, mesh);
+			byte[] source;
+			try (var in = url.openStream()) {
+				source = in.readAllBytes();
 			}
-			for (var materialMap : importer.materialLibrary()) {
-				for (var entry : materialMap.entrySet()) {
-					materials.put(entry.getKey(), (PhongMaterial) entry.getValue());
+			var hash = CACHE != null ? MeshCache.hash(source) : null;
+			var cached = CACHE != null ? CACHE.load(fileName, hash) : Optional.<MeshCache.Content>empty();
+			if (cached.isPresent()) {
+				addMeshes(cached.get().meshes());
+				for (var libraryName : cached.get().materialLibraryNames()) {
+					addMaterials(new MtlReader(libraryName, urlString).getMaterials());
+				}
+			} else {
+				var importer = new ObjImporter(source, urlString);
+				var importedMeshes = new HashMap<String, TriangleMesh>();
+				for (var meshName : importer.getMeshNames()) {
+					importedMeshes.put(meshName, importer.getMesh(meshName));
+				}
+				addMeshes(importedMeshes);
+				importer.materialLibrary().forEach(this::addMaterials);
+				if (CACHE != null) {
+					CACHE.store(fileName, hash, new MeshCache.Content(importedMeshes, importer.materialLibraryNames()));
 				}
 			}
 			Logger.trace(contentReport());
@@ -89,6 +123,19 @@ public class Model3D {
 		}
 	}
 
+	private void addMeshes(Map<String, TriangleMesh> meshMap) {
+		for (var entry : meshMap.entrySet()) {
+			ObjImporter.validateTriangleMesh(entry.getValue());
+			meshes.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void addMaterials(Map<String, Material> materialMap) {
+		for (var entry : materialMap.entrySet()) {
+			materials.put(entry.getKey(), (PhongMaterial) entry.getValue());
+		}
+	}
+
 	public String contentReport() {
 		var sb = new StringBuilder();
 		sb.append("Model content:\n");
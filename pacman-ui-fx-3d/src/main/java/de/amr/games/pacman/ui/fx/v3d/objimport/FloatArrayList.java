@@ -0,0 +1,52 @@
+/*
+Copyright (c) 2021-2023 Armin Reichert (MIT License)
+See file LICENSE in repository root directory for details.
+*/
+package de.amr.games.pacman.ui.fx.v3d.objimport;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of primitive float values, the counterpart of {@link IntegerArrayList} without the list interface.
+ * Used by the OBJ importer to collect coordinates without boxing or varargs arrays.
+ *
+ * @author Armin Reichert
+ */
+public class FloatArrayList {
+
+	private float[] elements;
+	private int size;
+
+	public FloatArrayList(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+		}
+		elements = new float[initialCapacity];
+	}
+
+	public FloatArrayList() {
+		this(16);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void add(float value) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(16, size + (size >> 1)));
+		}
+		elements[size++] = value;
+	}
+
+	public float get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return elements[index];
+	}
+
+	public float[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
@@ -352,6 +352,40 @@ public class IntegerArrayList extends AbstractList<Integer>
 		return res;
 	}
 
+	// Primitive access without boxing
+
+	/**
+	 * Appends the specified value to the end of this list.
+	 *
+	 * @param value value to be appended to this list
+	 */
+	public void addInt(int value) {
+		ensureCapacityInternal(size + 1); // Increments modCount!!
+		elementData[size++] = value;
+	}
+
+	/**
+	 * @param index index of the element to return
+	 * @return the element at the specified position in this list
+	 * @throws IndexOutOfBoundsException {@inheritDoc}
+	 */
+	public int getInt(int index) {
+		rangeCheck(index);
+		return elementData[index];
+	}
+
+	/**
+	 * Replaces the element at the specified position in this list with the specified value.
+	 *
+	 * @param index index of the element to replace
+	 * @param value value to be stored at the specified position
+	 * @throws IndexOutOfBoundsException {@inheritDoc}
+	 */
+	public void setInt(int index, int value) {
+		rangeCheck(index);
+		elementData[index] = value;
+	}
+
 	// Positional Access Operations
 
 	Integer elementData(int index) {
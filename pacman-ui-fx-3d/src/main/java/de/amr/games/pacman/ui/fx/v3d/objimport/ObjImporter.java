@@ -31,8 +31,6 @@
  */
 package de.amr.games.pacman.ui.fx.v3d.objimport;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableFloatArray;
 import javafx.collections.ObservableIntegerArray;
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -41,15 +39,17 @@ import javafx.scene.shape.MeshView;
 import javafx.scene.shape.TriangleMesh;
 import org.tinylog.Logger;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * Stripped-down version of Oracle's OBJ importer from the 3DViewer sample project.
+ * <p>
+ * The file content is scanned as bytes, numbers are parsed in place and collected in primitive arrays, so importing
+ * allocates little more than the resulting meshes.
  * 
  * @author Armin Reichert
  * @see <a href=
@@ -98,26 +98,49 @@ public class ObjImporter {
 		}
 	}
 
+	// powers of 10 that are exact in float precision
+	private static final float[] POW10 = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
 	private String objFileUrl;
 	private Map<String, TriangleMesh> meshes = new HashMap<>();
 	private List<Map<String, Material>> materialLibrary = new ArrayList<>();
-	private ObservableFloatArray vertexes = FXCollections.observableFloatArray();
-	private ObservableFloatArray uvs = FXCollections.observableFloatArray();
-	private IntegerArrayList faces = new IntegerArrayList();
-	private IntegerArrayList smoothingGroups = new IntegerArrayList();
-	private ObservableFloatArray normals = FXCollections.observableFloatArray();
-	private IntegerArrayList faceNormals = new IntegerArrayList();
+	private List<String> materialLibraryNames = new ArrayList<>();
+	private FloatArrayList vertexes = new FloatArrayList(1024);
+	private FloatArrayList uvs = new FloatArrayList(1024);
+	private IntegerArrayList faces = new IntegerArrayList(4096);
+	private IntegerArrayList smoothingGroups = new IntegerArrayList(1024);
+	private FloatArrayList normals = new FloatArrayList(1024);
+	private IntegerArrayList faceNormals = new IntegerArrayList(2048);
 	private int facesStart = 0;
 	private int facesNormalStart = 0;
 	private int smoothingGroupsStart = 0;
 
+	// scanner state
+	private byte[] data;
+	private int pos;
+	private int lineStart;
+	private int lineEnd;
+	// vertex, texture coordinate and normal index of each vertex of the current face
+	private int[] faceData = new int[3 * 8];
+
 	public ObjImporter(String objFileUrl) throws IOException {
 		this.objFileUrl = objFileUrl;
-		parse(new URL(objFileUrl).openStream());
+		try (var in = new URL(objFileUrl).openStream()) {
+			parse(in.readAllBytes());
+		}
 	}
 
 	public ObjImporter(InputStream inputStream) throws IOException {
-		parse(inputStream);
+		parse(inputStream.readAllBytes());
+	}
+
+	/**
+	 * @param data       content of the OBJ file
+	 * @param objFileUrl URL of the OBJ file, used to locate material files
+	 */
+	public ObjImporter(byte[] data, String objFileUrl) {
+		this.objFileUrl = objFileUrl;
+		parse(data);
 	}
 
 	public Set<String> getMeshNames() {
@@ -132,6 +155,13 @@ public class ObjImporter {
 		return materialLibrary;
 	}
 
+	/**
+	 * @return file names of the material libraries ("mtllib" statements)
+	 */
+	public List<String> materialLibraryNames() {
+		return materialLibraryNames;
+	}
+
 	private int vertexIndex(int vertexIndex) {
 		if (vertexIndex < 0) {
 			return vertexIndex + vertexes.size() / 3;
@@ -156,30 +186,162 @@ public class ObjImporter {
 		}
 	}
 
-	private void parse(InputStream inputStream) throws IOException {
-		var br = new BufferedReader(new InputStreamReader(inputStream));
-		String line;
+	// Scanner
+
+	private boolean lineStartsWith(String prefix) {
+		if (lineEnd - lineStart < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); ++i) {
+			if (data[lineStart + i] != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean lineEquals(String text) {
+		return lineEnd - lineStart == text.length() && lineStartsWith(text);
+	}
+
+	private String lineText(int offset) {
+		return new String(data, lineStart + offset, lineEnd - lineStart - offset, StandardCharsets.UTF_8);
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	private static boolean isDigit(byte b) {
+		return '0' <= b && b <= '9';
+	}
+
+	/**
+	 * Skips spaces and tabs.
+	 * 
+	 * @return if there is another token in the current line
+	 */
+	private boolean skipSpaces() {
+		while (pos < lineEnd && isSpace(data[pos])) {
+			++pos;
+		}
+		return pos < lineEnd;
+	}
+
+	private int nextInt() {
+		int start = pos;
+		boolean negative = pos < lineEnd && data[pos] == '-';
+		if (negative) {
+			++pos;
+		}
+		int value = 0;
+		while (pos < lineEnd && isDigit(data[pos])) {
+			value = 10 * value + (data[pos++] - '0');
+		}
+		if (pos == start + (negative ? 1 : 0)) {
+			throw new NumberFormatException("Integer expected at column " + (start - lineStart));
+		}
+		return negative ? -value : value;
+	}
+
+	/*
+	 * Parses the next whitespace-separated token as a float. If the decimal mantissa (without trailing zeros) is below
+	 * 2^24 and the decimal exponent is at most 10, mantissa and power of 10 are exact floats and a single float
+	 * multiplication or division gives the correctly rounded result, the same as Float.parseFloat. Anything else is left
+	 * to Float.parseFloat.
+	 */
+	private float nextFloat() {
+		if (!skipSpaces()) {
+			throw new NumberFormatException("Number expected at end of line");
+		}
+		int start = pos;
+		int end = start;
+		while (end < lineEnd && !isSpace(data[end])) {
+			++end;
+		}
+		pos = end;
+		int i = start;
+		boolean negative = false;
+		if (data[i] == '-' || data[i] == '+') {
+			negative = data[i] == '-';
+			++i;
+		}
+		long mantissa = 0;
+		int exponent = 0;
+		int significantDigits = 0;
+		boolean anyDigit = false;
+		while (i < end && isDigit(data[i])) {
+			mantissa = 10 * mantissa + (data[i++] - '0');
+			significantDigits += mantissa != 0 ? 1 : 0;
+			anyDigit = true;
+		}
+		if (i < end && data[i] == '.') {
+			++i;
+			while (i < end && isDigit(data[i])) {
+				mantissa = 10 * mantissa + (data[i++] - '0');
+				significantDigits += mantissa != 0 ? 1 : 0;
+				--exponent;
+				anyDigit = true;
+			}
+		}
+		if (anyDigit && i < end && (data[i] == 'e' || data[i] == 'E')) {
+			++i;
+			boolean negativeExponent = i < end && data[i] == '-';
+			if (i < end && (data[i] == '-' || data[i] == '+')) {
+				++i;
+			}
+			int value = 0;
+			int digitsStart = i;
+			while (i < end && isDigit(data[i]) && value < 1000) {
+				value = 10 * value + (data[i++] - '0');
+			}
+			if (i == digitsStart) {
+				anyDigit = false;
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if (i == end && anyDigit && significantDigits <= 15) {
+			while (mantissa != 0 && mantissa % 10 == 0) {
+				mantissa /= 10;
+				++exponent;
+			}
+			if (mantissa < (1 << 24) && -POW10.length < exponent && exponent < POW10.length) {
+				float value = exponent >= 0 ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+				return negative ? -value : value;
+			}
+		}
+		return Float.parseFloat(new String(data, start, end - start, StandardCharsets.ISO_8859_1));
+	}
+
+	private void parse(byte[] data) {
+		this.data = data;
+		pos = 0;
 		int currentSmoothGroup = 0;
 		String key = "default";
 
-		while ((line = br.readLine()) != null) {
+		while (pos < data.length) {
+			lineStart = pos;
+			lineEnd = pos;
+			while (lineEnd < data.length && data[lineEnd] != '\n' && data[lineEnd] != '\r') {
+				++lineEnd;
+			}
 			try {
 
 				/*
 				 * o <objectname>
 				 */
-				if (line.startsWith("o ")) {
+				if (lineStartsWith("o ")) {
 					addMesh(key);
-					key = line.substring(2);
+					key = lineText(2);
 					Logger.trace("Object name: {}", key);
 				}
 
 				/*
 				 * g <groupname>
 				 */
-				else if (line.startsWith("g ") || line.equals("g")) {
+				else if (lineStartsWith("g ") || lineEquals("g")) {
 					addMesh(key);
-					key = line.length() > 2 ? line.substring(2) : "default";
+					key = lineEnd - lineStart > 2 ? lineText(2) : "default";
 					Logger.trace("Group name: {}", key);
 				}
 
@@ -188,12 +350,14 @@ public class ObjImporter {
 				 * 
 				 * List of geometric vertices, with (x, y, z, [w]) coordinates, w is optional and defaults to 1.0.
 				 */
-				else if (line.startsWith("v ")) {
-					String[] split = line.substring(2).trim().split("\\s+");
-					float x = Float.parseFloat(split[0]);
-					float y = Float.parseFloat(split[1]);
-					float z = Float.parseFloat(split[2]);
-					vertexes.addAll(x, y, z);
+				else if (lineStartsWith("v ")) {
+					pos = lineStart + 2;
+					float x = nextFloat();
+					float y = nextFloat();
+					float z = nextFloat();
+					vertexes.add(x);
+					vertexes.add(y);
+					vertexes.add(z);
 				}
 
 				/*
@@ -202,11 +366,12 @@ public class ObjImporter {
 				 * List of texture coordinates, in (u, [v, w]) coordinates, these will vary between 0 and 1. v, w are optional
 				 * and default to 0.
 				 */
-				else if (line.startsWith("vt ")) {
-					String[] split = line.substring(3).trim().split("\\s+");
-					float u = Float.parseFloat(split[0]);
-					float v = Float.parseFloat(split[1]);
-					uvs.addAll(u, 1 - v);
+				else if (lineStartsWith("vt ")) {
+					pos = lineStart + 3;
+					float u = nextFloat();
+					float v = nextFloat();
+					uvs.add(u);
+					uvs.add(1 - v);
 				}
 
 				/*
@@ -214,217 +379,246 @@ public class ObjImporter {
 				 * 
 				 * Face.
 				 */
-				else if (line.startsWith("f ")) {
-					String[] split = line.substring(2).trim().split("\\s+");
-					int[][] data = new int[split.length][];
-					boolean uvProvided = true;
-					boolean normalProvided = true;
-					for (int i = 0; i < split.length; i++) {
-						String[] split2 = split[i].split("/");
-						if (split2.length < 2) {
-							uvProvided = false;
-						}
-						if (split2.length < 3) {
-							normalProvided = false;
-						}
-						data[i] = new int[split2.length];
-						for (int j = 0; j < split2.length; j++) {
-							if (split2[j].length() == 0) {
-								data[i][j] = 0;
-								if (j == 1) {
-									uvProvided = false;
-								}
-								if (j == 2) {
-									normalProvided = false;
-								}
-							} else {
-								data[i][j] = Integer.parseInt(split2[j]);
-							}
-						}
-					}
-					int v1 = vertexIndex(data[0][0]);
-					int uv1 = -1;
-					int n1 = -1;
-					if (uvProvided) {
-						uv1 = uvIndex(data[0][1]);
-						if (uv1 < 0) {
-							uvProvided = false;
-						}
-					}
-					if (normalProvided) {
-						n1 = normalIndex(data[0][2]);
-						if (n1 < 0) {
-							normalProvided = false;
-						}
-					}
-					for (int i = 1; i < data.length - 1; i++) {
-						int v2 = vertexIndex(data[i][0]);
-						int v3 = vertexIndex(data[i + 1][0]);
-						int uv2 = -1;
-						int uv3 = -1;
-						int n2 = -1;
-						int n3 = -1;
-						if (uvProvided) {
-							uv2 = uvIndex(data[i][1]);
-							uv3 = uvIndex(data[i + 1][1]);
-						}
-						if (normalProvided) {
-							n2 = normalIndex(data[i][2]);
-							n3 = normalIndex(data[i + 1][2]);
-						}
-						faces.add(v1);
-						faces.add(uv1);
-						faces.add(v2);
-						faces.add(uv2);
-						faces.add(v3);
-						faces.add(uv3);
-						faceNormals.add(n1);
-						faceNormals.add(n2);
-						faceNormals.add(n3);
-						smoothingGroups.add(currentSmoothGroup);
-					}
+				else if (lineStartsWith("f ")) {
+					pos = lineStart + 2;
+					parseFace(currentSmoothGroup);
 				}
 
 				/*
 				 * Smoothing group s <integer>
 				 */
-				else if (line.startsWith("s ")) {
-					if (line.substring(2).equals("off")) {
+				else if (lineStartsWith("s ")) {
+					if (lineEquals("s off")) {
 						currentSmoothGroup = 0;
 					} else {
-						currentSmoothGroup = Integer.parseInt(line.substring(2));
+						currentSmoothGroup = Integer.parseInt(lineText(2));
 					}
 				}
 
 				/*
 				 * Material lib.
 				 */
-				else if (line.startsWith("mtllib ")) {
+				else if (lineStartsWith("mtllib ")) {
 					// setting materials lib
-					String[] split = line.substring("mtllib ".length()).trim().split("\\s+");
+					String[] split = lineText("mtllib ".length()).trim().split("\\s+");
 					for (String filename : split) {
 						MtlReader mtlReader = new MtlReader(filename, objFileUrl);
 						materialLibrary.add(mtlReader.getMaterials());
+						materialLibraryNames.add(filename);
 					}
 				}
 
 				/*
 				 * Use material.
 				 */
-				else if (line.startsWith("usemtl ")) {
+				else if (lineStartsWith("usemtl ")) {
 					addMesh(key);
-					// setting new material for next mesh
-//					String materialName = line.substring("usemtl ".length());
-//					for (Map<String, Material> mm : materialLibrary) {
-//						Material m = mm.get(materialName);
-//						if (m != null) {
-//							material = m;
-//							break;
-//						}
-//					}
 				}
 
 				/*
 				 * Comment.
 				 */
-				else if (line.isEmpty() || line.startsWith("#")) {
+				else if (lineEnd == lineStart || data[lineStart] == '#') {
 					// comments and empty lines are ignored
 				}
 
 				/*
 				 * Vertex normal.
 				 */
-				else if (line.startsWith("vn ")) {
-					String[] split = line.substring(2).trim().split("\\s+");
-					float x = Float.parseFloat(split[0]);
-					float y = Float.parseFloat(split[1]);
-					float z = Float.parseFloat(split[2]);
-					normals.addAll(x, y, z);
+				else if (lineStartsWith("vn ")) {
+					pos = lineStart + 2;
+					float x = nextFloat();
+					float y = nextFloat();
+					float z = nextFloat();
+					normals.add(x);
+					normals.add(y);
+					normals.add(z);
 				}
 
 				/*
 				 * Not implemented or not recognized.
 				 */
 				else {
-					Logger.trace("Line skipped: {}", line);
+					Logger.trace("Line skipped: {}", lineText(0));
 				}
 			} catch (Exception ex) {
-				Logger.error("Failed to parse line: {}", line);
+				Logger.error("Failed to parse line: {}", lineText(0));
+			}
+			pos = lineEnd;
+			while (pos < data.length && (data[pos] == '\n' || data[pos] == '\r')) {
+				++pos;
 			}
 		}
 
 		addMesh(key);
+		this.data = null;
 
 		Logger.trace("Model loaded: {} vertices, {} uvs, {} faces, {} smoothing groups", vertexes.size() / 3,
 				uvs.size() / 2, faces.size() / 6, smoothingGroups.size());
 	}
 
+	/*
+	 * Vertices are given as v, v/vt, v//vn or v/vt/vn. Texture coordinates (normals) are used only if given for all
+	 * vertices of the face.
+	 */
+	private void parseFace(int currentSmoothGroup) {
+		int numVertices = 0;
+		boolean uvProvided = true;
+		boolean normalProvided = true;
+		while (skipSpaces()) {
+			if (3 * numVertices == faceData.length) {
+				faceData = Arrays.copyOf(faceData, 2 * faceData.length);
+			}
+			int v = nextInt();
+			int uv = 0;
+			int n = 0;
+			if (pos < lineEnd && data[pos] == '/') {
+				++pos;
+				if (pos < lineEnd && data[pos] != '/' && !isSpace(data[pos])) {
+					uv = nextInt();
+				} else {
+					uvProvided = false;
+				}
+				if (pos < lineEnd && data[pos] == '/') {
+					++pos;
+					if (pos < lineEnd && !isSpace(data[pos])) {
+						n = nextInt();
+					} else {
+						normalProvided = false;
+					}
+				} else {
+					normalProvided = false;
+				}
+			} else {
+				uvProvided = false;
+				normalProvided = false;
+			}
+			if (pos < lineEnd && !isSpace(data[pos])) {
+				throw new NumberFormatException("Invalid face vertex at column " + (pos - lineStart));
+			}
+			faceData[3 * numVertices] = v;
+			faceData[3 * numVertices + 1] = uv;
+			faceData[3 * numVertices + 2] = n;
+			++numVertices;
+		}
+		int v1 = vertexIndex(faceData[0]);
+		int uv1 = -1;
+		int n1 = -1;
+		if (uvProvided) {
+			uv1 = uvIndex(faceData[1]);
+			if (uv1 < 0) {
+				uvProvided = false;
+			}
+		}
+		if (normalProvided) {
+			n1 = normalIndex(faceData[2]);
+			if (n1 < 0) {
+				normalProvided = false;
+			}
+		}
+		for (int i = 1; i < numVertices - 1; i++) {
+			int v2 = vertexIndex(faceData[3 * i]);
+			int v3 = vertexIndex(faceData[3 * (i + 1)]);
+			int uv2 = -1;
+			int uv3 = -1;
+			int n2 = -1;
+			int n3 = -1;
+			if (uvProvided) {
+				uv2 = uvIndex(faceData[3 * i + 1]);
+				uv3 = uvIndex(faceData[3 * (i + 1) + 1]);
+			}
+			if (normalProvided) {
+				n2 = normalIndex(faceData[3 * i + 2]);
+				n3 = normalIndex(faceData[3 * (i + 1) + 2]);
+			}
+			faces.addInt(v1);
+			faces.addInt(uv1);
+			faces.addInt(v2);
+			faces.addInt(uv2);
+			faces.addInt(v3);
+			faces.addInt(uv3);
+			faceNormals.addInt(n1);
+			faceNormals.addInt(n2);
+			faceNormals.addInt(n3);
+			smoothingGroups.addInt(currentSmoothGroup);
+		}
+	}
+
 	private void addMesh(String key) {
 		if (facesStart >= faces.size()) {
 			// we're only interested in faces
 			smoothingGroupsStart = smoothingGroups.size();
 			return;
 		}
-		var vertexMap = new HashMap<Integer, Integer>(vertexes.size() / 2);
-		var uvMap = new HashMap<Integer, Integer>(uvs.size() / 2);
-		var normalMap = new HashMap<Integer, Integer>(normals.size() / 2);
-		var newVertexes = FXCollections.observableFloatArray();
-		var newUVs = FXCollections.observableFloatArray();
-		var newNormals = FXCollections.observableFloatArray();
+		// maps from old to new indices, -1 = not mapped yet. Missing texture coordinates and normals have index -1, so
+		// these indices are shifted by one.
+		var vertexMap = new int[vertexes.size() / 3];
+		var uvMap = new int[uvs.size() / 2 + 1];
+		var normalMap = new int[normals.size() / 3 + 1];
+		Arrays.fill(vertexMap, -1);
+		Arrays.fill(uvMap, -1);
+		Arrays.fill(normalMap, -1);
+		var newVertexes = new FloatArrayList(vertexes.size());
+		var newUVs = new FloatArrayList(uvs.size());
+		var newNormals = new FloatArrayList(normals.size());
 		boolean useNormals = true;
 
 		for (int i = facesStart; i < faces.size(); i += 2) {
-			int vi = faces.get(i);
-			Integer nvi = vertexMap.get(vi);
-			if (nvi == null) {
+			int vi = faces.getInt(i);
+			int nvi = vertexMap[vi];
+			if (nvi == -1) {
 				nvi = newVertexes.size() / 3;
-				vertexMap.put(vi, nvi);
-				newVertexes.addAll(vertexes.get(vi * 3), vertexes.get(vi * 3 + 1), vertexes.get(vi * 3 + 2));
+				vertexMap[vi] = nvi;
+				newVertexes.add(vertexes.get(vi * 3));
+				newVertexes.add(vertexes.get(vi * 3 + 1));
+				newVertexes.add(vertexes.get(vi * 3 + 2));
 			}
-			faces.set(i, nvi);
+			faces.setInt(i, nvi);
 
-			int uvi = faces.get(i + 1);
-			Integer nuvi = uvMap.get(uvi);
-			if (nuvi == null) {
+			int uvi = faces.getInt(i + 1);
+			int nuvi = uvMap[uvi + 1];
+			if (nuvi == -1) {
 				nuvi = newUVs.size() / 2;
-				uvMap.put(uvi, nuvi);
+				uvMap[uvi + 1] = nuvi;
 				if (uvi >= 0) {
-					newUVs.addAll(uvs.get(uvi * 2), uvs.get(uvi * 2 + 1));
+					newUVs.add(uvs.get(uvi * 2));
+					newUVs.add(uvs.get(uvi * 2 + 1));
 				} else {
-					newUVs.addAll(0f, 0f);
+					newUVs.add(0f);
+					newUVs.add(0f);
 				}
 			}
-			faces.set(i + 1, nuvi);
+			faces.setInt(i + 1, nuvi);
 
 			if (useNormals) {
-				int ni = faceNormals.get(i / 2);
-				Integer nni = normalMap.get(ni);
-				if (nni == null) {
-					nni = newNormals.size() / 3;
-					normalMap.put(ni, nni);
-					if (ni >= 0 && normals.size() >= (ni + 1) * 3) {
-						newNormals.addAll(normals.get(ni * 3), normals.get(ni * 3 + 1), normals.get(ni * 3 + 2));
-					} else {
-						useNormals = false;
-						newNormals.addAll(0f, 0f, 0f);
+				int ni = faceNormals.getInt(i / 2);
+				if (ni < 0 || normals.size() < (ni + 1) * 3) {
+					useNormals = false;
+				} else {
+					int nni = normalMap[ni + 1];
+					if (nni == -1) {
+						nni = newNormals.size() / 3;
+						normalMap[ni + 1] = nni;
+						newNormals.add(normals.get(ni * 3));
+						newNormals.add(normals.get(ni * 3 + 1));
+						newNormals.add(normals.get(ni * 3 + 2));
 					}
+					faceNormals.setInt(i / 2, nni);
 				}
-				faceNormals.set(i / 2, nni);
 			}
 		}
 
 		TriangleMesh mesh = new TriangleMesh();
-		mesh.getPoints().setAll(newVertexes);
-		mesh.getTexCoords().setAll(newUVs);
-		mesh.getFaces().setAll(((IntegerArrayList) faces.subList(facesStart, faces.size())).toIntArray());
+		int[] newFaces = ((IntegerArrayList) faces.subList(facesStart, faces.size())).toIntArray();
+		mesh.getPoints().setAll(newVertexes.toArray());
+		mesh.getTexCoords().setAll(newUVs.toArray());
+		mesh.getFaces().setAll(newFaces);
 
 		// Use normals if they are provided
 		if (useNormals) {
-			int[] newFaces = ((IntegerArrayList) faces.subList(facesStart, faces.size())).toIntArray();
 			int[] newFaceNormals = ((IntegerArrayList) faceNormals.subList(facesNormalStart, faceNormals.size()))
 					.toIntArray();
-			int[] smGroups = SmoothingGroups.calcSmoothGroups(mesh, newFaces, newFaceNormals,
-					newNormals.toArray(new float[newNormals.size()]));
+			int[] smGroups = SmoothingGroups.calcSmoothGroups(mesh, newFaces, newFaceNormals, newNormals.toArray());
 			mesh.getFaceSmoothingGroups().setAll(smGroups);
 		} else {
 			mesh.getFaceSmoothingGroups().setAll(
@@ -447,4 +641,4 @@ public class ObjImporter {
 		facesNormalStart = faceNormals.size();
 		smoothingGroupsStart = smoothingGroups.size();
 	}
-}
\ No newline at end of file
+}
@@ -10,8 +10,7 @@ import de.amr.games.pacman.event.GameStateChangeEvent;
 import de.amr.games.pacman.lib.Globals;
 import de.amr.games.pacman.model.GameLevel;
 import de.amr.games.pacman.model.GameVariant;
-import de.amr.games.pacman.model.actors.Ghost;
-import de.amr.games.pacman.model.actors.GhostState;
+import de.amr.games.pacman.model.actors.GhostStateSet;
 import de.amr.games.pacman.ui.fx.GameScene;
 import de.amr.games.pacman.ui.fx.GameSceneContext;
 import de.amr.games.pacman.ui.fx.input.Keyboard;
@@ -38,7 +37,6 @@ import org.tinylog.Logger;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -123,10 +121,16 @@ public class PlayScene3D implements GameScene {
 		perspectivePy.unbind();
 	}
 
+	@Override
+	public boolean readsSnapshotOnly() {
+		return true;
+	}
+
 	@Override
 	public void update() {
-		if (level3D != null) {
-			level3D.update();
+		var snapshot = context.snapshot();
+		if (level3D != null && snapshot.hasLevel()) {
+			level3D.update(snapshot);
 			currentCamController().update(camera, level3D.pac3D());
 			updateSound();
 		}
@@ -223,8 +227,9 @@ public class PlayScene3D implements GameScene {
 	@Override
 	public void onSceneVariantSwitch() {
 		if (level3D != null) {
+			var snapshot = context.snapshot();
 			level3D.world3D().eatables3D().forEach(
-				eatable3D -> eatable3D.getRoot().setVisible(!level3D.level().world().hasEatenFoodAt(eatable3D.tile())));
+				eatable3D -> eatable3D.setVisible(!snapshot.hasEatenFoodAt(eatable3D.tile())));
 			if (Globals.oneOf(context.gameState(), GameState.HUNTING, GameState.GHOST_DYING)) {
 				level3D.world3D().energizers3D().forEach(Energizer3D::startPumping);
 			}
@@ -244,10 +249,9 @@ public class PlayScene3D implements GameScene {
 		// In that case, ensure that the 3D pellets are in sync with the model.
 		if (e.tile().isEmpty()) {
 			var world = level3D.level().world();
-			world.tiles()
-				.filter(world::hasEatenFoodAt)
-				.map(level3D.world3D()::eatableAt)
-				.flatMap(Optional::stream)
+			level3D.world3D().eatables3D()
+				.filter(Eatable3D::isVisible)
+				.filter(eatable3D -> world.hasEatenFoodAt(eatable3D.tile()))
 				.forEach(Eatable3D::onEaten);
 		} else {
 			var tile = e.tile().get();
@@ -343,7 +347,7 @@ public class PlayScene3D implements GameScene {
 				level3D.livesCounter3D().stopAnimation();
 				level3D.world3D().foodOscillation().stop();
 				// if cheat has been used to complete level, 3D food might still exist
-				level3D.world3D().eatables3D().forEach(level3D::eat);
+				level3D.world3D().eatables3D().filter(Eatable3D::isVisible).forEach(level3D::eat);
 				// level complete animation is always played
 				var levelCompleteAnimation = createLevelCompleteAnimation(level);
 				// level change animation is played only if no intermission scene follows
@@ -351,7 +355,7 @@ public class PlayScene3D implements GameScene {
 				lockStateAndPlayAfterSeconds(1.0,
 					levelCompleteAnimation,
 					actionAfterSeconds(1.0, () -> {
-						level.pac().hide();
+						context.gameClock().runExclusive(() -> level.pac().hide());
 						level3D.livesCounter3D().lightOnPy.set(false);
 						// play sound / flash msg only if no intermission scene follows
 						if (level.intermissionNumber() == 0) {
@@ -445,28 +449,26 @@ public class PlayScene3D implements GameScene {
 	}
 
 	private void updateSound() {
-		context.gameLevel().ifPresent(level -> {
-			if (level.isDemoLevel()) {
-				return;
-			}
-			if (level.pac().starvingTicks() > 8) { // TODO not sure how this is done in Arcade game
-				context.clip("audio.pacman_munch").stop();
-			}
-			if (!level.thisFrame().pacKilled && level.ghosts(GhostState.RETURNING_TO_HOUSE, GhostState.ENTERING_HOUSE)
-				.anyMatch(Ghost::isVisible)) {
-				context.soundHandler().ensureLoopEndless(context.clip("audio.ghost_returning"));
-			} else {
-				context.clip("audio.ghost_returning").stop();
-			}
-		});
+		var snapshot = context.snapshot();
+		if (!snapshot.hasLevel() || snapshot.isDemoLevel()) {
+			return;
+		}
+		if (snapshot.pacStarvingTicks() > 8) { // TODO not sure how this is done in Arcade game
+			context.clip("audio.pacman_munch").stop();
+		}
+		if (!snapshot.isPacKilled() && snapshot.countVisibleGhosts(GhostStateSet.RETURNING_OR_ENTERING) > 0) {
+			context.soundHandler().ensureLoopEndless(context.clip("audio.ghost_returning"));
+		} else {
+			context.clip("audio.ghost_returning").stop();
+		}
 	}
 
 	/**
 	 * Keeps the current game state for given number of seconds, then forces the state timer to expire.
 	 */
 	private void keepGameStateForSeconds(double seconds) {
-		context.gameState().timer().resetIndefinitely();
-		actionAfterSeconds(seconds, () -> context.gameState().timer().expire()).play();
+		context.gameController().timer().resetIndefinitely();
+		actionAfterSeconds(seconds, this::expireStateTimer).play();
 	}
 
 	/**
@@ -474,12 +476,19 @@ public class PlayScene3D implements GameScene {
 	 * when the animations have finished.
 	 */
 	private void lockStateAndPlayAfterSeconds(double seconds, Animation... animations) {
-		context.gameState().timer().resetIndefinitely();
+		context.gameController().timer().resetIndefinitely();
 		var animationSequence = new SequentialTransition(animations);
 		if (seconds > 0) {
 			animationSequence.setDelay(Duration.seconds(seconds));
 		}
-		animationSequence.setOnFinished(e -> context.gameState().timer().expire());
+		animationSequence.setOnFinished(e -> expireStateTimer());
 		animationSequence.play();
 	}
+
+	/**
+	 * Called by animations on the JavaFX application thread, so the state timer is changed under the clock's lock.
+	 */
+	private void expireStateTimer() {
+		context.gameClock().runExclusive(() -> context.gameController().timer().expire());
+	}
 }
\ No newline at end of file